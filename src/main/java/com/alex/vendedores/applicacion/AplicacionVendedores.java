@@ -2,13 +2,13 @@ package com.alex.vendedores.applicacion;
 
 import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
 import com.alex.vendedores.dominio.ReporteGeneral;
-import com.alex.vendedores.dominio.Vendedor;
-import com.alex.vendedores.dominio.VendedorRepositorio;
-import com.alex.vendedores.fecha.FechaParser;
+import com.alex.vendedores.metricas.EventoReporte;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+import com.alex.vendedores.servicio.GeneradorReportes;
+import com.alex.vendedores.servicio.SimpleGeneradorReportes;
 import com.alex.vendedores.servicio.VendedorServicio;
 
-import java.util.Set;
-
 /**
  * Clase que representa nuestra Aplicacion.
  *
@@ -27,6 +27,13 @@ import java.util.Set;
  */
 public final class AplicacionVendedores {
 
+    /**
+     * El tiempo de construccion de cada reporte, incluyendo la obtencion de los vendedores,
+     * y el tiempo en que la interfaz de usuario lo muestra
+     */
+    private static final Histograma CONSTRUCCION_REPORTE = Metricas.histograma("reporte.construccionNs");
+    private static final Histograma PRESENTACION_REPORTE = Metricas.histograma("reporte.presentacionNs");
+
     /**
      * El objeto VendedorServicio que nos
      * proporcionara los objetos Vendedor y tambien
@@ -34,6 +41,11 @@ public final class AplicacionVendedores {
      */
     private final VendedorServicio vendedorServicio;
 
+    /**
+     * El generador de los reportes que se envian a la interfaz de usuario
+     */
+    private final GeneradorReportes generadorReportes;
+
     /**
      * La InterfazUsuario para consumir los resultados del programa
      * y mostrarlos en la implementacion de output deseada
@@ -48,26 +60,53 @@ public final class AplicacionVendedores {
      */
     public AplicacionVendedores(VendedorServicio vendedorServicio,
                                 InterfazUsuario interfazUsuario) {
+        this(vendedorServicio, new SimpleGeneradorReportes(vendedorServicio), interfazUsuario);
+    }
+
+    /**
+     * Constructor para inyectar las dependencias, con un generador de reportes propio
+     *
+     * @param vendedorServicio el VendedorService a utilizar
+     * @param generadorReportes el generador de los reportes, por ejemplo uno con cache
+     * @param  interfazUsuario la implementacion del output que consume los resultados del programa
+     */
+    public AplicacionVendedores(VendedorServicio vendedorServicio,
+                                GeneradorReportes generadorReportes,
+                                InterfazUsuario interfazUsuario) {
         this.vendedorServicio = vendedorServicio;
+        this.generadorReportes = generadorReportes;
         this.interfazUsuario = interfazUsuario;
     }
 
     /**
-     * Recupera todos los objetos Vendedor, genera un reporte general
+     * Genera un reporte general con todos los objetos Vendedor
      * y lo envia a la interfaz de usuario seleccionada
      */
     public void procesarReporteGeneral() {
-        interfazUsuario.aceptar(new ReporteGeneral(vendedorServicio.encontrarTodos()));
+        EventoReporte evento = new EventoReporte();
+        evento.begin();
+        long inicio = System.nanoTime();
+        ReporteGeneral reporte = generadorReportes.reporteGeneral();
+        long construido = System.nanoTime();
+        interfazUsuario.aceptar(reporte);
+        registrarTiempos(inicio, construido);
+        emitir(evento, "General", reporte.datos().size(), construido - inicio);
     }
 
     /**
-     * Recupera todos los objetos Vendedor,
-     * genera un reporte de promedio de edades por zona geografica
+     * Genera un reporte de promedio de edades por zona geografica
+     * con todos los objetos Vendedor
      * y envia dicho reporte a ser aceptado por el medio de output seleccionado.
      */
     public void reportarPromedioDeEdadesPorZona() {
-        Set<Vendedor> vendedores = vendedorServicio.encontrarTodos();
-        interfazUsuario.aceptar(new ReporteEdadPromedioPorZona(vendedores));
+        EventoReporte evento = new EventoReporte();
+        evento.begin();
+        long inicio = System.nanoTime();
+        ReporteEdadPromedioPorZona reporte = generadorReportes.reporteEdadPromedioPorZona();
+        long construido = System.nanoTime();
+        interfazUsuario.aceptar(reporte);
+        registrarTiempos(inicio, construido);
+        emitir(evento, "EdadPromedioPorZona", reporte.vendedores(), construido - inicio);
     }
 
     /**
@@ -76,4 +115,35 @@ public final class AplicacionVendedores {
     public void solicitarVendedorParaGuardarlo() {
         vendedorServicio.guardar(interfazUsuario.solicitarVendedor("dd/mm/yyyy"));
     }
+
+    /**
+     * Registra en las metricas los tiempos de construccion y presentacion de un reporte
+     *
+     * @param inicio el instante en que inicio la construccion del reporte
+     * @param construido el instante en que el reporte quedo construido
+     */
+    private void registrarTiempos(long inicio, long construido) {
+        if (Metricas.HABILITADAS) {
+            CONSTRUCCION_REPORTE.registrar(construido - inicio);
+            PRESENTACION_REPORTE.registrarDesde(construido);
+        }
+    }
+
+    /**
+     * Termina y emite el evento de Java Flight Recorder de un reporte, si JFR esta grabando
+     *
+     * @param evento el evento iniciado al comenzar el reporte
+     * @param tipo el tipo de reporte
+     * @param vendedores el numero de vendedores del reporte
+     * @param construccion los nanosegundos que tomo construir el reporte
+     */
+    private void emitir(EventoReporte evento, String tipo, int vendedores, long construccion) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tipo = tipo;
+            evento.vendedores = vendedores;
+            evento.construccion = construccion;
+            evento.commit();
+        }
+    }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.alex.vendedores.archivo;
 
+import com.alex.vendedores.metricas.EventoGuardarVendedor;
+
 import java.io.*;
 
 import static java.lang.String.format;
@@ -13,16 +15,25 @@ public class EscritorArchivo {
 
     /**
      * Escribe una nueva linea en el archivo especificado.
+     * Cada escritura emite un EventoGuardarVendedor de Java Flight Recorder.
      *
      * @param linea la linea a escribir
      * @param nombreYExtensionArchivo el nombre y extension del archivo
      */
     public void escribirLinea(String linea, String nombreYExtensionArchivo) {
+        EventoGuardarVendedor evento = new EventoGuardarVendedor();
+        evento.begin();
         //Bloque try-with-resources. No se necesita llamar al metodo 'close()' de BufferedWriter
         try (var out = new BufferedWriter(new FileWriter(nombreYExtensionArchivo, true))) {
             out.write(format("%s%n", linea));
         } catch (IOException exception) {
             throw new NoSePudoEscribirEnArchivoException(nombreYExtensionArchivo);
         }
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.archivo = nombreYExtensionArchivo;
+            evento.vendedores = 1;
+            evento.commit();
+        }
     }
 }
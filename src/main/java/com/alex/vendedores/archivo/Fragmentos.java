@@ -0,0 +1,147 @@
+package com.alex.vendedores.archivo;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Clase utilitaria para localizar los fragmentos (shards) de un conjunto de datos
+ * repartido en varios archivos CSV.
+ *
+ * <p>Acepta un directorio, en cuyo caso se toman todos los archivos '.csv' que contiene,
+ * o un patron glob, por ejemplo 'datos/vendedores/*.csv'.
+ *
+ * @author Alex Angulo
+ */
+public final class Fragmentos {
+
+    /**
+     * El patron por defecto cuando se recibe un directorio
+     */
+    private static final String PATRON_CSV = "*.csv";
+
+    /**
+     * Los caracteres que indican que la cadena recibida es un patron glob
+     */
+    private static final String CARACTERES_GLOB = "*?[{";
+
+    /**
+     * Returna los archivos que corresponden al directorio o patron glob recibido,
+     * ordenados por su ruta para que el orden de carga sea determinista
+     *
+     * @param directorioOPatron un directorio o un patron glob
+     * @return los Path de todos los fragmentos encontrados
+     * @throws RutaNoResueltaException si no se encontro ningun fragmento
+     * @throws NoSePudoLeerArchivoException si el directorio no se pudo recorrer
+     */
+    public List<Path> resolver(String directorioOPatron) {
+        Path base = directorioBase(directorioOPatron);
+        List<Path> fragmentos = buscar(base, patronRelativo(directorioOPatron));
+        if (fragmentos.isEmpty()) {
+            throw new RutaNoResueltaException(directorioOPatron);
+        }
+        return fragmentos;
+    }
+
+    /**
+     * Returna el directorio a partir del cual se buscan los fragmentos,
+     * es decir, la parte del patron anterior al primer caracter glob
+     *
+     * @param directorioOPatron un directorio o un patron glob
+     * @return el directorio base
+     * @throws RutaNoResueltaException si el directorio base no existe
+     */
+    public Path directorioBase(String directorioOPatron) {
+        String prefijo = prefijoSinGlob(directorioOPatron);
+        Path base = Paths.get(prefijo.isEmpty() ? "." : prefijo);
+        if (!Files.isDirectory(base)) {
+            throw new RutaNoResueltaException(directorioOPatron);
+        }
+        return base;
+    }
+
+    /**
+     * Returna la parte del patron posterior al directorio base.
+     * Si se recibio un directorio, el patron es el de los archivos '.csv'
+     *
+     * @param directorioOPatron un directorio o un patron glob
+     * @return el patron glob relativo al directorio base
+     */
+    private String patronRelativo(String directorioOPatron) {
+        if (!esPatronGlob(directorioOPatron)) {
+            return PATRON_CSV;
+        }
+        String resto = directorioOPatron.substring(prefijoSinGlob(directorioOPatron).length());
+        return resto.startsWith("/") || resto.startsWith("\\") ? resto.substring(1) : resto;
+    }
+
+    /**
+     * Recorre el directorio base y returna los archivos cuya ruta,
+     * relativa al directorio base, coincide con el patron
+     *
+     * @param base el directorio a recorrer
+     * @param patronRelativo el patron glob relativo al directorio base
+     * @return los archivos que coinciden, ordenados
+     */
+    private List<Path> buscar(Path base, String patronRelativo) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + patronRelativo);
+        try (Stream<Path> archivos = Files.walk(base, profundidad(patronRelativo))) {
+            return archivos
+                    .filter(Files::isRegularFile)
+                    .filter(archivo -> matcher.matches(base.relativize(archivo)))
+                    .sorted()
+                    .collect(toList());
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(base.toString(), exception);
+        }
+    }
+
+    /**
+     * Calcula la profundidad maxima a recorrer segun el numero de segmentos del patron
+     *
+     * @param patronRelativo el patron glob relativo al directorio base
+     * @return la profundidad maxima para Files.walk
+     */
+    private int profundidad(String patronRelativo) {
+        if (patronRelativo.contains("**")) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) patronRelativo.chars().filter(c -> c == '/' || c == '\\').count() + 1;
+    }
+
+    /**
+     * Returna si la cadena contiene algun caracter glob
+     *
+     * @param cadena la cadena a revisar
+     * @return true si es un patron glob, false en caso contrario
+     */
+    private boolean esPatronGlob(String cadena) {
+        return cadena.chars().anyMatch(c -> CARACTERES_GLOB.indexOf(c) >= 0);
+    }
+
+    /**
+     * Returna el prefijo de la cadena hasta el ultimo separador anterior al primer caracter glob
+     *
+     * @param directorioOPatron un directorio o un patron glob
+     * @return el prefijo que representa un directorio
+     */
+    private String prefijoSinGlob(String directorioOPatron) {
+        if (!esPatronGlob(directorioOPatron)) {
+            return directorioOPatron;
+        }
+        int primerGlob = 0;
+        while (CARACTERES_GLOB.indexOf(directorioOPatron.charAt(primerGlob)) < 0) {
+            primerGlob++;
+        }
+        String prefijo = directorioOPatron.substring(0, primerGlob);
+        int separador = Math.max(prefijo.lastIndexOf('/'), prefijo.lastIndexOf('\\'));
+        return separador < 0 ? "" : prefijo.substring(0, Math.max(separador, 1));
+    }
+}
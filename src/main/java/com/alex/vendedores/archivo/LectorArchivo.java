@@ -1,9 +1,17 @@
 package com.alex.vendedores.archivo;
 
+import com.alex.vendedores.metricas.Contador;
+import com.alex.vendedores.metricas.Metricas;
+
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -16,6 +24,16 @@ import static java.util.stream.Collectors.toList;
  */
 public final class LectorArchivo {
 
+    /**
+     * El tamanio maximo de cada region del archivo que se mapea a memoria
+     */
+    private static final int TAMANIO_MAXIMO_BLOQUE = 1 << 30;
+
+    /**
+     * Los bytes leidos de todos los archivos
+     */
+    private static final Contador BYTES_LEIDOS = Metricas.contador("archivo.bytesLeidos");
+
     /**
      * Lee el contenido de la abstraccion que representa un archivo y returna las lineas leidas
      *
@@ -28,11 +46,85 @@ public final class LectorArchivo {
      */
     public List<String> leer(Path path) {
         try(Stream<String> lineas = Files.lines(path)) {
+            if (Metricas.HABILITADAS) {
+                BYTES_LEIDOS.sumar(Files.size(path));
+            }
             return lineas.collect(toList());
         } catch (IOException exception) {
             throw new NoSePudoLeerArchivoException(path.toString(), exception);
         }
     }
 
+    /**
+     * Lee el contenido de un archivo como bytes sin decodificar y lo entrega
+     * en bloques que siempre terminan en un salto de linea (excepto el ultimo bloque).
+     *
+     * <p>Los archivos locales se mapean a memoria por regiones, sin copiar su contenido
+     * al heap. Los archivos que no son locales, por ejemplo las entradas de un jar,
+     * se leen completos en un unico bloque.
+     *
+     * @param path La abstraccion que representa el archivo a leer
+     * @param consumidor recibe cada bloque, con 'position' en 0 y 'limit' al final del bloque
+     * @throws NoSePudoLeerArchivoException si el archivo no se pudo leer correctamente
+     */
+    public void leerBloques(Path path, Consumer<ByteBuffer> consumidor) {
+        try {
+            if (Rutas.esRutaLocal(path)) {
+                mapearPorRegiones(path, consumidor);
+            } else {
+                ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(path));
+                if (Metricas.HABILITADAS) {
+                    BYTES_LEIDOS.sumar(contenido.remaining());
+                }
+                consumidor.accept(contenido);
+            }
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(path.toString(), exception);
+        }
+    }
+
+    /**
+     * Mapea el archivo a memoria en regiones de hasta TAMANIO_MAXIMO_BLOQUE bytes,
+     * recortando cada region al ultimo salto de linea para no partir ninguna linea
+     *
+     * @param path el archivo local a mapear
+     * @param consumidor recibe cada region mapeada
+     * @throws IOException si el archivo no se pudo mapear
+     */
+    private void mapearPorRegiones(Path path, Consumer<ByteBuffer> consumidor) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            long posicion = 0;
+            while (posicion < tamanio) {
+                int longitud = (int) Math.min(TAMANIO_MAXIMO_BLOQUE, tamanio - posicion);
+                MappedByteBuffer region = canal.map(FileChannel.MapMode.READ_ONLY, posicion, longitud);
+                boolean esUltimaRegion = posicion + longitud == tamanio;
+                int fin = esUltimaRegion ? longitud : finUltimaLinea(region, longitud);
+                region.limit(fin);
+                if (Metricas.HABILITADAS) {
+                    BYTES_LEIDOS.sumar(fin);
+                }
+                consumidor.accept(region);
+                posicion += fin;
+            }
+        }
+    }
+
+    /**
+     * Returna la posicion siguiente al ultimo salto de linea de la region.
+     * Si la region no contiene saltos de linea, se returna la region completa.
+     *
+     * @param region la region mapeada
+     * @param longitud la longitud de la region
+     * @return el limite de la region que deja fuera la ultima linea incompleta
+     */
+    private int finUltimaLinea(ByteBuffer region, int longitud) {
+        for (int i = longitud - 1; i >= 0; i--) {
+            if (region.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return longitud;
+    }
 
 }
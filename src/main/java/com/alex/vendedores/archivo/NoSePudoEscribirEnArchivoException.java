@@ -8,4 +8,8 @@ public class NoSePudoEscribirEnArchivoException extends RuntimeException {
     public NoSePudoEscribirEnArchivoException(String nombreYExtensionArchivo) {
         super(format(MENSAJE, nombreYExtensionArchivo));
     }
+
+    public NoSePudoEscribirEnArchivoException(String nombreYExtensionArchivo, Throwable causa) {
+        super(format(MENSAJE, nombreYExtensionArchivo), causa);
+    }
 }
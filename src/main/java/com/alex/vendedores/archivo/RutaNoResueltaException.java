@@ -18,4 +18,8 @@ public class RutaNoResueltaException extends RuntimeException {
         super(format(MENSAJE, nombreArchivo));
     }
 
-}
\ No newline at end of file
+    public RutaNoResueltaException(String nombreArchivo, Exception exception) {
+        super(format(MENSAJE, nombreArchivo), exception);
+    }
+
+}
\ No newline at end of file
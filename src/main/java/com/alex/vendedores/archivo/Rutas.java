@@ -1,31 +1,196 @@
 package com.alex.vendedores.archivo;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Clase utilitaria para obtener un Path que representa a un archivo
  *
+ * <p>El archivo puede indicarse de tres maneras, en este orden de prioridad:
+ * -- una ruta del sistema de archivos, absoluta o relativa al directorio de trabajo
+ * -- una URI 'file:' o 'jar:', por ejemplo 'jar:file:/app/datos.jar!/vendors.csv'
+ * -- el nombre de un recurso del classpath, aunque se encuentre dentro de un jar
+ *
+ * <p>Las entradas de un jar se resuelven dentro de un FileSystem 'zip', por lo que
+ * se leen directamente del jar mediante un stream, sin extraerlas a un archivo temporal.
+ *
  * @author Alex Angulo
  */
 public final class Rutas {
 
+    /**
+     * El esquema de las URI que apuntan a una entrada de un jar
+     */
+    private static final String ESQUEMA_JAR = "jar";
+
+    /**
+     * El esquema de las URI que apuntan a un archivo
+     */
+    private static final String ESQUEMA_ARCHIVO = "file";
+
+    /**
+     * La longitud maxima de los nombres de 'nombreUnico', que deja espacio para un sufijo
+     * dentro del limite de 255 caracteres de la mayoria de los sistemas de archivos
+     */
+    private static final int LONGITUD_MAXIMA_NOMBRE = 200;
+
     /**
      * Returna el Path del archivo solicitado
      *
-     * @param nombreArchivo El nombre del archivo
+     * @param nombreArchivo La ruta, la URI o el nombre del recurso del classpath
      * @return El Path que representa la abstraccion del archivo solicitado
      * @throws RutaNoResueltaException Si el archivo solicitado no pudo ser encontrado
      */
     public Path resolverRuta(String nombreArchivo) {
-        URI uri;
+        if (esUri(nombreArchivo)) {
+            return desdeUri(URI.create(nombreArchivo), nombreArchivo);
+        }
+        Path rutaSistemaArchivos = rutaSistemaArchivos(nombreArchivo);
+        if (rutaSistemaArchivos != null && Files.exists(rutaSistemaArchivos)) {
+            return rutaSistemaArchivos;
+        }
+        return desdeClasspath(nombreArchivo);
+    }
+
+    /**
+     * Returna si el Path pertenece al sistema de archivos por defecto.
+     *
+     * <p>Solo estos Path pueden abrirse con un FileChannel para mapearlos a memoria
+     * o leerlos en paralelo por regiones. Los Path dentro de un jar deben leerse como stream.
+     *
+     * @param path el Path a revisar
+     * @return true si el Path es un archivo local, false en caso contrario
+     */
+    public static boolean esRutaLocal(Path path) {
+        return path.getFileSystem() == FileSystems.getDefault();
+    }
+
+    /**
+     * Returna un nombre de archivo que identifica al Path sin ambiguedad, para nombrar los archivos
+     * derivados de el, como reportes o rechazos, en un solo directorio.
+     *
+     * <p>El nombre es la ruta relativa al directorio de trabajo, o absoluta si esta fuera de el,
+     * codificada como en una URL, por lo que 'a/vendors.csv' y 'b/vendors.csv' producen 'a%2Fvendors.csv'
+     * y 'b%2Fvendors.csv', y un archivo del directorio de trabajo conserva su nombre. Los Path dentro
+     * de un jar se identifican por su URI. Si el nombre excede LONGITUD_MAXIMA_NOMBRE, se acorta al nombre
+     * del archivo seguido del hash de la ruta completa.
+     *
+     * @param path el Path a nombrar
+     * @return un nombre de archivo valido, distinto para cada ruta
+     */
+    public static String nombreUnico(Path path) {
+        String ruta;
+        if (esRutaLocal(path)) {
+            Path absoluta = path.toAbsolutePath().normalize();
+            Path trabajo = Paths.get("").toAbsolutePath();
+            ruta = (absoluta.startsWith(trabajo) ? trabajo.relativize(absoluta) : absoluta).toString();
+        } else {
+            ruta = path.toUri().toString();
+        }
+        String nombre = URLEncoder.encode(ruta, UTF_8);
+        if (nombre.length() <= LONGITUD_MAXIMA_NOMBRE) {
+            return nombre;
+        }
+        String nombreArchivo = URLEncoder.encode(String.valueOf(path.getFileName()), UTF_8);
+        return nombreArchivo.substring(0, Math.min(nombreArchivo.length(), LONGITUD_MAXIMA_NOMBRE / 2))
+                + '.' + HexFormat.of().toHexDigits(ruta.hashCode());
+    }
+
+    /**
+     * Busca el archivo como recurso del classpath
+     *
+     * @param nombreArchivo el nombre del recurso
+     * @return el Path del recurso
+     * @throws RutaNoResueltaException si el recurso no existe
+     */
+    private Path desdeClasspath(String nombreArchivo) {
+        URL recurso = ClassLoader.getSystemResource(nombreArchivo);
+        if (recurso == null) {
+            throw new RutaNoResueltaException(nombreArchivo);
+        }
         try {
-            uri = ClassLoader.getSystemResource(nombreArchivo).toURI();
+            return desdeUri(recurso.toURI(), nombreArchivo);
         } catch (URISyntaxException exception) {
+            throw new RutaNoResueltaException(nombreArchivo, exception);
+        }
+    }
+
+    /**
+     * Convierte una URI 'file:' o 'jar:' en un Path
+     *
+     * @param uri la URI a convertir
+     * @param nombreArchivo el nombre original, para el mensaje de error
+     * @return el Path correspondiente a la URI
+     * @throws RutaNoResueltaException si el esquema no es soportado o la entrada no existe
+     */
+    private Path desdeUri(URI uri, String nombreArchivo) {
+        Path path;
+        if (ESQUEMA_JAR.equalsIgnoreCase(uri.getScheme())) {
+            path = sistemaArchivosJar(uri, nombreArchivo).provider().getPath(uri);
+        } else if (ESQUEMA_ARCHIVO.equalsIgnoreCase(uri.getScheme())) {
+            path = Paths.get(uri);
+        } else {
+            throw new RutaNoResueltaException(nombreArchivo);
+        }
+        if (!Files.exists(path)) {
             throw new RutaNoResueltaException(nombreArchivo);
         }
-        return Paths.get(uri);
+        return path;
+    }
+
+    /**
+     * Returna el FileSystem 'zip' del jar al que apunta la URI, abriendolo si es necesario.
+     * El FileSystem se mantiene abierto para que los Path que se returnan sigan siendo legibles.
+     *
+     * @param uri la URI 'jar:' de la entrada
+     * @param nombreArchivo el nombre original, para el mensaje de error
+     * @return el FileSystem del jar
+     */
+    private static synchronized FileSystem sistemaArchivosJar(URI uri, String nombreArchivo) {
+        try {
+            return FileSystems.newFileSystem(uri, Collections.emptyMap());
+        } catch (FileSystemAlreadyExistsException exception) {
+            return FileSystems.getFileSystem(uri);
+        } catch (IOException exception) {
+            throw new RutaNoResueltaException(nombreArchivo, exception);
+        }
+    }
+
+    /**
+     * Interpreta la cadena como una ruta del sistema de archivos por defecto
+     *
+     * @param nombreArchivo la cadena a interpretar
+     * @return el Path correspondiente, o null si la cadena no es una ruta valida
+     */
+    private Path rutaSistemaArchivos(String nombreArchivo) {
+        try {
+            return Paths.get(nombreArchivo);
+        } catch (InvalidPathException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Returna si la cadena es una URI con esquema 'file:' o 'jar:'
+     *
+     * @param nombreArchivo la cadena a revisar
+     * @return true si la cadena es una URI soportada
+     */
+    private boolean esUri(String nombreArchivo) {
+        return nombreArchivo.startsWith(ESQUEMA_JAR + ":") || nombreArchivo.startsWith(ESQUEMA_ARCHIVO + ":");
     }
 }
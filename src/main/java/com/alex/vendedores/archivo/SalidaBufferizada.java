@@ -0,0 +1,345 @@
+package com.alex.vendedores.archivo;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Salida de texto o de datos binarios que codifica los caracteres en un buffer grande y lo escribe
+ * en un canal solo cuando se llena o cuando se vacia explicitamente.
+ *
+ * <p>A diferencia de System.out, que es un PrintStream sincronizado que se vacia en cada linea,
+ * escribir una linea aqui no realiza ninguna llamada al sistema: un reporte de millones de filas
+ * redirigido a un archivo o a un pipe se escribe en bloques de CAPACIDAD_POR_DEFECTO bytes.
+ * Los caracteres ASCII se copian directamente al buffer si la codificacion es compatible con ASCII;
+ * los demas pasan por el CharsetEncoder. Los datos binarios se escriben en orden BIG_ENDIAN.
+ *
+ * <p>No es thread-safe. Quien escribe es responsable de vaciar la salida al terminar cada reporte,
+ * y antes de esperar una respuesta del usuario.
+ *
+ * @author Alex Angulo
+ */
+public final class SalidaBufferizada implements Flushable, Closeable {
+
+    /**
+     * El tamanio del buffer por defecto, en bytes
+     */
+    public static final int CAPACIDAD_POR_DEFECTO = 1 << 20;
+
+    private static final String SALIDA_ESTANDAR = "salida estandar";
+    private static final String SALTO_DE_LINEA = System.lineSeparator();
+
+    private final WritableByteChannel canal;
+
+    /**
+     * El nombre del destino, para los mensajes de error
+     */
+    private final String destino;
+
+    /**
+     * Si al cerrar esta salida tambien se cierra el canal. La salida estandar no se cierra
+     */
+    private final boolean cerrarCanal;
+
+    private final ByteBuffer buffer;
+    private final CharsetEncoder codificador;
+
+    /**
+     * Si los caracteres ASCII se codifican como un solo byte con su mismo valor
+     */
+    private final boolean compatibleConAscii;
+
+    /**
+     * @param canal el canal donde se escriben los bytes
+     * @param destino el nombre del destino, para los mensajes de error
+     * @param codificacion la codificacion de los caracteres
+     * @param cerrarCanal si al cerrar esta salida tambien se cierra el canal
+     */
+    public SalidaBufferizada(WritableByteChannel canal, String destino, Charset codificacion, boolean cerrarCanal) {
+        this(canal, destino, codificacion, cerrarCanal, CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * @param canal el canal donde se escriben los bytes
+     * @param destino el nombre del destino, para los mensajes de error
+     * @param codificacion la codificacion de los caracteres
+     * @param cerrarCanal si al cerrar esta salida tambien se cierra el canal
+     * @param capacidad el tamanio del buffer, en bytes; debe ser al menos de 8 bytes
+     */
+    public SalidaBufferizada(WritableByteChannel canal, String destino, Charset codificacion, boolean cerrarCanal,
+                             int capacidad) {
+        if (capacidad < Long.BYTES) {
+            throw new IllegalArgumentException("La capacidad debe ser al menos de 8 bytes: " + capacidad);
+        }
+        this.canal = canal;
+        this.destino = destino;
+        this.cerrarCanal = cerrarCanal;
+        this.buffer = ByteBuffer.allocateDirect(capacidad);
+        this.codificador = codificacion.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.compatibleConAscii = codificacion.equals(UTF_8)
+                || codificacion.equals(ISO_8859_1)
+                || codificacion.equals(US_ASCII);
+    }
+
+    /**
+     * Returna una salida al descriptor de la salida estandar, con la codificacion de System.out.
+     * Cerrarla solo la vacia; el descriptor sigue abierto
+     *
+     * @return la salida estandar bufferizada
+     */
+    public static SalidaBufferizada consola() {
+        FileChannel canal = new FileOutputStream(FileDescriptor.out).getChannel();
+        return new SalidaBufferizada(canal, SALIDA_ESTANDAR, System.out.charset(), false);
+    }
+
+    /**
+     * Returna una salida a un archivo en UTF-8, reemplazando su contenido anterior
+     *
+     * @param archivo el archivo a escribir
+     * @return la salida al archivo, que lo cierra al cerrarse
+     */
+    public static SalidaBufferizada archivo(Path archivo) {
+        return archivo(archivo, CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Returna una salida a un archivo en UTF-8 con un buffer del tamanio indicado,
+     * reemplazando su contenido anterior
+     *
+     * @param archivo el archivo a escribir
+     * @param capacidad el tamanio del buffer, en bytes
+     * @return la salida al archivo, que lo cierra al cerrarse
+     */
+    public static SalidaBufferizada archivo(Path archivo, int capacidad) {
+        try {
+            FileChannel canal = FileChannel.open(archivo, WRITE, CREATE, TRUNCATE_EXISTING);
+            return new SalidaBufferizada(canal, archivo.toString(), UTF_8, true, capacidad);
+        } catch (IOException exception) {
+            throw new NoSePudoEscribirEnArchivoException(archivo.toString());
+        }
+    }
+
+    /**
+     * Escribe un texto
+     *
+     * @param texto el texto a escribir
+     */
+    public void escribir(CharSequence texto) {
+        int longitud = texto.length();
+        int i = 0;
+        if (compatibleConAscii) {
+            for (; i < longitud; i++) {
+                char caracter = texto.charAt(i);
+                if (caracter >= 0x80) {
+                    break;
+                }
+                if (!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                buffer.put((byte) caracter);
+            }
+        }
+        if (i < longitud) {
+            codificar(CharBuffer.wrap(texto, i, longitud));
+        }
+    }
+
+    /**
+     * Escribe un texto seguido de un salto de linea
+     *
+     * @param linea el texto a escribir
+     */
+    public void escribirLinea(CharSequence linea) {
+        escribir(linea);
+        escribir(SALTO_DE_LINEA);
+    }
+
+    /**
+     * Escribe un texto con formato, con las reglas de 'String.format'
+     *
+     * @param formato el formato
+     * @param argumentos los argumentos del formato
+     */
+    public void escribirConFormato(String formato, Object... argumentos) {
+        escribir(format(formato, argumentos));
+    }
+
+    /**
+     * Escribe un byte
+     *
+     * @param valor el byte a escribir, en sus 8 bits bajos
+     */
+    public void escribirByte(int valor) {
+        asegurar(Byte.BYTES);
+        buffer.put((byte) valor);
+    }
+
+    /**
+     * Escribe un entero de 4 bytes
+     *
+     * @param valor el entero a escribir
+     */
+    public void escribirEntero(int valor) {
+        asegurar(Integer.BYTES);
+        buffer.putInt(valor);
+    }
+
+    /**
+     * Escribe un double de 8 bytes, en formato IEEE 754
+     *
+     * @param valor el double a escribir
+     */
+    public void escribirDouble(double valor) {
+        asegurar(Double.BYTES);
+        buffer.putDouble(valor);
+    }
+
+    /**
+     * Escribe una cadena como su longitud en bytes, en 2 bytes sin signo, seguida de sus bytes UTF-8.
+     * Las cadenas ASCII se copian directamente, sin crear un arreglo de bytes. Una cadena mas grande
+     * que el buffer se escribe en varios bloques
+     *
+     * @param valor la cadena a escribir, de a lo mas 65535 bytes en UTF-8
+     * @throws IllegalArgumentException si la cadena es demasiado larga
+     */
+    public void escribirCadenaUtf8(String valor) {
+        if (esAscii(valor) && valor.length() <= 0xFFFF) {
+            asegurar(Math.min(buffer.capacity(), Short.BYTES + valor.length()));
+            buffer.putShort((short) valor.length());
+            for (int i = 0; i < valor.length(); i++) {
+                if (!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                buffer.put((byte) valor.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = valor.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("La cadena excede 65535 bytes en UTF-8");
+        }
+        asegurar(Math.min(buffer.capacity(), Short.BYTES + bytes.length));
+        buffer.putShort((short) bytes.length);
+        for (int escritos = 0; escritos < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                vaciar();
+            }
+            int bloque = Math.min(buffer.remaining(), bytes.length - escritos);
+            buffer.put(bytes, escritos, bloque);
+            escritos += bloque;
+        }
+    }
+
+    /**
+     * Escribe en el canal todos los bytes del buffer
+     */
+    @Override
+    public void flush() {
+        vaciar();
+    }
+
+    /**
+     * Vacia la salida y, si el canal es un FileChannel, espera a que el contenido y los metadatos
+     * del archivo lleguen al dispositivo de almacenamiento ('fsync')
+     */
+    public void sincronizar() {
+        vaciar();
+        if (canal instanceof FileChannel archivo) {
+            try {
+                archivo.force(true);
+            } catch (IOException exception) {
+                throw new NoSePudoEscribirEnArchivoException(destino);
+            }
+        }
+    }
+
+    /**
+     * Vacia la salida y cierra el canal, excepto si es la salida estandar
+     */
+    @Override
+    public void close() {
+        try {
+            vaciar();
+        } finally {
+            if (cerrarCanal) {
+                try {
+                    canal.close();
+                } catch (IOException exception) {
+                    throw new NoSePudoEscribirEnArchivoException(destino);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vacia el buffer si no tiene espacio para el numero de bytes recibido
+     */
+    private void asegurar(int bytes) {
+        if (buffer.remaining() < bytes) {
+            vaciar();
+        }
+    }
+
+    private static boolean esAscii(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Codifica los caracteres con el CharsetEncoder, vaciando el buffer cada vez que se llena
+     */
+    private void codificar(CharBuffer caracteres) {
+        codificador.reset();
+        CoderResult resultado;
+        do {
+            resultado = codificador.encode(caracteres, buffer, true);
+            if (resultado.isOverflow()) {
+                vaciar();
+            }
+        } while (resultado.isOverflow());
+        while (codificador.flush(buffer).isOverflow()) {
+            vaciar();
+        }
+    }
+
+    /**
+     * Escribe en el canal todos los bytes del buffer, en tantas escrituras como el canal requiera
+     */
+    private void vaciar() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+        } catch (IOException exception) {
+            throw new NoSePudoEscribirEnArchivoException(destino);
+        } finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.alex.vendedores.bitacora;
+
+import static java.lang.String.format;
+
+/**
+ * Excepcion para indicar que un archivo de la bitacora o del punto de control esta danado
+ * en un lugar donde no puede deberse a una escritura interrumpida
+ *
+ * @author Alex Angulo
+ */
+public class BitacoraCorruptaException extends RuntimeException {
+
+    /**
+     * La plantilla para el mensaje de error
+     */
+    private static final String MENSAJE = "Error. El archivo %s esta danado en el byte %d";
+
+    public BitacoraCorruptaException(String ruta, long posicion) {
+        super(format(MENSAJE, ruta, posicion));
+    }
+}
@@ -0,0 +1,577 @@
+package com.alex.vendedores.bitacora;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bitacora de escritura anticipada ('write-ahead log') de los vendedores guardados.
+ *
+ * <p>Cada vendedor se agrega al final de la bitacora como un registro con su numero de secuencia (lsn)
+ * y un CRC32C (ver Registros). La bitacora se divide en segmentos: archivos '[primer lsn].wal' del
+ * mismo directorio, de a lo mas TAMANIO_SEGMENTO bytes aproximadamente. Solo se escribe en el ultimo.
+ *
+ * <p>Agregar un registro solo lo copia a un buffer en memoria. 'esperarDurable' lo escribe en el segmento
+ * y espera a que llegue al disco con una sola sincronizacion ('fsync') para todos los registros pendientes:
+ * si varios hilos esperan a la vez, el primero sincroniza los registros de todos y los demas solo
+ * esperan a que termine ('group commit'). Asi el costo de cada fsync se reparte entre los registros.
+ *
+ * <p>Al iniciar, 'recuperar' lee los segmentos a partir del lsn de un punto de control. Si el proceso
+ * termino mientras escribia, el ultimo registro del ultimo segmento puede estar incompleto; se reconoce
+ * por su longitud o su CRC y se corta el segmento en el ultimo registro completo. Un registro danado
+ * en cualquier otro lugar no puede deberse a una escritura interrumpida y lanza BitacoraCorruptaException.
+ *
+ * <p>Un solo proceso a la vez puede usar el directorio: 'recuperar' toma un candado exclusivo sobre el archivo
+ * ARCHIVO_CANDADO del directorio y lo conserva hasta 'close' o hasta que el proceso termina. Si otro proceso,
+ * u otra BitacoraEscritura del mismo proceso, ya lo tiene, 'recuperar' lanza IllegalStateException sin leer
+ * ni escribir nada, ya que dos escritores reutilizarian los mismos lsn y sobrescribirian sus registros.
+ *
+ * <p>Es thread-safe. Si una escritura o una sincronizacion falla, no se sabe que parte de la bitacora
+ * llego al disco, por lo que todas las operaciones siguientes lanzan NoSePudoEscribirEnArchivoException,
+ * con la IOException original como causa.
+ *
+ * @author Alex Angulo
+ */
+public final class BitacoraEscritura implements Closeable {
+
+    /**
+     * El tamanio a partir del cual se empieza un nuevo segmento, en bytes
+     */
+    static final long TAMANIO_SEGMENTO = 64L << 20;
+
+    private static final String EXTENSION = ".wal";
+
+    /**
+     * El archivo del directorio sobre el que se toma el candado exclusivo
+     */
+    static final String ARCHIVO_CANDADO = "bitacora.candado";
+
+    /**
+     * Los directorios, con su ruta real, cuyo candado tiene alguna BitacoraEscritura de este proceso.
+     * Se revisan antes de abrir el archivo del candado, ya que cerrar cualquier canal del archivo
+     * puede liberar el candado de todo el proceso
+     */
+    private static final Set<Path> DIRECTORIOS_TOMADOS = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Los bytes al inicio de cada segmento: 'VWAL' y la version del formato
+     */
+    private static final int MAGIA = 0x5657414C;
+    private static final int VERSION = 1;
+    private static final int CABECERA_SEGMENTO = Integer.BYTES * 2;
+
+    private static final int CAPACIDAD_BUFFER = 1 << 20;
+
+    /**
+     * El tiempo de cada sincronizacion con el disco, y el numero de registros que hizo durables
+     */
+    private static final Histograma SINCRONIZACION = Metricas.histograma("bitacora.sincronizacionNs");
+    private static final Histograma REGISTROS_POR_SINCRONIZACION = Metricas.histograma("bitacora.registrosPorSincronizacion");
+
+    private final Path directorio;
+
+    /**
+     * Protege el buffer, el segmento actual y los numeros de secuencia
+     */
+    private final ReentrantLock escritura = new ReentrantLock();
+
+    /**
+     * Solo un hilo a la vez sincroniza con el disco o cambia de segmento. Se adquiere antes que 'escritura'
+     */
+    private final Object sincronizacion = new Object();
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(CAPACIDAD_BUFFER);
+
+    /**
+     * El candado exclusivo del directorio, o null si no se ha tomado
+     */
+    private FileLock candado;
+
+    /**
+     * La ruta real del directorio, registrada en DIRECTORIOS_TOMADOS mientras se tiene el candado
+     */
+    private Path directorioTomado;
+
+    private FileChannel segmento;
+    private Path rutaSegmento;
+    private long inicioSegmento;
+    private long tamanioSegmento;
+
+    /**
+     * El lsn del ultimo registro agregado
+     */
+    private long ultimoLsn;
+
+    /**
+     * El lsn del ultimo registro que llego al disco
+     */
+    private volatile long lsnDurable;
+
+    /**
+     * La primera escritura o sincronizacion que fallo, o null si ninguna ha fallado
+     */
+    private IOException falla;
+
+    public BitacoraEscritura(Path directorio) {
+        this.directorio = requireNonNull(directorio);
+    }
+
+    /**
+     * Returna el directorio de los segmentos
+     *
+     * @return el directorio de la bitacora
+     */
+    public Path directorio() {
+        return directorio;
+    }
+
+    /**
+     * Lee los registros posteriores a un lsn, corta el registro incompleto del final si lo hay,
+     * y deja la bitacora lista para agregar registros. Debe invocarse una sola vez, antes de agregar.
+     *
+     * <p>Los segmentos cuyos registros son todos anteriores al lsn no se leen.
+     *
+     * @param desdeLsn el lsn del punto de control; solo se entregan los registros posteriores
+     * @param destino recibe los vendedores de los registros, en orden de lsn
+     * @return el lsn del ultimo registro, o 'desdeLsn' si no hay registros posteriores
+     * @throws BitacoraCorruptaException si hay un registro danado antes del final de la bitacora
+     * @throws IllegalStateException si otro escritor ya usa el directorio
+     */
+    public long recuperar(long desdeLsn, Consumer<Vendedor> destino) {
+        escritura.lock();
+        try {
+            Files.createDirectories(directorio);
+            tomarCandado();
+            List<Path> segmentos = segmentos();
+            ultimoLsn = desdeLsn;
+            long finUltimo = 0;
+            for (int i = 0; i < segmentos.size(); i++) {
+                boolean esUltimo = i == segmentos.size() - 1;
+                if (!esUltimo && inicio(segmentos.get(i + 1)) <= desdeLsn + 1) {
+                    continue;
+                }
+                finUltimo = leerSegmento(segmentos.get(i), desdeLsn, destino, esUltimo);
+            }
+            if (segmentos.isEmpty() || finUltimo < CABECERA_SEGMENTO) {
+                if (!segmentos.isEmpty()) {
+                    Files.delete(segmentos.get(segmentos.size() - 1));
+                }
+                abrirSegmento(ultimoLsn + 1);
+            } else {
+                Path ultimo = segmentos.get(segmentos.size() - 1);
+                reabrirSegmento(ultimo, finUltimo);
+            }
+            lsnDurable = ultimoLsn;
+            return ultimoLsn;
+        } catch (IOException exception) {
+            soltarCandadoTrasFalla();
+            throw new NoSePudoLeerArchivoException(directorio.toString(), exception);
+        } catch (RuntimeException exception) {
+            soltarCandadoTrasFalla();
+            throw exception;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Agrega el registro de un vendedor al buffer, sin escribirlo en disco.
+     * Para que el registro sea durable hay que invocar 'esperarDurable' con el lsn returnado
+     *
+     * @param vendedor el vendedor guardado
+     * @return el lsn del registro
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir el buffer en el segmento
+     */
+    public long agregar(Vendedor vendedor) {
+        byte[] nombre = Registros.bytes(vendedor.getNombre());
+        byte[] estado = Registros.bytes(vendedor.getEstado());
+        escritura.lock();
+        try {
+            verificar();
+            if (buffer.remaining() < Registros.tamanio(nombre, estado)) {
+                vaciar();
+            }
+            long lsn = ultimoLsn + 1;
+            Registros.escribir(buffer, lsn, vendedor, nombre, estado);
+            ultimoLsn = lsn;
+            return lsn;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Espera a que el registro del lsn, y todos los anteriores, esten en el disco.
+     * Si otro hilo esta sincronizando, espera a que termine; si su sincronizacion no incluyo el lsn,
+     * sincroniza todos los registros agregados hasta el momento
+     *
+     * @param lsn el lsn de un registro agregado
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir o sincronizar el segmento
+     */
+    public void esperarDurable(long lsn) {
+        if (lsnDurable >= lsn) {
+            return;
+        }
+        synchronized (sincronizacion) {
+            if (lsnDurable >= lsn) {
+                return;
+            }
+            long inicio = System.nanoTime();
+            FileChannel canal;
+            long objetivo;
+            boolean segmentoLleno;
+            escritura.lock();
+            try {
+                verificar();
+                vaciar();
+                canal = segmento;
+                objetivo = ultimoLsn;
+                segmentoLleno = tamanioSegmento >= TAMANIO_SEGMENTO;
+            } finally {
+                escritura.unlock();
+            }
+            // los registros agregados mientras tanto pueden incluirse o no en esta sincronizacion
+            forzar(canal);
+            if (Metricas.HABILITADAS) {
+                SINCRONIZACION.registrarDesde(inicio);
+                REGISTROS_POR_SINCRONIZACION.registrar(objetivo - lsnDurable);
+            }
+            lsnDurable = objetivo;
+            if (segmentoLleno) {
+                rotar();
+            }
+        }
+    }
+
+    /**
+     * Sincroniza los registros agregados y empieza un nuevo segmento, para que todos los registros
+     * hasta el lsn returnado queden en segmentos cerrados. Si el segmento actual no tiene registros,
+     * se conserva
+     *
+     * @return el lsn del ultimo registro agregado
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir o crear un segmento
+     */
+    public long rotar() {
+        synchronized (sincronizacion) {
+            escritura.lock();
+            try {
+                verificar();
+                if (ultimoLsn < inicioSegmento) {
+                    return ultimoLsn;
+                }
+                vaciar();
+                forzar(segmento);
+                cerrarSegmento();
+                lsnDurable = ultimoLsn;
+                abrirSegmento(ultimoLsn + 1);
+                return ultimoLsn;
+            } finally {
+                escritura.unlock();
+            }
+        }
+    }
+
+    /**
+     * Elimina los segmentos cerrados cuyos registros son todos anteriores o iguales al lsn,
+     * porque un punto de control ya los incluye
+     *
+     * @param lsn el lsn del punto de control
+     */
+    public void descartarHasta(long lsn) {
+        List<Path> segmentos = segmentos();
+        for (int i = 0; i < segmentos.size() - 1; i++) {
+            if (inicio(segmentos.get(i + 1)) <= lsn + 1) {
+                try {
+                    Files.deleteIfExists(segmentos.get(i));
+                } catch (IOException exception) {
+                    throw new NoSePudoEscribirEnArchivoException(segmentos.get(i).toString(), exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sincroniza los registros pendientes y cierra el segmento actual
+     */
+    @Override
+    public void close() {
+        synchronized (sincronizacion) {
+            escritura.lock();
+            try {
+                if (segmento != null && falla == null) {
+                    vaciar();
+                    forzar(segmento);
+                    lsnDurable = ultimoLsn;
+                }
+                cerrarSegmento();
+            } finally {
+                try {
+                    liberarCandado();
+                } finally {
+                    escritura.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Toma el candado exclusivo del directorio, si aun no lo tiene
+     *
+     * @throws IllegalStateException si otro proceso u otra BitacoraEscritura ya lo tiene
+     */
+    private void tomarCandado() throws IOException {
+        if (candado != null) {
+            return;
+        }
+        Path archivo = directorio.resolve(ARCHIVO_CANDADO);
+        Path real = directorio.toRealPath();
+        if (!DIRECTORIOS_TOMADOS.add(real)) {
+            throw enUso(archivo);
+        }
+        FileLock tomado = null;
+        try {
+            FileChannel canal = FileChannel.open(archivo, WRITE, CREATE);
+            try {
+                tomado = canal.tryLock();
+            } catch (OverlappingFileLockException exception) {
+                // el candado se tomo en este proceso sin BitacoraEscritura
+            } finally {
+                if (tomado == null) {
+                    canal.close();
+                }
+            }
+        } finally {
+            if (tomado == null) {
+                DIRECTORIOS_TOMADOS.remove(real);
+            }
+        }
+        if (tomado == null) {
+            throw enUso(archivo);
+        }
+        candado = tomado;
+        directorioTomado = real;
+    }
+
+    private static IllegalStateException enUso(Path archivo) {
+        return new IllegalStateException(format(
+                "La bitacora %s ya esta en uso por otro escritor: no se tomo el candado %s",
+                archivo.getParent(), archivo));
+    }
+
+    /**
+     * Cierra el segmento y libera el candado si 'recuperar' fallo, conservando la excepcion original
+     */
+    private void soltarCandadoTrasFalla() {
+        try {
+            cerrarSegmento();
+        } catch (RuntimeException ignorada) {
+            // se conserva la excepcion original
+        }
+        try {
+            liberarCandado();
+        } catch (RuntimeException ignorada) {
+            // se conserva la excepcion original
+        }
+    }
+
+    /**
+     * Libera el candado del directorio, si lo tiene
+     */
+    private void liberarCandado() {
+        if (candado == null) {
+            return;
+        }
+        try {
+            candado.channel().close();
+        } catch (IOException exception) {
+            throw new NoSePudoEscribirEnArchivoException(directorio.resolve(ARCHIVO_CANDADO).toString(), exception);
+        } finally {
+            candado = null;
+            DIRECTORIOS_TOMADOS.remove(directorioTomado);
+            directorioTomado = null;
+        }
+    }
+
+    /**
+     * Lee los registros de un segmento y returna la posicion donde termina su ultimo registro completo
+     */
+    private long leerSegmento(Path ruta, long desdeLsn, Consumer<Vendedor> destino, boolean esUltimo)
+            throws IOException {
+        long tamanio = Files.size(ruta);
+        long posicion = 0;
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(ruta)))) {
+            if (tamanio < CABECERA_SEGMENTO || entrada.readInt() != MAGIA || entrada.readInt() != VERSION) {
+                if (esUltimo) {
+                    // el segmento se creo pero su cabecera no llego al disco
+                    return 0;
+                }
+                throw new BitacoraCorruptaException(ruta.toString(), 0);
+            }
+            posicion = CABECERA_SEGMENTO;
+            Registros.Leido registro;
+            while (posicion < tamanio && (registro = Registros.leer(entrada)) != null) {
+                posicion += registro.bytes();
+                if (registro.lsn() > desdeLsn) {
+                    destino.accept(registro.vendedor());
+                }
+                ultimoLsn = Math.max(ultimoLsn, registro.lsn());
+            }
+        }
+        if (posicion < tamanio && !esUltimo) {
+            throw new BitacoraCorruptaException(ruta.toString(), posicion);
+        }
+        return posicion;
+    }
+
+    /**
+     * Abre el ultimo segmento para agregar registros, cortando lo que sigue a su ultimo registro completo
+     */
+    private void reabrirSegmento(Path ruta, long fin) throws IOException {
+        segmento = FileChannel.open(ruta, READ, WRITE);
+        if (segmento.size() > fin) {
+            segmento.truncate(fin);
+        }
+        segmento.position(fin);
+        segmento.force(true);
+        rutaSegmento = ruta;
+        inicioSegmento = inicio(ruta);
+        tamanioSegmento = fin;
+    }
+
+    /**
+     * Crea un nuevo segmento con su cabecera, y sincroniza el directorio para que su nombre sea durable
+     */
+    private void abrirSegmento(long primerLsn) {
+        Path ruta = directorio.resolve(format("%020d%s", primerLsn, EXTENSION));
+        try {
+            segmento = FileChannel.open(ruta, WRITE, CREATE_NEW);
+            rutaSegmento = ruta;
+            ByteBuffer cabecera = ByteBuffer.allocate(CABECERA_SEGMENTO).putInt(MAGIA).putInt(VERSION).flip();
+            while (cabecera.hasRemaining()) {
+                segmento.write(cabecera);
+            }
+            segmento.force(true);
+            sincronizarDirectorio(directorio);
+        } catch (IOException exception) {
+            falla = exception;
+            throw new NoSePudoEscribirEnArchivoException(ruta.toString(), exception);
+        }
+        inicioSegmento = primerLsn;
+        tamanioSegmento = CABECERA_SEGMENTO;
+    }
+
+    private void cerrarSegmento() {
+        if (segmento == null) {
+            return;
+        }
+        try {
+            segmento.close();
+        } catch (IOException exception) {
+            falla = exception;
+            throw new NoSePudoEscribirEnArchivoException(rutaSegmento.toString(), exception);
+        } finally {
+            segmento = null;
+        }
+    }
+
+    /**
+     * Escribe el buffer en el segmento actual, sin sincronizar
+     */
+    private void vaciar() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                tamanioSegmento += segmento.write(buffer);
+            }
+        } catch (IOException exception) {
+            falla = exception;
+            throw new NoSePudoEscribirEnArchivoException(rutaSegmento.toString(), exception);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Sincroniza el contenido del segmento con el disco. Los metadatos que no se necesitan para leerlo,
+     * como la fecha de modificacion, no se sincronizan ('fdatasync')
+     */
+    private void forzar(FileChannel canal) {
+        try {
+            canal.force(false);
+        } catch (IOException exception) {
+            falla = exception;
+            throw new NoSePudoEscribirEnArchivoException(rutaSegmento.toString(), exception);
+        }
+    }
+
+    private void verificar() {
+        if (falla != null || segmento == null) {
+            throw new NoSePudoEscribirEnArchivoException(directorio.toString(), falla);
+        }
+    }
+
+    /**
+     * Returna los segmentos del directorio, ordenados por su primer lsn
+     */
+    private List<Path> segmentos() {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            List<Path> segmentos = new ArrayList<>(archivos
+                    .filter(archivo -> archivo.getFileName().toString().endsWith(EXTENSION))
+                    .toList());
+            segmentos.sort(Comparator.comparingLong(BitacoraEscritura::inicio));
+            return segmentos;
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(directorio.toString(), exception);
+        }
+    }
+
+    /**
+     * Returna el primer lsn de un segmento, que es su nombre
+     */
+    private static long inicio(Path segmento) {
+        String nombre = segmento.getFileName().toString();
+        return Long.parseLong(nombre.substring(0, nombre.length() - EXTENSION.length()));
+    }
+
+    /**
+     * Sincroniza el directorio para que la creacion o el cambio de nombre de un archivo sea durable.
+     * Algunos sistemas no permiten abrir un directorio, en cuyo caso se omite
+     *
+     * @param directorio el directorio a sincronizar
+     */
+    static void sincronizarDirectorio(Path directorio) {
+        try (FileChannel canal = FileChannel.open(directorio, READ)) {
+            canal.force(true);
+        } catch (IOException exception) {
+            // solo la durabilidad del nombre depende del sistema operativo
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.alex.vendedores.bitacora;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Punto de control ('checkpoint') de la bitacora: un archivo con todos los vendedores vivos
+ * hasta un lsn, para que al iniciar solo haya que leer los registros posteriores de la bitacora.
+ *
+ * <p>El archivo tiene una cabecera con 'VPDC', la version del formato, el lsn y el numero de vendedores,
+ * seguida de un registro por vendedor con el formato de Registros. Se escribe en un archivo temporal,
+ * se sincroniza con el disco y reemplaza al anterior con un movimiento atomico, por lo que siempre
+ * hay un punto de control completo: el anterior o el nuevo.
+ *
+ * @author Alex Angulo
+ */
+public final class PuntoDeControl {
+
+    private static final String ARCHIVO = "punto-de-control.bin";
+    private static final String SUFIJO_TEMPORAL = ".escribiendo";
+
+    private static final int MAGIA = 0x56504443;
+    private static final int VERSION = 1;
+
+    private static final int CAPACIDAD_BUFFER = 1 << 20;
+
+    /**
+     * Los vendedores de un punto de control
+     *
+     * @param lsn el lsn del ultimo registro incluido
+     * @param vendedores los vendedores vivos hasta ese lsn, en su orden
+     */
+    public record Contenido(long lsn, List<Vendedor> vendedores) {
+    }
+
+    private final Path archivo;
+
+    /**
+     * @param directorio el directorio del punto de control, normalmente el de la bitacora
+     */
+    public PuntoDeControl(Path directorio) {
+        this.archivo = requireNonNull(directorio).resolve(ARCHIVO);
+    }
+
+    /**
+     * Returna el contenido del punto de control
+     *
+     * @return los vendedores y su lsn, o un Optional vacio si aun no hay un punto de control
+     * @throws BitacoraCorruptaException si el punto de control esta danado
+     */
+    public Optional<Contenido> leer() {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (entrada.readInt() != MAGIA || entrada.readInt() != VERSION) {
+                throw new BitacoraCorruptaException(archivo.toString(), 0);
+            }
+            long lsn = entrada.readLong();
+            int cantidad = entrada.readInt();
+            List<Vendedor> vendedores = new ArrayList<>(cantidad);
+            long posicion = Integer.BYTES * 3 + Long.BYTES;
+            for (int i = 0; i < cantidad; i++) {
+                Registros.Leido registro = Registros.leer(entrada);
+                if (registro == null) {
+                    throw new BitacoraCorruptaException(archivo.toString(), posicion);
+                }
+                vendedores.add(registro.vendedor());
+                posicion += registro.bytes();
+            }
+            return Optional.of(new Contenido(lsn, vendedores));
+        } catch (NoSuchFileException exception) {
+            return Optional.empty();
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(archivo.toString(), exception);
+        }
+    }
+
+    /**
+     * Reemplaza el punto de control de forma atomica y durable
+     *
+     * @param lsn el lsn del ultimo registro de la bitacora incluido en los vendedores
+     * @param vendedores los vendedores vivos hasta el lsn
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir el punto de control
+     */
+    public void escribir(long lsn, Collection<Vendedor> vendedores) {
+        Path temporal = archivo.resolveSibling(ARCHIVO + SUFIJO_TEMPORAL);
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, WRITE, CREATE, TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(CAPACIDAD_BUFFER);
+                buffer.putInt(MAGIA).putInt(VERSION).putLong(lsn).putInt(vendedores.size());
+                for (Vendedor vendedor : vendedores) {
+                    byte[] nombre = Registros.bytes(vendedor.getNombre());
+                    byte[] estado = Registros.bytes(vendedor.getEstado());
+                    if (buffer.remaining() < Registros.tamanio(nombre, estado)) {
+                        escribirTodo(canal, buffer);
+                    }
+                    Registros.escribir(buffer, lsn, vendedor, nombre, estado);
+                }
+                escribirTodo(canal, buffer);
+                canal.force(true);
+            }
+            Files.move(temporal, archivo, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException | RuntimeException exception) {
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ignorada) {
+                // se conserva la excepcion original
+            }
+            throw new NoSePudoEscribirEnArchivoException(archivo.toString(), exception);
+        }
+        BitacoraEscritura.sincronizarDirectorio(archivo.toAbsolutePath().getParent());
+    }
+
+    private static void escribirTodo(FileChannel canal, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+}
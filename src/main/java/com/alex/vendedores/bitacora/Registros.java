@@ -0,0 +1,177 @@
+package com.alex.vendedores.bitacora;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Formato binario de los registros de la bitacora y del punto de control.
+ *
+ * <p>Cada registro tiene la forma:
+ * <pre>
+ * longitud del contenido (int) | CRC32C del contenido (int) | contenido
+ * </pre>
+ * y su contenido es:
+ * <pre>
+ * lsn (long) | id (int) | fecha de nacimiento en dias desde 1970-01-01 (long) | nombre | estado
+ * </pre>
+ * donde cada cadena es su longitud en bytes UTF-8, en 2 bytes sin signo, seguida de sus bytes.
+ * Todos los numeros se escriben en orden BIG_ENDIAN.
+ *
+ * <p>El CRC permite distinguir un registro completo de uno que quedo a medio escribir
+ * cuando el proceso termino de forma abrupta.
+ *
+ * @author Alex Angulo
+ */
+final class Registros {
+
+    /**
+     * El numero de bytes antes del contenido de cada registro: su longitud y su CRC
+     */
+    static final int CABECERA = Integer.BYTES * 2;
+
+    /**
+     * El numero de bytes fijos del contenido: lsn, id, fecha y las longitudes de las dos cadenas
+     */
+    private static final int CONTENIDO_FIJO = Long.BYTES + Integer.BYTES + Long.BYTES + Short.BYTES * 2;
+
+    /**
+     * La longitud maxima del contenido de un registro valido
+     */
+    private static final int CONTENIDO_MAXIMO = CONTENIDO_FIJO + 0xFFFF * 2;
+
+    private Registros() {
+    }
+
+    /**
+     * Un registro leido
+     *
+     * @param lsn el numero de secuencia del registro
+     * @param vendedor el vendedor del registro
+     * @param bytes el numero de bytes que ocupa el registro, incluyendo su cabecera
+     */
+    record Leido(long lsn, Vendedor vendedor, int bytes) {
+    }
+
+    /**
+     * Returna el numero de bytes que ocupa el registro de un vendedor, incluyendo su cabecera
+     *
+     * @param nombre el nombre del vendedor en UTF-8
+     * @param estado el estado del vendedor en UTF-8
+     * @return el tamanio del registro
+     */
+    static int tamanio(byte[] nombre, byte[] estado) {
+        return CABECERA + CONTENIDO_FIJO + nombre.length + estado.length;
+    }
+
+    /**
+     * Returna el nombre o el estado de un vendedor en UTF-8
+     *
+     * @param cadena el nombre o el estado
+     * @return sus bytes UTF-8
+     * @throws IllegalArgumentException si la cadena excede 65535 bytes
+     */
+    static byte[] bytes(String cadena) {
+        byte[] bytes = cadena.getBytes(UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("La cadena excede 65535 bytes en UTF-8");
+        }
+        return bytes;
+    }
+
+    /**
+     * Escribe el registro de un vendedor en la posicion actual del buffer, que debe tener espacio suficiente
+     *
+     * @param destino el buffer donde se escribe el registro
+     * @param lsn el numero de secuencia del registro
+     * @param vendedor el vendedor
+     * @param nombre el nombre del vendedor, de 'bytes'
+     * @param estado el estado del vendedor, de 'bytes'
+     */
+    static void escribir(ByteBuffer destino, long lsn, Vendedor vendedor, byte[] nombre, byte[] estado) {
+        int inicio = destino.position();
+        destino.position(inicio + CABECERA);
+        destino.putLong(lsn)
+                .putInt(vendedor.getId())
+                .putLong(vendedor.getFechaDeNacimiento().toEpochDay())
+                .putShort((short) nombre.length)
+                .put(nombre)
+                .putShort((short) estado.length)
+                .put(estado);
+        int fin = destino.position();
+
+        CRC32C crc = new CRC32C();
+        crc.update(destino.duplicate().position(inicio + CABECERA).limit(fin));
+        destino.putInt(inicio, fin - inicio - CABECERA);
+        destino.putInt(inicio + Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Lee el siguiente registro
+     *
+     * @param entrada la entrada posicionada al inicio de un registro
+     * @return el registro, o null si la entrada termina antes de un registro completo
+     *         o si el registro no es valido (su CRC no coincide)
+     * @throws IOException si no se puede leer la entrada
+     */
+    static Leido leer(DataInputStream entrada) throws IOException {
+        try {
+            int longitud = entrada.readInt();
+            int crcEsperado = entrada.readInt();
+            if (longitud < CONTENIDO_FIJO || longitud > CONTENIDO_MAXIMO) {
+                return null;
+            }
+            byte[] contenido = new byte[longitud];
+            entrada.readFully(contenido);
+
+            CRC32C crc = new CRC32C();
+            crc.update(contenido);
+            if ((int) crc.getValue() != crcEsperado) {
+                return null;
+            }
+            return decodificar(ByteBuffer.wrap(contenido), CABECERA + longitud);
+        } catch (EOFException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodifica un contenido con CRC valido. Un contenido cuyas longitudes no cuadran se considera invalido
+     */
+    private static Leido decodificar(ByteBuffer contenido, int bytes) {
+        try {
+            long lsn = contenido.getLong();
+            int id = contenido.getInt();
+            LocalDate fechaDeNacimiento = LocalDate.ofEpochDay(contenido.getLong());
+            String nombre = cadena(contenido);
+            String estado = cadena(contenido);
+            if (contenido.hasRemaining()) {
+                return null;
+            }
+            Vendedor vendedor = Vendedor.builder()
+                    .id(id)
+                    .nombre(nombre)
+                    .fechaDeNacimiento(fechaDeNacimiento)
+                    .estado(estado)
+                    .build();
+            return new Leido(lsn, vendedor, bytes);
+        } catch (RuntimeException exception) {
+            // BufferUnderflowException, DateTimeException o IllegalArgumentException de un contenido invalido
+            return null;
+        }
+    }
+
+    private static String cadena(ByteBuffer contenido) {
+        int longitud = Short.toUnsignedInt(contenido.getShort());
+        String cadena = new String(contenido.array(), contenido.position(), longitud, UTF_8);
+        contenido.position(contenido.position() + longitud);
+        return cadena;
+    }
+}
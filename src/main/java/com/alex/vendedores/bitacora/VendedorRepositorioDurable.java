@@ -0,0 +1,280 @@
+package com.alex.vendedores.bitacora;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.PoliticaGuardado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.metricas.Contador;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de VendedorRepositorio que hace durables los vendedores guardados en otro repositorio
+ * con una BitacoraEscritura, en lugar de agregarlos a un archivo CSV sin sincronizarlo.
+ *
+ * <p>El repositorio envuelto ('la memoria') provee los vendedores iniciales y responde todas las consultas;
+ * su 'guardar' no debe persistir nada por su cuenta, porque la bitacora ya lo hace. 'guardar' agrega
+ * el vendedor a la bitacora y a la memoria, y solo returna cuando su registro esta en el disco. La espera
+ * ocurre fuera del lock del escritor, por lo que los hilos que guardan a la vez comparten el mismo fsync.
+ * Un vendedor es visible para las consultas desde que se agrega a la memoria, aunque aun no sea durable.
+ *
+ * <p>En la primera operacion se recuperan los vendedores guardados en ejecuciones anteriores: los del
+ * PuntoDeControl y despues solo los registros posteriores de la bitacora, que se vuelven a guardar en la memoria.
+ *
+ * <p>Cada REGISTROS_POR_COMPACTACION vendedores guardados, un hilo en segundo plano escribe un nuevo punto
+ * de control con los vendedores vivos y elimina los segmentos de la bitacora que ya incluye, para que
+ * la recuperacion no dependa del historial completo de escrituras. Con la politica REEMPLAZAR_POR_ID,
+ * solo el ultimo vendedor guardado de cada id esta vivo. Si un punto de control en segundo plano falla,
+ * se suma a la metrica 'bitacora.compactacionesFallidas' y el siguiente 'guardar' o 'compactar' lanza
+ * el error antes de escribir, una sola vez; los vendedores ya guardados siguen siendo durables en la bitacora.
+ *
+ * @author Alex Angulo
+ */
+public final class VendedorRepositorioDurable implements VendedorRepositorio {
+
+    private static final Contador COMPACTACIONES_FALLIDAS = Metricas.contador("bitacora.compactacionesFallidas");
+
+    /**
+     * El numero de vendedores guardados entre dos puntos de control, por defecto
+     */
+    public static final int REGISTROS_POR_COMPACTACION = 100_000;
+
+    /**
+     * El repositorio que provee los vendedores iniciales y responde las consultas
+     */
+    private final VendedorRepositorio memoria;
+
+    private final BitacoraEscritura bitacora;
+    private final PuntoDeControl puntoDeControl;
+
+    /**
+     * Como se resuelven los vendedores guardados con un id existente
+     */
+    private final PoliticaGuardado politica;
+
+    private final int registrosPorCompactacion;
+
+    /**
+     * El lock del escritor: asigna el orden de los registros y de los vendedores en la memoria.
+     * Tambien protege la recuperacion y los vendedores vivos
+     */
+    private final ReentrantLock escritor = new ReentrantLock();
+
+    /**
+     * Los vendedores guardados vivos, en el orden en que se guardaron por primera vez. La clave es el id
+     * con REEMPLAZAR_POR_ID, o el propio vendedor con AGREGAR
+     */
+    private final Map<Object, Vendedor> guardados = new LinkedHashMap<>();
+
+    /**
+     * El hilo que escribe los puntos de control
+     */
+    private final ExecutorService compactador = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "compactacion-bitacora");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final AtomicBoolean compactando = new AtomicBoolean();
+
+    private volatile boolean recuperado;
+
+    /**
+     * El error del ultimo punto de control en segundo plano, si aun no se ha reportado
+     */
+    private final AtomicReference<RuntimeException> fallaCompactacion = new AtomicReference<>();
+
+    /**
+     * Los vendedores guardados desde el ultimo punto de control
+     */
+    private long registrosDesdeCompactacion;
+
+    public VendedorRepositorioDurable(VendedorRepositorio memoria, BitacoraEscritura bitacora, PoliticaGuardado politica) {
+        this(memoria, bitacora, new PuntoDeControl(bitacora.directorio()), politica, REGISTROS_POR_COMPACTACION);
+    }
+
+    public VendedorRepositorioDurable(VendedorRepositorio memoria,
+                                      BitacoraEscritura bitacora,
+                                      PuntoDeControl puntoDeControl,
+                                      PoliticaGuardado politica,
+                                      int registrosPorCompactacion) {
+        this.memoria = requireNonNull(memoria);
+        this.bitacora = requireNonNull(bitacora);
+        this.puntoDeControl = requireNonNull(puntoDeControl);
+        this.politica = requireNonNull(politica);
+        this.registrosPorCompactacion = registrosPorCompactacion;
+    }
+
+    @Override
+    public Set<Vendedor> encontrarTodos() {
+        recuperar();
+        return memoria.encontrarTodos();
+    }
+
+    @Override
+    public Set<Vendedor> encontrarPorEstado(String estado) {
+        recuperar();
+        return memoria.encontrarPorEstado(estado);
+    }
+
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        recuperar();
+        return memoria.consultar(consulta);
+    }
+
+    @Override
+    public long contar(ConsultaVendedores consulta) {
+        recuperar();
+        return memoria.contar(consulta);
+    }
+
+    @Override
+    public List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        recuperar();
+        return memoria.buscarPorNombre(busqueda);
+    }
+
+    @Override
+    public Optional<Vendedor> encontrarPorId(int id) {
+        recuperar();
+        return memoria.encontrarPorId(id);
+    }
+
+    /**
+     * Persiste un objeto Vendedor en la bitacora y lo guarda en la memoria.
+     * Returna cuando el vendedor es durable
+     *
+     * @param vendedor el vendedor a persistir
+     * @throws com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException si no se pudo escribir la bitacora
+     * @throws IllegalStateException si fallo un punto de control en segundo plano; el vendedor no se guarda
+     */
+    @Override
+    public void guardar(Vendedor vendedor) {
+        recuperar();
+        reportarFallaCompactacion();
+        long lsn;
+        escritor.lock();
+        try {
+            lsn = bitacora.agregar(vendedor);
+            aplicar(vendedor);
+            if (++registrosDesdeCompactacion >= registrosPorCompactacion && compactando.compareAndSet(false, true)) {
+                compactador.execute(this::compactarEnSegundoPlano);
+            }
+        } finally {
+            escritor.unlock();
+        }
+        bitacora.esperarDurable(lsn);
+    }
+
+    /**
+     * Escribe un punto de control con los vendedores vivos y elimina los segmentos de la bitacora
+     * que ya incluye. Las escrituras solo se detienen mientras se copian los vendedores vivos
+     *
+     * @throws com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException si no se pudo escribir
+     * @throws IllegalStateException si fallo un punto de control en segundo plano; no se compacta
+     */
+    public void compactar() {
+        recuperar();
+        reportarFallaCompactacion();
+        escribirPuntoDeControl();
+    }
+
+    /**
+     * Escribe el punto de control y descarta los segmentos que incluye
+     */
+    private void escribirPuntoDeControl() {
+        long lsn;
+        List<Vendedor> vivos;
+        escritor.lock();
+        try {
+            lsn = bitacora.rotar();
+            vivos = List.copyOf(guardados.values());
+            registrosDesdeCompactacion = 0;
+        } finally {
+            escritor.unlock();
+        }
+        puntoDeControl.escribir(lsn, vivos);
+        bitacora.descartarHasta(lsn);
+    }
+
+    /**
+     * Compacta desde el hilo en segundo plano. Si falla, la bitacora conserva todos sus segmentos,
+     * el error queda guardado para el siguiente 'guardar' o 'compactar', y se vuelve a intentar
+     * despues de otros 'registrosPorCompactacion' vendedores
+     */
+    private void compactarEnSegundoPlano() {
+        try {
+            escribirPuntoDeControl();
+        } catch (RuntimeException exception) {
+            if (Metricas.HABILITADAS) {
+                COMPACTACIONES_FALLIDAS.incrementar();
+            }
+            fallaCompactacion.set(exception);
+        } finally {
+            compactando.set(false);
+        }
+    }
+
+    /**
+     * Lanza, una sola vez, el error del ultimo punto de control en segundo plano
+     */
+    private void reportarFallaCompactacion() {
+        RuntimeException falla = fallaCompactacion.getAndSet(null);
+        if (falla != null) {
+            throw new IllegalStateException("No se pudo escribir el punto de control de la bitacora", falla);
+        }
+    }
+
+    /**
+     * Recupera una sola vez los vendedores del punto de control y de la bitacora, guardandolos en la memoria.
+     *
+     * <p>Ocurre en la primera operacion, pero puede invocarse antes cuando la memoria tambien se consulta
+     * sin pasar por este repositorio, por ejemplo si es el modelo de lectura de un servicio CQRS
+     *
+     * @throws BitacoraCorruptaException si el punto de control o la bitacora estan danados
+     */
+    public void recuperar() {
+        if (recuperado) {
+            return;
+        }
+        escritor.lock();
+        try {
+            if (!recuperado) {
+                long desde = 0;
+                Optional<PuntoDeControl.Contenido> contenido = puntoDeControl.leer();
+                if (contenido.isPresent()) {
+                    desde = contenido.get().lsn();
+                    contenido.get().vendedores().forEach(this::aplicar);
+                }
+                bitacora.recuperar(desde, this::aplicar);
+                recuperado = true;
+            }
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Guarda el vendedor en la memoria y en los vendedores vivos. Con REEMPLAZAR_POR_ID,
+     * un vendedor con un id existente conserva la posicion del primero
+     */
+    private void aplicar(Vendedor vendedor) {
+        Object clave = politica == PoliticaGuardado.REEMPLAZAR_POR_ID ? vendedor.getId() : vendedor;
+        guardados.put(clave, vendedor);
+        memoria.guardar(vendedor);
+    }
+}
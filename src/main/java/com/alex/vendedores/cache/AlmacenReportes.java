@@ -0,0 +1,187 @@
+package com.alex.vendedores.cache;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Almacen en disco de reportes serializados, identificados por una clave, que se conserva entre
+ * ejecuciones del programa.
+ *
+ * <p>Cada reporte es un archivo '[hash de la clave].reporte' con una cabecera con 'VRPC', la version
+ * del formato, la clave completa, el tamanio y el CRC32C del contenido. Si la clave no coincide
+ * (una colision del hash) o el CRC no corresponde (un archivo danado), el reporte no se encuentra.
+ * Cada archivo se escribe en un archivo temporal y se mueve de forma atomica, por lo que un
+ * lector nunca ve un reporte a medio escribir.
+ *
+ * <p>El almacen ocupa como maximo 'bytesMaximos': despues de cada escritura se eliminan los reportes
+ * usados menos recientemente ('LRU') hasta no excederlo. El uso de cada reporte se registra en su
+ * fecha de modificacion, que se actualiza cada vez que se lee.
+ *
+ * <p>Es thread-safe dentro de un proceso. Varios procesos pueden compartir el directorio; en el peor
+ * caso ambos calculan y escriben el mismo reporte.
+ *
+ * @author Alex Angulo
+ */
+public final class AlmacenReportes {
+
+    private static final String SUFIJO = ".reporte";
+    private static final String SUFIJO_TEMPORAL = ".escribiendo";
+
+    private static final int MAGIA = 0x56525043;
+    private static final int VERSION = 1;
+
+    private final Path directorio;
+    private final long bytesMaximos;
+
+    /**
+     * @param directorio el directorio de los reportes; se crea al escribir el primero
+     * @param bytesMaximos el maximo de bytes que ocupan todos los reportes
+     * @throws IllegalArgumentException si bytesMaximos no es positivo
+     */
+    public AlmacenReportes(Path directorio, long bytesMaximos) {
+        if (bytesMaximos <= 0) {
+            throw new IllegalArgumentException("El tamanio maximo del almacen debe ser positivo: " + bytesMaximos);
+        }
+        this.directorio = requireNonNull(directorio);
+        this.bytesMaximos = bytesMaximos;
+    }
+
+    /**
+     * Returna el contenido del reporte de la clave, y lo marca como el usado mas recientemente
+     *
+     * @param clave la clave del reporte
+     * @return el contenido, o un Optional vacio si no existe, no se pudo leer o esta danado
+     */
+    public synchronized Optional<byte[]> leer(String clave) {
+        Path archivo = archivo(clave);
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(archivo);
+        } catch (IOException exception) {
+            return Optional.empty();
+        }
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (entrada.readInt() != MAGIA || entrada.readInt() != VERSION || !entrada.readUTF().equals(clave)) {
+                return Optional.empty();
+            }
+            byte[] contenido = new byte[entrada.readInt()];
+            int crc = entrada.readInt();
+            entrada.readFully(contenido);
+            if (crc(contenido) != crc) {
+                eliminar(archivo);
+                return Optional.empty();
+            }
+            Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(contenido);
+        } catch (IOException | RuntimeException exception) {
+            eliminar(archivo);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Guarda el contenido del reporte de la clave, reemplazando al anterior, y elimina los reportes
+     * usados menos recientemente si el almacen excede su tamanio maximo.
+     * Un reporte mayor al tamanio maximo no se guarda
+     *
+     * @param clave la clave del reporte
+     * @param contenido el reporte serializado
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir el reporte
+     */
+    public synchronized void escribir(String clave, byte[] contenido) {
+        byte[] bytes = serializar(clave, contenido);
+        if (bytes.length > bytesMaximos) {
+            return;
+        }
+        Path archivo = archivo(clave);
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + SUFIJO_TEMPORAL);
+        try {
+            Files.createDirectories(directorio);
+            Files.write(temporal, bytes);
+            Files.move(temporal, archivo, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException exception) {
+            eliminar(temporal);
+            throw new NoSePudoEscribirEnArchivoException(archivo.toString());
+        }
+        desalojar();
+    }
+
+    /**
+     * Elimina los reportes usados menos recientemente hasta que el almacen no exceda su tamanio maximo
+     */
+    private void desalojar() {
+        record Entrada(Path archivo, long bytes, FileTime uso) {
+        }
+        List<Entrada> entradas = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio, "*" + SUFIJO)) {
+            for (Path archivo : archivos) {
+                BasicFileAttributes atributos = Files.readAttributes(archivo, BasicFileAttributes.class);
+                entradas.add(new Entrada(archivo, atributos.size(), atributos.lastModifiedTime()));
+                total += atributos.size();
+            }
+        } catch (IOException | UncheckedIOException exception) {
+            return;
+        }
+        entradas.sort(Comparator.comparing(Entrada::uso));
+        for (int i = 0; i < entradas.size() && total > bytesMaximos; i++) {
+            eliminar(entradas.get(i).archivo());
+            total -= entradas.get(i).bytes();
+        }
+    }
+
+    private Path archivo(String clave) {
+        return directorio.resolve(format("%016x%s", XxHash64.de(clave.getBytes(UTF_8), 0), SUFIJO));
+    }
+
+    private static byte[] serializar(String clave, byte[] contenido) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(contenido.length + clave.length() + 32);
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeUTF(clave);
+            salida.writeInt(contenido.length);
+            salida.writeInt(crc(contenido));
+            salida.write(contenido);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int crc(byte[] contenido) {
+        CRC32C crc = new CRC32C();
+        crc.update(contenido);
+        return (int) crc.getValue();
+    }
+
+    private static void eliminar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException exception) {
+            // el archivo se vuelve a intentar eliminar o se reemplaza en la siguiente escritura
+        }
+    }
+}
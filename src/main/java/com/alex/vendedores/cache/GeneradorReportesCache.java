@@ -0,0 +1,210 @@
+package com.alex.vendedores.cache;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.ReporteGeneral;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.metricas.Contador;
+import com.alex.vendedores.metricas.Metricas;
+import com.alex.vendedores.servicio.GeneradorReportes;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decorador de GeneradorReportes que conserva los reportes en un AlmacenReportes entre ejecuciones,
+ * para que mientras el input no cambie, cada reporte se lea del almacen en lugar de cargar el input
+ * y volver a calcularlo.
+ *
+ * <p>La clave de cada reporte es su tipo, la huella del input y, solo para los reportes que dependen
+ * de la fecha actual, la fecha de referencia: el promedio de edades cambia cuando cambia el dia,
+ * el reporte general no. La huella del input se calcula en cada reporte, por lo que un input
+ * modificado entre dos reportes de la misma ejecucion tampoco devuelve un reporte obsoleto.
+ * Los vendedores guardados durante la ejecucion sin modificar el input no cambian la huella,
+ * por lo que este generador solo debe utilizarse cuando los reportes no siguen a un guardado.
+ *
+ * <p>Si el almacen no se puede escribir, el reporte calculado se returna de todas formas;
+ * el cache solo evita trabajo, nunca cambia el resultado.
+ *
+ * @author Alex Angulo
+ */
+public final class GeneradorReportesCache implements GeneradorReportes {
+
+    private static final Contador ACIERTOS = Metricas.contador("cacheReportes.aciertos");
+    private static final Contador FALLOS = Metricas.contador("cacheReportes.fallos");
+    private static final Contador ERRORES_ESCRITURA = Metricas.contador("cacheReportes.erroresEscritura");
+
+    private static final String GENERAL = "general";
+    private static final String EDAD_PROMEDIO_POR_ZONA = "edadPromedioPorZona";
+
+    /**
+     * El generador de los reportes que no estan en el almacen
+     */
+    private final GeneradorReportes generador;
+
+    private final AlmacenReportes almacen;
+
+    /**
+     * Provee la huella de todo lo que determina los vendedores: los archivos de input y la configuracion
+     * con que se leen
+     */
+    private final Supplier<String> huellaInput;
+
+    /**
+     * Provee la fecha con que se calculan las edades
+     */
+    private final Supplier<LocalDate> fechaReferencia;
+
+    /**
+     * @param generador el generador de los reportes que no estan en el almacen
+     * @param almacen el almacen de los reportes
+     * @param huellaInput provee la huella del input, que cambia si cambian los vendedores que se leerian
+     * @param fechaReferencia provee la fecha con que se calculan las edades, normalmente 'LocalDate::now'
+     */
+    public GeneradorReportesCache(GeneradorReportes generador, AlmacenReportes almacen,
+                                  Supplier<String> huellaInput, Supplier<LocalDate> fechaReferencia) {
+        this.generador = requireNonNull(generador);
+        this.almacen = requireNonNull(almacen);
+        this.huellaInput = requireNonNull(huellaInput);
+        this.fechaReferencia = requireNonNull(fechaReferencia);
+    }
+
+    @Override
+    public ReporteGeneral reporteGeneral() {
+        String clave = GENERAL + '|' + huellaInput.get();
+        Optional<ReporteGeneral> almacenado = almacen.leer(clave).map(GeneradorReportesCache::leerGeneral);
+        if (almacenado.isPresent()) {
+            registrarAcierto();
+            return almacenado.get();
+        }
+        ReporteGeneral reporte = generador.reporteGeneral();
+        guardar(clave, escribirGeneral(reporte));
+        return reporte;
+    }
+
+    @Override
+    public ReporteEdadPromedioPorZona reporteEdadPromedioPorZona() {
+        String clave = EDAD_PROMEDIO_POR_ZONA + '|' + fechaReferencia.get() + '|' + huellaInput.get();
+        Optional<ReporteEdadPromedioPorZona> almacenado = almacen.leer(clave)
+                .map(GeneradorReportesCache::leerEdadPromedioPorZona);
+        if (almacenado.isPresent()) {
+            registrarAcierto();
+            return almacenado.get();
+        }
+        ReporteEdadPromedioPorZona reporte = generador.reporteEdadPromedioPorZona();
+        guardar(clave, escribirEdadPromedioPorZona(reporte));
+        return reporte;
+    }
+
+    /**
+     * Guarda el reporte recien calculado en el almacen
+     */
+    private void guardar(String clave, byte[] contenido) {
+        if (Metricas.HABILITADAS) {
+            FALLOS.incrementar();
+        }
+        try {
+            almacen.escribir(clave, contenido);
+        } catch (NoSePudoEscribirEnArchivoException exception) {
+            if (Metricas.HABILITADAS) {
+                ERRORES_ESCRITURA.incrementar();
+            }
+        }
+    }
+
+    private static void registrarAcierto() {
+        if (Metricas.HABILITADAS) {
+            ACIERTOS.incrementar();
+        }
+    }
+
+    /**
+     * Serializa el reporte general: el numero de vendedores y, por cada uno, su id, nombre,
+     * fecha de nacimiento como dia de la epoca y estado, en el orden del reporte
+     */
+    private static byte[] escribirGeneral(ReporteGeneral reporte) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(reporte.datos().size());
+            for (Vendedor vendedor : reporte.datos()) {
+                salida.writeInt(vendedor.getId());
+                salida.writeUTF(vendedor.getNombre());
+                salida.writeLong(vendedor.getFechaDeNacimiento().toEpochDay());
+                salida.writeUTF(vendedor.getEstado());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returna el reporte general serializado, o null si el contenido no es valido
+     */
+    private static ReporteGeneral leerGeneral(byte[] contenido) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(contenido))) {
+            int cantidad = entrada.readInt();
+            List<Vendedor> vendedores = new ArrayList<>(cantidad);
+            for (int i = 0; i < cantidad; i++) {
+                vendedores.add(Vendedor.builder()
+                        .id(entrada.readInt())
+                        .nombre(entrada.readUTF())
+                        .fechaDeNacimiento(LocalDate.ofEpochDay(entrada.readLong()))
+                        .estado(entrada.readUTF())
+                        .build());
+            }
+            return new ReporteGeneral(vendedores);
+        } catch (IOException | RuntimeException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Serializa el reporte de edad promedio: el numero de vendedores, el numero de zonas
+     * y, por cada zona, su nombre y su promedio, en el orden del reporte
+     */
+    private static byte[] escribirEdadPromedioPorZona(ReporteEdadPromedioPorZona reporte) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            salida.writeInt(reporte.vendedores());
+            salida.writeInt(reporte.datos().size());
+            for (Map.Entry<String, Double> zona : reporte.datos()) {
+                salida.writeUTF(zona.getKey());
+                salida.writeDouble(zona.getValue());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returna el reporte de edad promedio serializado, o null si el contenido no es valido
+     */
+    private static ReporteEdadPromedioPorZona leerEdadPromedioPorZona(byte[] contenido) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(contenido))) {
+            int vendedores = entrada.readInt();
+            int zonas = entrada.readInt();
+            Map<String, Double> promedios = new LinkedHashMap<>();
+            for (int i = 0; i < zonas; i++) {
+                promedios.put(entrada.readUTF(), entrada.readDouble());
+            }
+            return new ReporteEdadPromedioPorZona(promedios, vendedores);
+        } catch (IOException | RuntimeException exception) {
+            return null;
+        }
+    }
+}
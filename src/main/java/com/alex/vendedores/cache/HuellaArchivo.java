@@ -0,0 +1,91 @@
+package com.alex.vendedores.cache;
+
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.lang.String.format;
+
+/**
+ * La huella ('fingerprint') de un archivo: su tamanio, su fecha de modificacion y el hash XXH64
+ * de su contenido, para saber sin compararlo byte por byte si cambio desde la ultima vez.
+ *
+ * <p>Los archivos de hasta UMBRAL_MUESTREO bytes se leen completos. De los mayores solo se leen
+ * MUESTRAS bloques repartidos uniformemente, incluyendo el primero y el ultimo; un cambio fuera de
+ * las muestras que no altere el tamanio ni la fecha de modificacion no se detecta.
+ *
+ * @param tamanio el tamanio del archivo en bytes
+ * @param modificacion la fecha de modificacion del archivo, en milisegundos desde la epoca
+ * @param hash el hash del contenido completo, o de las muestras
+ * @author Alex Angulo
+ */
+public record HuellaArchivo(long tamanio, long modificacion, long hash) {
+
+    private static final long UMBRAL_MUESTREO = 64L << 20;
+    private static final int MUESTRAS = 64;
+    private static final int BYTES_POR_MUESTRA = 64 << 10;
+
+    private static final int CAPACIDAD_BUFFER = 1 << 20;
+
+    /**
+     * Calcula la huella del archivo. Puede estar en cualquier sistema de archivos, por ejemplo dentro de un jar
+     *
+     * @param archivo el archivo
+     * @return la huella del archivo
+     * @throws NoSePudoLeerArchivoException si no se pudo leer el archivo
+     */
+    public static HuellaArchivo calcular(Path archivo) {
+        try (SeekableByteChannel canal = Files.newByteChannel(archivo)) {
+            long tamanio = canal.size();
+            long modificacion = Files.getLastModifiedTime(archivo).toMillis();
+            XxHash64 hash = new XxHash64(tamanio);
+            if (tamanio <= UMBRAL_MUESTREO) {
+                leer(canal, hash, Long.MAX_VALUE, ByteBuffer.allocate(CAPACIDAD_BUFFER));
+            } else {
+                ByteBuffer buffer = ByteBuffer.allocate(BYTES_POR_MUESTRA);
+                for (int muestra = 0; muestra < MUESTRAS; muestra++) {
+                    canal.position(muestra * (tamanio - BYTES_POR_MUESTRA) / (MUESTRAS - 1));
+                    leer(canal, hash, BYTES_POR_MUESTRA, buffer);
+                }
+            }
+            return new HuellaArchivo(tamanio, modificacion, hash.valor());
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(archivo.toString(), exception);
+        }
+    }
+
+    /**
+     * Agrega al hash hasta 'maximo' bytes desde la posicion actual del canal
+     */
+    private static void leer(SeekableByteChannel canal, XxHash64 hash, long maximo, ByteBuffer buffer)
+            throws IOException {
+        long restantes = maximo;
+        while (restantes > 0) {
+            buffer.clear();
+            if (restantes < buffer.capacity()) {
+                buffer.limit((int) restantes);
+            }
+            int leidos = canal.read(buffer);
+            if (leidos < 0) {
+                return;
+            }
+            buffer.flip();
+            hash.actualizar(buffer);
+            restantes -= leidos;
+        }
+    }
+
+    /**
+     * Returna la huella en la forma 'tamanio:modificacion:hash', con el hash en hexadecimal
+     *
+     * @return la huella como texto
+     */
+    @Override
+    public String toString() {
+        return format("%d:%d:%016x", tamanio, modificacion, hash);
+    }
+}
@@ -0,0 +1,144 @@
+package com.alex.vendedores.cache;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * Implementacion incremental del hash XXH64 (xxHash de 64 bits): los bytes pueden recibirse en
+ * cualquier numero de partes y el resultado es el mismo que el de recibirlos juntos.
+ *
+ * <p>Procesa franjas de 32 bytes con cuatro acumuladores independientes, por lo que es
+ * varias veces mas rapido que un CRC o un hash criptografico, y es suficiente para detectar
+ * cambios en un archivo, no para resistir colisiones provocadas.
+ *
+ * <p>No es thread-safe.
+ *
+ * @author Alex Angulo
+ */
+final class XxHash64 {
+
+    private static final long PRIMO_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIMO_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIMO_3 = 0x165667B19E3779F9L;
+    private static final long PRIMO_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIMO_5 = 0x27D4EB2F165667C5L;
+
+    private static final int BYTES_POR_FRANJA = 32;
+
+    private final long semilla;
+    private long acumulador1;
+    private long acumulador2;
+    private long acumulador3;
+    private long acumulador4;
+    private long longitudTotal;
+
+    /**
+     * Los bytes recibidos que aun no completan una franja
+     */
+    private final ByteBuffer pendientes = ByteBuffer.allocate(BYTES_POR_FRANJA).order(LITTLE_ENDIAN);
+
+    XxHash64(long semilla) {
+        this.semilla = semilla;
+        this.acumulador1 = semilla + PRIMO_1 + PRIMO_2;
+        this.acumulador2 = semilla + PRIMO_2;
+        this.acumulador3 = semilla;
+        this.acumulador4 = semilla - PRIMO_1;
+    }
+
+    /**
+     * Returna el hash de los bytes
+     *
+     * @param bytes los bytes
+     * @param semilla la semilla del hash
+     * @return el hash XXH64 de los bytes
+     */
+    static long de(byte[] bytes, long semilla) {
+        XxHash64 hash = new XxHash64(semilla);
+        hash.actualizar(ByteBuffer.wrap(bytes));
+        return hash.valor();
+    }
+
+    /**
+     * Agrega al hash los bytes entre la posicion y el limite del buffer, sin modificar su posicion
+     *
+     * @param datos los bytes a agregar
+     */
+    void actualizar(ByteBuffer datos) {
+        ByteBuffer bytes = datos.duplicate().order(LITTLE_ENDIAN);
+        longitudTotal += bytes.remaining();
+        if (pendientes.position() > 0) {
+            while (pendientes.hasRemaining() && bytes.hasRemaining()) {
+                pendientes.put(bytes.get());
+            }
+            if (pendientes.hasRemaining()) {
+                return;
+            }
+            procesarFranja(pendientes, 0);
+            pendientes.clear();
+        }
+        while (bytes.remaining() >= BYTES_POR_FRANJA) {
+            procesarFranja(bytes, bytes.position());
+            bytes.position(bytes.position() + BYTES_POR_FRANJA);
+        }
+        pendientes.put(bytes);
+    }
+
+    /**
+     * Returna el hash de todos los bytes agregados. Pueden agregarse mas bytes despues
+     *
+     * @return el hash XXH64
+     */
+    long valor() {
+        long hash;
+        if (longitudTotal >= BYTES_POR_FRANJA) {
+            hash = Long.rotateLeft(acumulador1, 1) + Long.rotateLeft(acumulador2, 7)
+                    + Long.rotateLeft(acumulador3, 12) + Long.rotateLeft(acumulador4, 18);
+            hash = combinar(hash, acumulador1);
+            hash = combinar(hash, acumulador2);
+            hash = combinar(hash, acumulador3);
+            hash = combinar(hash, acumulador4);
+        } else {
+            hash = semilla + PRIMO_5;
+        }
+        hash += longitudTotal;
+
+        int fin = pendientes.position();
+        int posicion = 0;
+        for (; posicion + Long.BYTES <= fin; posicion += Long.BYTES) {
+            hash ^= ronda(0, pendientes.getLong(posicion));
+            hash = Long.rotateLeft(hash, 27) * PRIMO_1 + PRIMO_4;
+        }
+        if (posicion + Integer.BYTES <= fin) {
+            hash ^= Integer.toUnsignedLong(pendientes.getInt(posicion)) * PRIMO_1;
+            hash = Long.rotateLeft(hash, 23) * PRIMO_2 + PRIMO_3;
+            posicion += Integer.BYTES;
+        }
+        for (; posicion < fin; posicion++) {
+            hash ^= (pendientes.get(posicion) & 0xFFL) * PRIMO_5;
+            hash = Long.rotateLeft(hash, 11) * PRIMO_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIMO_2;
+        hash ^= hash >>> 29;
+        hash *= PRIMO_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private void procesarFranja(ByteBuffer bytes, int posicion) {
+        acumulador1 = ronda(acumulador1, bytes.getLong(posicion));
+        acumulador2 = ronda(acumulador2, bytes.getLong(posicion + 8));
+        acumulador3 = ronda(acumulador3, bytes.getLong(posicion + 16));
+        acumulador4 = ronda(acumulador4, bytes.getLong(posicion + 24));
+    }
+
+    private static long ronda(long acumulador, long valor) {
+        return Long.rotateLeft(acumulador + valor * PRIMO_2, 31) * PRIMO_1;
+    }
+
+    private static long combinar(long hash, long acumulador) {
+        return (hash ^ ronda(0, acumulador)) * PRIMO_1 + PRIMO_4;
+    }
+}
@@ -1,6 +1,7 @@
 package com.alex.vendedores.cli;
 
 import com.alex.vendedores.applicacion.InterfazUsuario;
+import com.alex.vendedores.archivo.SalidaBufferizada;
 import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
 import com.alex.vendedores.dominio.ReporteGeneral;
 import com.alex.vendedores.dominio.Vendedor;
@@ -19,6 +20,9 @@ import static java.lang.String.format;
 /**
  * Clase para abstraer la salida mediante la linea de comandos
  *
+ * <p>Los reportes se escriben en una SalidaBufferizada, que solo se vacia al terminar
+ * cada reporte o antes de leer la respuesta del usuario.
+ *
  * @author Alex Angulo
  */
 public final class CommandLineInterface implements InterfazUsuario {
@@ -33,9 +37,19 @@ public final class CommandLineInterface implements InterfazUsuario {
      */
     private final Scanner entrada;
 
+    /**
+     * La salida donde se muestran los reportes y mensajes
+     */
+    private final SalidaBufferizada salida;
+
     public CommandLineInterface(Function<Vendedor, String> formatter) {
+        this(formatter, SalidaBufferizada.consola());
+    }
+
+    public CommandLineInterface(Function<Vendedor, String> formatter, SalidaBufferizada salida) {
         this.formatter = formatter;
         this.entrada = new Scanner(System.in);
+        this.salida = salida;
     }
 
     /**
@@ -59,6 +73,7 @@ public final class CommandLineInterface implements InterfazUsuario {
         reporte.datos().stream()
                 .map(formatter)
                 .forEach(this::mostrar);
+        salida.flush();
     }
 
     /**
@@ -76,6 +91,7 @@ public final class CommandLineInterface implements InterfazUsuario {
         reporte.datos().stream()
                 .map(this::formatearPromedioEdadPorZona)
                 .forEach(this::mostrar);
+        salida.flush();
     }
 
     /**
@@ -99,6 +115,7 @@ public final class CommandLineInterface implements InterfazUsuario {
      */
     public void notificarQueElVendedorHaSidoGuardado() {
         mostrar(Mensajes.VENDEDOR_FUE_GUARDADO);
+        salida.flush();
     }
 
     /**
@@ -171,7 +188,7 @@ public final class CommandLineInterface implements InterfazUsuario {
      * @param mensaje el mensaje a mostrar
      */
     private void mostrar(String mensaje) {
-        System.out.println(mensaje);
+        salida.escribirLinea(mensaje);
     }
 
     /**
@@ -180,15 +197,16 @@ public final class CommandLineInterface implements InterfazUsuario {
      * @param mensajeConFormato el mensaje a mostrar con formato
      */
     private void mostrarConFormato(String mensajeConFormato) {
-        System.out.printf(mensajeConFormato);
+        salida.escribir(mensajeConFormato);
     }
 
     /**
-     * Lee una linea
+     * Lee una linea, despues de mostrar los mensajes pendientes
      *
      * @return la linea leida
      */
     private String leerLinea() {
+        salida.flush();
         return entrada.nextLine();
     }
 
@@ -199,6 +217,7 @@ public final class CommandLineInterface implements InterfazUsuario {
      */
     private int leerEntero() {
         int entero = 0;
+        salida.flush();
         try {
             entero = entrada.nextInt();
         } catch (InputMismatchException exception) {
@@ -215,6 +234,7 @@ public final class CommandLineInterface implements InterfazUsuario {
      */
     private void abortarApp() {
         mostrar(Mensajes.ERROR_ABORTANDO_APP);
+        salida.flush();
         System.exit(1);
     }
 
@@ -0,0 +1,98 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+import com.alex.vendedores.archivo.Rutas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de DestinoRechazos que escribe las filas rechazadas de cada archivo
+ * en un archivo paralelo ('sidecar') llamado '[archivo].rechazos.csv', con el formato:
+ *
+ * numero de linea,motivo,contenido original de la fila
+ *
+ * <p>'[archivo]' es el nombre de Rutas.nombreUnico, por lo que dos archivos con el mismo nombre
+ * en distintos directorios no comparten el archivo de rechazos.
+ *
+ * <p>El archivo de rechazos solo se crea si hubo al menos una fila rechazada, y se reemplaza
+ * en cada lectura. Si una lectura no tiene rechazos, se elimina el archivo de una lectura anterior.
+ *
+ * @author Alex Angulo
+ */
+public final class BitacoraRechazos implements DestinoRechazos {
+
+    /**
+     * El sufijo del nombre de cada archivo de rechazos
+     */
+    private static final String SUFIJO = ".rechazos.csv";
+
+    /**
+     * El directorio donde se escriben los archivos de rechazos
+     */
+    private final Path directorio;
+
+    public BitacoraRechazos(Path directorio) {
+        this.directorio = requireNonNull(directorio);
+    }
+
+    /**
+     * Abre el registro de rechazos del archivo.
+     * El archivo de rechazos se crea hasta que se registra la primera fila rechazada.
+     *
+     * @param archivo el archivo que se va a leer
+     * @return el registro que escribe las filas rechazadas en el archivo de rechazos
+     */
+    @Override
+    public RegistroRechazos abrir(Path archivo) {
+        return new RegistroArchivo(directorio.resolve(Rutas.nombreUnico(archivo) + SUFIJO));
+    }
+
+    /**
+     * Registro que escribe las filas rechazadas de un archivo en su archivo de rechazos
+     */
+    private static final class RegistroArchivo implements RegistroRechazos {
+
+        private final Path sidecar;
+        private BufferedWriter salida;
+
+        RegistroArchivo(Path sidecar) {
+            this.sidecar = sidecar;
+        }
+
+        @Override
+        public void rechazar(long numeroLinea, MotivoRechazo motivo, String linea) {
+            try {
+                if (salida == null) {
+                    salida = Files.newBufferedWriter(sidecar, UTF_8);
+                }
+                salida.write(Long.toString(numeroLinea));
+                salida.write(',');
+                salida.write(motivo.name());
+                salida.write(',');
+                salida.write(linea);
+                salida.newLine();
+            } catch (IOException exception) {
+                throw new NoSePudoEscribirEnArchivoException(sidecar.toString());
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (salida != null) {
+                    salida.close();
+                } else {
+                    Files.deleteIfExists(sidecar);
+                }
+            } catch (IOException exception) {
+                throw new NoSePudoEscribirEnArchivoException(sidecar.toString());
+            }
+        }
+    }
+}
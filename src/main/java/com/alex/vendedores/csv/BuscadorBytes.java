@@ -0,0 +1,165 @@
+package com.alex.vendedores.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Localiza los delimitadores ',', '\n' y '"' de un rango de un ByteBuffer.
+ *
+ * <p>Utiliza la tecnica SWAR ('SIMD Within A Register'): lee el buffer de 8 en 8 bytes
+ * como un long y, con operaciones aritmeticas y de bits, calcula en un solo paso
+ * cuales de esos 8 bytes son delimitadores. Cada delimitador se entrega consumiendo
+ * un bit de esa mascara, por lo que cada byte del buffer se lee una sola vez aunque
+ * una misma palabra contenga varias comas. Los ultimos bytes del rango, que no
+ * completan un long, se revisan uno por uno.
+ *
+ * <p>Un BuscadorBytes no es thread-safe; cada lectura de un archivo utiliza el suyo.
+ *
+ * @author Alex Angulo
+ */
+public final class BuscadorBytes {
+
+    /**
+     * Los 7 bits bajos de cada byte de un long
+     */
+    private static final long SIETE_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Un 1 en cada byte de un long
+     */
+    private static final long UNOS = 0x0101010101010101L;
+
+    /**
+     * El bit alto de cada byte de un long
+     */
+    private static final long BITS_ALTOS = 0x8080808080808080L;
+
+    /**
+     * El patron de busqueda de cada delimitador: el byte repetido en los 8 bytes de un long
+     */
+    private static final long COMAS = patron((byte) ',');
+    private static final long SALTOS_DE_LINEA = patron((byte) '\n');
+    private static final long COMILLAS = patron((byte) '"');
+
+    /**
+     * El buffer en orden LITTLE_ENDIAN, para que el primer byte de cada
+     * long leido corresponda a sus bits menos significativos
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * La posicion final del rango, exclusiva
+     */
+    private int fin;
+
+    /**
+     * La posicion del primer byte de la palabra actual
+     */
+    private int palabra;
+
+    /**
+     * Los delimitadores de la palabra actual que aun no se han entregado,
+     * como el bit alto de cada byte
+     */
+    private long pendientes;
+
+    /**
+     * Prepara la busqueda de delimitadores en el rango [desde, hasta) del buffer.
+     * El buffer original no se modifica.
+     *
+     * @param buffer el buffer a recorrer
+     * @param desde la posicion inicial, inclusiva
+     * @param hasta la posicion final, exclusiva
+     */
+    public void reiniciar(ByteBuffer buffer, int desde, int hasta) {
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.fin = hasta;
+        this.palabra = desde - Long.BYTES;
+        this.pendientes = 0;
+    }
+
+    /**
+     * Returna la posicion del siguiente ',', '\n' o '"' del rango
+     *
+     * @return la posicion del delimitador, o el fin del rango si ya no hay mas
+     */
+    public int siguiente() {
+        while (pendientes == 0) {
+            palabra += Long.BYTES;
+            if (palabra >= fin) {
+                palabra = fin;
+                return fin;
+            }
+            pendientes = palabra + Long.BYTES <= fin
+                    ? delimitadores(buffer.getLong(palabra))
+                    : delimitadoresByteAByte(palabra, fin);
+        }
+        int posicion = palabra + (Long.numberOfTrailingZeros(pendientes) >>> 3);
+        pendientes &= pendientes - 1;
+        return posicion;
+    }
+
+    /**
+     * Returna el buffer que se esta recorriendo, en orden LITTLE_ENDIAN
+     *
+     * @return el buffer
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Calcula la mascara de delimitadores de los ultimos bytes del rango, uno por uno
+     */
+    private long delimitadoresByteAByte(int desde, int hasta) {
+        long mascara = 0;
+        for (int i = desde; i < hasta; i++) {
+            byte caracter = buffer.get(i);
+            if (caracter == ',' || caracter == '\n' || caracter == '"') {
+                mascara |= 0x80L << ((i - desde) * Byte.SIZE);
+            }
+        }
+        return mascara;
+    }
+
+    /**
+     * Returna la mascara de delimitadores de una palabra: el bit alto encendido
+     * en cada byte que es ',', '\n' o '"' y todos los demas bits apagados
+     *
+     * @param palabra 8 bytes del buffer
+     * @return la mascara de delimitadores
+     */
+    public static long delimitadores(long palabra) {
+        return coincidencias(palabra, COMAS) | coincidencias(palabra, SALTOS_DE_LINEA) | coincidencias(palabra, COMILLAS);
+    }
+
+    /**
+     * Returna un long con el bit alto encendido en cada byte de la palabra que es igual
+     * al byte del patron, y todos los demas bits apagados.
+     *
+     * <p>Al hacer XOR con el patron, los bytes buscados quedan en cero. Sumar 0x7F a los
+     * 7 bits bajos de cada byte enciende su bit alto si y solo si alguno de esos bits
+     * estaba encendido; combinado con el bit alto original, solo los bytes en cero quedan
+     * con el bit alto apagado. A diferencia del truco clasico '(x - 0x01..) & ~x', no hay
+     * acarreo entre bytes, por lo que el resultado es exacto para todos los bytes.
+     *
+     * @param palabra 8 bytes del buffer
+     * @param patron el patron del byte buscado
+     * @return la mascara de coincidencias
+     */
+    public static long coincidencias(long palabra, long patron) {
+        long x = palabra ^ patron;
+        long t = (x & SIETE_BITS) + SIETE_BITS;
+        return ~(t | x) & BITS_ALTOS;
+    }
+
+    /**
+     * Returna el patron de busqueda de un byte, es decir, el byte repetido 8 veces
+     *
+     * @param buscado el byte buscado
+     * @return el patron de busqueda
+     */
+    public static long patron(byte buscado) {
+        return (buscado & 0xFFL) * UNOS;
+    }
+}
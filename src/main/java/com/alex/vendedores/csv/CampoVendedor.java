@@ -0,0 +1,32 @@
+package com.alex.vendedores.csv;
+
+/**
+ * Los campos de un Vendedor que se leen de una columna del archivo CSV
+ *
+ * @author Alex Angulo
+ */
+public enum CampoVendedor {
+
+    ID("id"),
+    NOMBRE("nombre"),
+    FECHA_DE_NACIMIENTO("fechaDeNacimiento"),
+    ESTADO("estado");
+
+    /**
+     * El nombre del campo en un archivo de propiedades de EsquemaColumnas
+     */
+    private final String clave;
+
+    CampoVendedor(String clave) {
+        this.clave = clave;
+    }
+
+    /**
+     * Returna el nombre del campo en un archivo de propiedades de EsquemaColumnas
+     *
+     * @return la clave del campo
+     */
+    public String clave() {
+        return clave;
+    }
+}
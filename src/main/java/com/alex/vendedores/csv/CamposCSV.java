@@ -0,0 +1,187 @@
+package com.alex.vendedores.csv;
+
+/**
+ * Separa una fila CSV en sus campos segun el RFC 4180, y entrecomilla los campos al escribirlos.
+ *
+ * <p>Un campo puede estar entre comillas dobles, en cuyo caso puede contener comas, y una comilla
+ * dentro del campo se escribe como dos comillas seguidas: '"Perez, ""Juan"""' es 'Perez, "Juan"'.
+ * Una comilla en un campo sin comillas, o un campo con comillas que no termina en comilla,
+ * hace invalida la fila. Cada fila es una sola linea: no se admiten saltos de linea dentro de un campo.
+ *
+ * <p>Las filas sin comillas, que son la gran mayoria, se separan con 'indexOf' sin pasar
+ * por la maquina de estados.
+ *
+ * @author Alex Angulo
+ */
+final class CamposCSV {
+
+    private static final char COMA = ',';
+    private static final char COMILLA = '"';
+
+    private CamposCSV() {
+    }
+
+    /**
+     * Separa todos los campos de la fila
+     *
+     * @param fila la fila, sin salto de linea
+     * @return los campos, sin sus comillas, o null si la fila no es valida
+     */
+    static String[] separar(String fila) {
+        int columnas = contarColumnas(fila);
+        return columnas < 0 ? null : separar(fila, columnas, null);
+    }
+
+    /**
+     * Separa la fila, extrayendo solo las columnas del plan que corresponden a un campo
+     *
+     * @param fila la fila, sin salto de linea
+     * @param plan el plan de columnas
+     * @return arreglo de 'plan.ultimaColumnaUtilizada() + 1' posiciones, con null en las columnas
+     *         que no se utilizan, o null si la fila no es valida o no tiene 'plan.columnas()' columnas
+     */
+    static String[] separar(String fila, PlanColumnas plan) {
+        return separar(fila, plan.columnas(), plan);
+    }
+
+    /**
+     * Returna si la primera linea de un archivo es su encabezado: si su primer campo, sin la comilla
+     * que lo abre, no comienza con un digito. Asi una fila cuyo id esta entre comillas, como '"1",Juan,...',
+     * no se confunde con un encabezado
+     *
+     * @param primeraLinea la primera linea no vacia del archivo, sin salto de linea
+     * @return true si la linea es el encabezado
+     */
+    static boolean esEncabezado(String primeraLinea) {
+        int inicio = !primeraLinea.isEmpty() && primeraLinea.charAt(0) == COMILLA ? 1 : 0;
+        if (inicio >= primeraLinea.length()) {
+            return !primeraLinea.isEmpty();
+        }
+        char primero = primeraLinea.charAt(inicio);
+        return primero < '0' || primero > '9';
+    }
+
+    /**
+     * Returna el campo listo para escribirse en una fila: entre comillas si contiene
+     * comas, comillas o saltos de linea, de lo contrario sin cambios
+     *
+     * @param campo el campo a escribir
+     * @return el campo, entrecomillado si es necesario
+     */
+    static String entrecomillar(String campo) {
+        for (int i = 0; i < campo.length(); i++) {
+            char caracter = campo.charAt(i);
+            if (caracter == COMA || caracter == COMILLA || caracter == '\n' || caracter == '\r') {
+                return COMILLA + campo.replace("\"", "\"\"") + COMILLA;
+            }
+        }
+        return campo;
+    }
+
+    /**
+     * Separa la fila en exactamente 'columnas' campos
+     *
+     * @param plan el plan cuyas columnas se extraen, o null para extraer todas
+     */
+    private static String[] separar(String fila, int columnas, PlanColumnas plan) {
+        String[] campos = new String[plan == null ? columnas : plan.ultimaColumnaUtilizada() + 1];
+        boolean conComillas = fila.indexOf(COMILLA) >= 0;
+        int inicio = 0;
+        int columna = 0;
+        while (true) {
+            if (columna == columnas) {
+                return null;
+            }
+            boolean extraer = columna < campos.length && (plan == null || plan.campo(columna) != null);
+            int fin;
+            if (conComillas && inicio < fila.length() && fila.charAt(inicio) == COMILLA) {
+                StringBuilder campo = extraer ? new StringBuilder() : null;
+                fin = finCampoEntrecomillado(fila, inicio, campo);
+                if (fin < 0) {
+                    return null;
+                }
+                if (extraer) {
+                    campos[columna] = campo.toString();
+                }
+            } else {
+                int coma = fila.indexOf(COMA, inicio);
+                fin = coma < 0 ? fila.length() : coma;
+                if (conComillas && tieneComilla(fila, inicio, fin)) {
+                    return null;
+                }
+                if (extraer) {
+                    campos[columna] = fila.substring(inicio, fin);
+                }
+            }
+            columna++;
+            if (fin == fila.length()) {
+                return columna == columnas ? campos : null;
+            }
+            inicio = fin + 1;
+        }
+    }
+
+    /**
+     * Recorre un campo entrecomillado y returna la posicion siguiente a su comilla de cierre,
+     * que debe ser una coma o el fin de la fila
+     *
+     * @param campo recibe el contenido del campo sin comillas, o null si no se extrae
+     * @return la posicion siguiente al campo, o -1 si el campo no es valido
+     */
+    private static int finCampoEntrecomillado(String fila, int inicio, StringBuilder campo) {
+        int posicion = inicio + 1;
+        while (true) {
+            int comilla = fila.indexOf(COMILLA, posicion);
+            if (comilla < 0) {
+                return -1;
+            }
+            if (campo != null) {
+                campo.append(fila, posicion, comilla);
+            }
+            if (comilla + 1 < fila.length() && fila.charAt(comilla + 1) == COMILLA) {
+                if (campo != null) {
+                    campo.append(COMILLA);
+                }
+                posicion = comilla + 2;
+                continue;
+            }
+            int fin = comilla + 1;
+            return fin == fila.length() || fila.charAt(fin) == COMA ? fin : -1;
+        }
+    }
+
+    /**
+     * Returna si hay una comilla en el rango [inicio, fin) de la fila
+     */
+    private static boolean tieneComilla(String fila, int inicio, int fin) {
+        int comilla = fila.indexOf(COMILLA, inicio);
+        return comilla >= 0 && comilla < fin;
+    }
+
+    /**
+     * Cuenta las columnas de la fila
+     *
+     * @return el numero de columnas, o -1 si la fila no es valida
+     */
+    private static int contarColumnas(String fila) {
+        int columnas = 0;
+        int inicio = 0;
+        while (true) {
+            int fin;
+            if (inicio < fila.length() && fila.charAt(inicio) == COMILLA) {
+                fin = finCampoEntrecomillado(fila, inicio, null);
+                if (fin < 0) {
+                    return -1;
+                }
+            } else {
+                int coma = fila.indexOf(COMA, inicio);
+                fin = coma < 0 ? fila.length() : coma;
+            }
+            columnas++;
+            if (fin == fila.length()) {
+                return columnas;
+            }
+            inicio = fin + 1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.CamposDiferidos;
+import com.alex.vendedores.fecha.FechaParser;
+
+import java.time.LocalDate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * El nombre y la fecha de nacimiento de un Vendedor leido por LectorVendedoresBytes, sin decodificar:
+ * los bytes UTF-8 del nombre, copiados por LaminaNombres, y la fecha en su forma compacta de FechaParser.
+ *
+ * <p>El hash del nombre se calcula directamente de sus bytes si son ASCII, con la misma formula
+ * de 'String.hashCode', por lo que descartar duplicados no decodifica ningun nombre.
+ * Los bytes del nombre no se modifican, por lo que varios hilos pueden decodificar a la vez.
+ *
+ * <p>Solo retiene la lamina de LaminaNombres, en el heap, y no el bloque del archivo, por lo que
+ * los cambios posteriores al archivo no alteran al Vendedor.
+ *
+ * @author Alex Angulo
+ */
+final class CamposEnBloque implements CamposDiferidos {
+
+    private final byte[] lamina;
+    private final int inicioNombre;
+    private final int finNombre;
+    private final int fechaCompacta;
+
+    CamposEnBloque(byte[] lamina, int inicioNombre, int finNombre, int fechaCompacta) {
+        this.lamina = lamina;
+        this.inicioNombre = inicioNombre;
+        this.finNombre = finNombre;
+        this.fechaCompacta = fechaCompacta;
+    }
+
+    @Override
+    public String nombre() {
+        return new String(lamina, inicioNombre, finNombre - inicioNombre, UTF_8);
+    }
+
+    @Override
+    public LocalDate fechaDeNacimiento() {
+        return FechaParser.desdeCompacta(fechaCompacta);
+    }
+
+    /**
+     * Returna el hash del nombre. Si todos sus bytes son ASCII, cada byte es un caracter
+     * y el hash se calcula sin decodificarlo
+     */
+    @Override
+    public int hashNombre() {
+        int hash = 0;
+        for (int i = inicioNombre; i < finNombre; i++) {
+            byte caracter = lamina[i];
+            if (caracter < 0) {
+                return nombre().hashCode();
+            }
+            hash = 31 * hash + caracter;
+        }
+        return hash;
+    }
+
+    @Override
+    public int hashFechaDeNacimiento() {
+        return FechaParser.hashCompacta(fechaCompacta);
+    }
+}
@@ -0,0 +1,89 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.PoliticaGuardado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.metricas.EventoCargaVendedores;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Clase utilitaria que carga los vendedores de un archivo en memoria, descartando duplicados,
+ * para los repositorios CSV.
+ *
+ * <p>Cada carga emite un EventoCargaVendedores de Java Flight Recorder.
+ *
+ * @author Alex Angulo
+ */
+final class CargadorVendedores {
+
+    private CargadorVendedores() {
+    }
+
+    /**
+     * Lee el archivo y returna sus vendedores sin duplicados, en el orden del archivo.
+     * Con REEMPLAZAR_POR_ID, cada fila reemplaza a la fila anterior con el mismo id, en su posicion.
+     * Los duplicados descartados y las filas reemplazadas se suman a los contadores como duplicadas.
+     *
+     * @param lector el lector de vendedores a utilizar
+     * @param archivo el archivo a leer
+     * @param contadores los contadores de ingesta
+     * @param politica como se resuelven los vendedores con el mismo id
+     * @return los vendedores del archivo, sin duplicados
+     */
+    static Set<Vendedor> cargar(LectorVendedores lector, Path archivo, ContadoresIngesta contadores,
+                                PoliticaGuardado politica) {
+        EventoCargaVendedores evento = new EventoCargaVendedores();
+        evento.begin();
+
+        long[] leidos = new long[1];
+        long rechazadas;
+        Set<Vendedor> vendedores;
+        if (politica == PoliticaGuardado.REEMPLAZAR_POR_ID) {
+            Map<Integer, Vendedor> porId = new LinkedHashMap<>();
+            rechazadas = lector.leer(archivo, vendedor -> {
+                leidos[0]++;
+                if (porId.put(vendedor.getId(), vendedor) != null) {
+                    contadores.sumarDuplicadas(1);
+                }
+            });
+            vendedores = new LinkedHashSet<>(porId.values());
+        } else {
+            Set<Vendedor> unicos = new LinkedHashSet<>();
+            rechazadas = lector.leer(archivo, vendedor -> {
+                leidos[0]++;
+                if (!unicos.add(vendedor)) {
+                    contadores.sumarDuplicadas(1);
+                }
+            });
+            vendedores = unicos;
+        }
+
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.archivo = archivo.toString();
+            evento.tamanio = tamanio(archivo);
+            evento.vendedoresLeidos = leidos[0];
+            evento.duplicados = leidos[0] - vendedores.size();
+            evento.filasRechazadas = rechazadas;
+            evento.commit();
+        }
+        return vendedores;
+    }
+
+    /**
+     * Returna el tamanio del archivo en bytes, o -1 si no se puede obtener
+     */
+    private static long tamanio(Path archivo) {
+        try {
+            return Files.size(archivo);
+        } catch (IOException exception) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+import com.alex.vendedores.archivo.SalidaBufferizada;
+import com.alex.vendedores.fecha.FormatoFechaException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reescribe un archivo CSV de vendedores dejando solo sus filas vivas: la ultima fila valida de cada id,
+ * en la posicion de la primera fila de ese id. Es decir, las filas que sobreviven al cargar el archivo
+ * con la politica REEMPLAZAR_POR_ID, por lo que el tamanio del archivo y su tiempo de carga dependen
+ * de los vendedores vivos y no del historial de escrituras.
+ *
+ * <p>Las filas vivas se copian tal como estaban, y el encabezado se conserva. Las filas invalidas
+ * se descartan, igual que al cargar el archivo.
+ *
+ * <p>El resultado se escribe en un archivo temporal del mismo directorio, se sincroniza con el disco
+ * ('fsync') y reemplaza al original con un movimiento atomico, por lo que una falla a la mitad deja
+ * intacto el archivo original. No debe haber escrituras en el archivo mientras se compacta.
+ *
+ * @author Alex Angulo
+ */
+public final class CompactadorCSV {
+
+    private static final String SUFIJO_TEMPORAL = ".compactando";
+
+    /**
+     * El resultado de compactar un archivo
+     *
+     * @param filas el numero de filas de datos antes de compactar
+     * @param vivas el numero de filas que quedaron en el archivo
+     */
+    public record Resumen(long filas, int vivas) {
+    }
+
+    /**
+     * El mapper que decide cuales filas son validas y obtiene su id
+     */
+    private final VendedorMapper mapper;
+
+    public CompactadorCSV(VendedorMapper mapper) {
+        this.mapper = requireNonNull(mapper);
+    }
+
+    /**
+     * Compacta el archivo, reemplazandolo de forma atomica
+     *
+     * @param archivo el archivo a compactar
+     * @return el numero de filas antes y despues de compactar
+     * @throws NoSePudoLeerArchivoException si no se puede leer el archivo
+     * @throws NoSePudoEscribirEnArchivoException si no se puede escribir el archivo compactado
+     */
+    public Resumen compactar(Path archivo) {
+        String encabezado = null;
+        Map<Integer, String> vivas = new LinkedHashMap<>();
+        long filas = 0;
+        try (BufferedReader lector = Files.newBufferedReader(archivo, UTF_8)) {
+            String linea = lector.readLine();
+            if (linea != null && !linea.isEmpty() && CamposCSV.esEncabezado(linea)) {
+                encabezado = linea;
+                linea = lector.readLine();
+            }
+            VendedorMapper mapperArchivo = encabezado != null ? mapper.paraEncabezado(encabezado) : mapper;
+            for (; linea != null; linea = lector.readLine()) {
+                if (linea.isBlank()) {
+                    continue;
+                }
+                filas++;
+                Integer id = idSiEsValida(mapperArchivo, linea);
+                if (id != null) {
+                    vivas.put(id, linea);
+                }
+            }
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(archivo.toString(), exception);
+        }
+
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + SUFIJO_TEMPORAL);
+        try {
+            try (SalidaBufferizada salida = SalidaBufferizada.archivo(temporal)) {
+                if (encabezado != null) {
+                    salida.escribirLinea(encabezado);
+                }
+                vivas.values().forEach(salida::escribirLinea);
+                salida.sincronizar();
+            }
+            Files.move(temporal, archivo, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (IOException | RuntimeException exception) {
+            borrar(temporal);
+            throw new NoSePudoEscribirEnArchivoException(archivo.toString());
+        }
+        sincronizarDirectorio(archivo.toAbsolutePath().getParent());
+        return new Resumen(filas, vivas.size());
+    }
+
+    /**
+     * Returna el id de la fila si es un vendedor valido, o null si se rechazaria al cargar el archivo
+     */
+    private static Integer idSiEsValida(VendedorMapper mapper, String linea) {
+        String fila = linea.endsWith("\r") ? linea.substring(0, linea.length() - 1) : linea;
+        if (!mapper.esVendedor(fila)) {
+            return null;
+        }
+        try {
+            return mapper.mapearAVendedor(fila).getId();
+        } catch (NumberFormatException | FormatoFechaException | DateTimeException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Sincroniza el directorio para que el cambio de nombre tambien sea durable.
+     * Algunos sistemas no permiten abrir un directorio, en cuyo caso se omite
+     */
+    private static void sincronizarDirectorio(Path directorio) {
+        try (FileChannel canal = FileChannel.open(directorio, READ)) {
+            canal.force(true);
+        } catch (IOException exception) {
+            // el archivo ya fue reemplazado; solo la durabilidad del nombre depende del sistema operativo
+        }
+    }
+
+    private static void borrar(Path temporal) {
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException exception) {
+            // se conserva la excepcion original
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.metricas.Contador;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores acumulados de todas las lecturas de archivos CSV:
+ * filas aceptadas, filas rechazadas por cada motivo y vendedores duplicados descartados.
+ *
+ * <p>Es thread-safe, ya que varios fragmentos pueden leerse en paralelo.
+ * Los lectores acumulan sus cuentas localmente y las suman aqui al terminar cada archivo.
+ * Si las Metricas estan habilitadas, las cuentas tambien se suman a las metricas 'ingesta.*'.
+ *
+ * @author Alex Angulo
+ */
+public final class ContadoresIngesta {
+
+    private static final Contador METRICA_ACEPTADAS = Metricas.contador("ingesta.filasAceptadas");
+    private static final Contador METRICA_RECHAZADAS = Metricas.contador("ingesta.filasRechazadas");
+    private static final Contador METRICA_DUPLICADAS = Metricas.contador("ingesta.duplicadas");
+
+    private final LongAdder aceptadas = new LongAdder();
+    private final LongAdder duplicadas = new LongAdder();
+    private final Map<MotivoRechazo, LongAdder> rechazadas = new EnumMap<>(MotivoRechazo.class);
+
+    public ContadoresIngesta() {
+        for (MotivoRechazo motivo : MotivoRechazo.values()) {
+            rechazadas.put(motivo, new LongAdder());
+        }
+    }
+
+    /**
+     * Suma filas que se convirtieron en un Vendedor
+     *
+     * @param filas el numero de filas aceptadas
+     */
+    public void sumarAceptadas(long filas) {
+        aceptadas.add(filas);
+        if (Metricas.HABILITADAS) {
+            METRICA_ACEPTADAS.sumar(filas);
+        }
+    }
+
+    /**
+     * Suma filas rechazadas por un motivo
+     *
+     * @param motivo el motivo del rechazo
+     * @param filas el numero de filas rechazadas
+     */
+    public void sumarRechazadas(MotivoRechazo motivo, long filas) {
+        rechazadas.get(motivo).add(filas);
+        if (Metricas.HABILITADAS) {
+            METRICA_RECHAZADAS.sumar(filas);
+        }
+    }
+
+    /**
+     * Suma vendedores descartados por ser identicos a uno ya leido
+     *
+     * @param vendedores el numero de vendedores duplicados
+     */
+    public void sumarDuplicadas(long vendedores) {
+        duplicadas.add(vendedores);
+        if (Metricas.HABILITADAS) {
+            METRICA_DUPLICADAS.sumar(vendedores);
+        }
+    }
+
+    /**
+     * Returna el numero de filas aceptadas
+     *
+     * @return el numero de filas aceptadas
+     */
+    public long aceptadas() {
+        return aceptadas.sum();
+    }
+
+    /**
+     * Returna el numero de vendedores duplicados descartados
+     *
+     * @return el numero de vendedores duplicados descartados
+     */
+    public long duplicadas() {
+        return duplicadas.sum();
+    }
+
+    /**
+     * Returna el numero de filas rechazadas por un motivo
+     *
+     * @param motivo el motivo del rechazo
+     * @return el numero de filas rechazadas por el motivo
+     */
+    public long rechazadas(MotivoRechazo motivo) {
+        return rechazadas.get(motivo).sum();
+    }
+
+    /**
+     * Returna el numero total de filas rechazadas
+     *
+     * @return el numero total de filas rechazadas
+     */
+    public long rechazadas() {
+        return rechazadas.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "ContadoresIngesta{" +
+                "aceptadas=" + aceptadas() +
+                ", duplicadas=" + duplicadas() +
+                ", rechazadas=" + rechazadas +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.alex.vendedores.csv;
+
+import java.nio.file.Path;
+
+/**
+ * Interface que recibe las filas rechazadas durante la lectura de los archivos CSV
+ *
+ * @author Alex Angulo
+ */
+@FunctionalInterface
+public interface DestinoRechazos {
+
+    /**
+     * Un destino que descarta todas las filas rechazadas
+     */
+    DestinoRechazos NINGUNO = archivo -> (numeroLinea, motivo, linea) -> { };
+
+    /**
+     * Abre el registro de rechazos de un archivo. Se invoca una vez por cada lectura
+     * del archivo, y el registro se cierra al terminar dicha lectura.
+     *
+     * @param archivo el archivo que se va a leer
+     * @return el registro que recibe las filas rechazadas del archivo
+     */
+    RegistroRechazos abrir(Path archivo);
+
+    /**
+     * Registro de las filas rechazadas de un archivo
+     */
+    @FunctionalInterface
+    interface RegistroRechazos extends AutoCloseable {
+
+        /**
+         * Registra una fila rechazada
+         *
+         * @param numeroLinea el numero de linea de la fila, comenzando en 1
+         * @param motivo el motivo del rechazo
+         * @param linea el contenido de la fila
+         */
+        void rechazar(long numeroLinea, MotivoRechazo motivo, String linea);
+
+        /**
+         * Cierra el registro. Por defecto no hace nada
+         */
+        @Override
+        default void close() {
+        }
+    }
+}
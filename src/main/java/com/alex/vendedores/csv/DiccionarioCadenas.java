@@ -0,0 +1,148 @@
+package com.alex.vendedores.csv;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Diccionario que returna una unica instancia de String por cada secuencia de bytes UTF-8.
+ *
+ * <p>Se busca directamente con los bytes del archivo, de modo que un valor repetido
+ * (por ejemplo un estado) se decodifica una sola vez y todas sus apariciones comparten la misma String.
+ * Una vez alcanzada su capacidad maxima, los valores nuevos se decodifican sin almacenarse.
+ *
+ * <p>No es thread-safe, cada lectura de un archivo utiliza sus propios diccionarios.
+ *
+ * @author Alex Angulo
+ */
+final class DiccionarioCadenas {
+
+    /**
+     * La capacidad inicial de la tabla, debe ser potencia de 2
+     */
+    private static final int CAPACIDAD_INICIAL = 64;
+
+    /**
+     * El numero maximo de cadenas distintas que se almacenan
+     */
+    private final int capacidadMaxima;
+
+    /**
+     * Tabla hash de direccionamiento abierto: bytes, hash y String de cada entrada
+     */
+    private byte[][] claves;
+    private int[] hashes;
+    private String[] valores;
+
+    /**
+     * El numero de cadenas almacenadas
+     */
+    private int tamanio;
+
+    DiccionarioCadenas(int capacidadMaxima) {
+        this.capacidadMaxima = capacidadMaxima;
+        this.claves = new byte[CAPACIDAD_INICIAL][];
+        this.hashes = new int[CAPACIDAD_INICIAL];
+        this.valores = new String[CAPACIDAD_INICIAL];
+    }
+
+    /**
+     * Returna la String correspondiente a los bytes UTF-8 del rango [inicio, fin)
+     *
+     * @param bytes el buffer que contiene la cadena
+     * @param inicio la posicion del primer byte, inclusiva
+     * @param fin la posicion del ultimo byte, exclusiva
+     * @return la String decodificada, compartida con las apariciones anteriores de los mismos bytes
+     */
+    String cadena(ByteBuffer bytes, int inicio, int fin) {
+        int hash = hash(bytes, inicio, fin);
+        int mascara = claves.length - 1;
+        int indice = hash & mascara;
+        while (claves[indice] != null) {
+            if (hashes[indice] == hash && iguales(claves[indice], bytes, inicio, fin)) {
+                return valores[indice];
+            }
+            indice = (indice + 1) & mascara;
+        }
+
+        byte[] clave = copiar(bytes, inicio, fin);
+        String valor = new String(clave, UTF_8);
+        if (tamanio < capacidadMaxima) {
+            claves[indice] = clave;
+            hashes[indice] = hash;
+            valores[indice] = valor;
+            if (++tamanio * 2 > claves.length) {
+                crecer();
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Duplica el tamanio de la tabla y reubica todas las entradas
+     */
+    private void crecer() {
+        byte[][] clavesAnteriores = claves;
+        int[] hashesAnteriores = hashes;
+        String[] valoresAnteriores = valores;
+
+        int capacidad = clavesAnteriores.length * 2;
+        claves = new byte[capacidad][];
+        hashes = new int[capacidad];
+        valores = new String[capacidad];
+
+        int mascara = capacidad - 1;
+        for (int i = 0; i < clavesAnteriores.length; i++) {
+            if (clavesAnteriores[i] == null) {
+                continue;
+            }
+            int indice = hashesAnteriores[i] & mascara;
+            while (claves[indice] != null) {
+                indice = (indice + 1) & mascara;
+            }
+            claves[indice] = clavesAnteriores[i];
+            hashes[indice] = hashesAnteriores[i];
+            valores[indice] = valoresAnteriores[i];
+        }
+    }
+
+    /**
+     * Calcula el hash FNV-1a de los bytes del rango
+     */
+    private static int hash(ByteBuffer bytes, int inicio, int fin) {
+        int hash = 0x811C9DC5;
+        for (int i = inicio; i < fin; i++) {
+            hash = (hash ^ bytes.get(i)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Compara una clave almacenada con los bytes del rango
+     */
+    private static boolean iguales(byte[] clave, ByteBuffer bytes, int inicio, int fin) {
+        if (clave.length != fin - inicio) {
+            return false;
+        }
+        for (int i = 0; i < clave.length; i++) {
+            if (clave[i] != bytes.get(inicio + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copia los bytes del rango a un nuevo arreglo
+     */
+    private static byte[] copiar(ByteBuffer bytes, int inicio, int fin) {
+        if (bytes.hasArray()) {
+            int desplazamiento = bytes.arrayOffset();
+            return Arrays.copyOfRange(bytes.array(), desplazamiento + inicio, desplazamiento + fin);
+        }
+        byte[] copia = new byte[fin - inicio];
+        bytes.duplicate().position(inicio).get(copia);
+        return copia;
+    }
+}
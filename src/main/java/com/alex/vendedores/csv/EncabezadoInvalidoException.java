@@ -0,0 +1,21 @@
+package com.alex.vendedores.csv;
+
+import static java.lang.String.format;
+
+/**
+ * Excepcion para indicar que el encabezado de un archivo CSV reconoce algunos campos
+ * de un Vendedor pero no todos, por lo que no se puede compilar su PlanColumnas
+ *
+ * @author Alex Angulo
+ */
+public class EncabezadoInvalidoException extends RuntimeException {
+
+    /**
+     * La plantilla para el mensaje de error
+     */
+    private static final String MENSAJE = "Error. El encabezado '%s' no tiene una columna para el campo %s";
+
+    public EncabezadoInvalidoException(String encabezado, CampoVendedor campo) {
+        super(format(MENSAJE, encabezado, campo.clave()));
+    }
+}
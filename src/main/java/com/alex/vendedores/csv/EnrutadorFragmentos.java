@@ -0,0 +1,53 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Interface que decide en cual fragmento (shard) se persiste cada Vendedor
+ * y, de ser posible, a cual estado corresponde cada fragmento.
+ *
+ * @author Alex Angulo
+ */
+public interface EnrutadorFragmentos {
+
+    /**
+     * Returna el fragmento en el cual debe persistirse el Vendedor
+     *
+     * @param vendedor el vendedor a persistir
+     * @return el Path del fragmento destino
+     */
+    Path fragmentoPara(Vendedor vendedor);
+
+    /**
+     * Returna el estado cuyos vendedores se encuentran exclusivamente en el fragmento recibido.
+     * Si el fragmento puede contener vendedores de cualquier estado, returna un Optional vacio.
+     *
+     * @param fragmento el Path del fragmento
+     * @return el estado del fragmento, si es conocido
+     */
+    Optional<String> estadoDe(Path fragmento);
+
+    /**
+     * Returna un enrutador que persiste todos los vendedores en un mismo archivo,
+     * sin asociar ningun fragmento con un estado
+     *
+     * @param archivo el archivo donde se persistiran todos los vendedores
+     * @return el enrutador de archivo fijo
+     */
+    static EnrutadorFragmentos fijo(Path archivo) {
+        return new EnrutadorFragmentos() {
+            @Override
+            public Path fragmentoPara(Vendedor vendedor) {
+                return archivo;
+            }
+
+            @Override
+            public Optional<String> estadoDe(Path fragmento) {
+                return Optional.empty();
+            }
+        };
+    }
+}
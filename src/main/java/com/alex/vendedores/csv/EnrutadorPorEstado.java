@@ -0,0 +1,83 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de EnrutadorFragmentos que mantiene un fragmento por estado.
+ *
+ * <p>Cada fragmento vive en el directorio indicado y su nombre es 'estado=' seguido del estado,
+ * codificado como en una URL, con extension '.csv', por ejemplo 'estado=New+York.csv'. La codificacion
+ * impide que un estado con '/' o '..' resuelva fuera del directorio, y el prefijo distingue los fragmentos
+ * de este enrutador de cualquier otro archivo CSV del directorio, como 'part-001.csv', que puede contener
+ * vendedores de cualquier estado y por lo tanto nunca se descarta al buscar por estado.
+ *
+ * @author Alex Angulo
+ */
+public final class EnrutadorPorEstado implements EnrutadorFragmentos {
+
+    /**
+     * La extension de los archivos de cada fragmento
+     */
+    private static final String EXTENSION = ".csv";
+
+    /**
+     * El prefijo del nombre de los fragmentos de este enrutador
+     */
+    private static final String PREFIJO = "estado=";
+
+    /**
+     * El directorio que contiene los fragmentos
+     */
+    private final Path directorio;
+
+    public EnrutadorPorEstado(Path directorio) {
+        this.directorio = requireNonNull(directorio).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Returna el fragmento del estado del Vendedor
+     *
+     * @param vendedor el vendedor a persistir
+     * @return el Path del fragmento de su estado
+     * @throws IllegalArgumentException si el estado esta vacio
+     */
+    @Override
+    public Path fragmentoPara(Vendedor vendedor) {
+        String estado = vendedor.getEstado();
+        if (estado == null || estado.isBlank()) {
+            throw new IllegalArgumentException("El vendedor no tiene estado: " + vendedor.getId());
+        }
+        return directorio.resolve(PREFIJO + URLEncoder.encode(estado, UTF_8) + EXTENSION);
+    }
+
+    /**
+     * Returna el estado correspondiente al nombre del fragmento,
+     * solo si el fragmento pertenece al directorio de este enrutador y fue nombrado por el
+     *
+     * @param fragmento el Path del fragmento
+     * @return el estado del fragmento, si es conocido
+     */
+    @Override
+    public Optional<String> estadoDe(Path fragmento) {
+        String nombre = fragmento.getFileName().toString();
+        if (!directorio.equals(fragmento.toAbsolutePath().normalize().getParent())
+                || !nombre.startsWith(PREFIJO) || !nombre.endsWith(EXTENSION)
+                || nombre.length() == PREFIJO.length() + EXTENSION.length()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(URLDecoder.decode(
+                    nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()), UTF_8));
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.fecha.FechaParser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Clase inmutable que describe como se leen los vendedores de una fuente CSV:
+ * los nombres de columna ('alias') que se aceptan para cada CampoVendedor en el encabezado,
+ * y el patron de sus fechas de nacimiento.
+ *
+ * <p>Cada archivo se lee con el PlanColumnas que 'compilar' obtiene de su encabezado, por lo que
+ * las columnas pueden estar en cualquier orden y puede haber columnas adicionales, que se ignoran.
+ * Los nombres de columna se comparan sin importar mayusculas ni espacios al inicio o al final.
+ * Si el encabezado no reconoce ningun campo, o el archivo no tiene encabezado, se utiliza
+ * el plan posicional 'id,nombre,fecha,estado'.
+ *
+ * <p>Un esquema puede leerse de un archivo de propiedades con 'desdePropiedades', con las claves:
+ * <ul>
+ *     <li>'patronFecha': uno de los patrones de FechaParser, por ejemplo 'dd/mm/yyyy'</li>
+ *     <li>'id', 'nombre', 'fechaDeNacimiento' y 'estado': los alias del campo separados por comas</li>
+ * </ul>
+ *
+ * @author Alex Angulo
+ */
+public final class EsquemaColumnas {
+
+    /**
+     * El esquema de 'vendors.csv' y de los archivos escritos por la aplicacion
+     */
+    public static final EsquemaColumnas POR_DEFECTO = new EsquemaColumnas(aliasPorDefecto(), "mm/dd/yyyy");
+
+    /**
+     * El numero de columnas de una fila sin columnas adicionales
+     */
+    private static final int COLUMNAS_POSICIONALES = CampoVendedor.values().length;
+
+    /**
+     * Los alias de cada campo, normalizados
+     */
+    private final Map<CampoVendedor, List<String>> alias;
+
+    private final String patronFecha;
+
+    private EsquemaColumnas(Map<CampoVendedor, List<String>> alias, String patronFecha) {
+        if (!new FechaParser().soporta(patronFecha)) {
+            throw new IllegalArgumentException("Patron de fecha no soportado: " + patronFecha);
+        }
+        this.alias = alias;
+        this.patronFecha = patronFecha;
+    }
+
+    /**
+     * Returna un esquema igual a este, con otro patron de fechas
+     *
+     * @param patronFecha uno de los patrones de FechaParser
+     * @return el nuevo esquema
+     * @throws IllegalArgumentException si el patron no es soportado
+     */
+    public EsquemaColumnas conPatronFecha(String patronFecha) {
+        return new EsquemaColumnas(alias, requireNonNull(patronFecha));
+    }
+
+    /**
+     * Returna un esquema igual a este, donde los alias recibidos reemplazan a los alias del campo
+     *
+     * @param campo el campo
+     * @param nombres los nombres de columna que se aceptan para el campo
+     * @return el nuevo esquema
+     */
+    public EsquemaColumnas conAlias(CampoVendedor campo, List<String> nombres) {
+        Map<CampoVendedor, List<String>> nuevos = new EnumMap<>(alias);
+        nuevos.put(campo, nombres.stream().map(EsquemaColumnas::normalizar).toList());
+        return new EsquemaColumnas(nuevos, patronFecha);
+    }
+
+    /**
+     * Returna un esquema igual a 'base', excepto por los valores definidos en las propiedades
+     *
+     * @param propiedades las propiedades 'patronFecha', 'id', 'nombre', 'fechaDeNacimiento' y 'estado'
+     * @param base el esquema con los valores no definidos
+     * @return el nuevo esquema
+     * @throws IllegalArgumentException si el patron de fechas no es soportado
+     */
+    public static EsquemaColumnas desdePropiedades(Properties propiedades, EsquemaColumnas base) {
+        EsquemaColumnas esquema = base.conPatronFecha(propiedades.getProperty("patronFecha", base.patronFecha));
+        for (CampoVendedor campo : CampoVendedor.values()) {
+            String nombres = propiedades.getProperty(campo.clave());
+            if (nombres != null) {
+                esquema = esquema.conAlias(campo, Arrays.asList(nombres.split(",")));
+            }
+        }
+        return esquema;
+    }
+
+    /**
+     * Returna el patron de las fechas de nacimiento
+     *
+     * @return el patron, por ejemplo 'mm/dd/yyyy'
+     */
+    public String patronFecha() {
+        return patronFecha;
+    }
+
+    /**
+     * Returna el plan de los archivos sin encabezado: 'id,nombre,fecha,estado'
+     *
+     * @return el plan posicional
+     */
+    public PlanColumnas posicional() {
+        return new PlanColumnas(0, 1, 2, 3, COLUMNAS_POSICIONALES, patronFecha);
+    }
+
+    /**
+     * Compila el plan de columnas de un archivo a partir de su encabezado.
+     * Para cada campo se toma la primera columna cuyo nombre es uno de sus alias.
+     * Los nombres pueden estar entre comillas
+     *
+     * @param encabezado la primera linea del archivo, sin salto de linea
+     * @return el plan con la columna de cada campo, o el plan posicional si el encabezado no reconoce ningun campo
+     * @throws EncabezadoInvalidoException si el encabezado reconoce algunos campos pero no todos
+     */
+    public PlanColumnas compilar(String encabezado) {
+        String[] campos = CamposCSV.separar(encabezado);
+        String[] nombres = campos != null ? campos : encabezado.split(",", -1);
+        Map<CampoVendedor, Integer> indices = new EnumMap<>(CampoVendedor.class);
+        for (int columna = 0; columna < nombres.length; columna++) {
+            String nombre = normalizar(nombres[columna]);
+            for (CampoVendedor campo : CampoVendedor.values()) {
+                if (!indices.containsKey(campo) && alias.get(campo).contains(nombre)) {
+                    indices.put(campo, columna);
+                    break;
+                }
+            }
+        }
+        if (indices.isEmpty()) {
+            return posicional();
+        }
+        for (CampoVendedor campo : CampoVendedor.values()) {
+            if (!indices.containsKey(campo)) {
+                throw new EncabezadoInvalidoException(encabezado, campo);
+            }
+        }
+        return new PlanColumnas(
+                indices.get(CampoVendedor.ID),
+                indices.get(CampoVendedor.NOMBRE),
+                indices.get(CampoVendedor.FECHA_DE_NACIMIENTO),
+                indices.get(CampoVendedor.ESTADO),
+                nombres.length,
+                patronFecha);
+    }
+
+    /**
+     * Normaliza un nombre de columna: sin la marca de orden de bytes, sin espacios y en minusculas
+     */
+    private static String normalizar(String nombre) {
+        String sinMarca = nombre.startsWith("\uFEFF") ? nombre.substring(1) : nombre;
+        return sinMarca.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<CampoVendedor, List<String>> aliasPorDefecto() {
+        Map<CampoVendedor, List<String>> alias = new EnumMap<>(CampoVendedor.class);
+        alias.put(CampoVendedor.ID, normalizados("Ve_Codven", "id", "codigo"));
+        alias.put(CampoVendedor.NOMBRE, normalizados("Ve_Nomven", "nombre"));
+        alias.put(CampoVendedor.FECHA_DE_NACIMIENTO,
+                normalizados("Ve_Fechnacivend", "fechaDeNacimiento", "fecha_nacimiento", "fecha"));
+        alias.put(CampoVendedor.ESTADO, normalizados("Ve_CodZona", "estado", "zona"));
+        return alias;
+    }
+
+    private static List<String> normalizados(String... nombres) {
+        List<String> lista = new ArrayList<>(nombres.length);
+        for (String nombre : nombres) {
+            lista.add(normalizar(nombre));
+        }
+        return List.copyOf(lista);
+    }
+}
@@ -0,0 +1,72 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provee el EsquemaColumnas de cada archivo CSV, para que cada fuente tenga sus propios
+ * nombres de columna y su propio patron de fechas.
+ *
+ * <p>Si junto al archivo existe un archivo de propiedades '[archivo].esquema', por ejemplo
+ * 'vendors.csv.esquema', el esquema del archivo es el esquema base con los valores de esas propiedades
+ * (ver 'EsquemaColumnas.desdePropiedades'). De lo contrario es el esquema base.
+ *
+ * @author Alex Angulo
+ */
+public final class EsquemasPorArchivo implements Function<Path, EsquemaColumnas> {
+
+    /**
+     * El sufijo del nombre de cada archivo de esquema
+     */
+    private static final String SUFIJO = ".esquema";
+
+    /**
+     * El esquema de los archivos sin archivo de esquema
+     */
+    private final EsquemaColumnas base;
+
+    public EsquemasPorArchivo(EsquemaColumnas base) {
+        this.base = requireNonNull(base);
+    }
+
+    /**
+     * Returna el esquema del archivo
+     *
+     * @param archivo el archivo CSV
+     * @return el esquema de su archivo de esquema, o el esquema base
+     * @throws NoSePudoLeerArchivoException si el archivo de esquema existe pero no se puede leer
+     */
+    @Override
+    public EsquemaColumnas apply(Path archivo) {
+        Path sidecar = archivoDeEsquema(archivo);
+        if (!Files.isRegularFile(sidecar)) {
+            return base;
+        }
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(sidecar, UTF_8)) {
+            propiedades.load(lector);
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(sidecar.toString(), exception);
+        }
+        return EsquemaColumnas.desdePropiedades(propiedades, base);
+    }
+
+    /**
+     * Returna la ruta del archivo de esquema de un archivo CSV, exista o no
+     *
+     * @param archivo el archivo CSV
+     * @return el archivo '[archivo].esquema' en el mismo directorio
+     */
+    public static Path archivoDeEsquema(Path archivo) {
+        return archivo.resolveSibling(archivo.getFileName() + SUFIJO);
+    }
+}
@@ -0,0 +1,69 @@
+package com.alex.vendedores.csv;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copia los bytes de los nombres que LectorVendedoresBytes difiere a laminas del heap,
+ * para que los vendedores leidos no retengan los bloques del archivo.
+ *
+ * <p>Los nombres se copian uno tras otro en la lamina actual, sin las comillas escapadas. Cuando un nombre
+ * no cabe, se crea una lamina nueva, del doble de la anterior hasta TAMANIO_MAXIMO, o del tamanio del nombre
+ * si es mayor. Una lamina no se modifica en los bytes ya copiados, por lo que otros hilos pueden
+ * leer el nombre de un vendedor mientras se copian los siguientes.
+ *
+ * @author Alex Angulo
+ */
+final class LaminaNombres {
+
+    /**
+     * El tamanio de la primera lamina, en bytes
+     */
+    private static final int TAMANIO_INICIAL = 256;
+
+    /**
+     * El tamanio maximo de las laminas que comparten varios nombres, en bytes
+     */
+    private static final int TAMANIO_MAXIMO = 16 * 1024;
+
+    private byte[] lamina = new byte[0];
+
+    /**
+     * El numero de bytes utilizados de la lamina actual
+     */
+    private int utilizados;
+
+    /**
+     * Copia el nombre y returna sus campos diferidos
+     *
+     * @param linea el buffer que contiene el nombre
+     * @param inicio el primer byte del nombre
+     * @param fin el byte siguiente al ultimo del nombre
+     * @param conComillas si el nombre tiene comillas escapadas como '""'
+     * @param fechaCompacta la fecha de nacimiento en la forma compacta de FechaParser
+     * @return los campos diferidos, que solo retienen la lamina
+     */
+    CamposEnBloque copiar(ByteBuffer linea, int inicio, int fin, boolean conComillas, int fechaCompacta) {
+        reservar(fin - inicio);
+        int inicioCopia = utilizados;
+        for (int i = inicio; i < fin; i++) {
+            byte caracter = linea.get(i);
+            lamina[utilizados++] = caracter;
+            if (conComillas && caracter == '"') {
+                i++;
+            }
+        }
+        return new CamposEnBloque(lamina, inicioCopia, utilizados, fechaCompacta);
+    }
+
+    /**
+     * Crea una lamina nueva si la actual no tiene espacio para la longitud recibida
+     */
+    private void reservar(int longitud) {
+        if (lamina.length - utilizados >= longitud) {
+            return;
+        }
+        int tamanio = Math.min(Math.max(lamina.length * 2, TAMANIO_INICIAL), TAMANIO_MAXIMO);
+        lamina = new byte[Math.max(tamanio, longitud)];
+        utilizados = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Interface que encapsula el algoritmo para leer un archivo CSV
+ * y obtener los objetos Vendedor que contiene.
+ *
+ * <p>Los vendedores se entregan a un Consumer conforme se leen,
+ * para no construir colecciones intermedias.
+ *
+ * @author Alex Angulo
+ */
+@FunctionalInterface
+public interface LectorVendedores {
+
+    /**
+     * Lee el archivo y entrega cada Vendedor valido, en el orden del archivo
+     *
+     * @param path el archivo a leer
+     * @param destino recibe cada Vendedor leido
+     * @return el numero de filas de este archivo que se rechazaron
+     */
+    long leer(Path path, Consumer<Vendedor> destino);
+}
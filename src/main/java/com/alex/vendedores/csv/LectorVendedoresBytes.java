@@ -0,0 +1,564 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.fecha.FechaParser;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Implementacion de LectorVendedores que trabaja directamente sobre los bytes UTF-8 del archivo.
+ *
+ * <p>Las lineas y los campos se localizan con un BuscadorBytes, que encuentra los bytes
+ * ',', '"' y '\n' de 8 en 8. El id y la fecha de nacimiento se validan y se parsean a partir de sus
+ * digitos ASCII, y unicamente el estado se decodifica a String, a traves de un DiccionarioCadenas
+ * para que los valores repetidos se decodifiquen una sola vez. El nombre y la fecha de nacimiento
+ * se difieren con CamposEnBloque: se decodifican la primera vez que se accede a ellos,
+ * por lo que un proceso que solo agrupa por estado no los decodifica. Los bytes del nombre se copian
+ * a una LaminaNombres en el heap, por lo que los vendedores leidos no retienen los bloques del archivo.
+ *
+ * <p>Los campos pueden estar entre comillas segun el RFC 4180, como en CamposCSV. Las lineas sin comillas
+ * se separan con las comas del BuscadorBytes; solo las lineas con alguna comilla se recorren de nuevo
+ * byte a byte para ubicar sus campos. Los campos de texto con bytes no ASCII se decodifican
+ * para validar que sean letras o digitos.
+ *
+ * <p>Las columnas de cada campo y el patron de las fechas se toman del PlanColumnas que el
+ * EsquemaColumnas del archivo compila a partir de su encabezado. Solo se registran las comas hasta la
+ * ultima columna utilizada; las columnas que no corresponden a ningun campo solo se cuentan,
+ * sin validarse ni decodificarse.
+ *
+ * <p>Con el mismo esquema, acepta las mismas filas que 'SimpleVendedorMapper.esVendedor' y produce los mismos
+ * objetos Vendedor que 'SimpleVendedorMapper.mapearAVendedor'. Las filas invalidas no
+ * interrumpen la lectura: se clasifican por MotivoRechazo sin construir excepciones,
+ * se envian con su numero de linea al DestinoRechazos y se suman a los ContadoresIngesta.
+ * La primera linea no se considera un rechazo si su primer campo, sin comillas, no comienza con un digito,
+ * ya que es el encabezado (ver 'CamposCSV.esEncabezado').
+ *
+ * @author Alex Angulo
+ */
+public final class LectorVendedoresBytes implements LectorVendedores {
+
+    /**
+     * El numero maximo de cadenas distintas que se comparten por archivo
+     */
+    private static final int CAPACIDAD_ESTADOS = 1 << 10;
+
+    /**
+     * Clases de caracteres, equivalentes a las de la regex de 'SimpleVendedorMapper'
+     */
+    private static final byte DIGITO = 1;
+    private static final byte PALABRA = 2;
+    private static final byte BARRA = 4;
+    private static final byte GUION = 8;
+    private static final byte NO_ASCII = 16;
+    private static final byte SEPARADOR = 32;
+
+    /**
+     * La clase de caracter del nombre y del estado: el texto de un campo entrecomillado puede incluir comas y comillas
+     */
+    private static final byte TEXTO = PALABRA | NO_ASCII | SEPARADOR;
+
+    /**
+     * Las clases de caracter de cada byte: '\d' es DIGITO, '[\w ]' es PALABRA, '/' es BARRA, '-' es GUION,
+     * ',' y '"' son SEPARADOR y los bytes de caracteres no ASCII son NO_ASCII
+     */
+    private static final byte[] CLASES = clasesDeCaracter();
+
+    /**
+     * El tiempo promedio de parseo por fila de cada archivo
+     */
+    private static final Histograma PARSEO_POR_FILA = Metricas.histograma("csv.parseoNsPorFila");
+
+    /**
+     * El BiConsumer que encapsula el algoritmo para leer un archivo por bloques de bytes.
+     * Los vendedores leidos no retienen los bloques, que pueden liberarse al terminar la lectura
+     */
+    private final BiConsumer<Path, Consumer<ByteBuffer>> lectorBloques;
+
+    /**
+     * Provee el esquema de columnas de cada archivo
+     */
+    private final Function<Path, EsquemaColumnas> esquemas;
+
+    /**
+     * Los contadores donde se suman las filas aceptadas y rechazadas de cada archivo
+     */
+    private final ContadoresIngesta contadores;
+
+    /**
+     * El destino de las filas rechazadas
+     */
+    private final DestinoRechazos rechazos;
+
+    public LectorVendedoresBytes(BiConsumer<Path, Consumer<ByteBuffer>> lectorBloques) {
+        this(lectorBloques, new ContadoresIngesta(), DestinoRechazos.NINGUNO);
+    }
+
+    public LectorVendedoresBytes(BiConsumer<Path, Consumer<ByteBuffer>> lectorBloques,
+                                 ContadoresIngesta contadores,
+                                 DestinoRechazos rechazos) {
+        this(lectorBloques, archivo -> EsquemaColumnas.POR_DEFECTO, contadores, rechazos);
+    }
+
+    public LectorVendedoresBytes(BiConsumer<Path, Consumer<ByteBuffer>> lectorBloques,
+                                 Function<Path, EsquemaColumnas> esquemas,
+                                 ContadoresIngesta contadores,
+                                 DestinoRechazos rechazos) {
+        this.lectorBloques = lectorBloques;
+        this.esquemas = esquemas;
+        this.contadores = contadores;
+        this.rechazos = rechazos;
+    }
+
+    /**
+     * Lee el archivo por bloques de bytes y entrega cada Vendedor valido.
+     * Al terminar, suma las cuentas del archivo a los contadores, aun si la lectura fallo.
+     *
+     * @param path el archivo a leer
+     * @param destino recibe cada Vendedor leido
+     * @return el numero de filas de este archivo que se rechazaron
+     */
+    @Override
+    public long leer(Path path, Consumer<Vendedor> destino) {
+        long inicio = System.nanoTime();
+        try (DestinoRechazos.RegistroRechazos registro = rechazos.abrir(path)) {
+            Analizador analizador = new Analizador(esquemas.apply(path), destino, registro);
+            try {
+                lectorBloques.accept(path, analizador::analizarBloque);
+            } finally {
+                analizador.sumarA(contadores);
+            }
+            if (Metricas.HABILITADAS && analizador.numeroLinea > 0) {
+                PARSEO_POR_FILA.registrar((System.nanoTime() - inicio) / analizador.numeroLinea);
+            }
+            return analizador.rechazadas();
+        }
+    }
+
+    /**
+     * Construye la tabla de clases de caracter
+     *
+     * @return la clase de caracter de cada uno de los 256 valores de un byte
+     */
+    private static byte[] clasesDeCaracter() {
+        byte[] clases = new byte[256];
+        for (int c = '0'; c <= '9'; c++) {
+            clases[c] = DIGITO | PALABRA;
+        }
+        for (int c = 'a'; c <= 'z'; c++) {
+            clases[c] = PALABRA;
+            clases[c - 'a' + 'A'] = PALABRA;
+        }
+        clases['_'] = PALABRA;
+        clases[' '] = PALABRA;
+        clases['/'] = BARRA;
+        clases['-'] = GUION;
+        clases[','] = SEPARADOR;
+        clases['"'] = SEPARADOR;
+        for (int c = 0x80; c < clases.length; c++) {
+            clases[c] = NO_ASCII;
+        }
+        return clases;
+    }
+
+    /**
+     * Estado de la lectura de un archivo: el plan de columnas, los diccionarios de cadenas,
+     * el buscador de delimitadores y las posiciones de las comas y de los campos de la linea actual
+     */
+    private static final class Analizador {
+
+        private final EsquemaColumnas esquema;
+        private final Consumer<Vendedor> destino;
+        private final DestinoRechazos.RegistroRechazos registro;
+        private final FechaParser fechaParser = new FechaParser();
+        private final DiccionarioCadenas estados = new DiccionarioCadenas(CAPACIDAD_ESTADOS);
+        private final BuscadorBytes buscador = new BuscadorBytes();
+        private final LaminaNombres nombres = new LaminaNombres();
+
+        /**
+         * El plan de columnas del archivo. Es el plan posicional hasta que se lee el encabezado
+         */
+        private PlanColumnas plan;
+
+        /**
+         * Las clases de caracter permitidas en cada columna utilizada, o 0 si la columna no se utiliza
+         */
+        private byte[] clasesPorColumna;
+
+        /**
+         * El separador de las partes de la fecha: '/' o '-'
+         */
+        private byte separadorFecha;
+
+        /**
+         * Las posiciones de las comas de la linea actual que terminan una columna utilizada
+         */
+        private int[] comas;
+
+        /**
+         * El primer byte y el byte siguiente al ultimo del contenido de cada columna utilizada de la linea actual,
+         * sin sus comillas
+         */
+        private int[] inicios;
+        private int[] fines;
+
+        /**
+         * Si la linea actual tiene comillas, por lo que sus campos de texto pueden tener comillas escapadas
+         */
+        private boolean lineaConComillas;
+
+        /**
+         * El numero de la linea actual, comenzando en 1
+         */
+        private long numeroLinea;
+
+        /**
+         * Las cuentas locales de este archivo, que se suman a los contadores al terminar
+         */
+        private long aceptadas;
+        private final long[] rechazadas = new long[MotivoRechazo.values().length];
+
+        Analizador(EsquemaColumnas esquema, Consumer<Vendedor> destino, DestinoRechazos.RegistroRechazos registro) {
+            this.esquema = esquema;
+            this.destino = destino;
+            this.registro = registro;
+            usarPlan(esquema.posicional());
+        }
+
+        /**
+         * Prepara las clases de caracter y las posiciones de comas del plan
+         */
+        private void usarPlan(PlanColumnas nuevo) {
+            plan = nuevo;
+            separadorFecha = (byte) plan.patronFecha().charAt(2);
+            clasesPorColumna = new byte[plan.ultimaColumnaUtilizada() + 1];
+            clasesPorColumna[plan.id()] = DIGITO;
+            clasesPorColumna[plan.nombre()] = TEXTO;
+            clasesPorColumna[plan.fechaDeNacimiento()] = (byte) (DIGITO | (separadorFecha == '/' ? BARRA : GUION));
+            clasesPorColumna[plan.estado()] = TEXTO;
+            comas = new int[Math.min(plan.columnas() - 1, clasesPorColumna.length)];
+            inicios = new int[clasesPorColumna.length];
+            fines = new int[clasesPorColumna.length];
+        }
+
+        /**
+         * Returna el numero de filas de este archivo que se rechazaron
+         *
+         * @return la suma de los rechazos de todos los motivos
+         */
+        long rechazadas() {
+            long total = 0;
+            for (long porMotivo : rechazadas) {
+                total += porMotivo;
+            }
+            return total;
+        }
+
+        /**
+         * Suma las cuentas de este archivo a los contadores
+         *
+         * @param contadores los contadores acumulados
+         */
+        void sumarA(ContadoresIngesta contadores) {
+            contadores.sumarAceptadas(aceptadas);
+            for (MotivoRechazo motivo : MotivoRechazo.values()) {
+                contadores.sumarRechazadas(motivo, rechazadas[motivo.ordinal()]);
+            }
+        }
+
+        /**
+         * Recorre un bloque delimitador por delimitador. Las comas de cada linea se registran
+         * y las comillas se cuentan. Al llegar a un salto de linea o al fin del bloque, se analiza la linea
+         *
+         * @param bloque el bloque a analizar
+         */
+        void analizarBloque(ByteBuffer bloque) {
+            int fin = bloque.limit();
+            buscador.reiniciar(bloque, bloque.position(), fin);
+            ByteBuffer bytes = buscador.buffer();
+
+            int inicioLinea = bloque.position();
+            int numeroComas = 0;
+            int numeroComillas = 0;
+            while (inicioLinea < fin) {
+                int delimitador = buscador.siguiente();
+                byte delimitadorEncontrado = delimitador < fin ? bytes.get(delimitador) : (byte) '\n';
+                if (delimitadorEncontrado == ',') {
+                    if (numeroComas < comas.length) {
+                        comas[numeroComas] = delimitador;
+                    }
+                    numeroComas++;
+                } else if (delimitadorEncontrado == '"') {
+                    numeroComillas++;
+                } else {
+                    numeroLinea++;
+                    analizarLinea(bytes, inicioLinea, delimitador, numeroComas, numeroComillas > 0);
+                    numeroComas = 0;
+                    numeroComillas = 0;
+                    inicioLinea = delimitador + 1;
+                }
+            }
+        }
+
+        /**
+         * Analiza una linea y, si corresponde a un Vendedor, lo entrega al destino.
+         * De lo contrario la registra como rechazada. Las lineas vacias se ignoran.
+         *
+         * @param linea el buffer que contiene la linea
+         * @param inicio la posicion del primer byte de la linea
+         * @param fin la posicion del salto de linea o del fin del bloque
+         * @param numeroComas el numero de comas encontradas en la linea
+         * @param conComillas si la linea tiene alguna comilla, en cuyo caso sus campos se ubican byte a byte
+         */
+        private void analizarLinea(ByteBuffer linea, int inicio, int fin, int numeroComas, boolean conComillas) {
+            if (fin > inicio && linea.get(fin - 1) == '\r') {
+                fin--;
+            }
+            if (fin == inicio) {
+                return;
+            }
+            if (esEncabezado(linea, inicio, fin)) {
+                usarPlan(esquema.compilar(decodificar(linea, inicio, fin)));
+                return;
+            }
+            lineaConComillas = conComillas;
+            boolean camposUbicados = conComillas
+                    ? ubicarCamposEntrecomillados(linea, inicio, fin)
+                    : ubicarCampos(inicio, fin, numeroComas);
+            if (!camposUbicados
+                    || !sonCamposValidos(linea)
+                    || !esFechaBienFormada(linea, inicios[plan.fechaDeNacimiento()], fines[plan.fechaDeNacimiento()])) {
+                rechazar(linea, inicio, fin, MotivoRechazo.FORMATO_INVALIDO);
+                return;
+            }
+            int id = parsearId(linea, inicios[plan.id()], fines[plan.id()]);
+            if (id < 0) {
+                rechazar(linea, inicio, fin, MotivoRechazo.ID_FUERA_DE_RANGO);
+                return;
+            }
+            int fechaCompacta = fechaParser.parsearCompacta(linea,
+                    inicios[plan.fechaDeNacimiento()], fines[plan.fechaDeNacimiento()], plan.patronFecha());
+            if (fechaCompacta == FechaParser.FORMATO_INVALIDO) {
+                rechazar(linea, inicio, fin, MotivoRechazo.FECHA_FORMATO_INVALIDO);
+                return;
+            }
+            if (fechaCompacta == FechaParser.FECHA_IMPOSIBLE) {
+                rechazar(linea, inicio, fin, MotivoRechazo.FECHA_IMPOSIBLE);
+                return;
+            }
+
+            aceptadas++;
+            destino.accept(Vendedor.builder()
+                    .id(id)
+                    .diferidos(nombres.copiar(linea, inicios[plan.nombre()], fines[plan.nombre()], lineaConComillas,
+                            fechaCompacta))
+                    .estado(texto(estados, linea, plan.estado()))
+                    .build());
+        }
+
+        /**
+         * Ubica las columnas utilizadas de una linea sin comillas a partir de sus comas
+         *
+         * @return false si la linea no tiene el numero de columnas del plan
+         */
+        private boolean ubicarCampos(int inicio, int fin, int numeroComas) {
+            if (numeroComas != plan.columnas() - 1) {
+                return false;
+            }
+            for (int columna = 0; columna < inicios.length; columna++) {
+                inicios[columna] = columna == 0 ? inicio : comas[columna - 1] + 1;
+                fines[columna] = columna == comas.length ? fin : comas[columna];
+            }
+            return true;
+        }
+
+        /**
+         * Ubica las columnas utilizadas de una linea con comillas, recorriendola byte a byte segun el RFC 4180.
+         * El contenido de un campo entrecomillado no incluye sus comillas, pero si sus comillas escapadas
+         *
+         * @return false si la linea no tiene el numero de columnas del plan, si un campo entrecomillado
+         *         no termina en comilla seguida de coma o fin de linea, o si un campo sin comillas tiene una comilla
+         */
+        private boolean ubicarCamposEntrecomillados(ByteBuffer linea, int inicio, int fin) {
+            int columna = 0;
+            int posicion = inicio;
+            while (true) {
+                if (columna == plan.columnas()) {
+                    return false;
+                }
+                int inicioCampo;
+                int finCampo;
+                int siguiente;
+                if (posicion < fin && linea.get(posicion) == '"') {
+                    inicioCampo = posicion + 1;
+                    finCampo = inicioCampo;
+                    while (true) {
+                        if (finCampo >= fin) {
+                            return false;
+                        }
+                        if (linea.get(finCampo) == '"') {
+                            if (finCampo + 1 < fin && linea.get(finCampo + 1) == '"') {
+                                finCampo += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        finCampo++;
+                    }
+                    siguiente = finCampo + 1;
+                    if (siguiente < fin && linea.get(siguiente) != ',') {
+                        return false;
+                    }
+                } else {
+                    inicioCampo = posicion;
+                    finCampo = posicion;
+                    while (finCampo < fin && linea.get(finCampo) != ',') {
+                        if (linea.get(finCampo) == '"') {
+                            return false;
+                        }
+                        finCampo++;
+                    }
+                    siguiente = finCampo;
+                }
+                if (columna < inicios.length) {
+                    inicios[columna] = inicioCampo;
+                    fines[columna] = finCampo;
+                }
+                columna++;
+                if (siguiente == fin) {
+                    return columna == plan.columnas();
+                }
+                posicion = siguiente + 1;
+            }
+        }
+
+        /**
+         * Returna el texto de una columna utilizada. Si tiene comillas escapadas se decodifica sin ellas;
+         * de lo contrario se obtiene del diccionario
+         */
+        private String texto(DiccionarioCadenas diccionario, ByteBuffer linea, int columna) {
+            int inicio = inicios[columna];
+            int fin = fines[columna];
+            if (lineaConComillas && tieneComilla(linea, inicio, fin)) {
+                return decodificar(linea, inicio, fin).replace("\"\"", "\"");
+            }
+            return diccionario.cadena(linea, inicio, fin);
+        }
+
+        private static boolean tieneComilla(ByteBuffer linea, int inicio, int fin) {
+            for (int i = inicio; i < fin; i++) {
+                if (linea.get(i) == '"') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returna si la linea es el encabezado: la primera linea, cuando 'CamposCSV.esEncabezado' la reconoce.
+         * Solo la primera linea se decodifica para revisarla
+         */
+        private boolean esEncabezado(ByteBuffer linea, int inicio, int fin) {
+            return numeroLinea == 1 && CamposCSV.esEncabezado(decodificar(linea, inicio, fin));
+        }
+
+        /**
+         * Cuenta la linea como rechazada y la envia al registro de rechazos.
+         * Solo en este caso se decodifica la linea completa.
+         */
+        private void rechazar(ByteBuffer linea, int inicio, int fin, MotivoRechazo motivo) {
+            rechazadas[motivo.ordinal()]++;
+            registro.rechazar(numeroLinea, motivo, decodificar(linea, inicio, fin));
+        }
+
+        private static String decodificar(ByteBuffer linea, int inicio, int fin) {
+            byte[] contenido = new byte[fin - inicio];
+            linea.duplicate().position(inicio).get(contenido);
+            return new String(contenido, UTF_8);
+        }
+
+        /**
+         * Valida que las columnas utilizadas no esten vacias y que cada uno de sus bytes
+         * pertenezca a la clase de caracter de su campo. Las demas columnas no se revisan
+         *
+         * @return true si la linea tiene la forma de un Vendedor
+         */
+        private boolean sonCamposValidos(ByteBuffer linea) {
+            for (int columna = 0; columna < clasesPorColumna.length; columna++) {
+                byte clase = clasesPorColumna[columna];
+                if (clase != 0 && !esCampoValido(linea, inicios[columna], fines[columna], clase)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Valida que el campo no este vacio y que todos sus bytes pertenezcan a la clase de caracter.
+         * Si el campo tiene bytes no ASCII, valida que cada uno de sus caracteres sea una letra o un digito
+         */
+        private boolean esCampoValido(ByteBuffer linea, int inicio, int fin, byte clase) {
+            if (fin == inicio) {
+                return false;
+            }
+            boolean noAscii = false;
+            for (int i = inicio; i < fin; i++) {
+                byte claseByte = CLASES[linea.get(i) & 0xFF];
+                if ((claseByte & clase) == 0) {
+                    return false;
+                }
+                noAscii |= claseByte == NO_ASCII;
+            }
+            return !noAscii || sonLetrasODigitos(decodificar(linea, inicio, fin));
+        }
+
+        /**
+         * Valida que los caracteres no ASCII del texto sean letras o digitos. Un byte que no es UTF-8 valido
+         * se decodifica como U+FFFD, que no lo es
+         */
+        private static boolean sonLetrasODigitos(String texto) {
+            return texto.codePoints().allMatch(c -> c < 0x80 || Character.isLetterOrDigit(c));
+        }
+
+        /**
+         * Valida que la fecha tenga la forma '\d+/\d+/\d+', o '\d+-\d+-\d+' segun el patron
+         */
+        private boolean esFechaBienFormada(ByteBuffer linea, int inicio, int fin) {
+            int barras = 0;
+            int inicioParte = inicio;
+            for (int i = inicio; i < fin; i++) {
+                if (linea.get(i) == separadorFecha) {
+                    if (i == inicioParte) {
+                        return false;
+                    }
+                    barras++;
+                    inicioParte = i + 1;
+                }
+            }
+            return barras == 2 && fin > inicioParte;
+        }
+
+        /**
+         * Parsea el id a partir de sus digitos ASCII, ya validados
+         *
+         * @return el id, o -1 si no cabe en un int
+         */
+        private int parsearId(ByteBuffer linea, int inicio, int fin) {
+            long id = 0;
+            for (int i = inicio; i < fin; i++) {
+                id = id * 10 + (linea.get(i) - '0');
+                if (id > Integer.MAX_VALUE) {
+                    return -1;
+                }
+            }
+            return (int) id;
+        }
+    }
+}
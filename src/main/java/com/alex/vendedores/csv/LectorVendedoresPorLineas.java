@@ -0,0 +1,138 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.fecha.FormatoFechaException;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Implementacion de LectorVendedores que lee el archivo como lineas de texto
+ * y las mapea con un VendedorMapper.
+ *
+ * <p>Las lineas que no son vendedores, o cuyo id o fecha no pueden parsearse, no interrumpen
+ * la lectura: se envian con su numero de linea al DestinoRechazos y se suman a los ContadoresIngesta.
+ * La primera linea no se considera un rechazo si su primer campo, sin comillas, no comienza con un digito,
+ * ya que es el encabezado (ver 'CamposCSV.esEncabezado'):
+ * las demas lineas se mapean con el mapper que 'VendedorMapper.paraEncabezado' returna para ella.
+ *
+ * @author Alex Angulo
+ */
+public final class LectorVendedoresPorLineas implements LectorVendedores {
+
+    /**
+     * El tiempo promedio de parseo por fila de cada archivo, sin incluir la lectura de las lineas
+     */
+    private static final Histograma PARSEO_POR_FILA = Metricas.histograma("csv.parseoNsPorFila");
+
+    /**
+     * La Function que encapsula el algoritmo para leer
+     * las lineas de un archivo
+     */
+    private final Function<Path, List<String>> lectorArchivo;
+
+    /**
+     * El mapper que encapsula el algoritmo para mapear
+     * una String en formato CSV a un objeto Vendedor.
+     */
+    private final VendedorMapper mapper;
+
+    /**
+     * Los contadores donde se suman las filas aceptadas y rechazadas de cada archivo
+     */
+    private final ContadoresIngesta contadores;
+
+    /**
+     * El destino de las filas rechazadas
+     */
+    private final DestinoRechazos rechazos;
+
+    public LectorVendedoresPorLineas(Function<Path, List<String>> lectorArchivo, VendedorMapper mapper) {
+        this(lectorArchivo, mapper, new ContadoresIngesta(), DestinoRechazos.NINGUNO);
+    }
+
+    public LectorVendedoresPorLineas(Function<Path, List<String>> lectorArchivo,
+                                     VendedorMapper mapper,
+                                     ContadoresIngesta contadores,
+                                     DestinoRechazos rechazos) {
+        this.lectorArchivo = lectorArchivo;
+        this.mapper = mapper;
+        this.contadores = contadores;
+        this.rechazos = rechazos;
+    }
+
+    /**
+     * Lee las lineas del archivo y entrega las que corresponden a un Vendedor
+     *
+     * @param path el archivo a leer
+     * @param destino recibe cada Vendedor leido
+     * @return el numero de filas de este archivo que se rechazaron
+     */
+    @Override
+    public long leer(Path path, Consumer<Vendedor> destino) {
+        List<String> lineas = lectorArchivo.apply(path);
+        long inicio = System.nanoTime();
+        long rechazadas = 0;
+        try (DestinoRechazos.RegistroRechazos registro = rechazos.abrir(path)) {
+            VendedorMapper mapperArchivo = mapper;
+            for (int i = 0; i < lineas.size(); i++) {
+                String linea = lineas.get(i);
+                if (linea.isEmpty()) {
+                    continue;
+                }
+                if (esEncabezado(i, linea)) {
+                    mapperArchivo = mapper.paraEncabezado(linea);
+                    continue;
+                }
+                MotivoRechazo motivo = mapearOClasificar(mapperArchivo, linea, destino);
+                if (motivo == null) {
+                    contadores.sumarAceptadas(1);
+                } else {
+                    contadores.sumarRechazadas(motivo, 1);
+                    rechazadas++;
+                    registro.rechazar(i + 1, motivo, linea);
+                }
+            }
+        }
+        if (Metricas.HABILITADAS && !lineas.isEmpty()) {
+            PARSEO_POR_FILA.registrar((System.nanoTime() - inicio) / lineas.size());
+        }
+        return rechazadas;
+    }
+
+    /**
+     * Mapea la linea y entrega el Vendedor, o returna el motivo por el cual la linea se rechaza
+     *
+     * @param mapper el mapper del archivo, segun su encabezado
+     * @param linea la linea a mapear
+     * @param destino recibe el Vendedor si la linea es valida
+     * @return null si la linea se acepto, de lo contrario el motivo del rechazo
+     */
+    private MotivoRechazo mapearOClasificar(VendedorMapper mapper, String linea, Consumer<Vendedor> destino) {
+        if (!mapper.esVendedor(linea)) {
+            return MotivoRechazo.FORMATO_INVALIDO;
+        }
+        try {
+            destino.accept(mapper.mapearAVendedor(linea));
+            return null;
+        } catch (NumberFormatException exception) {
+            return MotivoRechazo.ID_FUERA_DE_RANGO;
+        } catch (FormatoFechaException exception) {
+            return MotivoRechazo.FECHA_FORMATO_INVALIDO;
+        } catch (DateTimeException exception) {
+            return MotivoRechazo.FECHA_IMPOSIBLE;
+        }
+    }
+
+    /**
+     * Returna si la linea es el encabezado: la primera linea, cuando 'CamposCSV.esEncabezado' la reconoce
+     */
+    private boolean esEncabezado(int indice, String linea) {
+        return indice == 0 && CamposCSV.esEncabezado(linea);
+    }
+}
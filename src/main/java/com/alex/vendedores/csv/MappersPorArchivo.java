@@ -0,0 +1,90 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Provee el VendedorMapper con que se escriben las filas que se agregan a un archivo CSV existente,
+ * para que cada fila quede en el orden de columnas y el patron de fechas con que el archivo se lee.
+ *
+ * <p>El mapper usa el esquema del archivo, de su archivo '.esquema' o el esquema base, y si la primera linea
+ * del archivo es un encabezado, el plan de columnas compilado de ese encabezado. Un archivo nuevo o sin
+ * encabezado se escribe con el plan posicional de su esquema.
+ *
+ * <p>El mapper de cada archivo existente se construye una sola vez y se conserva, por lo que agregar filas
+ * no vuelve a leer el archivo ni su archivo '.esquema'. El de un archivo que aun no existe no se conserva:
+ * se construye de nuevo en la siguiente fila, ya con el archivo creado. Los cambios posteriores al encabezado
+ * o al archivo '.esquema' de un archivo ya visto no se consideran. Es thread-safe.
+ *
+ * @author Alex Angulo
+ */
+public final class MappersPorArchivo implements Function<Path, VendedorMapper> {
+
+    /**
+     * Provee el esquema de cada archivo
+     */
+    private final Function<Path, EsquemaColumnas> esquemas;
+
+    /**
+     * El mapper de cada archivo existente ya visto
+     */
+    private final Map<Path, VendedorMapper> mappers = new ConcurrentHashMap<>();
+
+    public MappersPorArchivo(Function<Path, EsquemaColumnas> esquemas) {
+        this.esquemas = requireNonNull(esquemas);
+    }
+
+    /**
+     * Returna el mapper de las filas del archivo
+     *
+     * @param archivo el archivo al que se agregan filas, exista o no
+     * @return el mapper con el plan de columnas y el patron de fechas del archivo
+     * @throws EncabezadoInvalidoException si el encabezado del archivo no tiene una columna para algun campo
+     * @throws NoSePudoLeerArchivoException si el archivo existe pero no se puede leer
+     */
+    @Override
+    public VendedorMapper apply(Path archivo) {
+        VendedorMapper conservado = mappers.get(archivo);
+        if (conservado != null) {
+            return conservado;
+        }
+        VendedorMapper mapper = new SimpleVendedorMapper(esquemas.apply(archivo));
+        Optional<String> primeraLinea = primeraLinea(archivo);
+        if (primeraLinea.isEmpty()) {
+            return mapper;
+        }
+        String linea = primeraLinea.get();
+        if (!linea.isEmpty() && CamposCSV.esEncabezado(linea)) {
+            mapper = mapper.paraEncabezado(linea);
+        }
+        mappers.put(archivo, mapper);
+        return mapper;
+    }
+
+    /**
+     * Returna la primera linea del archivo, que es vacia si el archivo esta vacio,
+     * o Optional.empty si el archivo no existe
+     */
+    private static Optional<String> primeraLinea(Path archivo) {
+        try (BufferedReader lector = Files.newBufferedReader(archivo, UTF_8)) {
+            String linea = lector.readLine();
+            return Optional.of(linea != null ? linea : "");
+        } catch (NoSuchFileException exception) {
+            return Optional.empty();
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(archivo.toString(), exception);
+        }
+    }
+}
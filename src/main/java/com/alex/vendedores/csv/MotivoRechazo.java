@@ -0,0 +1,30 @@
+package com.alex.vendedores.csv;
+
+/**
+ * Los motivos por los cuales una fila del archivo CSV no se convierte en un Vendedor
+ *
+ * @author Alex Angulo
+ */
+public enum MotivoRechazo {
+
+    /**
+     * La fila no tiene las columnas de su PlanColumnas, por defecto 'id,nombre,fecha,estado',
+     * o contiene caracteres no permitidos
+     */
+    FORMATO_INVALIDO,
+
+    /**
+     * El id no cabe en un int
+     */
+    ID_FUERA_DE_RANGO,
+
+    /**
+     * La fecha de nacimiento no tiene el formato esperado, por ejemplo '1/8/1998'
+     */
+    FECHA_FORMATO_INVALIDO,
+
+    /**
+     * La fecha de nacimiento tiene el formato esperado pero no existe, por ejemplo '02/30/1998'
+     */
+    FECHA_IMPOSIBLE
+}
@@ -0,0 +1,76 @@
+package com.alex.vendedores.csv;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * El plan de columnas de un archivo CSV, compilado una sola vez a partir de su encabezado
+ * con 'EsquemaColumnas.compilar': la columna de cada campo de un Vendedor, el numero total
+ * de columnas de cada fila y el patron de las fechas de nacimiento.
+ *
+ * <p>Las columnas que no corresponden a ningun campo no se validan ni se decodifican.
+ *
+ * @param id la columna del id, comenzando en 0
+ * @param nombre la columna del nombre
+ * @param fechaDeNacimiento la columna de la fecha de nacimiento
+ * @param estado la columna del estado
+ * @param columnas el numero de columnas de cada fila
+ * @param patronFecha el patron de las fechas de nacimiento, por ejemplo 'mm/dd/yyyy'
+ *
+ * @author Alex Angulo
+ */
+public record PlanColumnas(int id, int nombre, int fechaDeNacimiento, int estado, int columnas, String patronFecha) {
+
+    public PlanColumnas {
+        requireNonNull(patronFecha);
+        int[] indices = {id, nombre, fechaDeNacimiento, estado};
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0 || indices[i] >= columnas) {
+                throw new IllegalArgumentException("Columna fuera del rango de " + columnas + ": " + indices[i]);
+            }
+            for (int j = 0; j < i; j++) {
+                if (indices[i] == indices[j]) {
+                    throw new IllegalArgumentException("Dos campos en la columna " + indices[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returna la columna del campo
+     *
+     * @param campo el campo
+     * @return su columna, comenzando en 0
+     */
+    public int indice(CampoVendedor campo) {
+        return switch (campo) {
+            case ID -> id;
+            case NOMBRE -> nombre;
+            case FECHA_DE_NACIMIENTO -> fechaDeNacimiento;
+            case ESTADO -> estado;
+        };
+    }
+
+    /**
+     * Returna el campo que se lee de la columna
+     *
+     * @param columna la columna, comenzando en 0
+     * @return el campo, o null si la columna no se utiliza
+     */
+    public CampoVendedor campo(int columna) {
+        for (CampoVendedor campo : CampoVendedor.values()) {
+            if (indice(campo) == columna) {
+                return campo;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returna la ultima columna que corresponde a un campo. Las columnas siguientes solo se cuentan
+     *
+     * @return la mayor de las columnas de los campos
+     */
+    public int ultimaColumnaUtilizada() {
+        return Math.max(Math.max(id, nombre), Math.max(fechaDeNacimiento, estado));
+    }
+}
@@ -2,31 +2,90 @@ package com.alex.vendedores.csv;
 
 import com.alex.vendedores.fecha.FechaParser;
 import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.regex.Pattern;
 
 import static java.lang.Integer.parseInt;
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 
 /**
  * Implementacion de la interfaz VendedorMapper para mapear
  * los datos de un vendedor de su formato de archivo CSV
  * a su correspondiente objeto de la clase Vendedor del dominio.
  *
+ * <p>Las columnas de cada campo y el patron de las fechas se toman de un PlanColumnas.
+ * Por defecto es el plan posicional 'id,nombre,fecha,estado' del EsquemaColumnas;
+ * 'paraEncabezado' returna un mapper con el plan compilado del encabezado de un archivo.
+ * Las columnas que no corresponden a ningun campo no se extraen.
+ *
+ * <p>Las filas se separan segun el RFC 4180 con CamposCSV: el nombre y el estado pueden estar
+ * entre comillas, contener comas, comillas escritas como '""' y letras con acento.
+ *
  * @author Alex Angulo
  */
 
 public final class SimpleVendedorMapper implements VendedorMapper {
 
-    private static final int INDICE_ID = 0;
-    private static final int INDICE_NOMBRE = 1;
-    private static final int INDICE_FECHA_DE_NACIMIENTO = 2;
-    private static final int INDICE_ESTADO = 3;
+    /**
+     * Regex del contenido de cada tipo de campo de un Vendedor, ya sin comillas.
+     * El texto admite letras y digitos de cualquier idioma, y comas y comillas de campos entrecomillados
+     */
+    private static final Pattern REGEX_ID = Pattern.compile("\\d+");
+    private static final Pattern REGEX_TEXTO = Pattern.compile("[\\p{L}\\p{Nd}_ ,\"]+");
+    private static final String REGEX_FECHA = "\\d+%1$s\\d+%1$s\\d+";
+
+    /**
+     * El tiempo de cada validacion con las regex del plan de columnas
+     */
+    private static final Histograma VALIDACION = Metricas.histograma("csv.validacionRegexNs");
+
+    /**
+     * El esquema del cual se compilan los planes de los encabezados
+     */
+    private final EsquemaColumnas esquema;
+
+    /**
+     * La columna de cada campo y el patron de las fechas
+     */
+    private final PlanColumnas plan;
+
+    /**
+     * Regex de cada columna del plan, compiladas una sola vez, o null en las columnas que no se utilizan
+     */
+    private final Pattern[] regexPorColumna;
+
+    private final FechaParser fechaParser = new FechaParser();
+
+    public SimpleVendedorMapper() {
+        this(EsquemaColumnas.POR_DEFECTO);
+    }
+
+    public SimpleVendedorMapper(EsquemaColumnas esquema) {
+        this(esquema, esquema.posicional());
+    }
+
+    private SimpleVendedorMapper(EsquemaColumnas esquema, PlanColumnas plan) {
+        this.esquema = requireNonNull(esquema);
+        this.plan = plan;
+        this.regexPorColumna = compilarRegex(plan);
+    }
 
     /**
-     * Regex que coincide con una fila de datos de un Vendedor en formato CSV
+     * Returna un mapper con el plan de columnas compilado del encabezado
+     *
+     * @param encabezado la primera linea del archivo, sin salto de linea
+     * @return el mapper para las filas del archivo
+     * @throws EncabezadoInvalidoException si el encabezado reconoce algunos campos pero no todos
      */
-    private static final String REGEX_VENDEDOR_CSV = "^\\d+,[\\w ]+,\\d+/\\d+/\\d+,[\\w ]+$";
+    @Override
+    public VendedorMapper paraEncabezado(String encabezado) {
+        return new SimpleVendedorMapper(esquema, esquema.compilar(encabezado));
+    }
 
     /**
      *  Mapea una String de un vendedor en formato CSV
@@ -53,7 +112,7 @@ public final class SimpleVendedorMapper implements VendedorMapper {
      * @return id del vendedor
      */
     private int extraerId(String[] datosVendedor) {
-        return parseInt(datosVendedor[INDICE_ID]);
+        return parseInt(datosVendedor[plan.id()]);
     }
 
     /**
@@ -63,7 +122,7 @@ public final class SimpleVendedorMapper implements VendedorMapper {
      * @return nombre del vendedor
      */
     private String extraerNombre(String[] datosVendedor) {
-        return datosVendedor[INDICE_NOMBRE];
+        return datosVendedor[plan.nombre()];
     }
 
     /**
@@ -73,8 +132,8 @@ public final class SimpleVendedorMapper implements VendedorMapper {
      * @return fecha de nacimiento del vendedor
      */
     private LocalDate extraerFechaDeNacimiento(String[] datosVendedor) {
-        String fecha = datosVendedor[INDICE_FECHA_DE_NACIMIENTO];
-        return new FechaParser().parsear(fecha, "mm/dd/yyyy");
+        String fecha = datosVendedor[plan.fechaDeNacimiento()];
+        return fechaParser.parsear(fecha, plan.patronFecha());
     }
 
     /**
@@ -84,17 +143,43 @@ public final class SimpleVendedorMapper implements VendedorMapper {
      * @return estado donde reside el vendedor
      */
     private String extraerEstado(String[] datosVendedor) {
-        return datosVendedor[INDICE_ESTADO];
+        return datosVendedor[plan.estado()];
     }
 
     /**
-     * Separa los datos del vendedor por comas
+     * Separa los datos del vendedor por comas, hasta la ultima columna que corresponde a un campo.
+     * Las columnas que no corresponden a ningun campo quedan en null, sin extraerse
      *
      * @param filaVendedor los datos del vendedor en formato CSV
-     * @return datos del vendedor ya separados por comas
+     * @return datos del vendedor ya separados por comas y sin comillas
+     * @throws IllegalArgumentException si la fila no es valida o no tiene las columnas del plan
      */
     private String[] separarPorComas(String filaVendedor) {
-        return filaVendedor.split(",");
+        String[] datosVendedor = CamposCSV.separar(filaVendedor, plan);
+        if (datosVendedor == null) {
+            throw new IllegalArgumentException("La fila no tiene las " + plan.columnas() + " columnas del plan: " + filaVendedor);
+        }
+        return datosVendedor;
+    }
+
+    /**
+     * Compila la regex de cada columna del plan: el id y la fecha con digitos, el nombre y el estado
+     * con letras, digitos, '_' y espacios, y null para las columnas sin campo, que no se validan
+     */
+    private static Pattern[] compilarRegex(PlanColumnas plan) {
+        Pattern fecha = Pattern.compile(format(REGEX_FECHA, Pattern.quote(plan.patronFecha().substring(2, 3))));
+        Pattern[] regex = new Pattern[plan.ultimaColumnaUtilizada() + 1];
+        for (int columna = 0; columna < regex.length; columna++) {
+            CampoVendedor campo = plan.campo(columna);
+            if (campo != null) {
+                regex[columna] = switch (campo) {
+                    case ID -> REGEX_ID;
+                    case NOMBRE, ESTADO -> REGEX_TEXTO;
+                    case FECHA_DE_NACIMIENTO -> fecha;
+                };
+            }
+        }
+        return regex;
     }
 
     /**
@@ -109,32 +194,65 @@ public final class SimpleVendedorMapper implements VendedorMapper {
      *         false en caso contrario
      */
     public boolean esVendedor(String filaVendedor) {
-        return filaVendedor.matches(REGEX_VENDEDOR_CSV);
+        if (!Metricas.HABILITADAS) {
+            return validar(filaVendedor);
+        }
+        long inicio = System.nanoTime();
+        boolean esVendedor = validar(filaVendedor);
+        VALIDACION.registrarDesde(inicio);
+        return esVendedor;
+    }
+
+    /**
+     * Returna si la fila tiene las columnas del plan y cada campo coincide con la regex de su columna
+     */
+    private boolean validar(String filaVendedor) {
+        String[] campos = CamposCSV.separar(filaVendedor, plan);
+        if (campos == null) {
+            return false;
+        }
+        for (int columna = 0; columna < campos.length; columna++) {
+            if (regexPorColumna[columna] != null && !regexPorColumna[columna].matcher(campos[columna]).matches()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Mapea un Vendedor a su formato CSV.
-     * El formato sera el siguiente:
+     * Mapea un Vendedor a su formato CSV, con las columnas del plan de este mapper:
+     * el plan posicional, o el del encabezado si el mapper se obtuvo con 'paraEncabezado'.
+     * Los campos seran los siguientes, cada uno en su columna:
      *
      * - id
      * - Nombre, maximo 35 caracteres
-     * - Fecha de nacimiento exactamente en formato DD/MM/AAAA
+     * - Fecha de nacimiento exactamente en el patron del plan, por defecto MM/DD/AAAA
      * - Estado, maximo 15 caracteres
      *
+     * Las columnas que no corresponden a ningun campo quedan vacias.
+     * El nombre y el estado se escriben entre comillas si contienen comas o comillas.
      *
      * @param vendedor el vendedor a mapear
      * @return String en formato CSV que representa al Vendedor
      */
     @Override
     public String mapearAFormatoCSV(Vendedor vendedor) {
-        return format("%d,%.35s,%s/%s/%d,%.15s",
-                vendedor.getId(),
-                vendedor.getNombre(),
-                padding(vendedor.getFechaDeNacimiento().getDayOfMonth()),
-                padding(vendedor.getFechaDeNacimiento().getMonth().getValue()),
-                vendedor.getFechaDeNacimiento().getYear(),
-                vendedor.getEstado()
-        );
+        LocalDate fecha = vendedor.getFechaDeNacimiento();
+        String patron = plan.patronFecha();
+        boolean mesPrimero = patron.startsWith("mm");
+        char separador = patron.charAt(2);
+        String[] columnas = new String[plan.columnas()];
+        Arrays.fill(columnas, "");
+        columnas[plan.id()] = Integer.toString(vendedor.getId());
+        columnas[plan.nombre()] = CamposCSV.entrecomillar(format("%.35s", vendedor.getNombre()));
+        columnas[plan.fechaDeNacimiento()] = format("%s%c%s%c%04d",
+                padding(mesPrimero ? fecha.getMonthValue() : fecha.getDayOfMonth()),
+                separador,
+                padding(mesPrimero ? fecha.getDayOfMonth() : fecha.getMonthValue()),
+                separador,
+                fecha.getYear());
+        columnas[plan.estado()] = CamposCSV.entrecomillar(format("%.15s", vendedor.getEstado()));
+        return String.join(",", columnas);
     }
 
     /**
@@ -13,4 +13,18 @@ public interface VendedorMapper {
 
     String mapearAFormatoCSV(Vendedor vendedor);
 
+    /**
+     * Returna el mapper para las filas de un archivo con el encabezado recibido.
+     *
+     * <p>La implementacion por defecto ignora el encabezado y returna este mismo mapper.
+     * Las implementaciones con un EsquemaColumnas returnan un mapper con el plan de columnas del encabezado.
+     *
+     * @param encabezado la primera linea del archivo, sin salto de linea
+     * @return el mapper para las filas del archivo
+     * @throws EncabezadoInvalidoException si el encabezado no tiene una columna para algun campo
+     */
+    default VendedorMapper paraEncabezado(String encabezado) {
+        return this;
+    }
+
 }
@@ -1,7 +1,10 @@
 package com.alex.vendedores.csv;
 
+import com.alex.vendedores.dominio.PoliticaGuardado;
 import com.alex.vendedores.dominio.Vendedor;
 import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
 
 import java.nio.file.Path;
 import java.util.*;
@@ -9,18 +12,24 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-import static java.util.stream.Collectors.toCollection;
-import static java.util.stream.Collectors.toList;
-
 /**
  *  Implementacion de la interfaz VendedorRepositorio.
  *  Esta implementacion trabaja con archivos CSV como proveedor de persistencia.
  *
+ *  <p>Guardar siempre agrega una fila al final del archivo. Con la politica REEMPLAZAR_POR_ID,
+ *  al cargar el archivo cada fila reemplaza a la fila anterior con el mismo id, por lo que solo
+ *  sobreviven los vendedores vivos; CompactadorCSV reescribe el archivo solo con ellos.
+ *
  * @author Alex Angulo
  */
 
 public final class VendedorRepositorioCSV implements VendedorRepositorio {
 
+    /**
+     * El tiempo total de cada carga del archivo: lectura, parseo y eliminacion de duplicados
+     */
+    private static final Histograma CARGA = Metricas.histograma("repositorio.cargaNs");
+
     /**
      * El mapper que encapsula el algoritmo para mapear
      * una String en formato CSV a un objeto Vendedor.
@@ -28,10 +37,10 @@ public final class VendedorRepositorioCSV implements VendedorRepositorio {
     private final VendedorMapper mapper;
 
     /**
-     * La Function que encapsula el algoritmo para leer
-     * las lineas de un archivo
+     * El LectorVendedores que encapsula el algoritmo para leer
+     * los objetos Vendedor de un archivo
      */
-    private final Function<Path, List<String>> lector;
+    private final LectorVendedores lector;
 
     /**
      * El Supplier que provee el archivo
@@ -45,6 +54,16 @@ public final class VendedorRepositorioCSV implements VendedorRepositorio {
 
     private final Consumer<String> escritor;
 
+    /**
+     * Los contadores donde se suman los vendedores duplicados descartados
+     */
+    private final ContadoresIngesta contadores;
+
+    /**
+     * Como se resuelven los vendedores con el mismo id al cargar el archivo
+     */
+    private final PoliticaGuardado politica;
+
     /**
      * Collection para almacenar en cache los objetos Vendedor,
      * para leer solo una vez el archivo CSV durante la ejecucion del programa.
@@ -58,15 +77,42 @@ public final class VendedorRepositorioCSV implements VendedorRepositorio {
                                   Supplier<Path> proveedorPath,
                                   Function<Path, List<String>> lectorArchivo,
                                   Consumer<String> escritorArchivo) {
+        this(mapper, proveedorPath, new LectorVendedoresPorLineas(lectorArchivo, mapper), escritorArchivo);
+    }
+
+    public VendedorRepositorioCSV(VendedorMapper mapper,
+                                  Supplier<Path> proveedorPath,
+                                  LectorVendedores lectorVendedores,
+                                  Consumer<String> escritorArchivo) {
+        this(mapper, proveedorPath, lectorVendedores, escritorArchivo, new ContadoresIngesta());
+    }
+
+    public VendedorRepositorioCSV(VendedorMapper mapper,
+                                  Supplier<Path> proveedorPath,
+                                  LectorVendedores lectorVendedores,
+                                  Consumer<String> escritorArchivo,
+                                  ContadoresIngesta contadores) {
+        this(mapper, proveedorPath, lectorVendedores, escritorArchivo, contadores, PoliticaGuardado.AGREGAR);
+    }
+
+    public VendedorRepositorioCSV(VendedorMapper mapper,
+                                  Supplier<Path> proveedorPath,
+                                  LectorVendedores lectorVendedores,
+                                  Consumer<String> escritorArchivo,
+                                  ContadoresIngesta contadores,
+                                  PoliticaGuardado politica) {
         this.mapper = mapper;
         this.proveedorPath = proveedorPath;
-        this.lector = lectorArchivo;
+        this.lector = lectorVendedores;
         this.escritor = escritorArchivo;
+        this.contadores = contadores;
+        this.politica = politica;
     }
 
     /**
      * Returna una Collection INMUTABLE con todos los objetos Vendedor encontrados en el archivo CSV,
-     * descartando las duplicaciones de objetos Vendedor identicos.
+     * descartando las duplicaciones de objetos Vendedor identicos, o con REEMPLAZAR_POR_ID,
+     * solo el ultimo objeto Vendedor de cada id.
      *
      * @return Todos los objetos Vendedor recuperados,
      *         sin duplicados, en una Collection INMUTABLE
@@ -79,6 +125,15 @@ public final class VendedorRepositorioCSV implements VendedorRepositorio {
         return Collections.unmodifiableSet(cache);
     }
 
+    /**
+     * Returna los contadores de vendedores duplicados descartados durante la carga
+     *
+     * @return los contadores de este repositorio
+     */
+    public ContadoresIngesta contadores() {
+        return contadores;
+    }
+
     /**
      * Persiste un objeto Vendedor
      *
@@ -96,19 +151,12 @@ public final class VendedorRepositorioCSV implements VendedorRepositorio {
      * @return Collection con todos los objetos Vendedor, sin duplicados.
      */
     private Set<Vendedor> cargarVendedoresEnMemoria() {
-        return lineasArchivo().stream()
-                .filter(mapper::esVendedor)
-                .map(mapper::mapearAVendedor)
-                .collect(toCollection(LinkedHashSet::new));
-    }
-
-    /**
-     * Lee el archivo y returna las lineas contenidas en el mismo
-     *
-     * @return las lineas de texto contenidas en el archivo
-     */
-    private List<String> lineasArchivo() {
-        return lector.apply(proveedorPath.get());
+        long inicio = System.nanoTime();
+        Set<Vendedor> vendedores = CargadorVendedores.cargar(lector, proveedorPath.get(), contadores, politica);
+        if (Metricas.HABILITADAS) {
+            CARGA.registrarDesde(inicio);
+        }
+        return vendedores;
     }
 
 }
@@ -0,0 +1,306 @@
+package com.alex.vendedores.csv;
+
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.EjecutorConsultas;
+import com.alex.vendedores.dominio.PoliticaGuardado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
+
+/**
+ *  Implementacion de la interfaz VendedorRepositorio que trabaja con
+ *  un conjunto de archivos CSV (fragmentos o 'shards') como proveedor de persistencia,
+ *  por ejemplo un archivo por cada estado.
+ *
+ *  <p>Los fragmentos se cargan en paralelo y los vendedores identicos
+ *  se descartan aunque aparezcan en fragmentos distintos. Con la politica REEMPLAZAR_POR_ID
+ *  solo sobrevive el ultimo vendedor de cada id: dentro de un fragmento gana la ultima fila,
+ *  y entre fragmentos gana el ultimo fragmento en el orden del proveedor de fragmentos.
+ *
+ * @author Alex Angulo
+ */
+public final class VendedorRepositorioCSVFragmentado implements VendedorRepositorio {
+
+    /**
+     * El tiempo total de cada carga de todos los fragmentos, y de la union de sus vendedores
+     */
+    private static final Histograma CARGA = Metricas.histograma("repositorio.cargaNs");
+    private static final Histograma UNION = Metricas.histograma("repositorio.unionFragmentosNs");
+
+    /**
+     * Provee el mapper con que se escriben las filas de cada fragmento,
+     * segun el orden de columnas y el patron de fechas del fragmento
+     */
+    private final Function<Path, VendedorMapper> mapperPorFragmento;
+
+    /**
+     * El Supplier que provee los archivos de todos los fragmentos
+     */
+    private final Supplier<List<Path>> proveedorFragmentos;
+
+    /**
+     * El LectorVendedores que encapsula el algoritmo para leer
+     * los objetos Vendedor de un archivo
+     */
+    private final LectorVendedores lector;
+
+    /**
+     * El BiConsumer que encapsula el algoritmo para escribir
+     * una linea en el archivo indicado
+     */
+    private final BiConsumer<String, Path> escritor;
+
+    /**
+     * Decide en cual fragmento se persiste cada Vendedor
+     * y cuales fragmentos pueden omitirse en las consultas por estado
+     */
+    private final EnrutadorFragmentos enrutador;
+
+    /**
+     * Los contadores donde se suman los vendedores duplicados descartados,
+     * tanto dentro de un fragmento como entre fragmentos
+     */
+    private final ContadoresIngesta contadores;
+
+    /**
+     * Como se resuelven los vendedores con el mismo id al cargar los fragmentos
+     */
+    private final PoliticaGuardado politica;
+
+    /**
+     * Los vendedores de cada fragmento ya leido, para leer cada archivo una sola vez.
+     * Es concurrente porque los fragmentos se cargan en paralelo.
+     */
+    private final Map<Path, Set<Vendedor>> fragmentosCargados = new ConcurrentHashMap<>();
+
+    /**
+     * Collection para almacenar en cache la union de todos los fragmentos.
+     * Su inicializacion es de tipo 'lazy', por ello la variable no es 'final'.
+     */
+    private Set<Vendedor> cache;
+
+    public VendedorRepositorioCSVFragmentado(VendedorMapper mapper,
+                                             Supplier<List<Path>> proveedorFragmentos,
+                                             LectorVendedores lectorVendedores,
+                                             BiConsumer<String, Path> escritorArchivo,
+                                             EnrutadorFragmentos enrutador) {
+        this(mapper, proveedorFragmentos, lectorVendedores, escritorArchivo, enrutador, new ContadoresIngesta());
+    }
+
+    public VendedorRepositorioCSVFragmentado(VendedorMapper mapper,
+                                             Supplier<List<Path>> proveedorFragmentos,
+                                             LectorVendedores lectorVendedores,
+                                             BiConsumer<String, Path> escritorArchivo,
+                                             EnrutadorFragmentos enrutador,
+                                             ContadoresIngesta contadores) {
+        this(mapper, proveedorFragmentos, lectorVendedores, escritorArchivo, enrutador, contadores,
+                PoliticaGuardado.AGREGAR);
+    }
+
+    public VendedorRepositorioCSVFragmentado(VendedorMapper mapper,
+                                             Supplier<List<Path>> proveedorFragmentos,
+                                             LectorVendedores lectorVendedores,
+                                             BiConsumer<String, Path> escritorArchivo,
+                                             EnrutadorFragmentos enrutador,
+                                             ContadoresIngesta contadores,
+                                             PoliticaGuardado politica) {
+        this(fragmento -> mapper, proveedorFragmentos, lectorVendedores, escritorArchivo, enrutador, contadores,
+                politica);
+    }
+
+    /**
+     * @param mapperPorFragmento provee el mapper de las filas de cada fragmento, por ejemplo un MappersPorArchivo;
+     *                           se invoca en cada 'guardar', por lo que debe conservar los mappers que construye
+     */
+    public VendedorRepositorioCSVFragmentado(Function<Path, VendedorMapper> mapperPorFragmento,
+                                             Supplier<List<Path>> proveedorFragmentos,
+                                             LectorVendedores lectorVendedores,
+                                             BiConsumer<String, Path> escritorArchivo,
+                                             EnrutadorFragmentos enrutador,
+                                             ContadoresIngesta contadores,
+                                             PoliticaGuardado politica) {
+        this.mapperPorFragmento = mapperPorFragmento;
+        this.proveedorFragmentos = proveedorFragmentos;
+        this.lector = lectorVendedores;
+        this.escritor = escritorArchivo;
+        this.enrutador = enrutador;
+        this.contadores = contadores;
+        this.politica = politica;
+    }
+
+    /**
+     * Returna una Collection INMUTABLE con todos los objetos Vendedor de todos los fragmentos,
+     * descartando las duplicaciones de objetos Vendedor identicos entre fragmentos.
+     *
+     * @return Todos los objetos Vendedor recuperados,
+     *         sin duplicados, en una Collection INMUTABLE
+     */
+    @Override
+    public Set<Vendedor> encontrarTodos() {
+        if (cache == null) {
+            long inicio = System.nanoTime();
+            cache = unir(cargar(proveedorFragmentos.get()));
+            if (Metricas.HABILITADAS) {
+                CARGA.registrarDesde(inicio);
+            }
+        }
+        return unmodifiableSet(cache);
+    }
+
+    /**
+     * Returna los vendedores del estado recibido, leyendo unicamente
+     * los fragmentos que pueden contener vendedores de dicho estado, excepto con REEMPLAZAR_POR_ID
+     *
+     * @param estado el estado de residencia buscado
+     * @return los vendedores del estado, sin duplicados, en una Collection INMUTABLE
+     */
+    @Override
+    public Set<Vendedor> encontrarPorEstado(String estado) {
+        // con REEMPLAZAR_POR_ID, la ultima version de un vendedor puede estar en el fragmento de otro estado
+        if (cache != null || politica == PoliticaGuardado.REEMPLAZAR_POR_ID) {
+            return VendedorRepositorio.super.encontrarPorEstado(estado);
+        }
+        List<Path> candidatos = proveedorFragmentos.get().stream()
+                .filter(fragmento -> puedeContenerEstado(fragmento, estado))
+                .collect(toList());
+
+        Set<Vendedor> vendedoresDelEstado = cargar(candidatos).stream()
+                .flatMap(Set::stream)
+                .filter(vendedor -> vendedor.getEstado().equals(estado))
+                .collect(toCollection(LinkedHashSet::new));
+        return unmodifiableSet(vendedoresDelEstado);
+    }
+
+    /**
+     * Returna los contadores de vendedores duplicados descartados durante la carga
+     *
+     * @return los contadores de este repositorio
+     */
+    public ContadoresIngesta contadores() {
+        return contadores;
+    }
+
+    /**
+     * Returna los vendedores que cumplen la consulta. Si la consulta filtra por estado,
+     * solo se leen los fragmentos que pueden contener vendedores de dicho estado
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los vendedores que cumplen la consulta, en una lista INMUTABLE
+     */
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        Set<Vendedor> candidatos = consulta.estado()
+                .map(this::encontrarPorEstado)
+                .orElseGet(this::encontrarTodos);
+        return EjecutorConsultas.ejecutar(candidatos, consulta);
+    }
+
+    /**
+     * Persiste un objeto Vendedor en el fragmento elegido por el enrutador,
+     * con el orden de columnas y el patron de fechas del fragmento
+     *
+     * @param vendedor el vendedor a persistir
+     */
+    @Override
+    public void guardar(Vendedor vendedor) {
+        Path fragmento = enrutador.fragmentoPara(vendedor);
+        String vendedorConFormatoCSV = mapperPorFragmento.apply(fragmento).mapearAFormatoCSV(vendedor);
+        escritor.accept(vendedorConFormatoCSV, fragmento);
+    }
+
+    /**
+     * Returna si el fragmento puede contener vendedores del estado recibido
+     *
+     * @param fragmento el fragmento a revisar
+     * @param estado el estado buscado
+     * @return false unicamente si se sabe que el fragmento pertenece a otro estado
+     */
+    private boolean puedeContenerEstado(Path fragmento, String estado) {
+        return enrutador.estadoDe(fragmento)
+                .map(estado::equals)
+                .orElse(true);
+    }
+
+    /**
+     * Carga en paralelo los fragmentos recibidos,
+     * conservando el orden de la lista original
+     *
+     * @param fragmentos los fragmentos a cargar
+     * @return los vendedores de cada fragmento, en el mismo orden
+     */
+    private List<Set<Vendedor>> cargar(List<Path> fragmentos) {
+        return fragmentos.parallelStream()
+                .map(this::cargarFragmento)
+                .collect(toList());
+    }
+
+    /**
+     * Returna los vendedores de un fragmento, leyendo el archivo solo la primera vez
+     *
+     * @param fragmento el fragmento a cargar
+     * @return los vendedores del fragmento, sin duplicados
+     */
+    private Set<Vendedor> cargarFragmento(Path fragmento) {
+        Set<Vendedor> vendedores = fragmentosCargados.get(fragmento);
+        if (vendedores == null) {
+            vendedores = leerFragmento(fragmento);
+            fragmentosCargados.putIfAbsent(fragmento, vendedores);
+        }
+        return vendedores;
+    }
+
+    /**
+     * Lee un fragmento y mapea sus lineas validas a objetos Vendedor
+     *
+     * @param fragmento el fragmento a leer
+     * @return los vendedores del fragmento, sin duplicados
+     */
+    private Set<Vendedor> leerFragmento(Path fragmento) {
+        return CargadorVendedores.cargar(lector, fragmento, contadores, politica);
+    }
+
+    /**
+     * Une los vendedores de todos los fragmentos descartando duplicados
+     * o, con REEMPLAZAR_POR_ID, conservando solo el ultimo vendedor de cada id
+     *
+     * @param fragmentos los vendedores de cada fragmento
+     * @return la union de todos los fragmentos
+     */
+    private Set<Vendedor> unir(List<Set<Vendedor>> fragmentos) {
+        long inicio = System.nanoTime();
+        Set<Vendedor> union;
+        long leidos = 0;
+        if (politica == PoliticaGuardado.REEMPLAZAR_POR_ID) {
+            Map<Integer, Vendedor> porId = new LinkedHashMap<>();
+            for (Set<Vendedor> fragmento : fragmentos) {
+                fragmento.forEach(vendedor -> porId.put(vendedor.getId(), vendedor));
+                leidos += fragmento.size();
+            }
+            union = new LinkedHashSet<>(porId.values());
+        } else {
+            union = new LinkedHashSet<>();
+            for (Set<Vendedor> fragmento : fragmentos) {
+                union.addAll(fragmento);
+                leidos += fragmento.size();
+            }
+        }
+        contadores.sumarDuplicadas(leidos - union.size());
+        if (Metricas.HABILITADAS) {
+            UNION.registrarDesde(inicio);
+        }
+        return union;
+    }
+
+}
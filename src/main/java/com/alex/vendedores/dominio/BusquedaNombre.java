@@ -0,0 +1,287 @@
+package com.alex.vendedores.dominio;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Clase inmutable que representa una busqueda de vendedores por nombre, paginada.
+ *
+ * <p>Los nombres y el texto buscado se comparan normalizados: en minusculas y sin acentos.
+ * Hay tres tipos de busqueda:
+ * <ul>
+ *     <li>PREFIJO: el nombre comienza con el texto</li>
+ *     <li>SUBCADENA: el nombre contiene el texto</li>
+ *     <li>APROXIMADA: cada palabra del texto se parece a alguna palabra del nombre, tolerando errores
+ *     de escritura: su distancia de Levenshtein es a lo mas 'distanciaMaxima' de la palabra</li>
+ * </ul>
+ *
+ * <p>El resultado se ordena por distancia (siempre 0 en PREFIJO y SUBCADENA), despues por nombre
+ * normalizado y despues por orden de insercion.
+ *
+ * @author Alex Angulo
+ */
+public final class BusquedaNombre {
+
+    /**
+     * El tipo de coincidencia entre el texto buscado y el nombre
+     */
+    public enum Tipo {
+        PREFIJO, SUBCADENA, APROXIMADA
+    }
+
+    /**
+     * Un vendedor que coincide con la busqueda, identificado por su posicion en la coleccion buscada.
+     * El orden natural es el orden del resultado: distancia, nombre normalizado y posicion
+     *
+     * @param distancia la distancia entre la busqueda y el nombre
+     * @param nombre el nombre normalizado
+     * @param posicion la posicion del vendedor en la coleccion buscada
+     */
+    public record Coincidencia(int distancia, String nombre, int posicion) implements Comparable<Coincidencia> {
+
+        @Override
+        public int compareTo(Coincidencia otra) {
+            int comparacion = Integer.compare(distancia, otra.distancia);
+            if (comparacion == 0) {
+                comparacion = nombre.compareTo(otra.nombre);
+            }
+            return comparacion != 0 ? comparacion : Integer.compare(posicion, otra.posicion);
+        }
+    }
+
+    /**
+     * Valor que returna 'distancia' cuando el nombre no coincide
+     */
+    public static final int SIN_COINCIDENCIA = -1;
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private final String texto;
+    private final List<String> palabras;
+    private final Tipo tipo;
+    private final int desplazamiento;
+    private final int limite;
+
+    /**
+     * @param texto el texto a buscar, no vacio
+     * @param tipo el tipo de busqueda
+     * @param desplazamiento el numero de coincidencias a omitir al inicio, no negativo
+     * @param limite el numero maximo de coincidencias del resultado, no negativo
+     */
+    public BusquedaNombre(String texto, Tipo tipo, int desplazamiento, int limite) {
+        this.texto = normalizar(requireNonNull(texto)).strip();
+        this.palabras = palabras(this.texto);
+        this.tipo = requireNonNull(tipo);
+        if (this.texto.isEmpty()) {
+            throw new IllegalArgumentException("El texto a buscar no puede estar vacio");
+        }
+        if (desplazamiento < 0 || limite < 0) {
+            throw new IllegalArgumentException("El desplazamiento y el limite no pueden ser negativos");
+        }
+        this.desplazamiento = desplazamiento;
+        this.limite = limite;
+    }
+
+    /**
+     * Returna la distancia entre la busqueda y el nombre
+     *
+     * @param nombreNormalizado el nombre, ya normalizado con 'normalizar'
+     * @return 0 si el nombre coincide en PREFIJO o SUBCADENA, la suma de las distancias
+     *         de cada palabra en APROXIMADA, o SIN_COINCIDENCIA si no coincide
+     */
+    public int distancia(String nombreNormalizado) {
+        switch (tipo) {
+            case PREFIJO:
+                return nombreNormalizado.startsWith(texto) ? 0 : SIN_COINCIDENCIA;
+            case SUBCADENA:
+                return nombreNormalizado.contains(texto) ? 0 : SIN_COINCIDENCIA;
+            default:
+                return distanciaAproximada(palabras(nombreNormalizado));
+        }
+    }
+
+    /**
+     * Suma, por cada palabra buscada, la menor distancia a alguna palabra del nombre
+     */
+    private int distanciaAproximada(List<String> palabrasNombre) {
+        int total = 0;
+        for (String palabra : palabras) {
+            int maxima = distanciaMaxima(palabra);
+            int menor = maxima + 1;
+            for (String palabraNombre : palabrasNombre) {
+                menor = Math.min(menor, levenshtein(palabra, palabraNombre, maxima));
+            }
+            if (menor > maxima) {
+                return SIN_COINCIDENCIA;
+            }
+            total += menor;
+        }
+        return total;
+    }
+
+    /**
+     * Returna el texto buscado, normalizado
+     *
+     * @return el texto buscado, normalizado
+     */
+    public String texto() {
+        return texto;
+    }
+
+    /**
+     * Returna las palabras del texto buscado, normalizadas
+     *
+     * @return las palabras del texto buscado
+     */
+    public List<String> palabras() {
+        return palabras;
+    }
+
+    /**
+     * Returna el tipo de busqueda
+     *
+     * @return el tipo de busqueda
+     */
+    public Tipo tipo() {
+        return tipo;
+    }
+
+    /**
+     * Returna el numero de coincidencias a omitir al inicio del resultado
+     *
+     * @return el desplazamiento
+     */
+    public int desplazamiento() {
+        return desplazamiento;
+    }
+
+    /**
+     * Returna el numero maximo de coincidencias del resultado
+     *
+     * @return el limite
+     */
+    public int limite() {
+        return limite;
+    }
+
+    /**
+     * Returna el numero de coincidencias que hay que ordenar para formar la pagina
+     *
+     * @return el desplazamiento mas el limite, sin desbordarse
+     */
+    public int coincidenciasNecesarias() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) desplazamiento + limite);
+    }
+
+    @Override
+    public String toString() {
+        return "BusquedaNombre{" +
+                "texto='" + texto + '\'' +
+                ", tipo=" + tipo +
+                ", desplazamiento=" + desplazamiento +
+                ", limite=" + limite +
+                '}';
+    }
+
+    /**
+     * Normaliza un nombre para compararlo: minusculas y sin acentos
+     *
+     * @param nombre el nombre a normalizar
+     * @return el nombre normalizado
+     */
+    public static String normalizar(String nombre) {
+        String minusculas = nombre.toLowerCase(Locale.ROOT);
+        if (esAsciiSimple(minusculas)) {
+            return minusculas;
+        }
+        return MARCAS_DIACRITICAS.matcher(Normalizer.normalize(minusculas, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Separa un nombre normalizado en palabras
+     *
+     * @param nombreNormalizado el nombre normalizado
+     * @return las palabras del nombre
+     */
+    public static List<String> palabras(String nombreNormalizado) {
+        String recortado = nombreNormalizado.strip();
+        return recortado.isEmpty() ? List.of() : Arrays.asList(ESPACIOS.split(recortado));
+    }
+
+    /**
+     * Returna la distancia maxima tolerada para una palabra buscada: ninguna para palabras
+     * de hasta 2 letras, 1 para palabras de hasta 5 letras y 2 para palabras mas largas
+     *
+     * @param palabra la palabra buscada
+     * @return la distancia maxima tolerada
+     */
+    public static int distanciaMaxima(String palabra) {
+        if (palabra.length() <= 2) {
+            return 0;
+        }
+        return palabra.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Calcula la distancia de Levenshtein entre dos palabras, sin pasar del maximo indicado.
+     *
+     * <p>Solo se calcula la banda de ancho '2 * maximo + 1' alrededor de la diagonal,
+     * y el calculo se detiene en cuanto toda una fila supera el maximo.
+     *
+     * @param a una palabra
+     * @param b otra palabra
+     * @param maximo la distancia maxima de interes
+     * @return la distancia, o 'maximo + 1' si es mayor que el maximo
+     */
+    public static int levenshtein(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int infinito = maximo + 1;
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j <= maximo ? j : infinito;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int desde = Math.max(1, i - maximo);
+            int hasta = Math.min(b.length(), i + maximo);
+            actual[0] = i <= maximo ? i : infinito;
+            if (desde > 1) {
+                actual[desde - 1] = infinito;
+            }
+            int menorDeLaFila = actual[0];
+            for (int j = desde; j <= hasta; j++) {
+                int sustitucion = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int valor = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                actual[j] = Math.min(valor, infinito);
+                menorDeLaFila = Math.min(menorDeLaFila, actual[j]);
+            }
+            if (hasta < b.length()) {
+                actual[hasta + 1] = infinito;
+            }
+            if (menorDeLaFila > maximo) {
+                return infinito;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return Math.min(anterior[b.length()], infinito);
+    }
+
+    private static boolean esAsciiSimple(String cadena) {
+        for (int i = 0; i < cadena.length(); i++) {
+            if (cadena.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
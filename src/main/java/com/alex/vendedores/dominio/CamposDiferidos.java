@@ -0,0 +1,50 @@
+package com.alex.vendedores.dominio;
+
+import java.time.LocalDate;
+
+/**
+ * La fuente del nombre y la fecha de nacimiento de un Vendedor que no se decodifican al construirlo,
+ * sino hasta que se acceden por primera vez, por ejemplo los bytes de su fila en el archivo.
+ *
+ * <p>Los hash deben ser iguales a los de los valores decodificados, para que un Vendedor diferido
+ * sea igual, y tenga el mismo hash, que un Vendedor con los mismos valores construido sin diferir.
+ * Una fuente puede calcularlos sin decodificar, para que descartar duplicados no obligue a decodificar.
+ *
+ * <p>Las implementaciones deben ser thread-safe y returnar siempre valores iguales.
+ *
+ * @author Alex Angulo
+ */
+public interface CamposDiferidos {
+
+    /**
+     * Decodifica el nombre
+     *
+     * @return el nombre del Vendedor
+     */
+    String nombre();
+
+    /**
+     * Decodifica la fecha de nacimiento
+     *
+     * @return la fecha de nacimiento del Vendedor
+     */
+    LocalDate fechaDeNacimiento();
+
+    /**
+     * Returna el hash del nombre
+     *
+     * @return 'nombre().hashCode()'
+     */
+    default int hashNombre() {
+        return nombre().hashCode();
+    }
+
+    /**
+     * Returna el hash de la fecha de nacimiento
+     *
+     * @return 'fechaDeNacimiento().hashCode()'
+     */
+    default int hashFechaDeNacimiento() {
+        return fechaDeNacimiento().hashCode();
+    }
+}
@@ -0,0 +1,351 @@
+package com.alex.vendedores.dominio;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Clase inmutable que representa una consulta de vendedores: un conjunto de filtros
+ * que deben cumplirse a la vez, mas un desplazamiento y un limite para paginar el resultado.
+ *
+ * <p>Los filtros se exponen por separado, y no solo como un Predicate, para que cada
+ * VendedorRepositorio pueda aprovechar los que conoce, por ejemplo omitiendo fragmentos
+ * de otros estados o buscando en un indice. El rango de edades y el anio de nacimiento
+ * se traducen a un unico rango de fechas de nacimiento, calculado una sola vez
+ * respecto a la fecha de referencia de la consulta.
+ *
+ * @author Alex Angulo
+ */
+public final class ConsultaVendedores {
+
+    /**
+     * Una consulta sin filtros, desplazamiento ni limite
+     */
+    public static final ConsultaVendedores TODOS = builder().build();
+
+    private final String estado;
+    private final String prefijoNombre;
+
+    /**
+     * El rango de fechas de nacimiento, inclusivo en ambos extremos, o null si no esta acotado
+     */
+    private final LocalDate nacidoDesde;
+    private final LocalDate nacidoHasta;
+
+    private final int desplazamiento;
+    private final int limite;
+
+    private ConsultaVendedores(Builder builder) {
+        this.estado = builder.estado;
+        this.prefijoNombre = builder.prefijoNombre;
+        this.nacidoDesde = builder.nacidoDesde();
+        this.nacidoHasta = builder.nacidoHasta();
+        this.desplazamiento = builder.desplazamiento;
+        this.limite = builder.limite;
+    }
+
+    /**
+     * Returna si el vendedor cumple todos los filtros de la consulta.
+     * Los filtros mas baratos se evaluan primero
+     *
+     * @param vendedor el vendedor a evaluar
+     * @return true si el vendedor cumple todos los filtros
+     */
+    public boolean acepta(Vendedor vendedor) {
+        if (estado != null && !estado.equals(vendedor.getEstado())) {
+            return false;
+        }
+        LocalDate fecha = vendedor.getFechaDeNacimiento();
+        if (nacidoDesde != null && fecha.isBefore(nacidoDesde)) {
+            return false;
+        }
+        if (nacidoHasta != null && fecha.isAfter(nacidoHasta)) {
+            return false;
+        }
+        return prefijoNombre == null || vendedor.getNombre().startsWith(prefijoNombre);
+    }
+
+    /**
+     * Returna los filtros de la consulta como un Predicate
+     *
+     * @return el Predicate equivalente a 'acepta'
+     */
+    public Predicate<Vendedor> comoPredicado() {
+        return this::acepta;
+    }
+
+    /**
+     * Returna el estado buscado, si la consulta filtra por estado
+     *
+     * @return el estado buscado, si la consulta filtra por estado
+     */
+    public Optional<String> estado() {
+        return Optional.ofNullable(estado);
+    }
+
+    /**
+     * Returna el prefijo del nombre buscado, si la consulta filtra por nombre
+     *
+     * @return el prefijo del nombre buscado, si la consulta filtra por nombre
+     */
+    public Optional<String> prefijoNombre() {
+        return Optional.ofNullable(prefijoNombre);
+    }
+
+    /**
+     * Returna la fecha de nacimiento minima, inclusiva, si la consulta la acota
+     *
+     * @return la fecha de nacimiento minima, inclusiva, si la consulta la acota
+     */
+    public Optional<LocalDate> nacidoDesde() {
+        return Optional.ofNullable(nacidoDesde);
+    }
+
+    /**
+     * Returna la fecha de nacimiento maxima, inclusiva, si la consulta la acota
+     *
+     * @return la fecha de nacimiento maxima, inclusiva, si la consulta la acota
+     */
+    public Optional<LocalDate> nacidoHasta() {
+        return Optional.ofNullable(nacidoHasta);
+    }
+
+    /**
+     * Returna el numero de vendedores que cumplen los filtros y se omiten al inicio del resultado
+     *
+     * @return el numero de vendedores que cumplen los filtros y se omiten al inicio del resultado
+     */
+    public int desplazamiento() {
+        return desplazamiento;
+    }
+
+    /**
+     * Returna el numero maximo de vendedores del resultado
+     *
+     * @return el numero maximo de vendedores del resultado
+     */
+    public int limite() {
+        return limite;
+    }
+
+    /**
+     * Returna si la consulta tiene desplazamiento o limite, es decir,
+     * si el recorrido puede detenerse antes de revisar todos los vendedores
+     *
+     * @return true si la consulta esta paginada
+     */
+    public boolean esPaginada() {
+        return desplazamiento > 0 || limite < Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returna si la consulta no tiene filtros
+     *
+     * @return true si todos los vendedores cumplen la consulta
+     */
+    public boolean sinFiltros() {
+        return estado == null && prefijoNombre == null && nacidoDesde == null && nacidoHasta == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ConsultaVendedores{" +
+                "estado='" + estado + '\'' +
+                ", prefijoNombre='" + prefijoNombre + '\'' +
+                ", nacidoDesde=" + nacidoDesde +
+                ", nacidoHasta=" + nacidoHasta +
+                ", desplazamiento=" + desplazamiento +
+                ", limite=" + limite +
+                '}';
+    }
+
+    /**
+     * Returna un objeto Builder para construir una consulta
+     *
+     * @return una instancia de la clase anidada Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     *  Clase anidada estatica para construir objetos ConsultaVendedores.
+     *  Todos los filtros son opcionales.
+     */
+    public static final class Builder {
+
+        private String estado;
+        private String prefijoNombre;
+        private Integer edadMinima;
+        private Integer edadMaxima;
+        private Integer anioNacimiento;
+        private LocalDate fechaReferencia;
+        private int desplazamiento;
+        private int limite = Integer.MAX_VALUE;
+
+        /**
+         * Filtra los vendedores que residen en el estado
+         *
+         * @param estado el estado de residencia
+         * @return este objeto Builder
+         */
+        public Builder estado(String estado) {
+            this.estado = requireNonNull(estado);
+            return this;
+        }
+
+        /**
+         * Filtra los vendedores cuyo nombre comienza con el prefijo, distinguiendo mayusculas
+         *
+         * @param prefijoNombre el prefijo del nombre
+         * @return este objeto Builder
+         */
+        public Builder prefijoNombre(String prefijoNombre) {
+            this.prefijoNombre = requireNonNull(prefijoNombre);
+            return this;
+        }
+
+        /**
+         * Filtra los vendedores con al menos la edad indicada
+         *
+         * @param edadMinima la edad minima, inclusiva
+         * @return este objeto Builder
+         */
+        public Builder edadMinima(int edadMinima) {
+            this.edadMinima = edadMinima;
+            return this;
+        }
+
+        /**
+         * Filtra los vendedores con a lo mas la edad indicada
+         *
+         * @param edadMaxima la edad maxima, inclusiva
+         * @return este objeto Builder
+         */
+        public Builder edadMaxima(int edadMaxima) {
+            this.edadMaxima = edadMaxima;
+            return this;
+        }
+
+        /**
+         * Filtra los vendedores nacidos en el anio indicado
+         *
+         * @param anioNacimiento el anio de nacimiento
+         * @return este objeto Builder
+         */
+        public Builder anioNacimiento(int anioNacimiento) {
+            this.anioNacimiento = anioNacimiento;
+            return this;
+        }
+
+        /**
+         * Establece la fecha respecto a la cual se calculan las edades. Por defecto es la fecha actual
+         *
+         * @param fechaReferencia la fecha de referencia
+         * @return este objeto Builder
+         */
+        public Builder fechaReferencia(LocalDate fechaReferencia) {
+            this.fechaReferencia = requireNonNull(fechaReferencia);
+            return this;
+        }
+
+        /**
+         * Omite los primeros vendedores que cumplen los filtros
+         *
+         * @param desplazamiento el numero de vendedores a omitir, no negativo
+         * @return este objeto Builder
+         */
+        public Builder desplazamiento(int desplazamiento) {
+            if (desplazamiento < 0) {
+                throw new IllegalArgumentException("El desplazamiento no puede ser negativo: " + desplazamiento);
+            }
+            this.desplazamiento = desplazamiento;
+            return this;
+        }
+
+        /**
+         * Limita el numero de vendedores del resultado
+         *
+         * @param limite el numero maximo de vendedores, no negativo
+         * @return este objeto Builder
+         */
+        public Builder limite(int limite) {
+            if (limite < 0) {
+                throw new IllegalArgumentException("El limite no puede ser negativo: " + limite);
+            }
+            this.limite = limite;
+            return this;
+        }
+
+        /**
+         * Construye la consulta
+         *
+         * @return la consulta construida
+         */
+        public ConsultaVendedores build() {
+            return new ConsultaVendedores(this);
+        }
+
+        /**
+         * Returna la fecha de nacimiento minima: la de quien cumple 'edadMaxima + 1' el dia
+         * siguiente, o el 1 de enero del anio de nacimiento, la que sea mas tardia
+         */
+        private LocalDate nacidoDesde() {
+            LocalDate desde = null;
+            if (edadMaxima != null) {
+                LocalDate cumpleEdadMaxima = restarAnios(edadMaxima + 1L);
+                desde = esLimite(cumpleEdadMaxima) ? cumpleEdadMaxima : cumpleEdadMaxima.plusDays(1);
+            }
+            if (anioNacimiento != null) {
+                desde = mayor(desde, LocalDate.of(anioNacimiento, 1, 1));
+            }
+            return desde;
+        }
+
+        /**
+         * Returna la fecha de nacimiento maxima: la de quien cumple 'edadMinima' en la fecha
+         * de referencia, o el 31 de diciembre del anio de nacimiento, la que sea mas temprana
+         */
+        private LocalDate nacidoHasta() {
+            LocalDate hasta = null;
+            if (edadMinima != null) {
+                hasta = restarAnios(edadMinima);
+            }
+            if (anioNacimiento != null) {
+                hasta = menor(hasta, LocalDate.of(anioNacimiento, 12, 31));
+            }
+            return hasta;
+        }
+
+        /**
+         * Returna la fecha de referencia menos los anios recibidos, o LocalDate.MIN o LocalDate.MAX
+         * si el resultado no es una fecha representable
+         */
+        private LocalDate restarAnios(long anios) {
+            try {
+                return referencia().minusYears(anios);
+            } catch (DateTimeException exception) {
+                return anios > 0 ? LocalDate.MIN : LocalDate.MAX;
+            }
+        }
+
+        private static boolean esLimite(LocalDate fecha) {
+            return fecha.equals(LocalDate.MIN) || fecha.equals(LocalDate.MAX);
+        }
+
+        private LocalDate referencia() {
+            return fechaReferencia != null ? fechaReferencia : LocalDate.now();
+        }
+
+        private static LocalDate mayor(LocalDate fecha, LocalDate otra) {
+            return fecha == null || otra.isAfter(fecha) ? otra : fecha;
+        }
+
+        private static LocalDate menor(LocalDate fecha, LocalDate otra) {
+            return fecha == null || otra.isBefore(fecha) ? otra : fecha;
+        }
+    }
+}
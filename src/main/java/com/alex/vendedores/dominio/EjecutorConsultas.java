@@ -0,0 +1,80 @@
+package com.alex.vendedores.dominio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Clase utilitaria que ejecuta una ConsultaVendedores recorriendo una coleccion de vendedores.
+ *
+ * <p>Las colecciones grandes se recorren con un parallel stream, es decir, en el ForkJoinPool comun.
+ * El desplazamiento y el limite se aplican sobre el stream, por lo que el recorrido se detiene
+ * en cuanto se reunen suficientes vendedores. El orden del resultado es el de la coleccion.
+ *
+ * @author Alex Angulo
+ */
+public final class EjecutorConsultas {
+
+    /**
+     * El numero de vendedores a partir del cual el recorrido se realiza en paralelo
+     */
+    public static final int UMBRAL_PARALELO = 1 << 14;
+
+    private EjecutorConsultas() {
+    }
+
+    /**
+     * Returna los vendedores de la coleccion que cumplen la consulta
+     *
+     * @param vendedores los vendedores a recorrer
+     * @param consulta la consulta a ejecutar
+     * @return los vendedores que cumplen la consulta, paginados, en una lista INMUTABLE
+     */
+    public static List<Vendedor> ejecutar(Collection<Vendedor> vendedores, ConsultaVendedores consulta) {
+        if (consulta.limite() == 0) {
+            return List.of();
+        }
+        Stream<Vendedor> recorrido = vendedores.size() >= UMBRAL_PARALELO
+                ? vendedores.parallelStream()
+                : vendedores.stream();
+        if (!consulta.sinFiltros()) {
+            recorrido = recorrido.filter(consulta::acepta);
+        }
+        if (consulta.desplazamiento() > 0) {
+            recorrido = recorrido.skip(consulta.desplazamiento());
+        }
+        if (consulta.limite() < Integer.MAX_VALUE) {
+            recorrido = recorrido.limit(consulta.limite());
+        }
+        return recorrido.toList();
+    }
+
+    /**
+     * Returna los vendedores de la coleccion cuyo nombre coincide con la busqueda,
+     * en el orden de BusquedaNombre.Coincidencia
+     *
+     * @param vendedores los vendedores a recorrer
+     * @param busqueda la busqueda a ejecutar
+     * @return los vendedores que coinciden, paginados, en una lista INMUTABLE
+     */
+    public static List<Vendedor> buscarPorNombre(Collection<Vendedor> vendedores, BusquedaNombre busqueda) {
+        List<Vendedor> encontrados = new ArrayList<>();
+        List<BusquedaNombre.Coincidencia> coincidencias = new ArrayList<>();
+        for (Vendedor vendedor : vendedores) {
+            String nombre = BusquedaNombre.normalizar(vendedor.getNombre());
+            int distancia = busqueda.distancia(nombre);
+            if (distancia != BusquedaNombre.SIN_COINCIDENCIA) {
+                coincidencias.add(new BusquedaNombre.Coincidencia(distancia, nombre, encontrados.size()));
+                encontrados.add(vendedor);
+            }
+        }
+        Collections.sort(coincidencias);
+        return coincidencias.stream()
+                .skip(busqueda.desplazamiento())
+                .limit(busqueda.limite())
+                .map(coincidencia -> encontrados.get(coincidencia.posicion()))
+                .toList();
+    }
+}
@@ -0,0 +1,21 @@
+package com.alex.vendedores.dominio;
+
+/**
+ * Indica como se resuelven los vendedores con el mismo id, al guardar y al cargar un repositorio
+ *
+ * @author Alex Angulo
+ */
+public enum PoliticaGuardado {
+
+    /**
+     * Cada vendedor guardado se agrega. Solo se descartan los vendedores identicos,
+     * por lo que puede haber varios vendedores con el mismo id
+     */
+    AGREGAR,
+
+    /**
+     * 'Upsert': un vendedor reemplaza al vendedor existente con su mismo id, conservando su posicion.
+     * Gana la ultima escritura
+     */
+    REEMPLAZAR_POR_ID
+}
@@ -19,9 +19,28 @@ public final class ReporteEdadPromedioPorZona {
      */
     private final Map<String, Double> reporte;
 
+    /**
+     * El numero de vendedores con que se calculo el reporte
+     */
+    private final int vendedores;
+
     public ReporteEdadPromedioPorZona(Set<Vendedor> vendedores) {
         requireNonNull(vendedores);
         this.reporte = calcularPromedioEdadesPorZona(vendedores);
+        this.vendedores = vendedores.size();
+    }
+
+    /**
+     * Reconstruye un reporte ya calculado, por ejemplo uno almacenado en un cache.
+     * Sus datos conservan el orden de los promedios recibidos
+     *
+     * @param promedios el promedio de edad de cada zona geografica
+     * @param vendedores el numero de vendedores con que se calculo el reporte
+     */
+    public ReporteEdadPromedioPorZona(Map<String, Double> promedios, int vendedores) {
+        requireNonNull(promedios);
+        this.reporte = new LinkedHashMap<>(promedios);
+        this.vendedores = vendedores;
     }
 
     /**
@@ -51,4 +70,13 @@ public final class ReporteEdadPromedioPorZona {
         return unmodifiableSet(reporte.entrySet());
     }
 
+    /**
+     * Returna el numero de vendedores con que se calculo el reporte
+     *
+     * @return el numero de vendedores del reporte
+     */
+    public int vendedores() {
+        return vendedores;
+    }
+
 }
@@ -1,9 +1,10 @@
 package com.alex.vendedores.dominio;
 
+import com.alex.vendedores.fecha.CacheFechas;
+
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.Comparator;
-import java.util.Objects;
 
 import static java.util.Objects.requireNonNull;
 
@@ -12,6 +13,14 @@ import static java.util.Objects.requireNonNull;
  * Se evita la implementacion de metodos setter, y todos sus campos son inmutables.
  * Por tanto, es una clase inmutable.
  *
+ * <p>El nombre y la fecha de nacimiento pueden diferirse con 'Builder.diferidos': se decodifican
+ * de sus CamposDiferidos la primera vez que se acceden, y se conservan en campos de cache aparte,
+ * como el hash de String. Los valores recibidos al construirlo siguen en campos final.
+ * Un Vendedor diferido es igual a un Vendedor no diferido con los mismos valores, y tiene su mismo hash.
+ *
+ * <p>La fecha de nacimiento recibida se reemplaza por la instancia compartida de CacheFechas,
+ * para que los vendedores nacidos el mismo dia no retengan cada uno su propia fecha.
+ *
  * @author Alex Angulo
  */
 
@@ -23,12 +32,12 @@ public final class Vendedor {
     private final int id;
 
     /**
-     * nombre del Vendedor
+     * nombre del Vendedor, o null si se difiere
      */
     private final String nombre;
 
     /**
-     * fecha de nacimiento del Vendedor
+     * fecha de nacimiento del Vendedor, o null si se difiere
      */
     private final LocalDate fechaDeNacimiento;
 
@@ -37,6 +46,26 @@ public final class Vendedor {
      */
     private final String estado;
 
+    /**
+     * la fuente del nombre y la fecha de nacimiento, o null si no se difieren
+     */
+    private final CamposDiferidos diferidos;
+
+    /**
+     * el nombre decodificado de 'diferidos', o null mientras no se decodifique
+     */
+    private String nombreDecodificado;
+
+    /**
+     * la fecha de nacimiento decodificada de 'diferidos', o null mientras no se decodifique
+     */
+    private LocalDate fechaDecodificada;
+
+    /**
+     * el hash, calculado en el primer 'hashCode', o 0 si no se ha calculado
+     */
+    private int hash;
+
     /**
      * Aseguramos la no instanciabilidad directa, con un constructor privado.
      * Esto es para forzar el uso de la clase anidada Builder para construir
@@ -46,15 +75,18 @@ public final class Vendedor {
      * @param nombre nombre del Vendedor
      * @param fechaDeNacimiento fecha de nacimiento del Vendedor
      * @param estado estado de residencia del Vendedor
+     * @param diferidos la fuente del nombre y la fecha de nacimiento, o null si se reciben ya decodificados
      */
     private Vendedor(int id,
                      String nombre,
                      LocalDate fechaDeNacimiento,
-                     String estado) {
+                     String estado,
+                     CamposDiferidos diferidos) {
         this.id = id;
-        this.nombre = requireNonNull(nombre);
-        this.fechaDeNacimiento = requireNonNull(fechaDeNacimiento);
+        this.nombre = diferidos == null ? requireNonNull(nombre) : null;
+        this.fechaDeNacimiento = diferidos == null ? CacheFechas.canonica(requireNonNull(fechaDeNacimiento)) : null;
         this.estado = requireNonNull(estado);
+        this.diferidos = diferidos;
     }
 
     /**
@@ -72,7 +104,15 @@ public final class Vendedor {
      * @return nombre del Vendedor
      */
     public String getNombre() {
-        return nombre;
+        if (nombre != null) {
+            return nombre;
+        }
+        String decodificado = nombreDecodificado;
+        if (decodificado == null) {
+            decodificado = requireNonNull(diferidos.nombre());
+            nombreDecodificado = decodificado;
+        }
+        return decodificado;
     }
 
     /**
@@ -81,7 +121,15 @@ public final class Vendedor {
      * @return fecha de nacimiento del Vendedor
      */
     public LocalDate getFechaDeNacimiento() {
-        return fechaDeNacimiento;
+        if (fechaDeNacimiento != null) {
+            return fechaDeNacimiento;
+        }
+        LocalDate decodificada = fechaDecodificada;
+        if (decodificada == null) {
+            decodificada = requireNonNull(diferidos.fechaDeNacimiento());
+            fechaDecodificada = decodificada;
+        }
+        return decodificada;
     }
 
     /**
@@ -99,12 +147,13 @@ public final class Vendedor {
      * @return Edad en años
      */
     public int getEdad() {
-        return Period.between(fechaDeNacimiento, LocalDate.now()).getYears();
+        return Period.between(getFechaDeNacimiento(), LocalDate.now()).getYears();
     }
 
     /**
      * Compara este Vendedor con el objeto recibido.
      * Devuelve true unicamente si todos sus campos son identicos.
+     * Los campos diferidos solo se decodifican si el id, el estado y el hash coinciden.
      *
      * @param otro El objeto a comparar con este Vendedor
      * @return true si el objeto comparado equivale a este Vendedor, falso en caso contrario
@@ -115,20 +164,30 @@ public final class Vendedor {
         if (otro == null || getClass() != otro.getClass()) return false;
         Vendedor vendedor = (Vendedor) otro;
         return     id == vendedor.id
-                && nombre.equals(vendedor.nombre)
-                && fechaDeNacimiento.equals(vendedor.fechaDeNacimiento)
-                && estado.equals(vendedor.estado);
+                && estado.equals(vendedor.estado)
+                && hashCode() == vendedor.hashCode()
+                && getNombre().equals(vendedor.getNombre())
+                && getFechaDeNacimiento().equals(vendedor.getFechaDeNacimiento());
     }
 
     /**
      * Returna el codigo hash para este Vendedor.
-     * Es calculado en base al codigo hash de todos los campos de este Vendedor.
+     * Es calculado en base al codigo hash de todos los campos de este Vendedor,
+     * igual que 'Objects.hash(id, nombre, fechaDeNacimiento, estado)'. Los campos diferidos
+     * aportan el hash de sus CamposDiferidos, sin decodificarse.
      *
      * @return codigo hash para este Vendedor
      */
     @Override
     public int hashCode() {
-        return Objects.hash(id, nombre, fechaDeNacimiento, estado);
+        int calculado = hash;
+        if (calculado == 0) {
+            int hashNombre = nombre != null ? nombre.hashCode() : diferidos.hashNombre();
+            int hashFecha = fechaDeNacimiento != null ? fechaDeNacimiento.hashCode() : diferidos.hashFechaDeNacimiento();
+            calculado = 31 * (31 * (31 * (31 + Integer.hashCode(id)) + hashNombre) + hashFecha) + estado.hashCode();
+            hash = calculado;
+        }
+        return calculado;
     }
 
     /**
@@ -142,8 +201,8 @@ public final class Vendedor {
     public String toString() {
         return "Vendedor{" +
                 "id=" + id +
-                ", nombre='" + nombre + '\'' +
-                ", fechaDeNacimiento=" + fechaDeNacimiento +
+                ", nombre='" + getNombre() + '\'' +
+                ", fechaDeNacimiento=" + getFechaDeNacimiento() +
                 ", estado='" + estado + '\'' +
                 '}';
     }
@@ -186,6 +245,11 @@ public final class Vendedor {
          */
         private String estado;
 
+        /**
+         * la fuente del nombre y la fecha de nacimiento diferidos que tendrá el Vendedor construido
+         */
+        private CamposDiferidos diferidos;
+
         /**
          * Establece el id que tendrá el Vendedor construido
          *
@@ -230,6 +294,18 @@ public final class Vendedor {
             return this;
         }
 
+        /**
+         * Establece la fuente de la que el Vendedor construido decodificara su nombre y su fecha
+         * de nacimiento al accederlos por primera vez. Reemplaza al nombre y a la fecha de nacimiento
+         *
+         * @param diferidos la fuente del nombre y la fecha de nacimiento
+         * @return este objeto Builder
+         */
+        public Builder diferidos(CamposDiferidos diferidos) {
+            this.diferidos = diferidos;
+            return this;
+        }
+
         /**
          * Utiliza los campos de este Builder para construir
          * un nuevo objeto Vendedor y lo returna
@@ -237,7 +313,7 @@ public final class Vendedor {
          * @return el Vendedor construido
          */
         public Vendedor build() {
-            return new Vendedor(id, nombre, fechaDeNacimiento, estado);
+            return new Vendedor(id, nombre, fechaDeNacimiento, estado, diferidos);
         }
 
     }
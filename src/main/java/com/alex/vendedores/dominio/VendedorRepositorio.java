@@ -1,8 +1,14 @@
 package com.alex.vendedores.dominio;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
+import static java.util.Collections.unmodifiableSet;
+import static java.util.stream.Collectors.toCollection;
+
 /**
  * Interface para realizar operaciones de persistencia
  * con objetos de la clase modelo Vendedor
@@ -21,6 +27,79 @@ public interface VendedorRepositorio {
      */
     Set<Vendedor> encontrarTodos();
 
+    /**
+     * Returna todos los vendedores que residen en el estado recibido, sin duplicados.
+     *
+     * <p>La implementacion por defecto filtra el resultado de 'encontrarTodos()'.
+     * Las implementaciones que conocen la distribucion de sus datos
+     * pueden sobrescribirlo para evitar leer datos innecesarios.
+     *
+     * @param estado el estado de residencia buscado
+     * @return los vendedores del estado, sin duplicados
+     */
+    default Set<Vendedor> encontrarPorEstado(String estado) {
+        Set<Vendedor> vendedoresDelEstado = encontrarTodos().stream()
+                .filter(vendedor -> vendedor.getEstado().equals(estado))
+                .collect(toCollection(LinkedHashSet::new));
+        return unmodifiableSet(vendedoresDelEstado);
+    }
+
+    /**
+     * Returna los vendedores que cumplen la consulta, en el orden de 'encontrarTodos()'.
+     *
+     * <p>La implementacion por defecto recorre el resultado de 'encontrarTodos()' con EjecutorConsultas,
+     * en paralelo si es grande. Las implementaciones con indices o con datos fragmentados
+     * pueden sobrescribirlo para aprovechar los filtros de la consulta y evitar el recorrido completo.
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los vendedores que cumplen la consulta, en una lista INMUTABLE
+     */
+    default List<Vendedor> consultar(ConsultaVendedores consulta) {
+        return EjecutorConsultas.ejecutar(encontrarTodos(), consulta);
+    }
+
+    /**
+     * Returna el numero de vendedores que cumplen los filtros de la consulta,
+     * ignorando su desplazamiento y su limite.
+     *
+     * <p>La implementacion por defecto recorre el resultado de 'encontrarTodos()'.
+     *
+     * @param consulta los filtros a evaluar
+     * @return el numero de vendedores que cumplen los filtros
+     */
+    default long contar(ConsultaVendedores consulta) {
+        return encontrarTodos().stream()
+                .filter(consulta::acepta)
+                .count();
+    }
+
+    /**
+     * Returna los vendedores cuyo nombre coincide con la busqueda, ordenados por distancia,
+     * por nombre normalizado y por el orden de 'encontrarTodos()'.
+     *
+     * <p>La implementacion por defecto recorre el resultado de 'encontrarTodos()' con EjecutorConsultas.
+     *
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los vendedores que coinciden, en una lista INMUTABLE
+     */
+    default List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        return EjecutorConsultas.buscarPorNombre(encontrarTodos(), busqueda);
+    }
+
+    /**
+     * Returna el primer vendedor con el id recibido, en el orden de 'encontrarTodos()'.
+     *
+     * <p>La implementacion por defecto recorre el resultado de 'encontrarTodos()'.
+     *
+     * @param id el id buscado
+     * @return el vendedor con el id, o un Optional vacio si no existe
+     */
+    default Optional<Vendedor> encontrarPorId(int id) {
+        return encontrarTodos().stream()
+                .filter(vendedor -> vendedor.getId() == id)
+                .findFirst();
+    }
+
     /**
      * Persiste un objeto Vendedor
      *
@@ -0,0 +1,111 @@
+package com.alex.vendedores.exportacion;
+
+import com.alex.vendedores.applicacion.InterfazUsuario;
+import com.alex.vendedores.archivo.SalidaBufferizada;
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.ReporteGeneral;
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de InterfazUsuario que escribe los reportes en un formato binario compacto,
+ * para que otros procesos los consuman sin interpretar texto.
+ *
+ * <p>Todos los numeros son BIG_ENDIAN y cada cadena es su longitud en 2 bytes sin signo
+ * seguida de sus bytes UTF-8. El flujo comienza con los 4 bytes 'V', 'N', 'D', VERSION,
+ * y despues contiene cualquier numero de reportes. Cada reporte es un encabezado seguido
+ * del numero de registros indicado:
+ * <ul>
+ *     <li>Reporte general: el byte REPORTE_GENERAL y el numero de vendedores en 4 bytes. Cada vendedor:
+ *     id (4 bytes), fecha de nacimiento como dia epoch (4 bytes), edad (1 byte sin signo, limitada a [0, 255]:
+ *     una fecha de nacimiento futura se escribe como 0), nombre y estado</li>
+ *     <li>Reporte de edad promedio por zona: el byte REPORTE_EDAD_PROMEDIO_POR_ZONA y el numero de zonas
+ *     en 4 bytes. Cada zona: estado y edad promedio (double de 8 bytes)</li>
+ * </ul>
+ *
+ * <p>No es thread-safe.
+ *
+ * @author Alex Angulo
+ */
+public final class InterfazBinaria implements InterfazUsuario {
+
+    /**
+     * La version del formato
+     */
+    public static final byte VERSION = 1;
+
+    public static final byte REPORTE_GENERAL = 'G';
+    public static final byte REPORTE_EDAD_PROMEDIO_POR_ZONA = 'Z';
+
+    private final SalidaBufferizada salida;
+
+    /**
+     * Si ya se escribio el encabezado del flujo
+     */
+    private boolean encabezadoEscrito;
+
+    public InterfazBinaria(SalidaBufferizada salida) {
+        this.salida = requireNonNull(salida);
+    }
+
+    /**
+     * Escribe el reporte general con un registro por vendedor
+     *
+     * @param reporte el reporte general de los vendedores
+     */
+    @Override
+    public void aceptar(ReporteGeneral reporte) {
+        iniciarReporte(REPORTE_GENERAL, reporte.datos().size());
+        for (Vendedor vendedor : reporte.datos()) {
+            salida.escribirEntero(vendedor.getId());
+            salida.escribirEntero((int) vendedor.getFechaDeNacimiento().toEpochDay());
+            salida.escribirByte(Math.clamp(vendedor.getEdad(), 0, 0xFF));
+            salida.escribirCadenaUtf8(vendedor.getNombre());
+            salida.escribirCadenaUtf8(vendedor.getEstado());
+        }
+        salida.flush();
+    }
+
+    /**
+     * Escribe el reporte de edad promedio con un registro por zona
+     *
+     * @param reporte el reporte de la edad promedio por zona
+     */
+    @Override
+    public void aceptar(ReporteEdadPromedioPorZona reporte) {
+        iniciarReporte(REPORTE_EDAD_PROMEDIO_POR_ZONA, reporte.datos().size());
+        for (Map.Entry<String, Double> zona : reporte.datos()) {
+            salida.escribirCadenaUtf8(zona.getKey());
+            salida.escribirDouble(zona.getValue());
+        }
+        salida.flush();
+    }
+
+    /**
+     * Esta salida es solo para reportes, no solicita datos al usuario
+     *
+     * @throws UnsupportedOperationException siempre
+     */
+    @Override
+    public Vendedor solicitarVendedor(String formatoFecha) {
+        throw new UnsupportedOperationException("La salida binaria no solicita vendedores");
+    }
+
+    /**
+     * Escribe el encabezado del flujo, si aun no se ha escrito, y el encabezado del reporte
+     */
+    private void iniciarReporte(byte tipo, int registros) {
+        if (!encabezadoEscrito) {
+            salida.escribirByte('V');
+            salida.escribirByte('N');
+            salida.escribirByte('D');
+            salida.escribirByte(VERSION);
+            encabezadoEscrito = true;
+        }
+        salida.escribirByte(tipo);
+        salida.escribirEntero(registros);
+    }
+}
@@ -0,0 +1,106 @@
+package com.alex.vendedores.exportacion;
+
+import com.alex.vendedores.applicacion.InterfazUsuario;
+import com.alex.vendedores.archivo.SalidaBufferizada;
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.ReporteGeneral;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.servidor.VendedorJsonFormatter;
+
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de InterfazUsuario que escribe los reportes en formato JSON Lines:
+ * un objeto JSON por linea, para que otros procesos los consuman sin interpretar tablas de texto.
+ *
+ * <p>Cada linea indica en la llave 'reporte' el reporte al que pertenece:
+ * <pre>
+ * {"reporte":"general","vendedor":{"id":1,"nombre":"...","fechaDeNacimiento":"1998-01-08","estado":"...","edad":28}}
+ * {"reporte":"edadPromedioPorZona","estado":"...","edadPromedio":28.53}
+ * </pre>
+ *
+ * <p>Las lineas se forman en un unico StringBuilder que se reutiliza, y se escriben en la SalidaBufferizada,
+ * que se vacia al terminar cada reporte. No es thread-safe.
+ *
+ * @author Alex Angulo
+ */
+public final class InterfazJsonLineas implements InterfazUsuario {
+
+    private final VendedorJsonFormatter formatter;
+    private final SalidaBufferizada salida;
+
+    /**
+     * El StringBuilder donde se forma cada linea
+     */
+    private final StringBuilder linea = new StringBuilder(256);
+
+    public InterfazJsonLineas(VendedorJsonFormatter formatter, SalidaBufferizada salida) {
+        this.formatter = requireNonNull(formatter);
+        this.salida = requireNonNull(salida);
+    }
+
+    /**
+     * Escribe una linea por cada vendedor del reporte
+     *
+     * @param reporte el reporte general de los vendedores
+     */
+    @Override
+    public void aceptar(ReporteGeneral reporte) {
+        for (Vendedor vendedor : reporte.datos()) {
+            linea.setLength(0);
+            linea.append("{\"reporte\":\"general\",\"vendedor\":");
+            formatter.agregar(linea, vendedor);
+            linea.append('}');
+            salida.escribirLinea(linea);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Escribe una linea por cada zona del reporte, con la edad promedio redondeada a 2 decimales
+     *
+     * @param reporte el reporte de la edad promedio por zona
+     */
+    @Override
+    public void aceptar(ReporteEdadPromedioPorZona reporte) {
+        for (Map.Entry<String, Double> zona : reporte.datos()) {
+            linea.setLength(0);
+            linea.append("{\"reporte\":\"edadPromedioPorZona\",\"estado\":");
+            formatter.cadena(linea, zona.getKey());
+            linea.append(",\"edadPromedio\":");
+            agregarConDosDecimales(linea, zona.getValue());
+            linea.append('}');
+            salida.escribirLinea(linea);
+        }
+        salida.flush();
+    }
+
+    /**
+     * Esta salida es solo para reportes, no solicita datos al usuario
+     *
+     * @throws UnsupportedOperationException siempre
+     */
+    @Override
+    public Vendedor solicitarVendedor(String formatoFecha) {
+        throw new UnsupportedOperationException("La salida JSON Lines no solicita vendedores");
+    }
+
+    /**
+     * Agrega un numero redondeado a 2 decimales, sin crear cadenas intermedias. El valor absoluto
+     * se redondea y el signo se agrega aparte, por lo que -1.5 es '-1.50' y -0.001 es '0.00'
+     */
+    private static void agregarConDosDecimales(StringBuilder json, double valor) {
+        long centesimos = Math.round(Math.abs(valor) * 100);
+        if (valor < 0 && centesimos != 0) {
+            json.append('-');
+        }
+        long decimales = centesimos % 100;
+        json.append(centesimos / 100).append('.');
+        if (decimales < 10) {
+            json.append('0');
+        }
+        json.append(decimales);
+    }
+}
@@ -0,0 +1,84 @@
+package com.alex.vendedores.fecha;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Cache 'flyweight' de fechas: returna una unica instancia de LocalDate por cada dia
+ * entre ANIO_MINIMO y ANIO_MAXIMO, para que los vendedores nacidos el mismo dia compartan su fecha
+ * en lugar de retener cada uno la suya.
+ *
+ * <p>La tabla tiene 31 posiciones por mes, indexadas por anio, mes y dia, y se llena conforme se piden
+ * las fechas. Las fechas fuera del rango no se almacenan. Es thread-safe sin sincronizacion:
+ * LocalDate es inmutable, y si dos hilos crean a la vez la misma fecha, ambas instancias son iguales
+ * y una de ellas queda en la tabla.
+ *
+ * @author Alex Angulo
+ */
+public final class CacheFechas {
+
+    /**
+     * El rango de anios que se almacenan, inclusivo
+     */
+    private static final int ANIO_MINIMO = 1900;
+    private static final int ANIO_MAXIMO = 2099;
+
+    private static final int DIAS_POR_MES = 31;
+    private static final int DIAS_POR_ANIO = 12 * DIAS_POR_MES;
+
+    private static final LocalDate[] FECHAS = new LocalDate[(ANIO_MAXIMO - ANIO_MINIMO + 1) * DIAS_POR_ANIO];
+
+    private CacheFechas() {
+    }
+
+    /**
+     * Returna la fecha del dia indicado, igual a 'LocalDate.of(anio, mes, dia)'
+     *
+     * @param anio el anio
+     * @param mes el mes, de 1 a 12
+     * @param dia el dia del mes, de 1 a 31
+     * @return la instancia compartida de la fecha, o una nueva si esta fuera del rango del cache
+     * @throws DateTimeException si la fecha no existe
+     */
+    public static LocalDate fecha(int anio, int mes, int dia) {
+        int indice = indice(anio, mes, dia);
+        if (indice < 0) {
+            return LocalDate.of(anio, mes, dia);
+        }
+        LocalDate fecha = FECHAS[indice];
+        if (fecha == null) {
+            fecha = LocalDate.of(anio, mes, dia);
+            FECHAS[indice] = fecha;
+        }
+        return fecha;
+    }
+
+    /**
+     * Returna la instancia compartida de una fecha. Si aun no hay una, la fecha recibida pasa a serlo
+     *
+     * @param fecha la fecha
+     * @return una fecha igual a la recibida, compartida si esta dentro del rango del cache
+     */
+    public static LocalDate canonica(LocalDate fecha) {
+        int indice = indice(fecha.getYear(), fecha.getMonthValue(), fecha.getDayOfMonth());
+        if (indice < 0) {
+            return fecha;
+        }
+        LocalDate compartida = FECHAS[indice];
+        if (compartida == null) {
+            FECHAS[indice] = fecha;
+            return fecha;
+        }
+        return compartida;
+    }
+
+    /**
+     * Returna la posicion del dia en la tabla, o -1 si esta fuera del rango o no es un dia de 1 a 31 de un mes
+     */
+    private static int indice(int anio, int mes, int dia) {
+        if (anio < ANIO_MINIMO || anio > ANIO_MAXIMO || mes < 1 || mes > 12 || dia < 1 || dia > DIAS_POR_MES) {
+            return -1;
+        }
+        return (anio - ANIO_MINIMO) * DIAS_POR_ANIO + (mes - 1) * DIAS_POR_MES + (dia - 1);
+    }
+}
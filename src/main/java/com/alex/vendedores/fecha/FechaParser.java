@@ -1,6 +1,12 @@
 package com.alex.vendedores.fecha;
 
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -9,6 +15,8 @@ import static java.lang.Integer.parseInt;
 /**
  * Clase para parsear objetos String que representan fechas
  *
+ * <p>Las fechas parseadas se obtienen de CacheFechas, por lo que las fechas iguales comparten su instancia.
+ *
  * @author Alex Angulo
  */
 
@@ -23,6 +31,17 @@ public final class FechaParser {
     private static final String REGEX_MES_GUION_DIA_GUION_ANIO = "^\\d{2}-\\d{2}-\\d{4}$";
     private static final String REGEX_MES_BARRA_DIA_BARRA_ANIO = "^\\d{2}/\\d{2}/\\d{4}$";
 
+    /**
+     * Valores que returna 'parsearCompacta' cuando la fecha no es valida
+     */
+    public static final int FORMATO_INVALIDO = -1;
+    public static final int FECHA_IMPOSIBLE = -2;
+
+    /**
+     * El tiempo de cada parseo de una fecha en formato String
+     */
+    private static final Histograma PARSEO = Metricas.histograma("fecha.parseoNs");
+
 
     /**
      * Estructura de datos para relacionar patrones de fecha
@@ -49,6 +68,16 @@ public final class FechaParser {
         );
     }
 
+    /**
+     * Returna si el patron de fecha es soportado por esta clase
+     *
+     * @param patron el patron, por ejemplo 'mm/dd/yyyy'
+     * @return true si 'parsear' y 'parsearCompacta' aceptan el patron
+     */
+    public boolean soporta(String patron) {
+        return parsers.containsKey(patron);
+    }
+
     /**
      * Parsea una cadena y returna su fecha correspondiente
      *
@@ -60,7 +89,104 @@ public final class FechaParser {
      */
     public LocalDate parsear(String fechaCadena, String patron) {
         Function<String, LocalDate> parser = parsers.get(patron);
-        return parser.apply(fechaCadena);
+        if (!Metricas.HABILITADAS) {
+            return parser.apply(fechaCadena);
+        }
+        long inicio = System.nanoTime();
+        LocalDate fecha = parser.apply(fechaCadena);
+        PARSEO.registrarDesde(inicio);
+        return fecha;
+    }
+
+    /**
+     * Parsea una fecha directamente de los bytes ASCII del rango [inicio, fin) de un buffer,
+     * sin construir una String intermedia y sin lanzar excepciones.
+     *
+     * <p>Acepta los mismos patrones que 'parsear(String, String)'. La fecha se returna en su
+     * forma compacta, un int no negativo que se convierte a LocalDate con 'desdeCompacta'.
+     * Si la fecha no es valida se returna FORMATO_INVALIDO o FECHA_IMPOSIBLE.
+     *
+     * @param bytes el buffer que contiene la fecha
+     * @param inicio la posicion del primer byte de la fecha, inclusiva
+     * @param fin la posicion del ultimo byte de la fecha, exclusiva
+     * @param patron el patron en el cual esta formateada la fecha
+     * @return la fecha compacta, FORMATO_INVALIDO o FECHA_IMPOSIBLE
+     * @throws IllegalArgumentException si el patron no es soportado
+     */
+    public int parsearCompacta(ByteBuffer bytes, int inicio, int fin, String patron) {
+        if (!parsers.containsKey(patron)) {
+            throw new IllegalArgumentException(patron);
+        }
+        byte separador = (byte) patron.charAt(2);
+        if (fin - inicio != patron.length()
+                || bytes.get(inicio + 2) != separador
+                || bytes.get(inicio + 5) != separador) {
+            return FORMATO_INVALIDO;
+        }
+        int primero = digitos(bytes, inicio, inicio + 2);
+        int segundo = digitos(bytes, inicio + 3, inicio + 5);
+        int anio = digitos(bytes, inicio + 6, fin);
+        if (primero < 0 || segundo < 0 || anio < 0) {
+            return FORMATO_INVALIDO;
+        }
+        boolean mesPrimero = patron.startsWith("mm");
+        int mes = mesPrimero ? primero : segundo;
+        int dia = mesPrimero ? segundo : primero;
+        if (!esFechaPosible(anio, mes, dia)) {
+            return FECHA_IMPOSIBLE;
+        }
+        return (anio << 9) | (mes << 5) | dia;
+    }
+
+    /**
+     * Convierte una fecha compacta, returnada por 'parsearCompacta', a LocalDate
+     *
+     * @param fechaCompacta la fecha compacta, no negativa
+     * @return la fecha correspondiente, compartida a traves de CacheFechas
+     */
+    public static LocalDate desdeCompacta(int fechaCompacta) {
+        return CacheFechas.fecha(fechaCompacta >>> 9, (fechaCompacta >>> 5) & 0xF, fechaCompacta & 0x1F);
+    }
+
+    /**
+     * Returna el hash de una fecha compacta sin construir su LocalDate,
+     * con la misma formula de 'LocalDate.hashCode'
+     *
+     * @param fechaCompacta la fecha compacta, no negativa
+     * @return 'desdeCompacta(fechaCompacta).hashCode()'
+     */
+    public static int hashCompacta(int fechaCompacta) {
+        int anio = fechaCompacta >>> 9;
+        int mes = (fechaCompacta >>> 5) & 0xF;
+        int dia = fechaCompacta & 0x1F;
+        return (anio & 0xFFFFF800) ^ ((anio << 11) + (mes << 6) + dia);
+    }
+
+    /**
+     * Returna si el dia existe en el mes y anio indicados, sin lanzar excepciones
+     */
+    private static boolean esFechaPosible(int anio, int mes, int dia) {
+        if (mes < 1 || mes > 12 || dia < 1) {
+            return false;
+        }
+        return dia <= Month.of(mes).length(Year.isLeap(anio));
+    }
+
+    /**
+     * Parsea un entero positivo a partir de digitos ASCII
+     *
+     * @return el entero parseado, o -1 si algun byte no es un digito
+     */
+    private int digitos(ByteBuffer bytes, int inicio, int fin) {
+        int valor = 0;
+        for (int i = inicio; i < fin; i++) {
+            int digito = bytes.get(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return -1;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
     }
 
     /**
@@ -77,7 +203,7 @@ public final class FechaParser {
         int dia = parseInt(partesFecha[0]);
         int mes = parseInt(partesFecha[1]);
         int anio = parseInt(partesFecha[2]);
-        return LocalDate.of(anio, mes, dia);
+        return CacheFechas.fecha(anio, mes, dia);
     }
 
     /**
@@ -94,7 +220,7 @@ public final class FechaParser {
         int dia = parseInt(partesFecha[0]);
         int mes = parseInt(partesFecha[1]);
         int anio = parseInt(partesFecha[2]);
-        return LocalDate.of(anio, mes, dia);
+        return CacheFechas.fecha(anio, mes, dia);
     }
 
     /**
@@ -111,7 +237,7 @@ public final class FechaParser {
         int mes = parseInt(partesFecha[0]);
         int dia = parseInt(partesFecha[1]);
         int anio = parseInt(partesFecha[2]);
-        return LocalDate.of(anio, mes, dia);
+        return CacheFechas.fecha(anio, mes, dia);
     }
 
     /**
@@ -128,7 +254,7 @@ public final class FechaParser {
         int mes = parseInt(partesFecha[0]);
         int dia = parseInt(partesFecha[1]);
         int anio = parseInt(partesFecha[2]);
-        return LocalDate.of(anio, mes, dia);
+        return CacheFechas.fecha(anio, mes, dia);
     }
 
     /**
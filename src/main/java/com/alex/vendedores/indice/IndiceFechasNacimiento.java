@@ -0,0 +1,280 @@
+package com.alex.vendedores.indice;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indice inmutable de las fechas de nacimiento de una lista de vendedores, particionado por estado.
+ *
+ * <p>Cada particion guarda los dias epoch de las fechas de nacimiento ordenados, junto con la posicion
+ * de cada vendedor en la lista original. Un rango de fechas se localiza con dos busquedas binarias, por lo
+ * que contar los vendedores del rango cuesta O(log n) sin tocar ningun Vendedor: la posicion dentro de
+ * la particion ordenada es la suma acumulada de los vendedores nacidos antes de cada dia. Obtener las
+ * posiciones del rango cuesta O(log n + k). Las edades no se calculan por vendedor: la ConsultaVendedores
+ * ya las traduce a un rango de fechas de nacimiento.
+ *
+ * <p>La clave de cada vendedor combina su dia epoch y su posicion en un long, por lo que solo los dias
+ * que caben en un int (unos 5.8 millones de anios alrededor de 1970) son indexables. Los vendedores
+ * nacidos fuera de ese rango, y las fechas de consulta fuera de el, se comparan por dia, sin clave.
+ *
+ * <p>Es seguro para cualquier numero de lectores concurrentes.
+ *
+ * @author Alex Angulo
+ */
+public final class IndiceFechasNacimiento {
+
+    /**
+     * La particion con todos los vendedores
+     */
+    private final Particion todos;
+
+    /**
+     * Una particion por cada estado
+     */
+    private final Map<String, Particion> porEstado;
+
+    /**
+     * El numero de vendedores de la lista indexada
+     */
+    private final int cubiertos;
+
+    private IndiceFechasNacimiento(Particion todos, Map<String, Particion> porEstado, int cubiertos) {
+        this.todos = todos;
+        this.porEstado = porEstado;
+        this.cubiertos = cubiertos;
+    }
+
+    /**
+     * Construye el indice de la lista de vendedores en O(n log n)
+     *
+     * @param vendedores los vendedores a indexar, idealmente una lista 'RandomAccess'
+     * @return el indice de la lista
+     */
+    public static IndiceFechasNacimiento construir(List<Vendedor> vendedores) {
+        int cantidad = vendedores.size();
+        long[] claves = new long[cantidad];
+        int indexables = 0;
+        List<Integer> fueraDeRango = new ArrayList<>();
+        Map<String, int[]> conteoPorEstado = new HashMap<>();
+        for (int posicion = 0; posicion < cantidad; posicion++) {
+            Vendedor vendedor = vendedores.get(posicion);
+            long dia = vendedor.getFechaDeNacimiento().toEpochDay();
+            if (esIndexable(dia)) {
+                claves[indexables++] = clave(dia, posicion);
+                conteoPorEstado.computeIfAbsent(vendedor.getEstado(), estado -> new int[1])[0]++;
+            } else {
+                fueraDeRango.add(posicion);
+            }
+        }
+        if (indexables < cantidad) {
+            claves = Arrays.copyOf(claves, indexables);
+        }
+        Arrays.sort(claves);
+
+        Map<String, long[]> clavesPorEstado = new HashMap<>();
+        Map<String, int[]> llenadoPorEstado = new HashMap<>();
+        conteoPorEstado.forEach((estado, conteo) -> {
+            clavesPorEstado.put(estado, new long[conteo[0]]);
+            llenadoPorEstado.put(estado, new int[1]);
+        });
+        for (long clave : claves) {
+            String estado = vendedores.get(posicion(clave)).getEstado();
+            clavesPorEstado.get(estado)[llenadoPorEstado.get(estado)[0]++] = clave;
+        }
+
+        Map<String, List<Integer>> fueraDeRangoPorEstado = new HashMap<>();
+        for (int posicion : fueraDeRango) {
+            fueraDeRangoPorEstado.computeIfAbsent(vendedores.get(posicion).getEstado(), estado -> new ArrayList<>())
+                    .add(posicion);
+        }
+        Map<String, Particion> porEstado = new HashMap<>();
+        clavesPorEstado.forEach((estado, clavesEstado) -> porEstado.put(estado,
+                new Particion(clavesEstado, vendedores, fueraDeRangoPorEstado.getOrDefault(estado, List.of()))));
+        fueraDeRangoPorEstado.forEach((estado, posiciones) -> porEstado.computeIfAbsent(estado,
+                sinClaves -> new Particion(new long[0], vendedores, posiciones)));
+        return new IndiceFechasNacimiento(new Particion(claves, vendedores, fueraDeRango), porEstado, cantidad);
+    }
+
+    /**
+     * Returna el numero de vendedores de la lista indexada. Los vendedores agregados
+     * a la lista despues de construir el indice no estan cubiertos
+     *
+     * @return el numero de vendedores cubiertos por el indice
+     */
+    public int cubiertos() {
+        return cubiertos;
+    }
+
+    /**
+     * Cuenta los vendedores nacidos en el rango, sin tocar ningun Vendedor
+     *
+     * @param estado el estado, o null para todos los estados
+     * @param desde la fecha minima, inclusiva, o null si no esta acotada
+     * @param hasta la fecha maxima, inclusiva, o null si no esta acotada
+     * @return el numero de vendedores del rango
+     */
+    public int contar(String estado, LocalDate desde, LocalDate hasta) {
+        Particion particion = particion(estado);
+        if (particion == null) {
+            return 0;
+        }
+        return Math.max(0, particion.fin(hasta) - particion.inicio(desde)) + particion.contarFueraDeRango(desde, hasta);
+    }
+
+    /**
+     * Returna las posiciones, en la lista indexada, de los vendedores nacidos en el rango
+     *
+     * @param estado el estado, o null para todos los estados
+     * @param desde la fecha minima, inclusiva, o null si no esta acotada
+     * @param hasta la fecha maxima, inclusiva, o null si no esta acotada
+     * @return las posiciones, ordenadas por fecha de nacimiento y despues por posicion,
+     *         seguidas de las posiciones de los vendedores fuera del rango indexable
+     */
+    public int[] posiciones(String estado, LocalDate desde, LocalDate hasta) {
+        Particion particion = particion(estado);
+        if (particion == null) {
+            return new int[0];
+        }
+        int inicio = particion.inicio(desde);
+        int fin = particion.fin(hasta);
+        int indexadas = Math.max(0, fin - inicio);
+        int[] posiciones = new int[indexadas + particion.contarFueraDeRango(desde, hasta)];
+        for (int i = 0; i < indexadas; i++) {
+            posiciones[i] = posicion(particion.claves[inicio + i]);
+        }
+        particion.copiarFueraDeRango(desde, hasta, posiciones, indexadas);
+        return posiciones;
+    }
+
+    private Particion particion(String estado) {
+        return estado == null ? todos : porEstado.get(estado);
+    }
+
+    /**
+     * Returna si el dia epoch cabe en los 32 bits altos de una clave
+     */
+    private static boolean esIndexable(long dia) {
+        return dia >= Integer.MIN_VALUE && dia <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Combina el dia epoch y la posicion en un long, para ordenar por fecha y despues por posicion.
+     * El dia debe ser indexable
+     */
+    private static long clave(long dia, int posicion) {
+        return (dia << Integer.SIZE) | posicion;
+    }
+
+    private static int posicion(long clave) {
+        return (int) clave;
+    }
+
+    /**
+     * Las claves ordenadas de un subconjunto de vendedores, y los vendedores del subconjunto
+     * cuyo dia epoch no cabe en una clave, que se revisan uno por uno
+     */
+    private static final class Particion {
+
+        private final long[] claves;
+
+        /**
+         * Las posiciones de los vendedores fuera del rango indexable, en orden ascendente
+         */
+        private final int[] posicionesFueraDeRango;
+
+        /**
+         * El dia epoch de cada vendedor de 'posicionesFueraDeRango'
+         */
+        private final long[] diasFueraDeRango;
+
+        Particion(long[] claves, List<Vendedor> vendedores, List<Integer> fueraDeRango) {
+            this.claves = claves;
+            this.posicionesFueraDeRango = new int[fueraDeRango.size()];
+            this.diasFueraDeRango = new long[fueraDeRango.size()];
+            for (int i = 0; i < posicionesFueraDeRango.length; i++) {
+                posicionesFueraDeRango[i] = fueraDeRango.get(i);
+                diasFueraDeRango[i] = vendedores.get(posicionesFueraDeRango[i]).getFechaDeNacimiento().toEpochDay();
+            }
+        }
+
+        /**
+         * Returna el indice de la primera clave nacida en la fecha o despues.
+         * Una fecha fuera del rango indexable se compara sin construir su clave
+         */
+        int inicio(LocalDate desde) {
+            if (desde == null || desde.toEpochDay() < Integer.MIN_VALUE) {
+                return 0;
+            }
+            if (desde.toEpochDay() > Integer.MAX_VALUE) {
+                return claves.length;
+            }
+            return primeraMayorOIgual(clave(desde.toEpochDay(), 0));
+        }
+
+        /**
+         * Returna el indice siguiente a la ultima clave nacida en la fecha o antes.
+         * Una fecha fuera del rango indexable se compara sin construir su clave
+         */
+        int fin(LocalDate hasta) {
+            if (hasta == null || hasta.toEpochDay() >= Integer.MAX_VALUE) {
+                return claves.length;
+            }
+            if (hasta.toEpochDay() < Integer.MIN_VALUE) {
+                return 0;
+            }
+            return primeraMayorOIgual(clave(hasta.toEpochDay() + 1, 0));
+        }
+
+        /**
+         * Cuenta los vendedores fuera del rango indexable nacidos en el rango de fechas
+         */
+        int contarFueraDeRango(LocalDate desde, LocalDate hasta) {
+            int cuenta = 0;
+            for (long dia : diasFueraDeRango) {
+                if (enRango(dia, desde, hasta)) {
+                    cuenta++;
+                }
+            }
+            return cuenta;
+        }
+
+        /**
+         * Copia al arreglo, a partir del indice recibido, las posiciones de los vendedores
+         * fuera del rango indexable nacidos en el rango de fechas
+         */
+        void copiarFueraDeRango(LocalDate desde, LocalDate hasta, int[] destino, int indice) {
+            for (int i = 0; i < diasFueraDeRango.length; i++) {
+                if (enRango(diasFueraDeRango[i], desde, hasta)) {
+                    destino[indice++] = posicionesFueraDeRango[i];
+                }
+            }
+        }
+
+        private static boolean enRango(long dia, LocalDate desde, LocalDate hasta) {
+            return (desde == null || dia >= desde.toEpochDay()) && (hasta == null || dia <= hasta.toEpochDay());
+        }
+
+        /**
+         * Busqueda binaria de la primera clave mayor o igual al valor
+         */
+        private int primeraMayorOIgual(long valor) {
+            int bajo = 0;
+            int alto = claves.length;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (claves[medio] < valor) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package com.alex.vendedores.indice;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Indice inmutable de los nombres de una lista de vendedores, para las busquedas de BusquedaNombre.
+ *
+ * <p>Los nombres se indexan normalizados y sin repetir: cada nombre distinto tiene un rango, que es su
+ * posicion en el arreglo ordenado de nombres distintos, y las posiciones de los vendedores se guardan
+ * ordenadas por rango y despues por posicion, que es justamente el orden del resultado. Asi:
+ * <ul>
+ *     <li>PREFIJO: los nombres que comienzan con el texto forman un intervalo de rangos que se localiza
+ *     con dos busquedas binarias, en O(log n + k)</li>
+ *     <li>SUBCADENA: un trigrama es una secuencia de 3 letras de una palabra. Cada palabra distinta
+ *     de los nombres se indexa por sus trigramas; la palabra mas larga del texto se busca intersectando
+ *     las palabras de sus trigramas, y solo se revisan, en orden, los nombres que contienen esas palabras
+ *     hasta reunir suficientes coincidencias</li>
+ *     <li>APROXIMADA: las palabras a distancia 'd' de una palabra de longitud 'm' comparten al menos
+ *     'm - 2 - 3d' de sus trigramas, por lo que solo se calcula la distancia de Levenshtein de esas palabras.
+ *     Si la palabra es tan corta que ese minimo no es positivo, se revisan las palabras de longitud similar</li>
+ * </ul>
+ * Todo el trabajo se realiza sobre las palabras y los nombres distintos, que son muchos menos que los vendedores.
+ *
+ * <p>Es seguro para cualquier numero de lectores concurrentes.
+ *
+ * @author Alex Angulo
+ */
+public final class IndiceNombres {
+
+    private static final int[] NINGUNO = new int[0];
+
+    /**
+     * Los nombres distintos, normalizados y ordenados. El rango de un nombre es su posicion en este arreglo
+     */
+    private final String[] nombres;
+
+    /**
+     * El rango del nombre de cada posicion
+     */
+    private final int[] rangos;
+
+    /**
+     * Las posiciones ordenadas por rango y despues por posicion
+     */
+    private final int[] orden;
+
+    /**
+     * El inicio en 'orden' de las posiciones de cada rango; tiene un elemento extra con el total
+     */
+    private final int[] inicios;
+
+    /**
+     * Las palabras distintas de los nombres, y los rangos ordenados de los nombres que contienen cada una
+     */
+    private final String[] palabras;
+    private final int[][] nombresPorPalabra;
+
+    /**
+     * Las palabras ordenadas que contienen cada trigrama
+     */
+    private final Map<Long, int[]> palabrasPorTrigrama;
+
+    /**
+     * Las palabras de cada longitud
+     */
+    private final int[][] palabrasPorLongitud;
+
+    private IndiceNombres(String[] nombres, int[] rangos, int[] orden, int[] inicios, String[] palabras,
+                          int[][] nombresPorPalabra, Map<Long, int[]> palabrasPorTrigrama,
+                          int[][] palabrasPorLongitud) {
+        this.nombres = nombres;
+        this.rangos = rangos;
+        this.orden = orden;
+        this.inicios = inicios;
+        this.palabras = palabras;
+        this.nombresPorPalabra = nombresPorPalabra;
+        this.palabrasPorTrigrama = palabrasPorTrigrama;
+        this.palabrasPorLongitud = palabrasPorLongitud;
+    }
+
+    /**
+     * Construye el indice de la lista de vendedores en O(n log n)
+     *
+     * @param vendedores los vendedores a indexar, idealmente una lista 'RandomAccess'
+     * @return el indice de la lista
+     */
+    public static IndiceNombres construir(List<Vendedor> vendedores) {
+        int cantidad = vendedores.size();
+        Map<String, String> normalizados = new HashMap<>();
+        String[] nombrePorPosicion = new String[cantidad];
+        for (int posicion = 0; posicion < cantidad; posicion++) {
+            String nombre = vendedores.get(posicion).getNombre();
+            nombrePorPosicion[posicion] = normalizados.computeIfAbsent(nombre, BusquedaNombre::normalizar);
+        }
+
+        String[] nombres = normalizados.values().stream().distinct().sorted().toArray(String[]::new);
+        Map<String, Integer> rangoPorNombre = new HashMap<>(nombres.length * 2);
+        for (int rango = 0; rango < nombres.length; rango++) {
+            rangoPorNombre.put(nombres[rango], rango);
+        }
+
+        int[] rangos = new int[cantidad];
+        int[] inicios = new int[nombres.length + 1];
+        for (int posicion = 0; posicion < cantidad; posicion++) {
+            rangos[posicion] = rangoPorNombre.get(nombrePorPosicion[posicion]);
+            inicios[rangos[posicion] + 1]++;
+        }
+        for (int rango = 0; rango < nombres.length; rango++) {
+            inicios[rango + 1] += inicios[rango];
+        }
+        int[] orden = new int[cantidad];
+        int[] llenado = Arrays.copyOf(inicios, nombres.length);
+        for (int posicion = 0; posicion < cantidad; posicion++) {
+            orden[llenado[rangos[posicion]]++] = posicion;
+        }
+
+        Map<String, List<Integer>> rangosPorPalabra = new HashMap<>();
+        for (int rango = 0; rango < nombres.length; rango++) {
+            for (String palabra : BusquedaNombre.palabras(nombres[rango])) {
+                List<Integer> rangosPalabra = rangosPorPalabra.computeIfAbsent(palabra, p -> new ArrayList<>(1));
+                if (rangosPalabra.isEmpty() || rangosPalabra.get(rangosPalabra.size() - 1) != rango) {
+                    rangosPalabra.add(rango);
+                }
+            }
+        }
+        String[] palabras = rangosPorPalabra.keySet().toArray(String[]::new);
+        Arrays.sort(palabras);
+        int[][] nombresPorPalabra = new int[palabras.length][];
+        int longitudMaxima = 0;
+        for (int palabra = 0; palabra < palabras.length; palabra++) {
+            nombresPorPalabra[palabra] = rangosPorPalabra.get(palabras[palabra]).stream()
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            longitudMaxima = Math.max(longitudMaxima, palabras[palabra].length());
+        }
+
+        return new IndiceNombres(nombres, rangos, orden, inicios, palabras, nombresPorPalabra,
+                trigramas(palabras), porLongitud(palabras, longitudMaxima));
+    }
+
+    /**
+     * Returna las palabras que contienen cada trigrama, en orden ascendente
+     */
+    private static Map<Long, int[]> trigramas(String[] palabras) {
+        Map<Long, List<Integer>> palabrasPorTrigrama = new HashMap<>();
+        for (int palabra = 0; palabra < palabras.length; palabra++) {
+            for (long trigrama : trigramasDistintos(palabras[palabra])) {
+                palabrasPorTrigrama.computeIfAbsent(trigrama, t -> new ArrayList<>()).add(palabra);
+            }
+        }
+        Map<Long, int[]> resultado = new HashMap<>(palabrasPorTrigrama.size() * 2);
+        palabrasPorTrigrama.forEach((trigrama, palabrasTrigrama) ->
+                resultado.put(trigrama, palabrasTrigrama.stream().mapToInt(Integer::intValue).toArray()));
+        return resultado;
+    }
+
+    /**
+     * Returna las palabras de cada longitud, en orden ascendente
+     */
+    private static int[][] porLongitud(String[] palabras, int longitudMaxima) {
+        int[] conteos = new int[longitudMaxima + 1];
+        for (String palabra : palabras) {
+            conteos[palabra.length()]++;
+        }
+        int[][] palabrasPorLongitud = new int[longitudMaxima + 1][];
+        for (int longitud = 0; longitud <= longitudMaxima; longitud++) {
+            palabrasPorLongitud[longitud] = new int[conteos[longitud]];
+            conteos[longitud] = 0;
+        }
+        for (int palabra = 0; palabra < palabras.length; palabra++) {
+            int longitud = palabras[palabra].length();
+            palabrasPorLongitud[longitud][conteos[longitud]++] = palabra;
+        }
+        return palabrasPorLongitud;
+    }
+
+    /**
+     * Returna el numero de vendedores indexados, es decir, el tamanio de la lista original
+     *
+     * @return el numero de vendedores indexados
+     */
+    public int cubiertos() {
+        return rangos.length;
+    }
+
+    /**
+     * Returna el nombre normalizado del vendedor en la posicion recibida
+     *
+     * @param posicion la posicion del vendedor en la lista original
+     * @return su nombre normalizado
+     */
+    public String nombre(int posicion) {
+        return nombres[rangos[posicion]];
+    }
+
+    /**
+     * Returna las primeras coincidencias de la busqueda, en el orden de BusquedaNombre.Coincidencia.
+     * El desplazamiento y el limite de la busqueda se ignoran
+     *
+     * @param busqueda la busqueda a ejecutar
+     * @param maximo el numero maximo de coincidencias a returnar
+     * @return las primeras coincidencias, a lo mas 'maximo'
+     */
+    public List<BusquedaNombre.Coincidencia> buscar(BusquedaNombre busqueda, int maximo) {
+        switch (busqueda.tipo()) {
+            case PREFIJO:
+                return prefijo(busqueda.texto(), maximo);
+            case SUBCADENA:
+                return subcadena(busqueda.texto(), maximo);
+            default:
+                return aproximada(busqueda.palabras(), maximo);
+        }
+    }
+
+    /**
+     * Localiza el intervalo de nombres que comienzan con el prefijo y returna sus primeras posiciones
+     */
+    private List<BusquedaNombre.Coincidencia> prefijo(String prefijo, int maximo) {
+        int desde = primerRango(0, prefijo, false);
+        int hasta = primerRango(desde, prefijo, true);
+        List<BusquedaNombre.Coincidencia> coincidencias = new ArrayList<>();
+        agregarPosiciones(coincidencias, 0, desde, hasta, maximo);
+        return coincidencias;
+    }
+
+    /**
+     * Returna el primer rango, a partir de 'desde', cuyo nombre es mayor o igual que el prefijo o,
+     * si 'omitirCoincidencias', cuyo nombre ademas no comienza con el prefijo
+     */
+    private int primerRango(int desde, String prefijo, boolean omitirCoincidencias) {
+        int bajo = desde;
+        int alto = nombres.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            String nombre = nombres[medio];
+            boolean antes = nombre.compareTo(prefijo) < 0 || (omitirCoincidencias && nombre.startsWith(prefijo));
+            if (antes) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Localiza las palabras que contienen la palabra mas larga del texto,
+     * y revisa solo los nombres que contienen esas palabras
+     */
+    private List<BusquedaNombre.Coincidencia> subcadena(String texto, int maximo) {
+        String masLarga = "";
+        for (String palabra : BusquedaNombre.palabras(texto)) {
+            if (palabra.length() > masLarga.length()) {
+                masLarga = palabra;
+            }
+        }
+        int[] candidatas = masLarga.length() >= 3 ? interseccionTrigramas(masLarga) : todasLasPalabras();
+        List<int[]> nombresCandidatos = new ArrayList<>();
+        for (int palabra : candidatas) {
+            if (palabras[palabra].contains(masLarga)) {
+                nombresCandidatos.add(nombresPorPalabra[palabra]);
+            }
+        }
+
+        // mezcla los rangos de las palabras candidatas en orden, y se detiene al reunir suficientes coincidencias
+        List<BusquedaNombre.Coincidencia> coincidencias = new ArrayList<>();
+        int[] cursores = new int[nombresCandidatos.size()];
+        PriorityQueue<Long> siguientes = new PriorityQueue<>();
+        for (int candidato = 0; candidato < nombresCandidatos.size(); candidato++) {
+            siguientes.add(((long) nombresCandidatos.get(candidato)[0] << 32) | candidato);
+        }
+        int anterior = -1;
+        while (!siguientes.isEmpty() && coincidencias.size() < maximo) {
+            long siguiente = siguientes.poll();
+            int rango = (int) (siguiente >>> 32);
+            int candidato = (int) siguiente;
+            int[] rangosCandidato = nombresCandidatos.get(candidato);
+            if (++cursores[candidato] < rangosCandidato.length) {
+                siguientes.add(((long) rangosCandidato[cursores[candidato]] << 32) | candidato);
+            }
+            if (rango != anterior && nombres[rango].contains(texto)) {
+                agregarPosiciones(coincidencias, 0, rango, rango + 1, maximo);
+            }
+            anterior = rango;
+        }
+        return coincidencias;
+    }
+
+    /**
+     * Calcula, por cada palabra buscada, la menor distancia de cada nombre que tiene una palabra parecida.
+     * Los nombres que se parecen a todas las palabras buscadas se ordenan por la suma de sus distancias
+     */
+    private List<BusquedaNombre.Coincidencia> aproximada(List<String> buscadas, int maximo) {
+        Map<Integer, Integer> distanciaPorRango = null;
+        for (String buscada : buscadas) {
+            Map<Integer, Integer> distanciasPalabra = new HashMap<>();
+            int maxima = BusquedaNombre.distanciaMaxima(buscada);
+            for (int palabra : palabrasCandidatas(buscada, maxima)) {
+                int distancia = BusquedaNombre.levenshtein(buscada, palabras[palabra], maxima);
+                if (distancia > maxima) {
+                    continue;
+                }
+                for (int rango : nombresPorPalabra[palabra]) {
+                    if (distanciaPorRango == null || distanciaPorRango.containsKey(rango)) {
+                        distanciasPalabra.merge(rango, distancia, Math::min);
+                    }
+                }
+            }
+            if (distanciaPorRango != null) {
+                Map<Integer, Integer> acumuladas = distanciaPorRango;
+                distanciasPalabra.replaceAll((rango, distancia) -> distancia + acumuladas.get(rango));
+            }
+            distanciaPorRango = distanciasPalabra;
+            if (distanciaPorRango.isEmpty()) {
+                break;
+            }
+        }
+
+        long[] claves = new long[distanciaPorRango == null ? 0 : distanciaPorRango.size()];
+        int total = 0;
+        if (distanciaPorRango != null) {
+            for (Map.Entry<Integer, Integer> entrada : distanciaPorRango.entrySet()) {
+                claves[total++] = ((long) entrada.getValue() << 32) | entrada.getKey();
+            }
+        }
+        Arrays.sort(claves);
+        List<BusquedaNombre.Coincidencia> coincidencias = new ArrayList<>();
+        for (long clave : claves) {
+            if (coincidencias.size() >= maximo) {
+                break;
+            }
+            int rango = (int) clave;
+            agregarPosiciones(coincidencias, (int) (clave >>> 32), rango, rango + 1, maximo);
+        }
+        return coincidencias;
+    }
+
+    /**
+     * Returna las palabras que pueden estar a la distancia maxima de la palabra buscada: las que
+     * comparten suficientes trigramas con ella o, si es muy corta, las de longitud similar
+     */
+    private int[] palabrasCandidatas(String buscada, int maxima) {
+        int minimoCompartidos = buscada.length() - 2 - 3 * maxima;
+        if (minimoCompartidos <= 0) {
+            List<int[]> porLongitud = new ArrayList<>();
+            int desde = Math.max(0, buscada.length() - maxima);
+            int hasta = Math.min(palabrasPorLongitud.length - 1, buscada.length() + maxima);
+            for (int longitud = desde; longitud <= hasta; longitud++) {
+                porLongitud.add(palabrasPorLongitud[longitud]);
+            }
+            return concatenar(porLongitud);
+        }
+        Map<Integer, Integer> compartidos = new HashMap<>();
+        for (long trigrama : trigramasDistintos(buscada)) {
+            for (int palabra : palabrasPorTrigrama.getOrDefault(trigrama, NINGUNO)) {
+                compartidos.merge(palabra, 1, Integer::sum);
+            }
+        }
+        return compartidos.entrySet().stream()
+                .filter(entrada -> entrada.getValue() >= minimoCompartidos)
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+    }
+
+    /**
+     * Returna las palabras que contienen todos los trigramas de la palabra buscada
+     */
+    private int[] interseccionTrigramas(String buscada) {
+        int[] resultado = null;
+        for (long trigrama : trigramasDistintos(buscada)) {
+            int[] palabrasTrigrama = palabrasPorTrigrama.getOrDefault(trigrama, NINGUNO);
+            resultado = resultado == null ? palabrasTrigrama : interseccion(resultado, palabrasTrigrama);
+            if (resultado.length == 0) {
+                break;
+            }
+        }
+        return resultado;
+    }
+
+    private int[] todasLasPalabras() {
+        int[] todas = new int[palabras.length];
+        Arrays.setAll(todas, palabra -> palabra);
+        return todas;
+    }
+
+    /**
+     * Agrega las posiciones de los rangos [desde, hasta), sin pasar del maximo de coincidencias
+     */
+    private void agregarPosiciones(List<BusquedaNombre.Coincidencia> coincidencias, int distancia,
+                                   int desde, int hasta, int maximo) {
+        for (int i = inicios[desde]; i < inicios[hasta] && coincidencias.size() < maximo; i++) {
+            int posicion = orden[i];
+            coincidencias.add(new BusquedaNombre.Coincidencia(distancia, nombre(posicion), posicion));
+        }
+    }
+
+    /**
+     * Returna los trigramas distintos de una palabra, cada uno con sus 3 caracteres en un long
+     */
+    private static long[] trigramasDistintos(String palabra) {
+        if (palabra.length() < 3) {
+            return new long[0];
+        }
+        long[] trigramas = new long[palabra.length() - 2];
+        for (int i = 0; i < trigramas.length; i++) {
+            trigramas[i] = ((long) palabra.charAt(i) << 32)
+                    | ((long) palabra.charAt(i + 1) << 16)
+                    | palabra.charAt(i + 2);
+        }
+        return Arrays.stream(trigramas).distinct().toArray();
+    }
+
+    /**
+     * Intersecta dos arreglos ordenados y sin repetidos
+     */
+    private static int[] interseccion(int[] a, int[] b) {
+        int[] resultado = new int[Math.min(a.length, b.length)];
+        int total = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[total++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, total);
+    }
+
+    private static int[] concatenar(List<int[]> arreglos) {
+        int[] resultado = new int[arreglos.stream().mapToInt(arreglo -> arreglo.length).sum()];
+        int total = 0;
+        for (int[] arreglo : arreglos) {
+            System.arraycopy(arreglo, 0, resultado, total, arreglo.length);
+            total += arreglo.length;
+        }
+        return resultado;
+    }
+}
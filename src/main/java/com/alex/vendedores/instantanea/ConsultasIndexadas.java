@@ -0,0 +1,194 @@
+package com.alex.vendedores.instantanea;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.indice.IndiceFechasNacimiento;
+import com.alex.vendedores.indice.IndiceNombres;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Las consultas sobre una InstantaneaVendedores que se resuelven con sus indices, compartidas por los
+ * repositorios de este paquete.
+ *
+ * <p>Un indice cubre las primeras 'cubiertos' posiciones de alguna version, que debe tener los mismos
+ * reemplazos que la version consultada. Los vendedores de la version que el indice no cubre ('la cola')
+ * se revisan uno por uno, y las posiciones que el indice cubre pero la version no tiene se descartan.
+ *
+ * @author Alex Angulo
+ */
+final class ConsultasIndexadas {
+
+    /**
+     * El numero de vendedores no indexados que se toleran antes de reconstruir el indice,
+     * o 1/8 de los vendedores indexados si es mayor
+     */
+    private static final int COLA_MAXIMA_SIN_INDEXAR = 1024;
+
+    private ConsultasIndexadas() {
+    }
+
+    /**
+     * Returna si la cola de vendedores no indexados es lo bastante corta para seguir usando el indice
+     *
+     * @param tamanio el numero de vendedores de la version
+     * @param cubiertos el numero de vendedores que cubre el indice
+     * @return si el indice no necesita reconstruirse
+     */
+    static boolean colaTolerable(int tamanio, int cubiertos) {
+        return tamanio - cubiertos <= Math.max(COLA_MAXIMA_SIN_INDEXAR, cubiertos >>> 3);
+    }
+
+    /**
+     * Returna si la consulta tiene algun filtro que el indice de fechas puede resolver
+     *
+     * @param consulta la consulta
+     * @return si filtra por estado o por fechas de nacimiento
+     */
+    static boolean puedeUsarIndice(ConsultaVendedores consulta) {
+        return consulta.estado().isPresent()
+                || consulta.nacidoDesde().isPresent()
+                || consulta.nacidoHasta().isPresent();
+    }
+
+    /**
+     * Returna los vendedores de la version que cumplen la consulta, en orden de insercion,
+     * revisando solo los que el indice ubica en el rango, en O(log n + k log k)
+     *
+     * @param instantanea la version consultada
+     * @param indice un indice de fechas valido para la version
+     * @param consulta una consulta que puede usar el indice
+     * @return los vendedores que cumplen la consulta, en una lista INMUTABLE
+     */
+    static List<Vendedor> consultar(InstantaneaVendedores instantanea, IndiceFechasNacimiento indice,
+                                    ConsultaVendedores consulta) {
+        List<Vendedor> resultado = new ArrayList<>();
+        int omitidos = 0;
+        for (int posicion : posicionesCandidatas(instantanea, indice, consulta)) {
+            if (resultado.size() == consulta.limite()) {
+                break;
+            }
+            Vendedor vendedor = instantanea.vendedor(posicion);
+            if (!consulta.acepta(vendedor)) {
+                continue;
+            }
+            if (omitidos < consulta.desplazamiento()) {
+                omitidos++;
+            } else {
+                resultado.add(vendedor);
+            }
+        }
+        return List.copyOf(resultado);
+    }
+
+    /**
+     * Returna el numero de vendedores de la version que cumplen los filtros. Si la consulta solo filtra
+     * por estado y fechas de nacimiento, los vendedores indexados se cuentan con dos busquedas binarias,
+     * sin revisarlos
+     *
+     * @param instantanea la version consultada
+     * @param indice un indice de fechas valido para la version
+     * @param consulta una consulta que puede usar el indice
+     * @return el numero de vendedores que cumplen los filtros
+     */
+    static long contar(InstantaneaVendedores instantanea, IndiceFechasNacimiento indice, ConsultaVendedores consulta) {
+        if (consulta.prefijoNombre().isPresent() || indice.cubiertos() > instantanea.size()) {
+            return Arrays.stream(posicionesCandidatas(instantanea, indice, consulta))
+                    .filter(posicion -> consulta.acepta(instantanea.vendedor(posicion)))
+                    .count();
+        }
+        int indexados = indice.contar(consulta.estado().orElse(null),
+                consulta.nacidoDesde().orElse(null),
+                consulta.nacidoHasta().orElse(null));
+        return indexados + contarCola(instantanea, indice.cubiertos(), consulta);
+    }
+
+    /**
+     * Returna los vendedores de la version cuyo nombre coincide con la busqueda. Solo se ordenan
+     * las primeras coincidencias que el indice de nombres encuentra, junto con las coincidencias de la cola
+     *
+     * @param instantanea la version consultada
+     * @param indice un indice de nombres valido para la version
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los vendedores que coinciden, en una lista INMUTABLE
+     */
+    static List<Vendedor> buscarPorNombre(InstantaneaVendedores instantanea, IndiceNombres indice,
+                                          BusquedaNombre busqueda) {
+        int tamanio = instantanea.size();
+        int necesarias = busqueda.coincidenciasNecesarias();
+        // si el indice es de una version posterior, algunas de sus coincidencias no estan en esta version
+        int posteriores = Math.max(0, indice.cubiertos() - tamanio);
+
+        List<BusquedaNombre.Coincidencia> coincidencias = new ArrayList<>();
+        for (BusquedaNombre.Coincidencia coincidencia
+                : indice.buscar(busqueda, (int) Math.min(Integer.MAX_VALUE, (long) necesarias + posteriores))) {
+            if (coincidencia.posicion() < tamanio) {
+                coincidencias.add(coincidencia);
+            }
+        }
+        for (int posicion = indice.cubiertos(); posicion < tamanio; posicion++) {
+            String nombre = BusquedaNombre.normalizar(instantanea.vendedor(posicion).getNombre());
+            int distancia = busqueda.distancia(nombre);
+            if (distancia != BusquedaNombre.SIN_COINCIDENCIA) {
+                coincidencias.add(new BusquedaNombre.Coincidencia(distancia, nombre, posicion));
+            }
+        }
+        Collections.sort(coincidencias);
+        return coincidencias.stream()
+                .skip(busqueda.desplazamiento())
+                .limit(busqueda.limite())
+                .map(coincidencia -> instantanea.vendedor(coincidencia.posicion()))
+                .toList();
+    }
+
+    /**
+     * Returna, en orden ascendente, las posiciones de la version que pueden cumplir la consulta:
+     * las que el indice ubica en el estado y el rango de fechas, mas las de la cola que cumplen la consulta
+     *
+     * @param instantanea la version consultada
+     * @param indice un indice de fechas valido para la version
+     * @param consulta la consulta
+     * @return las posiciones candidatas, ordenadas
+     */
+    private static int[] posicionesCandidatas(InstantaneaVendedores instantanea, IndiceFechasNacimiento indice,
+                                              ConsultaVendedores consulta) {
+        String estado = consulta.estado().orElse(null);
+        LocalDate desde = consulta.nacidoDesde().orElse(null);
+        LocalDate hasta = consulta.nacidoHasta().orElse(null);
+
+        int[] indexadas = indice.posiciones(estado, desde, hasta);
+        int tamanio = instantanea.size();
+        int[] candidatas = new int[indexadas.length + Math.max(0, tamanio - indice.cubiertos())];
+        int total = 0;
+        for (int posicion : indexadas) {
+            if (posicion < tamanio) {
+                candidatas[total++] = posicion;
+            }
+        }
+        Arrays.sort(candidatas, 0, total);
+        for (int posicion = indice.cubiertos(); posicion < tamanio; posicion++) {
+            if (consulta.acepta(instantanea.vendedor(posicion))) {
+                candidatas[total++] = posicion;
+            }
+        }
+        return Arrays.copyOf(candidatas, total);
+    }
+
+    /**
+     * Cuenta los vendedores no indexados de la version que cumplen la consulta
+     */
+    private static long contarCola(InstantaneaVendedores instantanea, int desde, ConsultaVendedores consulta) {
+        long cuenta = 0;
+        for (int posicion = desde; posicion < instantanea.size(); posicion++) {
+            if (consulta.acepta(instantanea.vendedor(posicion))) {
+                cuenta++;
+            }
+        }
+        return cuenta;
+    }
+}
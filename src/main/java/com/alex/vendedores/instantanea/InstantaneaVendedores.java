@@ -0,0 +1,277 @@
+package com.alex.vendedores.instantanea;
+
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Version inmutable del conjunto de vendedores de un repositorio, sin duplicados y en orden de insercion.
+ *
+ * <p>Las versiones son una estructura persistente: los vendedores se guardan en bloques de BLOQUE posiciones,
+ * y todas las versiones comparten los bloques, el indice de posiciones y el indice de ids. Cada una solo ve
+ * el prefijo de posiciones que existia cuando fue publicada:
+ * <ul>
+ *     <li>Agregar un vendedor escribe en una posicion que ninguna version anterior ve,
+ *     por lo que cuesta O(1) (amortizado) en lugar de copiar todo el conjunto</li>
+ *     <li>Reemplazar un vendedor ('upsert') copia solo el arreglo de bloques y el bloque de su posicion,
+ *     en O(n / BLOQUE + BLOQUE); las versiones anteriores conservan sus bloques originales</li>
+ * </ul>
+ * Asi las versiones anteriores siguen siendo consistentes mientras alguien las recorra.
+ *
+ * <p>Es segura para cualquier numero de lectores concurrentes, sin bloqueos. Solo puede haber un
+ * escritor a la vez, que es quien invoca 'agregar' y 'reemplazarOAgregar' (ver VendedorRepositorioInstantaneas).
+ * Todos los metodos que modifican el Set lanzan UnsupportedOperationException.
+ *
+ * @author Alex Angulo
+ */
+public final class InstantaneaVendedores extends AbstractSet<Vendedor> {
+
+    /**
+     * El numero de posiciones de cada bloque, debe ser potencia de 2
+     */
+    static final int BLOQUE = 1 << 10;
+    private static final int BITS_BLOQUE = Integer.numberOfTrailingZeros(BLOQUE);
+
+    /**
+     * El numero de version; la primera version es 0 y cada vendedor agregado o reemplazado la incrementa en 1
+     */
+    private final long version;
+
+    /**
+     * Los bloques de vendedores. Los bloques se comparten con las demas versiones;
+     * esta version solo ve las primeras 'tamanio' posiciones
+     */
+    private final Vendedor[][] bloques;
+
+    private final int tamanio;
+
+    /**
+     * El numero de vendedores reemplazados desde la version 0
+     */
+    private final long reemplazos;
+
+    /**
+     * La posicion de cada vendedor agregado en los bloques, compartida con las demas versiones. Un vendedor
+     * que reemplaza a otro no se agrega, y el vendedor reemplazado pierde su entrada: ambos ocupan la posicion
+     * del primer vendedor de su id, por lo que se localizan con 'posicionesPorId'. Asi el mapa tiene a lo mas
+     * una entrada por posicion, sin importar cuantos reemplazos haya. Como el mapa es compartido, hay que
+     * confirmar que la posicion contenga al vendedor en esta version
+     */
+    private final Map<Vendedor, Integer> posiciones;
+
+    /**
+     * La posicion del primer vendedor de cada id, compartida con las demas versiones.
+     * Es la posicion donde 'reemplazarOAgregar' escribe
+     */
+    private final Map<Integer, Integer> posicionesPorId;
+
+    private InstantaneaVendedores(long version, Vendedor[][] bloques, int tamanio, long reemplazos,
+                                  Map<Vendedor, Integer> posiciones, Map<Integer, Integer> posicionesPorId) {
+        this.version = version;
+        this.bloques = bloques;
+        this.tamanio = tamanio;
+        this.reemplazos = reemplazos;
+        this.posiciones = posiciones;
+        this.posicionesPorId = posicionesPorId;
+    }
+
+    /**
+     * Crea la primera version con los vendedores recibidos, descartando duplicados
+     *
+     * @param vendedores los vendedores iniciales
+     * @return la version 0
+     */
+    public static InstantaneaVendedores de(Collection<Vendedor> vendedores) {
+        int bloquesIniciales = Math.max(1, (vendedores.size() + BLOQUE - 1) >>> BITS_BLOQUE);
+        InstantaneaVendedores instantanea = new InstantaneaVendedores(0, new Vendedor[bloquesIniciales][], 0, 0,
+                new ConcurrentHashMap<>(vendedores.size()), new ConcurrentHashMap<>(vendedores.size()));
+        for (Vendedor vendedor : vendedores) {
+            instantanea = instantanea.agregar(vendedor);
+        }
+        return new InstantaneaVendedores(0, instantanea.bloques, instantanea.tamanio, 0,
+                instantanea.posiciones, instantanea.posicionesPorId);
+    }
+
+    /**
+     * Returna la version que incluye al vendedor recibido.
+     *
+     * <p>Solo debe invocarse desde un unico escritor, y sobre la version mas reciente.
+     *
+     * @param vendedor el vendedor a agregar
+     * @return esta misma version si el vendedor ya existia, de lo contrario la siguiente version
+     */
+    InstantaneaVendedores agregar(Vendedor vendedor) {
+        if (contains(vendedor)) {
+            return this;
+        }
+        Vendedor[][] arreglo = bloques;
+        int bloque = tamanio >>> BITS_BLOQUE;
+        if (bloque == arreglo.length) {
+            arreglo = Arrays.copyOf(arreglo, arreglo.length * 2);
+        }
+        if (arreglo[bloque] == null) {
+            arreglo[bloque] = new Vendedor[BLOQUE];
+        }
+        arreglo[bloque][tamanio & (BLOQUE - 1)] = vendedor;
+        posiciones.put(vendedor, tamanio);
+        posicionesPorId.putIfAbsent(vendedor.getId(), tamanio);
+        return new InstantaneaVendedores(version + 1, arreglo, tamanio + 1, reemplazos, posiciones, posicionesPorId);
+    }
+
+    /**
+     * Returna la version donde el vendedor recibido reemplaza, en su misma posicion, al vendedor
+     * con su mismo id. Si no existe un vendedor con ese id, el vendedor se agrega al final.
+     *
+     * <p>Solo debe invocarse desde un unico escritor, y sobre la version mas reciente.
+     *
+     * @param vendedor el vendedor a guardar
+     * @return esta misma version si el vendedor ya existia, de lo contrario la siguiente version
+     */
+    InstantaneaVendedores reemplazarOAgregar(Vendedor vendedor) {
+        Integer posicion = posicionesPorId.get(vendedor.getId());
+        if (posicion == null || posicion >= tamanio) {
+            return agregar(vendedor);
+        }
+        Vendedor reemplazado = vendedor(posicion);
+        if (reemplazado.equals(vendedor)) {
+            return this;
+        }
+        Vendedor[][] arreglo = bloques.clone();
+        int bloque = posicion >>> BITS_BLOQUE;
+        arreglo[bloque] = arreglo[bloque].clone();
+        arreglo[bloque][posicion & (BLOQUE - 1)] = vendedor;
+        // las versiones anteriores lo siguen encontrando en la posicion de su id
+        posiciones.remove(reemplazado, posicion);
+        return new InstantaneaVendedores(version + 1, arreglo, tamanio, reemplazos + 1, posiciones, posicionesPorId);
+    }
+
+    /**
+     * Returna el numero de version
+     *
+     * @return el numero de version, que crece con cada vendedor agregado o reemplazado
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Returna el numero de vendedores reemplazados desde la version 0. Un indice construido sobre
+     * una version solo es valido para las versiones con el mismo numero de reemplazos
+     *
+     * @return el numero de vendedores reemplazados
+     */
+    public long reemplazos() {
+        return reemplazos;
+    }
+
+    /**
+     * Returna el vendedor en la posicion indicada, segun el orden de insercion.
+     * La posicion de un vendedor es la misma en todas las versiones que lo incluyen,
+     * y un vendedor que reemplaza a otro ocupa su posicion
+     *
+     * @param posicion la posicion, entre 0 y 'size() - 1'
+     * @return el vendedor en la posicion
+     * @throws IndexOutOfBoundsException si la posicion no existe en esta version
+     */
+    public Vendedor vendedor(int posicion) {
+        Objects.checkIndex(posicion, tamanio);
+        return bloques[posicion >>> BITS_BLOQUE][posicion & (BLOQUE - 1)];
+    }
+
+    /**
+     * Returna el primer vendedor con el id recibido, en O(1)
+     *
+     * @param id el id buscado
+     * @return el vendedor con el id, o un Optional vacio si no existe en esta version
+     */
+    public Optional<Vendedor> vendedorPorId(int id) {
+        Integer posicion = posicionesPorId.get(id);
+        return posicion != null && posicion < tamanio ? Optional.of(vendedor(posicion)) : Optional.empty();
+    }
+
+    /**
+     * Returna una vista INMUTABLE de esta version como lista, con acceso por posicion en O(1)
+     *
+     * @return los vendedores de esta version, en orden de insercion
+     */
+    public List<Vendedor> comoLista() {
+        return new Lista();
+    }
+
+    /**
+     * Returna si el objeto es un vendedor de esta version, buscandolo en la posicion en que se agrego
+     * y en la posicion del primer vendedor de su id, que es donde queda si reemplaza o fue reemplazado
+     */
+    @Override
+    public boolean contains(Object objeto) {
+        return contieneEn(posiciones.get(objeto), objeto)
+                || objeto instanceof Vendedor vendedor && contieneEn(posicionesPorId.get(vendedor.getId()), objeto);
+    }
+
+    private boolean contieneEn(Integer posicion, Object objeto) {
+        return posicion != null && posicion < tamanio && vendedor(posicion).equals(objeto);
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    /**
+     * Returna un Spliterator por posiciones, que se divide en mitades exactas
+     * para que los parallel streams repartan el recorrido de manera uniforme
+     */
+    @Override
+    public Spliterator<Vendedor> spliterator() {
+        return comoLista().spliterator();
+    }
+
+    /**
+     * Vista de esta version como lista
+     */
+    private final class Lista extends AbstractList<Vendedor> implements RandomAccess {
+
+        @Override
+        public Vendedor get(int posicion) {
+            return vendedor(posicion);
+        }
+
+        @Override
+        public int size() {
+            return tamanio;
+        }
+    }
+
+    @Override
+    public Iterator<Vendedor> iterator() {
+        return new Iterator<Vendedor>() {
+
+            private int siguiente;
+
+            @Override
+            public boolean hasNext() {
+                return siguiente < tamanio;
+            }
+
+            @Override
+            public Vendedor next() {
+                if (siguiente >= tamanio) {
+                    throw new NoSuchElementException();
+                }
+                return vendedor(siguiente++);
+            }
+        };
+    }
+}
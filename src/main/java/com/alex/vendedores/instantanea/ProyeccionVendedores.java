@@ -0,0 +1,384 @@
+package com.alex.vendedores.instantanea;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.EjecutorConsultas;
+import com.alex.vendedores.dominio.PoliticaGuardado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.indice.IndiceFechasNacimiento;
+import com.alex.vendedores.indice.IndiceNombres;
+import com.alex.vendedores.metricas.Contador;
+import com.alex.vendedores.metricas.Histograma;
+import com.alex.vendedores.metricas.Metricas;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Modelo de lectura de los vendedores: una proyeccion inmutable e indexada que un hilo en segundo plano
+ * ('el proyector') actualiza con los vendedores guardados, separando las lecturas de las escrituras (CQRS).
+ *
+ * <p>Cada version publicada es una InstantaneaVendedores junto con su IndiceFechasNacimiento y su IndiceNombres,
+ * y los lectores la obtienen con una sola lectura 'volatile'. A diferencia de VendedorRepositorioInstantaneas,
+ * los lectores nunca construyen un indice ni esperan a un escritor: el proyector reconstruye los indices antes
+ * de publicar la version que los necesita, por lo que la latencia de las lecturas no depende de cuantos
+ * vendedores se esten guardando.
+ *
+ * <p>'guardar' solo agrega el vendedor a la cola del proyector y returna de inmediato; el vendedor es visible
+ * cuando el proyector publica la siguiente version ('consistencia eventual'). El proyector aplica los cambios
+ * pendientes en lotes de hasta CAMBIOS_POR_LOTE, por lo que mientras reconstruye un indice los cambios
+ * siguientes se acumulan y se publican juntos. 'retraso' indica cuantos cambios faltan por publicar y desde
+ * cuando espera el mas antiguo, y 'esperarAlDia' espera a que se publiquen los cambios recibidos.
+ *
+ * <p>Si el proyector falla al aplicar un lote, con cualquier excepcion o Error (por ejemplo OutOfMemoryError
+ * al reconstruir un indice), o si se interrumpe, se detiene sin descartarlo: la falla se conserva y todas las
+ * operaciones siguientes, incluyendo 'esperarAlDia', lanzan IllegalStateException con ella como causa, en lugar
+ * de responder con una version que nunca incluira los cambios pendientes. 'retraso' sigue indicando cuantos son.
+ *
+ * <p>Los vendedores iniciales se leen una sola vez del repositorio base, en la primera operacion. Este
+ * repositorio no persiste nada: normalmente es la memoria de un VendedorRepositorioDurable, el modelo de escritura.
+ *
+ * @author Alex Angulo
+ */
+public final class ProyeccionVendedores implements VendedorRepositorio {
+
+    /**
+     * El tiempo desde que se recibe cada cambio hasta que es visible, y el numero de cambios de cada version
+     */
+    private static final Histograma RETRASO = Metricas.histograma("proyeccion.retrasoNs");
+    private static final Histograma CAMBIOS_POR_PUBLICACION = Metricas.histograma("proyeccion.cambiosPorPublicacion");
+
+    /**
+     * El numero de veces que el proyector se detuvo por una falla
+     */
+    private static final Contador DETENCIONES = Metricas.contador("proyeccion.detenciones");
+
+    /**
+     * El numero maximo de cambios que se aplican en una misma version
+     */
+    static final int CAMBIOS_POR_LOTE = 1 << 16;
+
+    /**
+     * Que tan atrasada esta la proyeccion respecto a los cambios recibidos
+     *
+     * @param cambiosPendientes el numero de cambios recibidos que aun no son visibles
+     * @param antiguedad el tiempo que lleva esperando el cambio pendiente mas antiguo, o cero si no hay
+     */
+    public record Retraso(long cambiosPendientes, Duration antiguedad) {
+    }
+
+    /**
+     * Un vendedor guardado y el instante, de 'System.nanoTime', en que se recibio
+     */
+    private record Cambio(Vendedor vendedor, long recibido) {
+    }
+
+    /**
+     * Una version publicada, con indices que cubren un prefijo de sus vendedores y tienen sus mismos reemplazos
+     */
+    private record Vista(InstantaneaVendedores instantanea, IndiceFechasNacimiento indiceFechas,
+                         IndiceNombres indiceNombres) {
+    }
+
+    /**
+     * El repositorio que provee los vendedores iniciales
+     */
+    private final VendedorRepositorio base;
+
+    /**
+     * Como se resuelven los vendedores guardados con un id existente
+     */
+    private final PoliticaGuardado politica;
+
+    /**
+     * Los cambios recibidos que el proyector aun no toma
+     */
+    private final BlockingQueue<Cambio> pendientes = new LinkedBlockingQueue<>();
+
+    /**
+     * Protege la carga inicial
+     */
+    private final ReentrantLock carga = new ReentrantLock();
+
+    /**
+     * Se notifica cada vez que el proyector publica una version
+     */
+    private final Object publicacion = new Object();
+
+    private final ExecutorService proyector = Executors.newSingleThreadExecutor(tarea -> {
+        Thread hilo = new Thread(tarea, "proyector-vendedores");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final AtomicLong recibidos = new AtomicLong();
+
+    /**
+     * Los cambios incluidos en la version publicada. Solo el proyector lo escribe
+     */
+    private volatile long aplicados;
+
+    /**
+     * El cambio mas antiguo del lote que el proyector esta aplicando, o null si no esta aplicando ninguno
+     */
+    private volatile Cambio enProceso;
+
+    /**
+     * La version publicada, o null si aun no se ha cargado el repositorio base
+     */
+    private volatile Vista actual;
+
+    /**
+     * La falla que detuvo al proyector, o null si sigue activo
+     */
+    private volatile Throwable falla;
+
+    public ProyeccionVendedores(VendedorRepositorio base, PoliticaGuardado politica) {
+        this.base = requireNonNull(base);
+        this.politica = requireNonNull(politica);
+    }
+
+    /**
+     * Returna la version publicada de los vendedores, que es inmutable
+     *
+     * @return todos los vendedores proyectados, sin duplicados
+     */
+    @Override
+    public InstantaneaVendedores encontrarTodos() {
+        return vista().instantanea();
+    }
+
+    /**
+     * Returna los vendedores de la version publicada que cumplen la consulta, en orden de insercion,
+     * con el indice de fechas si la consulta filtra por estado o por fechas de nacimiento
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los vendedores que cumplen la consulta, en una lista INMUTABLE
+     */
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        Vista vista = vista();
+        if (!ConsultasIndexadas.puedeUsarIndice(consulta)) {
+            return EjecutorConsultas.ejecutar(vista.instantanea(), consulta);
+        }
+        return ConsultasIndexadas.consultar(vista.instantanea(), vista.indiceFechas(), consulta);
+    }
+
+    /**
+     * Returna el numero de vendedores de la version publicada que cumplen los filtros
+     *
+     * @param consulta los filtros a evaluar
+     * @return el numero de vendedores que cumplen los filtros
+     */
+    @Override
+    public long contar(ConsultaVendedores consulta) {
+        Vista vista = vista();
+        if (!ConsultasIndexadas.puedeUsarIndice(consulta)) {
+            return vista.instantanea().stream().filter(consulta::acepta).count();
+        }
+        return ConsultasIndexadas.contar(vista.instantanea(), vista.indiceFechas(), consulta);
+    }
+
+    /**
+     * Returna los vendedores de la version publicada cuyo nombre coincide con la busqueda, con el indice de nombres
+     *
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los vendedores que coinciden, en una lista INMUTABLE
+     */
+    @Override
+    public List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        Vista vista = vista();
+        return ConsultasIndexadas.buscarPorNombre(vista.instantanea(), vista.indiceNombres(), busqueda);
+    }
+
+    @Override
+    public Optional<Vendedor> encontrarPorId(int id) {
+        return vista().instantanea().vendedorPorId(id);
+    }
+
+    /**
+     * Agrega el vendedor a la cola del proyector. Returna sin esperar a que sea visible
+     *
+     * @param vendedor el vendedor guardado
+     * @throws IllegalStateException si el proyector se detuvo por una falla
+     */
+    @Override
+    public void guardar(Vendedor vendedor) {
+        requireNonNull(vendedor);
+        vista();
+        recibidos.incrementAndGet();
+        pendientes.add(new Cambio(vendedor, System.nanoTime()));
+    }
+
+    /**
+     * Returna que tan atrasada esta la version publicada. Es una aproximacion: los cambios
+     * se siguen recibiendo y publicando mientras se calcula. Si el proyector se detuvo,
+     * los cambios pendientes y su antiguedad ya no disminuyen
+     *
+     * @return el numero de cambios pendientes y la antiguedad del mas antiguo
+     */
+    public Retraso retraso() {
+        long cambiosPendientes = Math.max(0, recibidos.get() - aplicados);
+        Cambio masAntiguo = enProceso;
+        if (masAntiguo == null) {
+            masAntiguo = pendientes.peek();
+        }
+        if (cambiosPendientes == 0 || masAntiguo == null) {
+            return new Retraso(cambiosPendientes, Duration.ZERO);
+        }
+        return new Retraso(cambiosPendientes, Duration.ofNanos(System.nanoTime() - masAntiguo.recibido()));
+    }
+
+    /**
+     * Espera a que la version publicada incluya todos los cambios recibidos hasta ahora
+     *
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     * @throws IllegalStateException si el proyector se detuvo por una falla, antes o durante la espera
+     */
+    public void esperarAlDia() throws InterruptedException {
+        long objetivo = recibidos.get();
+        synchronized (publicacion) {
+            while (aplicados < objetivo) {
+                reportarFalla();
+                publicacion.wait();
+            }
+        }
+        reportarFalla();
+    }
+
+    /**
+     * Returna la version publicada. Solo la primera invocacion puede bloquearse,
+     * mientras se carga el repositorio base
+     *
+     * @throws IllegalStateException si el proyector se detuvo por una falla
+     */
+    private Vista vista() {
+        reportarFalla();
+        Vista vista = actual;
+        return vista != null ? vista : cargar();
+    }
+
+    /**
+     * Carga el repositorio base una sola vez, publica la version 0 e inicia el proyector.
+     *
+     * <p>La version 0 se publica con indices vacios, para no retrasar la primera lectura: hasta que
+     * el proyector la indexa, las consultas revisan todos los vendedores
+     */
+    private Vista cargar() {
+        carga.lock();
+        try {
+            if (actual == null) {
+                List<Vendedor> ninguno = List.of();
+                actual = new Vista(InstantaneaVendedores.de(base.encontrarTodos()),
+                        IndiceFechasNacimiento.construir(ninguno), IndiceNombres.construir(ninguno));
+                proyector.execute(this::proyectar);
+            }
+            return actual;
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * El ciclo del proyector: indexa la version 0 y despues aplica los cambios pendientes por lotes.
+     * Si falla o se interrumpe, se detiene sin publicar el lote y conserva la falla. Los Error se conservan
+     * y despues se relanzan, para no ocultarlos al hilo
+     */
+    private void proyectar() {
+        List<Cambio> lote = new ArrayList<>();
+        try {
+            actual = indexar(actual, actual.instantanea());
+            while (true) {
+                Cambio primero = pendientes.take();
+                enProceso = primero;
+                lote.add(primero);
+                pendientes.drainTo(lote, CAMBIOS_POR_LOTE - 1);
+                publicar(lote);
+                lote.clear();
+            }
+        } catch (InterruptedException exception) {
+            detener(exception);
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException exception) {
+            detener(exception);
+        } catch (Error error) {
+            detener(error);
+            throw error;
+        }
+    }
+
+    /**
+     * Conserva la falla del proyector y despierta a los hilos que esperan en 'esperarAlDia'
+     */
+    private void detener(Throwable exception) {
+        if (Metricas.HABILITADAS) {
+            DETENCIONES.incrementar();
+        }
+        synchronized (publicacion) {
+            falla = exception;
+            publicacion.notifyAll();
+        }
+    }
+
+    /**
+     * Lanza la falla que detuvo al proyector, si se detuvo
+     */
+    private void reportarFalla() {
+        Throwable detenida = falla;
+        if (detenida != null) {
+            throw new IllegalStateException("La proyeccion de vendedores se detuvo y no publicara los cambios pendientes",
+                    detenida);
+        }
+    }
+
+    /**
+     * Aplica el lote de cambios a la version publicada y publica la nueva version, con sus indices
+     */
+    private void publicar(List<Cambio> lote) {
+        Vista anterior = actual;
+        InstantaneaVendedores instantanea = anterior.instantanea();
+        for (Cambio cambio : lote) {
+            instantanea = politica == PoliticaGuardado.REEMPLAZAR_POR_ID
+                    ? instantanea.reemplazarOAgregar(cambio.vendedor())
+                    : instantanea.agregar(cambio.vendedor());
+        }
+        actual = indexar(anterior, instantanea);
+        synchronized (publicacion) {
+            aplicados += lote.size();
+            enProceso = null;
+            publicacion.notifyAll();
+        }
+        if (Metricas.HABILITADAS) {
+            long ahora = System.nanoTime();
+            for (Cambio cambio : lote) {
+                RETRASO.registrar(ahora - cambio.recibido());
+            }
+            CAMBIOS_POR_PUBLICACION.registrar(lote.size());
+        }
+    }
+
+    /**
+     * Returna la vista de la version, con los indices de la vista anterior si siguen siendo validos:
+     * la version no tiene reemplazos nuevos y la cola de vendedores no indexados no es demasiado grande.
+     * De lo contrario reconstruye ambos indices
+     */
+    private static Vista indexar(Vista anterior, InstantaneaVendedores instantanea) {
+        if (anterior.instantanea().reemplazos() == instantanea.reemplazos()
+                && ConsultasIndexadas.colaTolerable(instantanea.size(), anterior.indiceFechas().cubiertos())) {
+            return new Vista(instantanea, anterior.indiceFechas(), anterior.indiceNombres());
+        }
+        List<Vendedor> vendedores = instantanea.comoLista();
+        return new Vista(instantanea, IndiceFechasNacimiento.construir(vendedores), IndiceNombres.construir(vendedores));
+    }
+}
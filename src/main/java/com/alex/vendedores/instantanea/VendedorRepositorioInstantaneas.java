@@ -0,0 +1,282 @@
+package com.alex.vendedores.instantanea;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.EjecutorConsultas;
+import com.alex.vendedores.dominio.PoliticaGuardado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.indice.IndiceFechasNacimiento;
+import com.alex.vendedores.indice.IndiceNombres;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de VendedorRepositorio que agrega aislamiento por instantaneas ('snapshot isolation')
+ * a otro repositorio, para que pueda usarse desde varios hilos a la vez.
+ *
+ * <p>Los lectores obtienen la InstantaneaVendedores mas reciente con una sola lectura 'volatile'
+ * y nunca se bloquean: un reporte recorre una version inmutable y consistente aunque se guarden
+ * vendedores mientras tanto. Las escrituras pasan por un unico escritor, protegido por un lock,
+ * que persiste el vendedor en el repositorio original y luego publica atomicamente la nueva version.
+ *
+ * <p>El repositorio original se lee completo una sola vez, en la primera consulta que necesita todos
+ * los vendedores o en el primer guardado. Mientras tanto, 'encontrarPorEstado' y 'consultar' se delegan
+ * al repositorio original, para que un repositorio fragmentado lea solo los fragmentos necesarios.
+ * Los vendedores guardados a traves de este repositorio son visibles en las consultas siguientes.
+ *
+ * <p>Las consultas por estado o por rango de fechas de nacimiento (o de edades) se resuelven con un
+ * IndiceFechasNacimiento. Como las versiones solo agregan vendedores al final, un indice construido
+ * sobre una version sigue siendo valido para las siguientes: los vendedores agregados despues ('la cola')
+ * se revisan uno por uno, y el indice se reconstruye cuando la cola crece demasiado.
+ * Las busquedas por nombre se resuelven de la misma forma con un IndiceNombres.
+ *
+ * <p>Con la politica REEMPLAZAR_POR_ID, guardar un vendedor con un id existente lo reemplaza en memoria,
+ * en su misma posicion, localizandolo con el indice de ids de la instantanea. Un reemplazo invalida
+ * los indices de fechas y de nombres, que se reconstruyen en la siguiente consulta que los necesita.
+ *
+ * @author Alex Angulo
+ */
+public final class VendedorRepositorioInstantaneas implements VendedorRepositorio {
+
+    /**
+     * El repositorio que provee los vendedores iniciales y persiste los vendedores guardados
+     */
+    private final VendedorRepositorio repositorio;
+
+    /**
+     * Como se resuelven los vendedores guardados con un id existente
+     */
+    private final PoliticaGuardado politica;
+
+    /**
+     * El lock del unico escritor. Tambien protege la carga inicial
+     */
+    private final ReentrantLock escritor = new ReentrantLock();
+
+    /**
+     * La version mas reciente, o null si aun no se ha cargado el repositorio original
+     */
+    private volatile InstantaneaVendedores actual;
+
+    /**
+     * El indice de fechas de nacimiento de alguna version, con su numero de reemplazos. Se construye
+     * de forma 'lazy' en la primera consulta que lo necesita; si dos lectores lo reconstruyen a la vez,
+     * ambos indices son validos
+     */
+    private volatile Indexado<IndiceFechasNacimiento> indiceFechas;
+
+    /**
+     * El indice de nombres de alguna version, con la misma politica que el indice de fechas
+     */
+    private volatile Indexado<IndiceNombres> indiceNombres;
+
+    public VendedorRepositorioInstantaneas(VendedorRepositorio repositorio) {
+        this(repositorio, PoliticaGuardado.AGREGAR);
+    }
+
+    public VendedorRepositorioInstantaneas(VendedorRepositorio repositorio, PoliticaGuardado politica) {
+        this.repositorio = requireNonNull(repositorio);
+        this.politica = requireNonNull(politica);
+    }
+
+    /**
+     * Returna la version mas reciente de los vendedores, que es inmutable
+     *
+     * @return todos los vendedores, sin duplicados
+     */
+    @Override
+    public InstantaneaVendedores encontrarTodos() {
+        return instantanea();
+    }
+
+    /**
+     * Returna los vendedores del estado. Si el repositorio original aun no se ha cargado,
+     * se delegan a el; de lo contrario se filtra la version mas reciente
+     *
+     * @param estado el estado de residencia buscado
+     * @return los vendedores del estado, sin duplicados
+     */
+    @Override
+    public Set<Vendedor> encontrarPorEstado(String estado) {
+        return delegarSiNoCargado(() -> repositorio.encontrarPorEstado(estado))
+                .orElseGet(() -> VendedorRepositorio.super.encontrarPorEstado(estado));
+    }
+
+    /**
+     * Returna los vendedores de la version mas reciente que cumplen la consulta, en orden de insercion.
+     * Si la consulta filtra por estado o por fechas de nacimiento, solo se revisan los vendedores
+     * que el indice ubica en el rango, en O(log n + k log k). Si el repositorio original aun no
+     * se ha cargado, la consulta se delega a el
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los vendedores que cumplen la consulta, en una lista INMUTABLE
+     */
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        Optional<List<Vendedor>> delegada = delegarSiNoCargado(() -> repositorio.consultar(consulta));
+        if (delegada.isPresent()) {
+            return delegada.get();
+        }
+        InstantaneaVendedores instantanea = instantanea();
+        if (!ConsultasIndexadas.puedeUsarIndice(consulta)) {
+            return EjecutorConsultas.ejecutar(instantanea, consulta);
+        }
+        return ConsultasIndexadas.consultar(instantanea, indiceFechas(instantanea), consulta);
+    }
+
+    /**
+     * Returna el numero de vendedores de la version mas reciente que cumplen los filtros.
+     * Si la consulta solo filtra por estado y fechas de nacimiento, los vendedores indexados
+     * se cuentan con dos busquedas binarias, sin revisarlos
+     *
+     * @param consulta los filtros a evaluar
+     * @return el numero de vendedores que cumplen los filtros
+     */
+    @Override
+    public long contar(ConsultaVendedores consulta) {
+        InstantaneaVendedores instantanea = instantanea();
+        if (!ConsultasIndexadas.puedeUsarIndice(consulta)) {
+            return VendedorRepositorio.super.contar(consulta);
+        }
+        return ConsultasIndexadas.contar(instantanea, indiceFechas(instantanea), consulta);
+    }
+
+    /**
+     * Returna los vendedores de la version mas reciente cuyo nombre coincide con la busqueda.
+     * Solo se ordenan las primeras coincidencias que el indice de nombres encuentra,
+     * junto con las coincidencias de la cola
+     *
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los vendedores que coinciden, en una lista INMUTABLE
+     */
+    @Override
+    public List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        InstantaneaVendedores instantanea = instantanea();
+        return ConsultasIndexadas.buscarPorNombre(instantanea, indiceNombres(instantanea), busqueda);
+    }
+
+    /**
+     * Returna el primer vendedor con el id recibido, con el indice de ids de la version mas reciente
+     *
+     * @param id el id buscado
+     * @return el vendedor con el id, o un Optional vacio si no existe
+     */
+    @Override
+    public Optional<Vendedor> encontrarPorId(int id) {
+        return instantanea().vendedorPorId(id);
+    }
+
+    /**
+     * Persiste un objeto Vendedor en el repositorio original y publica
+     * la nueva version que lo incluye. Con REEMPLAZAR_POR_ID, el vendedor reemplaza
+     * al vendedor existente con su mismo id
+     *
+     * @param vendedor el vendedor a persistir
+     */
+    @Override
+    public void guardar(Vendedor vendedor) {
+        escritor.lock();
+        try {
+            InstantaneaVendedores anterior = instantanea();
+            repositorio.guardar(vendedor);
+            actual = politica == PoliticaGuardado.REEMPLAZAR_POR_ID
+                    ? anterior.reemplazarOAgregar(vendedor)
+                    : anterior.agregar(vendedor);
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Returna la version mas reciente. Solo la primera invocacion puede bloquearse,
+     * mientras se carga el repositorio original
+     *
+     * @return la version mas reciente
+     */
+    public InstantaneaVendedores instantanea() {
+        InstantaneaVendedores instantanea = actual;
+        return instantanea != null ? instantanea : cargar();
+    }
+
+    /**
+     * Returna un indice valido para la version, reconstruyendolo si no existe, si es de una version
+     * con otros reemplazos o si la cola de vendedores no indexados crecio demasiado
+     */
+    private IndiceFechasNacimiento indiceFechas(InstantaneaVendedores instantanea) {
+        Indexado<IndiceFechasNacimiento> indexado = indiceFechas;
+        if (indexado == null || !indexado.esValido(instantanea, indexado.indice().cubiertos())) {
+            indexado = new Indexado<>(IndiceFechasNacimiento.construir(instantanea.comoLista()),
+                    instantanea.reemplazos());
+            indiceFechas = indexado;
+        }
+        return indexado.indice();
+    }
+
+    /**
+     * Returna un indice de nombres valido para la version, con la misma politica que el indice de fechas
+     */
+    private IndiceNombres indiceNombres(InstantaneaVendedores instantanea) {
+        Indexado<IndiceNombres> indexado = indiceNombres;
+        if (indexado == null || !indexado.esValido(instantanea, indexado.indice().cubiertos())) {
+            indexado = new Indexado<>(IndiceNombres.construir(instantanea.comoLista()), instantanea.reemplazos());
+            indiceNombres = indexado;
+        }
+        return indexado.indice();
+    }
+
+    /**
+     * Un indice junto con el numero de reemplazos de la version sobre la que se construyo
+     */
+    private record Indexado<T>(T indice, long reemplazos) {
+
+        /**
+         * Returna si el indice puede usarse en la version: ninguna de las dos tiene reemplazos
+         * que la otra no tenga, y la cola de vendedores no indexados no es demasiado grande
+         */
+        boolean esValido(InstantaneaVendedores instantanea, int cubiertos) {
+            return reemplazos == instantanea.reemplazos()
+                    && ConsultasIndexadas.colaTolerable(instantanea.size(), cubiertos);
+        }
+    }
+
+    /**
+     * Resuelve la consulta con el repositorio original si aun no se ha cargado. Se ejecuta con el lock
+     * del escritor, ya que el repositorio original no es thread-safe
+     *
+     * @param consulta la consulta sobre el repositorio original
+     * @return el resultado de la consulta, o un Optional vacio si ya existe una version
+     */
+    private <T> Optional<T> delegarSiNoCargado(Supplier<T> consulta) {
+        if (actual != null) {
+            return Optional.empty();
+        }
+        escritor.lock();
+        try {
+            return actual == null ? Optional.of(consulta.get()) : Optional.empty();
+        } finally {
+            escritor.unlock();
+        }
+    }
+
+    /**
+     * Carga el repositorio original una sola vez y publica la version 0
+     */
+    private InstantaneaVendedores cargar() {
+        escritor.lock();
+        try {
+            if (actual == null) {
+                actual = InstantaneaVendedores.de(repositorio.encontrarTodos());
+            }
+            return actual;
+        } finally {
+            escritor.unlock();
+        }
+    }
+}
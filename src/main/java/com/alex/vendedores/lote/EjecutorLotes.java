@@ -0,0 +1,141 @@
+package com.alex.vendedores.lote;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta la carga y los reportes de muchos archivos de vendedores de forma concurrente,
+ * en una sola JVM, para pagar el arranque de la JVM y el calentamiento del JIT una sola vez por lote.
+ *
+ * <p>Cada archivo se procesa en su propio 'virtual thread'. Las etapas que realizan I/O, la carga
+ * y la escritura de los reportes, estan acotadas por un Semaphore: cada archivo obtiene un permiso antes
+ * de cargarse y lo conserva hasta terminar sus reportes, de modo que solo un numero limitado de archivos
+ * se lee, se reporta o tiene sus vendedores cargados en memoria a la vez, sin importar cuantos archivos
+ * tenga el lote. Un TrabajoArchivo no debe abrir archivos ni reservar buffers antes de obtener el permiso.
+ * El fallo de un archivo no detiene a los demas: queda registrado en su ResumenArchivo.
+ *
+ * @author Alex Angulo
+ */
+public final class EjecutorLotes {
+
+    /**
+     * Los permisos de los archivos que se estan cargando o reportando, con sus vendedores en memoria
+     */
+    private final Semaphore permisosIO;
+
+    /**
+     * Crea el TrabajoArchivo de cada archivo del lote
+     */
+    private final Function<Path, TrabajoArchivo> fabricaTrabajos;
+
+    /**
+     * @param concurrenciaIO el numero maximo de archivos que se cargan o se reportan a la vez,
+     *                       que es tambien el numero maximo de archivos con sus vendedores en memoria
+     * @param fabricaTrabajos crea el TrabajoArchivo de cada archivo
+     */
+    public EjecutorLotes(int concurrenciaIO, Function<Path, TrabajoArchivo> fabricaTrabajos) {
+        if (concurrenciaIO < 1) {
+            throw new IllegalArgumentException("La concurrencia de I/O debe ser al menos 1: " + concurrenciaIO);
+        }
+        this.permisosIO = new Semaphore(concurrenciaIO);
+        this.fabricaTrabajos = fabricaTrabajos;
+    }
+
+    /**
+     * Procesa todos los archivos y espera a que terminen
+     *
+     * @param archivos los archivos del lote
+     * @return el resumen de cada archivo, en el mismo orden que los archivos recibidos
+     * @throws InterruptedException si el hilo se interrumpe mientras espera
+     */
+    public List<ResumenArchivo> ejecutar(List<Path> archivos) throws InterruptedException {
+        List<Future<ResumenArchivo>> resultados = new ArrayList<>(archivos.size());
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Path archivo : archivos) {
+                resultados.add(hilos.submit(() -> procesar(archivo)));
+            }
+        }
+        List<ResumenArchivo> resumenes = new ArrayList<>(resultados.size());
+        for (Future<ResumenArchivo> resultado : resultados) {
+            try {
+                resumenes.add(resultado.get());
+            } catch (ExecutionException exception) {
+                throw new IllegalStateException(exception.getCause());
+            }
+        }
+        return resumenes;
+    }
+
+    /**
+     * Carga y reporta un archivo con un mismo permiso de I/O, capturando cualquier error en su resumen.
+     * Conservar el permiso entre ambas etapas evita que los archivos ya cargados esperen a reportarse
+     * detras de los que aun no se cargan, acumulando sus vendedores en memoria
+     *
+     * @param archivo el archivo a procesar
+     * @return el resumen del archivo
+     */
+    private ResumenArchivo procesar(Path archivo) {
+        long inicio = System.nanoTime();
+        TrabajoArchivo trabajo;
+        try {
+            trabajo = fabricaTrabajos.apply(archivo);
+        } catch (RuntimeException exception) {
+            return new ResumenArchivo(archivo, describir(exception), 0, 0, 0, 0, desde(inicio));
+        }
+
+        int vendedores = 0;
+        String error = null;
+        try (trabajo) {
+            vendedores = conPermisoIO(() -> {
+                int cargados = trabajo.cargar();
+                trabajo.reportar();
+                return cargados;
+            });
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            error = "Interrumpido";
+        } catch (RuntimeException exception) {
+            error = describir(exception);
+        }
+        return new ResumenArchivo(archivo, error, vendedores,
+                trabajo.contadores().aceptadas(),
+                trabajo.contadores().rechazadas(),
+                trabajo.contadores().duplicadas(),
+                desde(inicio));
+    }
+
+    /**
+     * Returna el tipo y el mensaje de la excepcion
+     */
+    private static String describir(RuntimeException exception) {
+        return exception.getClass().getSimpleName() + ": " + exception.getMessage();
+    }
+
+    /**
+     * Returna el tiempo transcurrido desde el instante recibido
+     */
+    private static Duration desde(long inicioNanos) {
+        return Duration.ofNanos(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Ejecuta las etapas cuando hay un permiso de I/O disponible
+     */
+    private <T> T conPermisoIO(Supplier<T> etapas) throws InterruptedException {
+        permisosIO.acquire();
+        try {
+            return etapas.get();
+        } finally {
+            permisosIO.release();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.alex.vendedores.lote;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static java.lang.String.format;
+
+/**
+ * El resultado del procesamiento de un archivo de un lote
+ *
+ * @param archivo el archivo procesado
+ * @param error el mensaje de error si el procesamiento fallo, o null si fue exitoso
+ * @param vendedores el numero de vendedores cargados, sin duplicados
+ * @param aceptadas el numero de filas aceptadas
+ * @param rechazadas el numero de filas rechazadas
+ * @param duplicadas el numero de vendedores duplicados descartados
+ * @param duracion el tiempo total de procesamiento, incluyendo la espera por un permiso de I/O
+ *
+ * @author Alex Angulo
+ */
+public record ResumenArchivo(Path archivo,
+                             String error,
+                             int vendedores,
+                             long aceptadas,
+                             long rechazadas,
+                             long duplicadas,
+                             Duration duracion) {
+
+    /**
+     * Returna si el archivo se proceso sin errores
+     *
+     * @return true si el procesamiento fue exitoso
+     */
+    public boolean exitoso() {
+        return error == null;
+    }
+
+    /**
+     * Returna el resumen como una fila de texto
+     *
+     * @return el resumen con formato de tabla
+     */
+    public String aFila() {
+        return format("%-40s %6s %10d %10d %10d %10d %10d ms %s",
+                archivo.getFileName(),
+                exitoso() ? "OK" : "ERROR",
+                vendedores,
+                aceptadas,
+                rechazadas,
+                duplicadas,
+                duracion.toMillis(),
+                exitoso() ? "" : error);
+    }
+}
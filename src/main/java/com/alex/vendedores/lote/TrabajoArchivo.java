@@ -0,0 +1,39 @@
+package com.alex.vendedores.lote;
+
+import com.alex.vendedores.csv.ContadoresIngesta;
+
+/**
+ * Interface que representa el procesamiento de un archivo de vendedores dentro de un lote:
+ * primero se cargan sus vendedores y despues se generan sus reportes.
+ * Al terminar, con o sin errores, se cierra para liberar sus recursos.
+ *
+ * @author Alex Angulo
+ */
+public interface TrabajoArchivo extends AutoCloseable {
+
+    /**
+     * Lee el archivo y carga sus vendedores en memoria. Es la etapa que realiza I/O
+     *
+     * @return el numero de vendedores cargados, sin duplicados
+     */
+    int cargar();
+
+    /**
+     * Genera y escribe los reportes del archivo, a partir de los vendedores ya cargados
+     */
+    void reportar();
+
+    /**
+     * Returna los contadores de filas aceptadas, rechazadas y duplicadas del archivo
+     *
+     * @return los contadores de ingesta del archivo
+     */
+    ContadoresIngesta contadores();
+
+    /**
+     * Libera los recursos del trabajo. Por defecto no hace nada
+     */
+    @Override
+    default void close() {
+    }
+}
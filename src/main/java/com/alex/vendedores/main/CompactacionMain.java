@@ -0,0 +1,38 @@
+package com.alex.vendedores.main;
+
+import com.alex.vendedores.csv.CompactadorCSV;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Clase main para compactar archivos CSV de vendedores, dejando solo la ultima fila valida de cada id.
+ *
+ * <p>Cada argumento es un archivo a compactar. Sin argumentos se compactan los fragmentos de FRAGMENTOS_INPUT,
+ * que son los unicos archivos que la aplicacion lee y en los que tambien guarda vendedores. Con un solo archivo
+ * de input, los vendedores se guardan en RUTA_ARCHIVO_OUTPUT, que la aplicacion no lee, y el archivo de input
+ * nunca se modifica, por lo que no hay un archivo por defecto y los archivos deben indicarse como argumentos.
+ * No debe ejecutarse mientras otra instancia de la aplicacion guarda vendedores en esos archivos.
+ *
+ * @author Alex Angulo
+ */
+public class CompactacionMain {
+
+    public static void main(String[] args) {
+        ConfiguracionApp configuracion = new ConfiguracionApp();
+        List<Path> archivos = args.length > 0
+                ? Arrays.stream(args).map(Paths::get).toList()
+                : configuracion.fragmentosGuardados();
+        if (archivos.isEmpty()) {
+            System.err.println("Indique los archivos a compactar, o defina VENDEDORES_FRAGMENTOS");
+            System.exit(2);
+        }
+        CompactadorCSV compactador = configuracion.compactador();
+        for (Path ruta : archivos) {
+            CompactadorCSV.Resumen resumen = compactador.compactar(ruta);
+            System.out.printf("%s: %d filas, %d vivas%n", ruta, resumen.filas(), resumen.vivas());
+        }
+    }
+}
@@ -3,20 +3,55 @@ package com.alex.vendedores.main;
 import com.alex.vendedores.applicacion.AplicacionVendedores;
 import com.alex.vendedores.applicacion.InterfazUsuario;
 import com.alex.vendedores.archivo.EscritorArchivo;
+import com.alex.vendedores.archivo.Fragmentos;
 import com.alex.vendedores.archivo.LectorArchivo;
 import com.alex.vendedores.archivo.Rutas;
+import com.alex.vendedores.archivo.SalidaBufferizada;
+import com.alex.vendedores.bitacora.BitacoraEscritura;
+import com.alex.vendedores.bitacora.VendedorRepositorioDurable;
+import com.alex.vendedores.cache.AlmacenReportes;
+import com.alex.vendedores.cache.GeneradorReportesCache;
+import com.alex.vendedores.cache.HuellaArchivo;
 import com.alex.vendedores.cli.CommandLineInterface;
 import com.alex.vendedores.cli.VendedorCLIFormatter;
-import com.alex.vendedores.dominio.Vendedor;
-import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.csv.BitacoraRechazos;
+import com.alex.vendedores.csv.CompactadorCSV;
+import com.alex.vendedores.csv.ContadoresIngesta;
+import com.alex.vendedores.csv.DestinoRechazos;
+import com.alex.vendedores.csv.EnrutadorFragmentos;
+import com.alex.vendedores.csv.EnrutadorPorEstado;
+import com.alex.vendedores.csv.EsquemaColumnas;
+import com.alex.vendedores.csv.EsquemasPorArchivo;
+import com.alex.vendedores.csv.LectorVendedores;
+import com.alex.vendedores.csv.LectorVendedoresBytes;
+import com.alex.vendedores.csv.MappersPorArchivo;
 import com.alex.vendedores.csv.SimpleVendedorMapper;
 import com.alex.vendedores.csv.VendedorMapper;
 import com.alex.vendedores.csv.VendedorRepositorioCSV;
+import com.alex.vendedores.csv.VendedorRepositorioCSVFragmentado;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.exportacion.InterfazBinaria;
+import com.alex.vendedores.exportacion.InterfazJsonLineas;
+import com.alex.vendedores.instantanea.ProyeccionVendedores;
+import com.alex.vendedores.instantanea.VendedorRepositorioInstantaneas;
+import com.alex.vendedores.metricas.Metricas;
+import com.alex.vendedores.servicio.GeneradorReportes;
+import com.alex.vendedores.servicio.SimpleGeneradorReportes;
 import com.alex.vendedores.servicio.SimpleVendedorServicio;
+import com.alex.vendedores.servicio.VendedorServicioCQRS;
 import com.alex.vendedores.servicio.VendedorServicio;
+import com.alex.vendedores.servidor.ServidorVendedores;
+import com.alex.vendedores.servidor.VendedorJsonFormatter;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -30,10 +65,78 @@ import java.util.function.Supplier;
  *
  *  <p> Esta clase es una implementacion manual de un ´Inversion Of Control Container´
  *
+ *  <p> Cada instancia configura una aplicacion independiente, con su propio repositorio,
+ *  contadores e interfaz de usuario, por lo que pueden procesarse varios archivos a la vez
+ *  en la misma JVM con una instancia por archivo. Una instancia no es thread-safe.
+ *
  * @author Alex Angulo
  */
 final class ConfiguracionApp {
 
+    /**
+     * El FORMATO_SALIDA de tablas de texto, el unico que solicita datos al usuario
+     */
+    private static final String FORMATO_TABLA = "tabla";
+
+    /**
+     * Los contadores de ingesta compartidos por el lector y el repositorio de esta aplicacion
+     */
+    private final ContadoresIngesta contadoresIngesta = new ContadoresIngesta();
+
+    /**
+     * El archivo de input, que se ignora si hay fragmentos de input
+     */
+    private final String archivoInput;
+
+    /**
+     * El directorio o patron glob de los fragmentos de input, o null si se utiliza un solo archivo
+     */
+    private final String fragmentosInput;
+
+    /**
+     * La salida donde la interfaz de usuario muestra los reportes
+     */
+    private final Supplier<SalidaBufferizada> salida;
+
+    /**
+     * Si la aplicacion procesa un archivo de un lote: entonces solo lee sus archivos CSV, sin bitacora
+     * ni CQRS, y muestra los reportes en tablas de texto, sin importar las variables de entorno
+     */
+    private final boolean deLote;
+
+    /**
+     * El servicio de esta aplicacion. Su inicializacion es de tipo 'lazy'
+     */
+    private VendedorServicio vendedorServicio;
+
+    /**
+     * Configura la aplicacion con el input de las variables de entorno y la salida estandar
+     */
+    ConfiguracionApp() {
+        this.archivoInput = VariablesDeEntorno.NOMBRE_ARCHIVO_INPUT;
+        this.fragmentosInput = VariablesDeEntorno.FRAGMENTOS_INPUT;
+        SalidaBufferizada consola = SalidaBufferizada.consola();
+        this.salida = () -> consola;
+        this.deLote = false;
+    }
+
+    /**
+     * Configura la aplicacion para un archivo de un lote, ignorando FRAGMENTOS_INPUT.
+     *
+     * <p>Los archivos de un lote solo se leen y se reportan, por lo que se ignoran DIRECTORIO_BITACORA
+     * y CQRS: ni se abre la bitacora compartida ni sus vendedores guardados se agregan al reporte de cada archivo.
+     * Los reportes son archivos de texto, por lo que tambien se ignora FORMATO_SALIDA.
+     *
+     * @param archivoInput el archivo de input, con cualquier forma aceptada por 'Rutas.resolverRuta'
+     * @param salida provee la salida donde se muestran los reportes, hasta que se monta la aplicacion
+     */
+    ConfiguracionApp(String archivoInput, Supplier<SalidaBufferizada> salida) {
+        this.archivoInput = archivoInput;
+        this.fragmentosInput = null;
+        this.salida = salida;
+        this.deLote = true;
+    }
+
     /**
      * Genera una nueva aplicacion, inyectando las dependencias
      * previamente configuradas en esta clase
@@ -41,25 +144,193 @@ final class ConfiguracionApp {
      * @return Una nueva AplicacionVendedores con sus dependencias inyectadas
      */
     public AplicacionVendedores montarAplicacion() {
-        return new AplicacionVendedores(vendedorServicio(),output());
+        return new AplicacionVendedores(vendedorServicio(), generadorReportes(), output());
+    }
+
+    /**
+     * Genera una nueva aplicacion que solicita datos al usuario. Solo la salida 'tabla' los solicita;
+     * 'jsonl' y 'binario' son salidas para otros procesos
+     *
+     * @return Una nueva AplicacionVendedores con sus dependencias inyectadas
+     * @throws IllegalArgumentException si FORMATO_SALIDA no es 'tabla'
+     */
+    public AplicacionVendedores montarAplicacionInteractiva() {
+        if (!FORMATO_TABLA.equals(formatoSalida())) {
+            throw new IllegalArgumentException("El formato de salida " + formatoSalida()
+                    + " no solicita vendedores; utilice VENDEDORES_FORMATO_SALIDA=" + FORMATO_TABLA);
+        }
+        return montarAplicacion();
+    }
+
+    /**
+     * Returna el generador de los reportes de la aplicacion.
+     *
+     * <p>Si DIRECTORIO_CACHE_REPORTES esta definido y el input es un solo archivo sin bitacora,
+     * los reportes se conservan entre ejecuciones y solo se calculan de nuevo si cambia el archivo,
+     * su archivo '.esquema' o la configuracion con que se lee. Con fragmentos o bitacora el input
+     * es mas que un archivo, por lo que los reportes se calculan siempre.
+     *
+     * @return el generador de reportes, con cache si asi fue configurado
+     */
+    private GeneradorReportes generadorReportes() {
+        GeneradorReportes generador = new SimpleGeneradorReportes(vendedorServicio());
+        if (VariablesDeEntorno.DIRECTORIO_CACHE_REPORTES == null || fragmentosInput != null || conBitacora()) {
+            return generador;
+        }
+        return new GeneradorReportesCache(generador,
+                new AlmacenReportes(Paths.get(VariablesDeEntorno.DIRECTORIO_CACHE_REPORTES),
+                        VariablesDeEntorno.BYTES_MAXIMOS_CACHE_REPORTES),
+                this::huellaInput, LocalDate::now);
+    }
+
+    /**
+     * Returna la huella de todo lo que determina los vendedores leidos: el archivo de input,
+     * su archivo '.esquema' si existe, el patron de fechas y la politica de guardado
+     *
+     * @return la huella del input
+     */
+    private String huellaInput() {
+        Path archivo = proveedorPath().get();
+        Path esquema = EsquemasPorArchivo.archivoDeEsquema(archivo);
+        return String.join("|",
+                HuellaArchivo.calcular(archivo).toString(),
+                Files.isRegularFile(esquema) ? HuellaArchivo.calcular(esquema).toString() : "-",
+                VariablesDeEntorno.PATRON_FECHA,
+                VariablesDeEntorno.POLITICA_GUARDADO.name());
     }
 
     /**
-     * Returna la implementacion de la interface VendedorServicio a utilizar
+     * Genera un nuevo servidor HTTP, inyectando las dependencias
+     * previamente configuradas en esta clase
+     *
+     * @return Un nuevo ServidorVendedores, sin iniciar
+     * @throws IOException si no se pudo abrir el puerto del servidor
+     */
+    public ServidorVendedores montarServidor() throws IOException {
+        return new ServidorVendedores(
+                vendedorServicio(),
+                new VendedorJsonFormatter(),
+                new InetSocketAddress(VariablesDeEntorno.PUERTO_SERVIDOR),
+                VariablesDeEntorno.HILOS_SERVIDOR);
+    }
+
+    /**
+     * Returna la implementacion de la interface VendedorServicio a utilizar.
+     * Todas las invocaciones de una misma instancia returnan el mismo servicio
      *
      * @return la implementacion de la interface VendedorServicio a utilizar
      */
     public VendedorServicio vendedorServicio() {
-        return new SimpleVendedorServicio(vendedorRepositorio());
+        if (vendedorServicio == null) {
+            vendedorServicio = VariablesDeEntorno.CQRS && !deLote
+                    ? servicioCQRS()
+                    : new SimpleVendedorServicio(vendedorRepositorio());
+        }
+        return vendedorServicio;
+    }
+
+    /**
+     * Returna el servicio que separa las escrituras de las lecturas.
+     *
+     * <p>El modelo de escritura es un VendedorRepositorioDurable que agrega los vendedores guardados
+     * a la bitacora de DIRECTORIO_BITACORA. El modelo de lectura es una ProyeccionVendedores de los
+     * archivos CSV, que el repositorio durable actualiza con cada vendedor guardado. Los vendedores
+     * de ejecuciones anteriores se recuperan aqui, y se espera a que sean visibles antes de la primera consulta.
+     *
+     * <p>El retraso del modelo de lectura se registra en los indicadores 'proyeccion.cambiosPendientes'
+     * y 'proyeccion.antiguedadNs' de Metricas, que el servidor muestra en /metricas.
+     *
+     * @return el servicio CQRS
+     * @throws IllegalStateException si DIRECTORIO_BITACORA no esta definido, o si la proyeccion se detiene
+     *         al aplicar los vendedores recuperados
+     */
+    private VendedorServicio servicioCQRS() {
+        if (VariablesDeEntorno.DIRECTORIO_BITACORA == null) {
+            throw new IllegalStateException("VENDEDORES_CQRS requiere definir VENDEDORES_BITACORA");
+        }
+        ProyeccionVendedores lectura = new ProyeccionVendedores(repositorioCSV(false),
+                VariablesDeEntorno.POLITICA_GUARDADO);
+        VendedorRepositorioDurable escritura = new VendedorRepositorioDurable(lectura,
+                new BitacoraEscritura(Paths.get(VariablesDeEntorno.DIRECTORIO_BITACORA)),
+                VariablesDeEntorno.POLITICA_GUARDADO);
+        escritura.recuperar();
+        try {
+            lectura.esperarAlDia();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        VendedorServicioCQRS servicio = new VendedorServicioCQRS(escritura, lectura);
+        Metricas.indicador("proyeccion.cambiosPendientes", () -> servicio.retraso().cambiosPendientes());
+        Metricas.indicador("proyeccion.antiguedadNs", () -> servicio.retraso().antiguedad().toNanos());
+        return servicio;
     }
 
     /**
-     * Returna la implementacion de la interface VendedorRepositorio a utilizar
+     * Returna la implementacion de la interface VendedorRepositorio a utilizar.
+     *
+     * <p>El repositorio CSV se envuelve con instantaneas inmutables, para que los
+     * reportes puedan generarse mientras otro hilo guarda vendedores.
+     *
+     * <p>Si DIRECTORIO_BITACORA esta definido, los vendedores guardados se persisten en una bitacora
+     * de escritura anticipada en lugar de agregarse a los archivos CSV, que solo se leen.
      *
      * @return la implementacion de la interface VendedorRepositorio a utilizar
      */
     VendedorRepositorio vendedorRepositorio() {
-        return new VendedorRepositorioCSV(mapper(), proveedorPath(), lectorArchivo(), escritorArchivo());
+        if (conBitacora()) {
+            VendedorRepositorio memoria = new VendedorRepositorioInstantaneas(
+                    repositorioCSV(false), VariablesDeEntorno.POLITICA_GUARDADO);
+            return new VendedorRepositorioDurable(memoria,
+                    new BitacoraEscritura(Paths.get(VariablesDeEntorno.DIRECTORIO_BITACORA)),
+                    VariablesDeEntorno.POLITICA_GUARDADO);
+        }
+        return new VendedorRepositorioInstantaneas(repositorioCSV(!deLote), VariablesDeEntorno.POLITICA_GUARDADO);
+    }
+
+    /**
+     * Returna si los vendedores guardados se persisten en la bitacora de DIRECTORIO_BITACORA.
+     * Los archivos de un lote nunca la usan
+     */
+    private boolean conBitacora() {
+        return VariablesDeEntorno.DIRECTORIO_BITACORA != null && !deLote;
+    }
+
+    /**
+     * Returna el repositorio que lee y escribe los archivos CSV
+     *
+     * @param escribirGuardados si los vendedores guardados se agregan a los archivos CSV
+     * @return el repositorio de fragmentos si asi fue configurado, de lo contrario el de un solo archivo
+     */
+    private VendedorRepositorio repositorioCSV(boolean escribirGuardados) {
+        if (fragmentosInput != null) {
+            return new VendedorRepositorioCSVFragmentado(
+                    new MappersPorArchivo(new EsquemasPorArchivo(esquema())), proveedorFragmentos(), lectorVendedores(),
+                    escribirGuardados ? escritorFragmentos() : (linea, fragmento) -> { },
+                    enrutador(), contadoresIngesta, VariablesDeEntorno.POLITICA_GUARDADO);
+        }
+        return new VendedorRepositorioCSV(mapper(), proveedorPath(), lectorVendedores(),
+                escribirGuardados ? escritorArchivo() : linea -> { },
+                contadoresIngesta, VariablesDeEntorno.POLITICA_GUARDADO);
+    }
+
+    /**
+     * Returna el compactador de archivos CSV, que valida las filas con el mismo mapper que la aplicacion
+     *
+     * @return el compactador de archivos CSV
+     */
+    CompactadorCSV compactador() {
+        return new CompactadorCSV(mapper());
+    }
+
+    /**
+     * Returna los archivos que la aplicacion lee y en los que tambien guarda vendedores, si no hay bitacora:
+     * los fragmentos de FRAGMENTOS_INPUT. Con un solo archivo de input no hay ninguno, ya que los vendedores
+     * se guardan en RUTA_ARCHIVO_OUTPUT, que no se lee
+     *
+     * @return los fragmentos de input, o una lista vacia si el input es un solo archivo
+     */
+    List<Path> fragmentosGuardados() {
+        return fragmentosInput != null ? proveedorFragmentos().get() : List.of();
     }
 
     /**
@@ -72,13 +343,46 @@ final class ConfiguracionApp {
         return lineas -> new EscritorArchivo().escribirLinea(lineas, VariablesDeEntorno.RUTA_ARCHIVO_OUTPUT);
     }
 
+    /**
+     * Returna la implementacion del BiConsumer que encapsula
+     * el algoritmo para persistir los objetos Vendedor en el fragmento indicado
+     *
+     * @return el BiConsumer que persiste una linea en el fragmento indicado
+     */
+    private BiConsumer<String, Path> escritorFragmentos() {
+        return (linea, fragmento) -> new EscritorArchivo().escribirLinea(linea, fragmento.toString());
+    }
+
+    /**
+     * Returna el enrutador que decide en cual fragmento se guarda cada Vendedor
+     *
+     * @return el enrutador por estado si asi fue configurado,
+     *         de lo contrario uno que escribe siempre en RUTA_ARCHIVO_OUTPUT
+     */
+    private EnrutadorFragmentos enrutador() {
+        if (VariablesDeEntorno.ENRUTAR_POR_ESTADO) {
+            return new EnrutadorPorEstado(new Fragmentos().directorioBase(fragmentosInput));
+        }
+        return EnrutadorFragmentos.fijo(Paths.get(VariablesDeEntorno.RUTA_ARCHIVO_OUTPUT));
+    }
+
     /**
      * Returna la implementacion de la interface VendedorMapper a utilizar
      *
      * @return la implementacion de la interface VendedorMapper a utilizar
      */
     private VendedorMapper mapper() {
-        return new SimpleVendedorMapper();
+        return new SimpleVendedorMapper(esquema());
+    }
+
+    /**
+     * Returna el esquema de columnas de los archivos sin archivo de esquema propio,
+     * con el patron de fechas de PATRON_FECHA
+     *
+     * @return el esquema base de la aplicacion
+     */
+    private EsquemaColumnas esquema() {
+        return EsquemaColumnas.POR_DEFECTO.conPatronFecha(VariablesDeEntorno.PATRON_FECHA);
     }
 
     /**
@@ -88,26 +392,76 @@ final class ConfiguracionApp {
      * @return El Supplier que provee la abstraccion del archivo requerido
      */
     private Supplier<Path> proveedorPath() {
-        return () -> new Rutas().resolverRuta(VariablesDeEntorno.NOMBRE_ARCHIVO_INPUT);
+        return () -> new Rutas().resolverRuta(archivoInput);
+    }
+
+    /**
+     * Returna la implementacion del Supplier que provee los archivos de todos los fragmentos
+     *
+     * @return El Supplier que provee los fragmentos del directorio o patron configurado
+     */
+    private Supplier<List<Path>> proveedorFragmentos() {
+        return () -> new Fragmentos().resolver(fragmentosInput);
     }
 
     /**
-     * Returna la implementacion de la Function que encapsula el algoritmo para
-     * leer un archivo y returnar las lineas que contiene el mismo
+     * Returna la implementacion de la interface LectorVendedores que encapsula el algoritmo para
+     * leer un archivo y obtener los objetos Vendedor que contiene.
      *
-     * @return La Function que toma la abstraccion de un archivo y returna las lineas que contiene
+     * <p>Se lee directamente de los bytes del archivo, sin decodificar cada linea a String.
+     * Cada archivo se lee con el esquema de su archivo '.esquema', o con el esquema base.
+     * Las filas rechazadas se escriben en la BitacoraRechazos.
+     *
+     * @return El LectorVendedores que toma la abstraccion de un archivo y entrega sus objetos Vendedor
+     */
+    private LectorVendedores lectorVendedores() {
+        return new LectorVendedoresBytes(new LectorArchivo()::leerBloques, new EsquemasPorArchivo(esquema()),
+                contadoresIngesta, destinoRechazos());
+    }
+
+    /**
+     * Returna el destino de las filas rechazadas durante la lectura de los archivos
+     *
+     * @return la BitacoraRechazos que escribe un archivo de rechazos por cada archivo leido
      */
-    private Function<Path, List<String>> lectorArchivo() {
-        return new LectorArchivo()::leer;
+    private DestinoRechazos destinoRechazos() {
+        return new BitacoraRechazos(Paths.get(VariablesDeEntorno.DIRECTORIO_RECHAZOS));
     }
 
     /**
-     * Returna la implementacion que va a dirigir el output del programa al dispositivo de salida deseado
+     * Returna los contadores de filas aceptadas, rechazadas y duplicadas de esta aplicacion
+     *
+     * @return los contadores de ingesta
+     */
+    ContadoresIngesta contadoresIngesta() {
+        return contadoresIngesta;
+    }
+
+    /**
+     * Returna la implementacion que va a dirigir el output del programa al dispositivo de salida deseado,
+     * segun FORMATO_SALIDA: tablas de texto, JSON Lines o binario
      *
      * @return El objeto que abstrae el output del programa
+     * @throws IllegalArgumentException si FORMATO_SALIDA no es un formato conocido
      */
     public InterfazUsuario output() {
-        return new CommandLineInterface(formatter());
+        switch (formatoSalida()) {
+            case FORMATO_TABLA:
+                return new CommandLineInterface(formatter(), salida.get());
+            case "jsonl":
+                return new InterfazJsonLineas(new VendedorJsonFormatter(), salida.get());
+            case "binario":
+                return new InterfazBinaria(salida.get());
+            default:
+                throw new IllegalArgumentException("Formato de salida desconocido: " + VariablesDeEntorno.FORMATO_SALIDA);
+        }
+    }
+
+    /**
+     * Returna el formato de salida: FORMATO_SALIDA, o tablas de texto para los archivos de un lote
+     */
+    private String formatoSalida() {
+        return deLote ? FORMATO_TABLA : VariablesDeEntorno.FORMATO_SALIDA;
     }
 
     /**
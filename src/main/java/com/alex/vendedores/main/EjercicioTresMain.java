@@ -17,7 +17,7 @@ import com.alex.vendedores.applicacion.AplicacionVendedores;
 public class EjercicioTresMain {
     public static void main(String[] args) {
         var configuracion = new ConfiguracionApp();
-        AplicacionVendedores app = configuracion.montarAplicacion();
+        AplicacionVendedores app = configuracion.montarAplicacionInteractiva();
         app.solicitarVendedorParaGuardarlo();
         System.out.printf
                 ("Se guardo la informacion del vendedor en el archivo %s", VariablesDeEntorno.RUTA_ARCHIVO_OUTPUT);
@@ -0,0 +1,56 @@
+package com.alex.vendedores.main;
+
+import com.alex.vendedores.archivo.Fragmentos;
+import com.alex.vendedores.lote.EjecutorLotes;
+import com.alex.vendedores.lote.ResumenArchivo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase main para procesar un lote de archivos de vendedores en una sola JVM.
+ *
+ * <p>Cada argumento es un archivo CSV, un directorio o un patron glob. Los reportes de cada archivo
+ * se escriben en VENDEDORES_LOTE_REPORTES y al final se muestra el resumen de cada archivo.
+ * Si algun archivo falla, el programa termina con codigo de salida 1.
+ *
+ * @author Alex Angulo
+ */
+public class LoteMain {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path directorioReportes = Files.createDirectories(Paths.get(VariablesDeEntorno.DIRECTORIO_REPORTES_LOTE));
+        EjecutorLotes ejecutor = new EjecutorLotes(
+                VariablesDeEntorno.CONCURRENCIA_IO_LOTE,
+                archivo -> new TrabajoArchivoApp(archivo, directorioReportes));
+
+        List<ResumenArchivo> resumenes = ejecutor.ejecutar(archivos(args));
+
+        System.out.printf("%-40s %6s %10s %10s %10s %10s %13s%n",
+                "Archivo", "Estado", "Vendedores", "Aceptadas", "Rechazadas", "Duplicadas", "Duracion");
+        resumenes.forEach(resumen -> System.out.println(resumen.aFila()));
+        if (!resumenes.stream().allMatch(ResumenArchivo::exitoso)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returna los archivos de todos los argumentos, expandiendo los directorios y patrones glob
+     */
+    private static List<Path> archivos(String[] args) {
+        List<Path> archivos = new ArrayList<>();
+        Fragmentos fragmentos = new Fragmentos();
+        for (String argumento : args) {
+            if (Files.isRegularFile(Paths.get(argumento))) {
+                archivos.add(Paths.get(argumento));
+            } else {
+                archivos.addAll(fragmentos.resolver(argumento));
+            }
+        }
+        return archivos;
+    }
+}
@@ -0,0 +1,20 @@
+package com.alex.vendedores.main;
+
+import com.alex.vendedores.servidor.ServidorVendedores;
+
+/**
+ * Clase main para ejecutar la aplicacion como un servidor HTTP residente
+ *
+ * @author Alex Angulo
+ */
+public class ServidorMain {
+
+    public static void main(String[] args) throws Exception {
+        var configuracion = new ConfiguracionApp();
+        ServidorVendedores servidor = configuracion.montarServidor();
+        servidor.iniciar();
+        System.out.println("Servidor de vendedores escuchando en " + servidor.direccion());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> servidor.detener(1)));
+    }
+
+}
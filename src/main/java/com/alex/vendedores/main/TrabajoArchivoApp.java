@@ -0,0 +1,95 @@
+package com.alex.vendedores.main;
+
+import com.alex.vendedores.applicacion.AplicacionVendedores;
+import com.alex.vendedores.archivo.Rutas;
+import com.alex.vendedores.archivo.SalidaBufferizada;
+import com.alex.vendedores.csv.ContadoresIngesta;
+import com.alex.vendedores.lote.TrabajoArchivo;
+
+import java.nio.file.Path;
+
+/**
+ * Implementacion de TrabajoArchivo que procesa un archivo con su propia ConfiguracionApp de lote,
+ * que solo lee el archivo, sin bitacora ni CQRS, y escribe sus reportes en tablas de texto en '[directorio de reportes]/[archivo].reporte.txt', donde '[archivo]'
+ * es el nombre de Rutas.nombreUnico, para que los archivos homonimos de distintos directorios
+ * no sobrescriban el reporte del otro.
+ *
+ * <p>El archivo de reporte se abre hasta que se monta la aplicacion en 'reportar' y se cierra al terminar
+ * los reportes, por lo que un lote solo tiene abiertos los reportes de los archivos que se reportan a la vez.
+ *
+ * @author Alex Angulo
+ */
+final class TrabajoArchivoApp implements TrabajoArchivo {
+
+    private static final String SUFIJO_REPORTE = ".reporte.txt";
+
+    /**
+     * El tamanio del buffer de cada reporte, en bytes. Es menor que el de la consola,
+     * ya que un lote puede escribir varios reportes a la vez
+     */
+    private static final int CAPACIDAD_REPORTE = 64 * 1024;
+
+    private final Path archivo;
+    private final Path reporte;
+    private final ConfiguracionApp configuracion;
+
+    /**
+     * La salida al archivo de reporte, o null si no esta abierta
+     */
+    private SalidaBufferizada salida;
+
+    /**
+     * @param archivo el archivo de vendedores a procesar
+     * @param directorioReportes el directorio donde se escribe el reporte del archivo
+     */
+    TrabajoArchivoApp(Path archivo, Path directorioReportes) {
+        this.archivo = archivo;
+        this.reporte = directorioReportes.resolve(Rutas.nombreUnico(archivo) + SUFIJO_REPORTE);
+        this.configuracion = new ConfiguracionApp(archivo.toString(), this::abrirReporte);
+    }
+
+    @Override
+    public int cargar() {
+        return configuracion.vendedorServicio().encontrarTodos().size();
+    }
+
+    /**
+     * Escribe el reporte general y el de edad promedio por zona en el archivo de reporte, y lo cierra
+     */
+    @Override
+    public void reportar() {
+        try {
+            AplicacionVendedores app = configuracion.montarAplicacion();
+            app.procesarReporteGeneral();
+            app.reportarPromedioDeEdadesPorZona();
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public ContadoresIngesta contadores() {
+        return configuracion.contadoresIngesta();
+    }
+
+    /**
+     * Cierra el archivo de reporte, si esta abierto
+     */
+    @Override
+    public void close() {
+        if (salida != null) {
+            SalidaBufferizada abierta = salida;
+            salida = null;
+            abierta.close();
+        }
+    }
+
+    /**
+     * Abre el archivo de reporte
+     */
+    private SalidaBufferizada abrirReporte() {
+        close();
+        salida = SalidaBufferizada.archivo(reporte, CAPACIDAD_REPORTE);
+        return salida;
+    }
+}
@@ -1,5 +1,7 @@
 package com.alex.vendedores.main;
 
+import com.alex.vendedores.dominio.PoliticaGuardado;
+
 /**
  * Clase utilitaria para almacenar las variables de entorno de la app
  *
@@ -7,13 +9,113 @@ package com.alex.vendedores.main;
  */
 final class VariablesDeEntorno {
     /**
-     * El nombre y extension del archivo de input a utilizar en la app
+     * El archivo de input a utilizar en la app. Puede ser una ruta del sistema de archivos,
+     * una URI 'jar:' o el nombre de un recurso del classpath. Por defecto es 'vendors.csv'
+     */
+    static final String NOMBRE_ARCHIVO_INPUT = valorOPorDefecto("VENDEDORES_ARCHIVO_INPUT", "vendors.csv");
+
+    /**
+     * El patron de las fechas de nacimiento de los archivos CSV que no tienen un archivo '.esquema' propio,
+     * y de los vendedores guardados. Por defecto es 'mm/dd/yyyy'
      */
-    static final String NOMBRE_ARCHIVO_INPUT = "vendors.csv";
+    static final String PATRON_FECHA = valorOPorDefecto("VENDEDORES_PATRON_FECHA", "mm/dd/yyyy");
 
     /**
      * El nombre y extension del archivo de output que va a generar la app
      */
     static final String RUTA_ARCHIVO_OUTPUT = "src/main/resources/vendedores-guardados.csv";
 
+    /**
+     * El directorio donde se escriben los archivos de filas rechazadas de cada archivo de input.
+     * Por defecto es el directorio de RUTA_ARCHIVO_OUTPUT
+     */
+    static final String DIRECTORIO_RECHAZOS = valorOPorDefecto("VENDEDORES_DIRECTORIO_RECHAZOS", "src/main/resources");
+
+    /**
+     * Directorio o patron glob con los fragmentos CSV a utilizar como input,
+     * por ejemplo 'datos/vendedores/*.csv'. Si no esta definido se utiliza NOMBRE_ARCHIVO_INPUT
+     */
+    static final String FRAGMENTOS_INPUT = System.getenv("VENDEDORES_FRAGMENTOS");
+
+    /**
+     * Indica si los vendedores guardados se escriben en el fragmento de su estado
+     * en lugar de escribirse en RUTA_ARCHIVO_OUTPUT
+     */
+    static final boolean ENRUTAR_POR_ESTADO = Boolean.parseBoolean(System.getenv("VENDEDORES_ENRUTAR_POR_ESTADO"));
+
+    /**
+     * Como se resuelven los vendedores guardados con un id existente. Si la variable
+     * VENDEDORES_UPSERT es 'true', el ultimo vendedor guardado de cada id reemplaza a los anteriores
+     */
+    static final PoliticaGuardado POLITICA_GUARDADO = Boolean.parseBoolean(System.getenv("VENDEDORES_UPSERT"))
+            ? PoliticaGuardado.REEMPLAZAR_POR_ID
+            : PoliticaGuardado.AGREGAR;
+
+    /**
+     * El directorio de la bitacora de escritura anticipada. Si esta definido, los vendedores guardados
+     * se persisten en la bitacora, con un fsync compartido por las escrituras concurrentes,
+     * en lugar de agregarse a RUTA_ARCHIVO_OUTPUT
+     */
+    static final String DIRECTORIO_BITACORA = System.getenv("VENDEDORES_BITACORA");
+
+    /**
+     * Indica si el servicio separa las escrituras de las lecturas (CQRS): los vendedores guardados
+     * se persisten en la bitacora de DIRECTORIO_BITACORA, que es obligatorio, y las consultas se responden
+     * con una proyeccion indexada que se actualiza en segundo plano
+     */
+    static final boolean CQRS = Boolean.parseBoolean(System.getenv("VENDEDORES_CQRS"));
+
+    /**
+     * El formato en que se muestran los reportes: 'tabla' (por defecto) para personas,
+     * o 'jsonl' (JSON Lines) y 'binario' para otros procesos
+     */
+    static final String FORMATO_SALIDA = valorOPorDefecto("VENDEDORES_FORMATO_SALIDA", "tabla");
+
+    /**
+     * El puerto donde escucha el servidor HTTP. Por defecto es 8080
+     */
+    static final int PUERTO_SERVIDOR = Integer.parseInt(valorOPorDefecto("VENDEDORES_PUERTO", "8080"));
+
+    /**
+     * El numero de hilos que atienden las peticiones del servidor HTTP.
+     * Por defecto es el doble del numero de procesadores
+     */
+    static final int HILOS_SERVIDOR = Integer.parseInt(valorOPorDefecto(
+            "VENDEDORES_HILOS_SERVIDOR", String.valueOf(Runtime.getRuntime().availableProcessors() * 2)));
+
+    /**
+     * El directorio donde LoteMain escribe los reportes de cada archivo. Por defecto es 'reportes'
+     */
+    static final String DIRECTORIO_REPORTES_LOTE = valorOPorDefecto("VENDEDORES_LOTE_REPORTES", "reportes");
+
+    /**
+     * El numero maximo de archivos que LoteMain lee a la vez. Por defecto es 8
+     */
+    static final int CONCURRENCIA_IO_LOTE = Integer.parseInt(valorOPorDefecto("VENDEDORES_LOTE_CONCURRENCIA_IO", "8"));
+
+    /**
+     * El directorio donde se conservan los reportes entre ejecuciones, para no volver a calcularlos
+     * mientras el archivo de input no cambie. Si no esta definido, los reportes se calculan siempre
+     */
+    static final String DIRECTORIO_CACHE_REPORTES = System.getenv("VENDEDORES_CACHE_REPORTES");
+
+    /**
+     * El maximo de bytes que ocupan los reportes de DIRECTORIO_CACHE_REPORTES; al excederlo se eliminan
+     * los usados menos recientemente. Por defecto es 256 MB
+     */
+    static final long BYTES_MAXIMOS_CACHE_REPORTES = Long.parseLong(valorOPorDefecto(
+            "VENDEDORES_CACHE_REPORTES_MAX_BYTES", String.valueOf(256L << 20)));
+
+    /**
+     * Returna el valor de la variable de entorno, o el valor por defecto si no esta definida
+     *
+     * @param variable el nombre de la variable de entorno
+     * @param porDefecto el valor a utilizar si la variable no esta definida
+     * @return el valor de la variable o el valor por defecto
+     */
+    private static String valorOPorDefecto(String variable, String porDefecto) {
+        String valor = System.getenv(variable);
+        return valor == null ? porDefecto : valor;
+    }
+
 }
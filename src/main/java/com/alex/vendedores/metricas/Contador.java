@@ -0,0 +1,44 @@
+package com.alex.vendedores.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador monotonico de eventos o cantidades, por ejemplo bytes leidos o filas aceptadas.
+ *
+ * <p>Es thread-safe y apto para el 'hot path': utiliza un LongAdder,
+ * por lo que varios hilos pueden sumar sin competir por la misma variable.
+ *
+ * @author Alex Angulo
+ */
+public final class Contador {
+
+    private final LongAdder valor = new LongAdder();
+
+    Contador() {
+    }
+
+    /**
+     * Suma una cantidad al contador
+     *
+     * @param cantidad la cantidad a sumar
+     */
+    public void sumar(long cantidad) {
+        valor.add(cantidad);
+    }
+
+    /**
+     * Suma 1 al contador
+     */
+    public void incrementar() {
+        valor.increment();
+    }
+
+    /**
+     * Returna el valor acumulado
+     *
+     * @return el valor acumulado
+     */
+    public long valor() {
+        return valor.sum();
+    }
+}
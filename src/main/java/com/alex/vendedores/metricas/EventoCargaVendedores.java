@@ -0,0 +1,43 @@
+package com.alex.vendedores.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada carga de un archivo CSV de vendedores.
+ *
+ * <p>Su duracion cubre la lectura, el parseo y la eliminacion de duplicados, por lo que
+ * una carga lenta puede correlacionarse con la actividad de GC y de I/O de la misma grabacion.
+ * Cuando JFR no esta grabando, 'shouldCommit' returna false y los campos no se calculan.
+ *
+ * @author Alex Angulo
+ */
+@Name("com.alex.vendedores.CargaVendedores")
+@Label("Carga de Vendedores")
+@Category("Vendedores")
+@Description("Lectura de un archivo CSV de vendedores hacia la memoria del repositorio")
+@StackTrace(false)
+public final class EventoCargaVendedores extends jdk.jfr.Event {
+
+    @Label("Archivo")
+    public String archivo;
+
+    @Label("Tamanio")
+    @DataAmount
+    public long tamanio;
+
+    @Label("Vendedores leidos")
+    @Description("Filas aceptadas por el lector, incluyendo duplicados")
+    public long vendedoresLeidos;
+
+    @Label("Duplicados")
+    @Description("Vendedores descartados por ser identicos a uno ya leido")
+    public long duplicados;
+
+    @Label("Filas rechazadas")
+    public long filasRechazadas;
+}
@@ -0,0 +1,28 @@
+package com.alex.vendedores.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada escritura de vendedores en un archivo.
+ *
+ * <p>Permite correlacionar las esperas de escritura con la actividad de I/O de la misma grabacion.
+ *
+ * @author Alex Angulo
+ */
+@Name("com.alex.vendedores.GuardarVendedor")
+@Label("Guardar Vendedor")
+@Category("Vendedores")
+@Description("Escritura de vendedores en un archivo CSV")
+@StackTrace(false)
+public final class EventoGuardarVendedor extends jdk.jfr.Event {
+
+    @Label("Archivo")
+    public String archivo;
+
+    @Label("Vendedores")
+    public int vendedores;
+}
@@ -0,0 +1,35 @@
+package com.alex.vendedores.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder emitido por cada reporte generado por la aplicacion.
+ *
+ * <p>Su duracion cubre la obtencion de los vendedores, la construccion del reporte
+ * y su presentacion en la interfaz de usuario.
+ *
+ * @author Alex Angulo
+ */
+@Name("com.alex.vendedores.Reporte")
+@Label("Reporte")
+@Category("Vendedores")
+@Description("Construccion y presentacion de un reporte de vendedores")
+@StackTrace(false)
+public final class EventoReporte extends jdk.jfr.Event {
+
+    @Label("Tipo")
+    public String tipo;
+
+    @Label("Vendedores")
+    public int vendedores;
+
+    @Label("Construccion")
+    @Description("Tiempo de obtencion de los vendedores y construccion del reporte, sin su presentacion")
+    @Timespan(Timespan.NANOSECONDS)
+    public long construccion;
+}
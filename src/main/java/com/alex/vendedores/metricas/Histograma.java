@@ -0,0 +1,113 @@
+package com.alex.vendedores.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias en nanosegundos, con cubetas en potencias de 2.
+ *
+ * <p>La cubeta de cada valor es su numero de bits significativos, por lo que registrar
+ * un valor cuesta un 'numberOfLeadingZeros' y un incremento atomico, sin asignar memoria.
+ * Los percentiles se aproximan con el limite superior de la cubeta, con un error maximo de 2x.
+ *
+ * <p>Es thread-safe.
+ *
+ * @author Alex Angulo
+ */
+public final class Histograma {
+
+    /**
+     * Una cubeta por cada numero posible de bits significativos de un long no negativo:
+     * la cubeta 0 contiene al 0 y la cubeta i los valores en [2^(i-1), 2^i)
+     */
+    private static final int CUBETAS = Long.SIZE;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    Histograma() {
+    }
+
+    /**
+     * Registra un valor. Los valores negativos se registran como 0
+     *
+     * @param valor el valor a registrar, normalmente nanosegundos
+     */
+    public void registrar(long valor) {
+        long positivo = Math.max(valor, 0);
+        cubetas.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(positivo));
+        suma.add(positivo);
+        maximo.accumulateAndGet(positivo, Math::max);
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde el instante recibido
+     *
+     * @param inicioNanos el resultado de 'System.nanoTime()' al iniciar la operacion
+     */
+    public void registrarDesde(long inicioNanos) {
+        registrar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Returna el numero de valores registrados
+     *
+     * @return el numero de valores registrados
+     */
+    public long cuenta() {
+        long cuenta = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            cuenta += cubetas.get(i);
+        }
+        return cuenta;
+    }
+
+    /**
+     * Returna la suma de los valores registrados
+     *
+     * @return la suma de los valores registrados
+     */
+    public long suma() {
+        return suma.sum();
+    }
+
+    /**
+     * Returna el valor maximo registrado
+     *
+     * @return el valor maximo, o 0 si no hay valores
+     */
+    public long maximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Returna una aproximacion del percentil: el limite superior de la cubeta que lo contiene
+     *
+     * @param percentil el percentil buscado, entre 0 y 100
+     * @return la aproximacion del percentil, o 0 si no hay valores
+     */
+    public long percentil(double percentil) {
+        long cuenta = cuenta();
+        if (cuenta == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(cuenta * percentil / 100));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += cubetas.get(i);
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo());
+            }
+        }
+        return maximo();
+    }
+
+    /**
+     * Returna el mayor valor que puede caer en la cubeta
+     */
+    private static long limiteSuperior(int cubeta) {
+        return cubeta == 0 ? 0 : (1L << cubeta) - 1;
+    }
+}
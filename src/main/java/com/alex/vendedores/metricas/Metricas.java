@@ -0,0 +1,153 @@
+package com.alex.vendedores.metricas;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Registro de las metricas de la aplicacion: contadores, histogramas e indicadores identificados por nombre.
+ * Un indicador no acumula nada: su valor se lee de su LongSupplier cada vez que se consultan las metricas.
+ *
+ * <p>Las metricas se habilitan con la variable de entorno VENDEDORES_METRICAS=true.
+ * HABILITADAS es una constante, por lo que el codigo instrumentado con
+ * 'if (Metricas.HABILITADAS)' es eliminado por el JIT cuando estan deshabilitadas,
+ * y su costo es practicamente nulo.
+ *
+ * <p>Cuando estan habilitadas, al terminar el programa se escriben en formato JSON
+ * al archivo indicado por VENDEDORES_METRICAS_ARCHIVO, o a la salida de error si no esta definido.
+ * Tambien pueden leerse en cualquier momento con 'contador', 'histograma' y 'aJson'. Los indicadores se
+ * registran y se incluyen en 'aJson' aun con las metricas deshabilitadas, ya que no tienen costo hasta leerse.
+ *
+ * <p>Los nombres de las metricas siguen la forma 'etapa.medida', por ejemplo 'archivo.bytesLeidos'.
+ *
+ * @author Alex Angulo
+ */
+public final class Metricas {
+
+    /**
+     * Indica si las metricas estan habilitadas
+     */
+    public static final boolean HABILITADAS = Boolean.parseBoolean(System.getenv("VENDEDORES_METRICAS"));
+
+    /**
+     * El archivo donde se escriben las metricas al terminar el programa
+     */
+    private static final String ARCHIVO = System.getenv("VENDEDORES_METRICAS_ARCHIVO");
+
+    private static final ConcurrentMap<String, Contador> CONTADORES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Histograma> HISTOGRAMAS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongSupplier> INDICADORES = new ConcurrentHashMap<>();
+
+    static {
+        if (HABILITADAS) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Metricas::volcar, "volcado-metricas"));
+        }
+    }
+
+    private Metricas() {
+    }
+
+    /**
+     * Returna el contador con el nombre recibido, creandolo si no existe.
+     *
+     * <p>Se recomienda guardar el contador en una constante 'static final'
+     * en lugar de buscarlo en cada uso.
+     *
+     * @param nombre el nombre del contador
+     * @return el contador
+     */
+    public static Contador contador(String nombre) {
+        return CONTADORES.computeIfAbsent(nombre, clave -> new Contador());
+    }
+
+    /**
+     * Returna el histograma con el nombre recibido, creandolo si no existe.
+     *
+     * <p>Se recomienda guardar el histograma en una constante 'static final'
+     * en lugar de buscarlo en cada uso.
+     *
+     * @param nombre el nombre del histograma
+     * @return el histograma
+     */
+    public static Histograma histograma(String nombre) {
+        return HISTOGRAMAS.computeIfAbsent(nombre, clave -> new Histograma());
+    }
+
+    /**
+     * Registra el indicador con el nombre recibido, reemplazando al indicador anterior con ese nombre
+     *
+     * @param nombre el nombre del indicador
+     * @param valor provee el valor actual del indicador; debe ser thread-safe y no bloquearse
+     */
+    public static void indicador(String nombre, LongSupplier valor) {
+        INDICADORES.put(nombre, requireNonNull(valor));
+    }
+
+    /**
+     * Returna todas las metricas en formato JSON, ordenadas por nombre
+     *
+     * @return un objeto JSON con los contadores, los histogramas y el valor actual de los indicadores
+     */
+    public static String aJson() {
+        StringBuilder json = new StringBuilder("{\n  \"contadores\": {");
+        String separador = "\n";
+        for (Map.Entry<String, Contador> contador : new TreeMap<>(CONTADORES).entrySet()) {
+            json.append(separador)
+                    .append(format("    \"%s\": %d", contador.getKey(), contador.getValue().valor()));
+            separador = ",\n";
+        }
+        json.append("\n  },\n  \"histogramas\": {");
+        separador = "\n";
+        for (Map.Entry<String, Histograma> entrada : new TreeMap<>(HISTOGRAMAS).entrySet()) {
+            Histograma histograma = entrada.getValue();
+            json.append(separador).append(format(
+                    "    \"%s\": {\"cuenta\": %d, \"suma\": %d, \"maximo\": %d, \"p50\": %d, \"p90\": %d, \"p99\": %d}",
+                    entrada.getKey(),
+                    histograma.cuenta(),
+                    histograma.suma(),
+                    histograma.maximo(),
+                    histograma.percentil(50),
+                    histograma.percentil(90),
+                    histograma.percentil(99)));
+            separador = ",\n";
+        }
+        json.append("\n  },\n  \"indicadores\": {");
+        separador = "\n";
+        for (Map.Entry<String, LongSupplier> indicador : new TreeMap<>(INDICADORES).entrySet()) {
+            json.append(separador)
+                    .append(format("    \"%s\": %d", indicador.getKey(), indicador.getValue().getAsLong()));
+            separador = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    /**
+     * Escribe las metricas en formato JSON al archivo configurado o a la salida de error
+     */
+    private static void volcar() {
+        String json = aJson();
+        if (ARCHIVO == null) {
+            PrintStream salida = System.err;
+            salida.print(json);
+            salida.flush();
+            return;
+        }
+        try {
+            Files.write(Paths.get(ARCHIVO), json.getBytes(UTF_8));
+        } catch (IOException exception) {
+            throw new NoSePudoEscribirEnArchivoException(ARCHIVO);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.alex.vendedores.rendimiento;
+
+import com.alex.vendedores.archivo.LectorArchivo;
+import com.alex.vendedores.csv.BuscadorBytes;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Benchmark que compara la busqueda de delimitadores byte por byte
+ * contra la busqueda SWAR de BuscadorBytes, sobre el mismo contenido.
+ *
+ * <p>Cada pasada localiza todos los ',', '\n' y '"' del contenido y acumula sus posiciones,
+ * tal como lo hace el lector de vendedores. Se reporta el mejor throughput
+ * de varias pasadas, en MB/s de bytes crudos.
+ *
+ * <p>Uso: BenchmarkEscaneo [archivo.csv]. Sin argumentos se generan 256 MB de filas sinteticas.
+ *
+ * @author Alex Angulo
+ */
+public final class BenchmarkEscaneo {
+
+    private static final int PASADAS = 10;
+    private static final int MEGABYTES_SINTETICOS = 256;
+    private static final String FILA_SINTETICA = "%d,Nombre Apellido %d,%02d/%02d/19%02d,Estado %d%n";
+
+    public static void main(String[] args) {
+        List<ByteBuffer> bloques = args.length > 0 ? leer(args[0]) : sinteticos();
+        long bytes = bloques.stream().mapToLong(ByteBuffer::remaining).sum();
+
+        BuscadorBytes buscador = new BuscadorBytes();
+        double byteAByte = medir("byte a byte", bloques, bytes, BenchmarkEscaneo::byteAByte);
+        double swar = medir("SWAR", bloques, bytes, bloque -> swar(buscador, bloque));
+        System.out.printf("Aceleracion SWAR: %.2fx%n", swar / byteAByte);
+    }
+
+    /**
+     * Ejecuta varias pasadas con un algoritmo y returna el mejor throughput en MB/s
+     */
+    private static double medir(String nombre, List<ByteBuffer> bloques, long bytes,
+                                ToLongFunction<ByteBuffer> recorrido) {
+        double mejor = 0;
+        long suma = 0;
+        for (int pasada = 0; pasada < PASADAS; pasada++) {
+            long inicio = System.nanoTime();
+            suma = bloques.stream().mapToLong(recorrido).sum();
+            long nanos = System.nanoTime() - inicio;
+            mejor = Math.max(mejor, (bytes / 1e6) / (nanos / 1e9));
+        }
+        System.out.printf("%-12s %10.1f MB/s  (suma de posiciones %d)%n", nombre, mejor, suma);
+        return mejor;
+    }
+
+    /**
+     * Recorre el bloque revisando cada byte
+     *
+     * @return la suma de las posiciones de los delimitadores, para que el JIT no descarte el trabajo
+     */
+    private static long byteAByte(ByteBuffer bloque) {
+        long suma = 0;
+        for (int i = bloque.position(); i < bloque.limit(); i++) {
+            byte caracter = bloque.get(i);
+            if (caracter == ',' || caracter == '\n' || caracter == '"') {
+                suma += i;
+            }
+        }
+        return suma;
+    }
+
+    /**
+     * Recorre el bloque con el BuscadorBytes
+     *
+     * @return la suma de las posiciones de los delimitadores, para que el JIT no descarte el trabajo
+     */
+    private static long swar(BuscadorBytes buscador, ByteBuffer bloque) {
+        long suma = 0;
+        buscador.reiniciar(bloque, bloque.position(), bloque.limit());
+        for (int i = buscador.siguiente(); i < bloque.limit(); i = buscador.siguiente()) {
+            suma += i;
+        }
+        return suma;
+    }
+
+    /**
+     * Lee el archivo recibido por bloques
+     */
+    private static List<ByteBuffer> leer(String archivo) {
+        List<ByteBuffer> bloques = new ArrayList<>();
+        new LectorArchivo().leerBloques(Paths.get(archivo), bloques::add);
+        return bloques;
+    }
+
+    /**
+     * Genera filas sinteticas con el formato del archivo de vendedores en un buffer directo
+     */
+    private static List<ByteBuffer> sinteticos() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(MEGABYTES_SINTETICOS << 20);
+        for (int id = 1; ; id++) {
+            byte[] fila = format(FILA_SINTETICA, id, id % 997, id % 12 + 1, id % 28 + 1, id % 100, id % 50)
+                    .getBytes(US_ASCII);
+            if (fila.length > buffer.remaining()) {
+                break;
+            }
+            buffer.put(fila);
+        }
+        buffer.flip();
+        List<ByteBuffer> bloques = new ArrayList<>();
+        bloques.add(buffer);
+        return bloques;
+    }
+}
@@ -0,0 +1,414 @@
+package com.alex.vendedores.rendimiento;
+
+import com.alex.vendedores.archivo.NoSePudoEscribirEnArchivoException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Generador determinista de archivos CSV de vendedores sinteticos, para pruebas de carga y de larga duracion.
+ *
+ * <p>Las filas tienen exactamente el formato que acepta 'SimpleVendedorMapper' con el EsquemaColumnas
+ * por defecto: el encabezado de 'vendors.csv', ids consecutivos y fechas 'mm/dd/yyyy'. Los estados siguen
+ * una distribucion Zipf, por lo que unos pocos concentran la mayoria de los vendedores, y los nombres
+ * se repiten. Segun las Proporciones, una fraccion de las filas son duplicados de filas anteriores,
+ * filas invalidas, fechas imposibles, fechas mal formadas o nombres entre comillas con coma y acentos.
+ *
+ * <p>El archivo se genera en bloques de FILAS_POR_BLOQUE filas, cada uno con su propio SplittableRandom
+ * derivado de la semilla y del numero de bloque. Los bloques se generan en paralelo y se escriben en orden,
+ * por lo que la misma semilla produce el mismo archivo byte a byte con cualquier numero de hilos.
+ *
+ * <p>Uso: GeneradorVendedores archivo.csv filas [semilla] [hilos]
+ *
+ * @author Alex Angulo
+ */
+public final class GeneradorVendedores {
+
+    /**
+     * El encabezado de los archivos generados, igual al de 'vendors.csv'
+     */
+    public static final String ENCABEZADO = "Ve_Codven,Ve_Nomven,Ve_Fechnacivend,Ve_CodZona";
+
+    private static final int FILAS_POR_BLOQUE = 1 << 16;
+
+    /**
+     * El numero maximo de bytes de una fila: id, nombre entrecomillado con acentos, fecha, estado y separadores
+     */
+    private static final int BYTES_POR_FILA = 128;
+
+    private static final long SEMILLA_POR_DEFECTO = 42;
+
+    /**
+     * El exponente de la distribucion Zipf de estados, nombres y apellidos
+     */
+    private static final double EXPONENTE_ZIPF = 1.1;
+
+    private static final int ANIO_MINIMO = 1950;
+    private static final int ANIOS = 55;
+
+    private static final byte[][] NOMBRES = utf8(
+            "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+            "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+            "Xavier", "Yolanda", "José", "María", "Sofía", "Andrés", "Zoë", "Renée", "Joaquín", "Inés");
+
+    private static final byte[][] APELLIDOS = utf8(
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Mcdonald", "Sanford", "Pérez", "Núñez", "Muñoz", "Gómez", "Sánchez", "Müller", "Ibáñez", "Jiménez");
+
+    private static final byte[][] ESTADOS = utf8(
+            "California", "Texas", "Florida", "New York", "Pennsylvania", "Illinois", "Ohio", "Georgia",
+            "North Carolina", "Michigan", "New Jersey", "Virginia", "Washington", "Arizona", "Massachusetts",
+            "Tennessee", "Indiana", "Maryland", "Missouri", "Wisconsin", "Colorado", "Minnesota", "South Carolina",
+            "Alabama", "Louisiana", "Kentucky", "Oregon", "Oklahoma", "Connecticut", "Utah", "Iowa", "Nevada",
+            "Arkansas", "Mississippi", "Kansas", "New Mexico", "Nebraska", "Idaho", "West Virginia", "Hawaii",
+            "New Hampshire", "Maine", "Montana", "Rhode Island", "Delaware", "South Dakota", "North Dakota",
+            "Alaska", "Vermont", "Wyoming");
+
+    /**
+     * Las distribuciones acumuladas Zipf de cada lista
+     */
+    private static final double[] ZIPF_NOMBRES = zipf(NOMBRES.length);
+    private static final double[] ZIPF_APELLIDOS = zipf(APELLIDOS.length);
+    private static final double[] ZIPF_ESTADOS = zipf(ESTADOS.length);
+
+    private static final int[] DIAS_POR_MES = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Las fracciones de filas de cada tipo. Las duplicadas, invalidas, fechas imposibles y fechas mal formadas
+     * son excluyentes entre si; los nombres entre comillas se aplican a las filas validas
+     *
+     * @param duplicadas copias exactas de una fila valida anterior del mismo bloque, con el mismo id
+     * @param invalidas filas que no tienen el formato de un Vendedor: id con letras, nombre vacio
+     *                  o con simbolos, o una columna de menos
+     * @param fechasImposibles fechas bien formadas que no existen, como '02/30/1990'
+     * @param fechasMalFormadas fechas sin el padding del patron, como '2/3/1990'
+     * @param nombresEntrecomillados nombres escritos como '"Apellido, Nombre"'
+     */
+    public record Proporciones(double duplicadas, double invalidas, double fechasImposibles,
+                               double fechasMalFormadas, double nombresEntrecomillados) {
+
+        /**
+         * Todas las filas son validas y distintas
+         */
+        public static final Proporciones SIN_FALLAS = new Proporciones(0, 0, 0, 0, 0);
+
+        public static final Proporciones POR_DEFECTO = new Proporciones(0.01, 0.005, 0.002, 0.002, 0.01);
+
+        public Proporciones {
+            double[] fracciones = {duplicadas, invalidas, fechasImposibles, fechasMalFormadas, nombresEntrecomillados};
+            for (double fraccion : fracciones) {
+                if (!(fraccion >= 0 && fraccion <= 1)) {
+                    throw new IllegalArgumentException("Proporcion fuera de [0, 1]: " + fraccion);
+                }
+            }
+            if (duplicadas + invalidas + fechasImposibles + fechasMalFormadas > 1) {
+                throw new IllegalArgumentException("Las proporciones de fallas suman mas de 1");
+            }
+        }
+    }
+
+    /**
+     * Las cuentas de filas de un archivo generado, por tipo
+     *
+     * @param filas el total de filas, sin el encabezado
+     * @param bytes el tamanio del archivo
+     */
+    public record Resumen(long filas, long bytes, long duplicadas, long invalidas,
+                          long fechasImposibles, long fechasMalFormadas) {
+
+        /**
+         * Returna el numero de filas que se leen como un Vendedor, incluyendo las duplicadas
+         *
+         * @return las filas sin las invalidas ni las fechas imposibles o mal formadas
+         */
+        public long validas() {
+            return filas - invalidas - fechasImposibles - fechasMalFormadas;
+        }
+    }
+
+    private final long semilla;
+    private final int hilos;
+    private final Proporciones proporciones;
+
+    public GeneradorVendedores(long semilla, int hilos, Proporciones proporciones) {
+        if (hilos < 1) {
+            throw new IllegalArgumentException("Numero de hilos invalido: " + hilos);
+        }
+        this.semilla = semilla;
+        this.hilos = hilos;
+        this.proporciones = proporciones;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Uso: GeneradorVendedores archivo.csv filas [semilla] [hilos]");
+            System.exit(2);
+        }
+        long semilla = args.length > 2 ? Long.parseLong(args[2]) : SEMILLA_POR_DEFECTO;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long inicio = System.nanoTime();
+        Resumen resumen = new GeneradorVendedores(semilla, hilos, Proporciones.POR_DEFECTO)
+                .generar(Paths.get(args[0]), Long.parseLong(args[1]));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%s: %d filas (%d duplicadas, %d invalidas, %d fechas imposibles, %d fechas mal formadas)%n",
+                args[0], resumen.filas(), resumen.duplicadas(), resumen.invalidas(),
+                resumen.fechasImposibles(), resumen.fechasMalFormadas());
+        System.out.printf("%.1f MB en %.2f s, %.1f MB/s%n",
+                resumen.bytes() / 1e6, segundos, resumen.bytes() / 1e6 / segundos);
+    }
+
+    /**
+     * Genera el archivo, reemplazandolo si existe
+     *
+     * @param archivo el archivo a generar
+     * @param filas el numero de filas, sin el encabezado
+     * @return las cuentas de filas del archivo
+     * @throws NoSePudoEscribirEnArchivoException si no se pudo escribir el archivo
+     * @throws IllegalArgumentException si las filas exceden el id maximo de un Vendedor
+     */
+    public Resumen generar(Path archivo, long filas) throws InterruptedException {
+        if (filas < 0 || filas > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Numero de filas invalido: " + filas);
+        }
+        long bloques = (filas + FILAS_POR_BLOQUE - 1) / FILAS_POR_BLOQUE;
+        long[] cuentas = new long[Bloque.TIPOS];
+        long bytes = 0;
+        try (FileChannel canal = FileChannel.open(archivo, CREATE, WRITE, TRUNCATE_EXISTING);
+             ExecutorService pool = Executors.newFixedThreadPool(hilos)) {
+            bytes += escribir(canal, ByteBuffer.wrap((ENCABEZADO + "\n").getBytes(UTF_8)));
+            Deque<Future<Bloque>> pendientes = new ArrayDeque<>();
+            long siguiente = 0;
+            while (siguiente < bloques || !pendientes.isEmpty()) {
+                while (siguiente < bloques && pendientes.size() < hilos * 2) {
+                    long bloque = siguiente++;
+                    int filasBloque = (int) Math.min(FILAS_POR_BLOQUE, filas - bloque * FILAS_POR_BLOQUE);
+                    pendientes.add(pool.submit(() -> generarBloque(bloque, filasBloque)));
+                }
+                Bloque bloque = pendientes.removeFirst().get();
+                bytes += escribir(canal, bloque.bytes());
+                for (int tipo = 0; tipo < cuentas.length; tipo++) {
+                    cuentas[tipo] += bloque.cuentas()[tipo];
+                }
+            }
+        } catch (IOException | ExecutionException exception) {
+            throw new NoSePudoEscribirEnArchivoException(archivo.toString());
+        }
+        return new Resumen(filas, bytes,
+                cuentas[Bloque.DUPLICADA], cuentas[Bloque.INVALIDA],
+                cuentas[Bloque.FECHA_IMPOSIBLE], cuentas[Bloque.FECHA_MAL_FORMADA]);
+    }
+
+    private static long escribir(FileChannel canal, ByteBuffer bytes) throws IOException {
+        long escritos = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            canal.write(bytes);
+        }
+        return escritos;
+    }
+
+    /**
+     * Los bytes de un bloque generado y sus cuentas de filas por tipo
+     */
+    private record Bloque(ByteBuffer bytes, long[] cuentas) {
+        static final int DUPLICADA = 0;
+        static final int INVALIDA = 1;
+        static final int FECHA_IMPOSIBLE = 2;
+        static final int FECHA_MAL_FORMADA = 3;
+        static final int TIPOS = 4;
+    }
+
+    /**
+     * Genera las filas de un bloque. Solo depende de la semilla y del numero de bloque
+     *
+     * @param bloque el numero de bloque, comenzando en 0
+     * @param filas el numero de filas del bloque
+     */
+    private Bloque generarBloque(long bloque, int filas) {
+        SplittableRandom aleatorio = new SplittableRandom(semilla * 0x9E3779B97F4A7C15L + bloque);
+        ByteBuffer bytes = ByteBuffer.allocate(filas * BYTES_POR_FILA);
+        int[] iniciosFila = new int[filas];
+        int[] filasValidas = new int[filas];
+        int numeroValidas = 0;
+        long[] cuentas = new long[Bloque.TIPOS];
+        long primerId = bloque * FILAS_POR_BLOQUE + 1;
+        for (int fila = 0; fila < filas; fila++) {
+            iniciosFila[fila] = bytes.position();
+            double tipo = aleatorio.nextDouble();
+            if (tipo < proporciones.duplicadas() && numeroValidas > 0) {
+                int original = filasValidas[aleatorio.nextInt(numeroValidas)];
+                bytes.put(bytes.duplicate().position(iniciosFila[original]).limit(iniciosFila[original + 1]));
+                cuentas[Bloque.DUPLICADA]++;
+                continue;
+            }
+            tipo -= proporciones.duplicadas();
+            long id = primerId + fila;
+            if (tipo < proporciones.invalidas()) {
+                escribirFilaInvalida(bytes, id, aleatorio);
+                cuentas[Bloque.INVALIDA]++;
+                continue;
+            }
+            tipo -= proporciones.invalidas();
+            Fecha fecha = Fecha.VALIDA;
+            if (tipo < proporciones.fechasImposibles()) {
+                fecha = Fecha.IMPOSIBLE;
+                cuentas[Bloque.FECHA_IMPOSIBLE]++;
+            } else if (tipo - proporciones.fechasImposibles() < proporciones.fechasMalFormadas()) {
+                fecha = Fecha.MAL_FORMADA;
+                cuentas[Bloque.FECHA_MAL_FORMADA]++;
+            } else {
+                filasValidas[numeroValidas++] = fila;
+            }
+            escribirEntero(bytes, id);
+            bytes.put((byte) ',');
+            escribirNombre(bytes, aleatorio, aleatorio.nextDouble() < proporciones.nombresEntrecomillados());
+            bytes.put((byte) ',');
+            escribirFecha(bytes, aleatorio, fecha);
+            bytes.put((byte) ',');
+            bytes.put(ESTADOS[elegir(ZIPF_ESTADOS, aleatorio)]);
+            bytes.put((byte) '\n');
+        }
+        return new Bloque(bytes.flip(), cuentas);
+    }
+
+    /**
+     * Los tipos de fecha de una fila
+     */
+    private enum Fecha {
+        VALIDA, IMPOSIBLE, MAL_FORMADA
+    }
+
+    /**
+     * Escribe 'Nombre Apellido', o '"Apellido, Nombre"' si se entrecomilla
+     */
+    private static void escribirNombre(ByteBuffer bytes, SplittableRandom aleatorio, boolean entrecomillado) {
+        byte[] nombre = NOMBRES[elegir(ZIPF_NOMBRES, aleatorio)];
+        byte[] apellido = APELLIDOS[elegir(ZIPF_APELLIDOS, aleatorio)];
+        if (entrecomillado) {
+            bytes.put((byte) '"').put(apellido).put((byte) ',').put((byte) ' ').put(nombre).put((byte) '"');
+        } else {
+            bytes.put(nombre).put((byte) ' ').put(apellido);
+        }
+    }
+
+    /**
+     * Escribe una fecha 'mm/dd/yyyy'. Una fecha imposible tiene un dia mayor a los dias de su mes;
+     * una fecha mal formada no tiene el padding de su mes ni de su dia
+     */
+    private static void escribirFecha(ByteBuffer bytes, SplittableRandom aleatorio, Fecha tipo) {
+        int anio = ANIO_MINIMO + aleatorio.nextInt(ANIOS);
+        int mes = 1 + aleatorio.nextInt(12);
+        int diasDelMes = DIAS_POR_MES[mes - 1] + (mes == 2 && esBisiesto(anio) ? 1 : 0);
+        int dia = tipo == Fecha.IMPOSIBLE
+                ? diasDelMes + 1 + aleatorio.nextInt(32 - diasDelMes)
+                : 1 + aleatorio.nextInt(diasDelMes);
+        if (tipo == Fecha.MAL_FORMADA) {
+            mes = 1 + aleatorio.nextInt(9);
+            dia = 1 + aleatorio.nextInt(9);
+            escribirEntero(bytes, mes);
+            bytes.put((byte) '/');
+            escribirEntero(bytes, dia);
+        } else {
+            escribirDosDigitos(bytes, mes);
+            bytes.put((byte) '/');
+            escribirDosDigitos(bytes, dia);
+        }
+        bytes.put((byte) '/');
+        escribirEntero(bytes, anio);
+    }
+
+    /**
+     * Escribe una fila que SimpleVendedorMapper no acepta, de uno de cuatro tipos
+     */
+    private static void escribirFilaInvalida(ByteBuffer bytes, long id, SplittableRandom aleatorio) {
+        int tipo = aleatorio.nextInt(4);
+        escribirEntero(bytes, id);
+        if (tipo == 0) {
+            bytes.put((byte) 'x');
+        }
+        bytes.put((byte) ',');
+        if (tipo != 1) {
+            escribirNombre(bytes, aleatorio, false);
+        }
+        if (tipo == 2) {
+            bytes.put((byte) '!');
+        }
+        bytes.put((byte) ',');
+        escribirFecha(bytes, aleatorio, Fecha.VALIDA);
+        if (tipo != 3) {
+            bytes.put((byte) ',');
+            bytes.put(ESTADOS[elegir(ZIPF_ESTADOS, aleatorio)]);
+        }
+        bytes.put((byte) '\n');
+    }
+
+    private static void escribirEntero(ByteBuffer bytes, long numero) {
+        int digitos = 1;
+        for (long limite = 10; limite <= numero; limite *= 10) {
+            digitos++;
+        }
+        int posicion = bytes.position();
+        for (int i = digitos - 1; i >= 0; i--) {
+            bytes.put(posicion + i, (byte) ('0' + numero % 10));
+            numero /= 10;
+        }
+        bytes.position(posicion + digitos);
+    }
+
+    private static void escribirDosDigitos(ByteBuffer bytes, int numero) {
+        bytes.put((byte) ('0' + numero / 10)).put((byte) ('0' + numero % 10));
+    }
+
+    private static boolean esBisiesto(int anio) {
+        return anio % 4 == 0 && (anio % 100 != 0 || anio % 400 == 0);
+    }
+
+    /**
+     * Elige un indice segun una distribucion acumulada
+     */
+    private static int elegir(double[] acumulada, SplittableRandom aleatorio) {
+        double valor = aleatorio.nextDouble();
+        int indice = Arrays.binarySearch(acumulada, valor);
+        return Math.min(indice >= 0 ? indice : -indice - 1, acumulada.length - 1);
+    }
+
+    /**
+     * Returna la distribucion acumulada Zipf de 'n' elementos: el elemento k tiene un peso de 1 / k^EXPONENTE_ZIPF
+     */
+    private static double[] zipf(int n) {
+        double[] acumulada = new double[n];
+        double suma = 0;
+        for (int k = 0; k < n; k++) {
+            suma += 1 / Math.pow(k + 1, EXPONENTE_ZIPF);
+            acumulada[k] = suma;
+        }
+        for (int k = 0; k < n; k++) {
+            acumulada[k] /= suma;
+        }
+        return acumulada;
+    }
+
+    private static byte[][] utf8(String... cadenas) {
+        byte[][] bytes = new byte[cadenas.length][];
+        for (int i = 0; i < cadenas.length; i++) {
+            bytes[i] = cadenas[i].getBytes(UTF_8);
+        }
+        return bytes;
+    }
+}
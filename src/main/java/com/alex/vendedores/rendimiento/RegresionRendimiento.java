@@ -0,0 +1,193 @@
+package com.alex.vendedores.rendimiento;
+
+import com.alex.vendedores.archivo.LectorArchivo;
+import com.alex.vendedores.archivo.NoSePudoLeerArchivoException;
+import com.alex.vendedores.csv.LectorVendedoresBytes;
+import com.alex.vendedores.csv.SimpleVendedorMapper;
+import com.alex.vendedores.csv.VendedorRepositorioCSV;
+import com.alex.vendedores.dominio.Vendedor;
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Prueba de regresion de rendimiento: carga un archivo generado con GeneradorVendedores a traves de
+ * VendedorRepositorioCSV y compara sus metricas contra los Presupuestos configurados.
+ *
+ * <p>Cada medicion carga el archivo con un repositorio nuevo y mide:
+ * <ul>
+ *     <li>los bytes de heap retenidos por vendedor, con MemoryMXBean despues de un GC, antes y despues
+ *     de la carga y mientras el repositorio sigue vivo</li>
+ *     <li>las filas por segundo de la carga</li>
+ *     <li>los bytes asignados por fila, con 'ThreadMXBean.getThreadAllocatedBytes' del hilo que carga,
+ *     ya que VendedorRepositorioCSV carga el archivo en el hilo que lo llama</li>
+ * </ul>
+ * Se descarta una carga de calentamiento y de las demas se toma la mediana de cada metrica.
+ *
+ * <p>Si alguna metrica excede su presupuesto el programa termina con codigo de salida 1,
+ * para que la regresion detenga el despliegue.
+ *
+ * <p>Uso: RegresionRendimiento [filas] [presupuestos.properties]. Sin archivo se utilizan los presupuestos
+ * por defecto; el archivo puede definir 'bytesRetenidosPorVendedor', 'filasPorSegundo' y 'bytesAsignadosPorFila'.
+ *
+ * @author Alex Angulo
+ */
+public final class RegresionRendimiento {
+
+    private static final long FILAS_POR_DEFECTO = 1_000_000;
+    private static final long SEMILLA = 42;
+    private static final int MEDICIONES = 5;
+
+    /**
+     * Los limites de cada metrica de la carga
+     *
+     * @param bytesRetenidosPorVendedor el maximo de bytes de heap retenidos por cada vendedor cargado
+     * @param filasPorSegundo el minimo de filas leidas por segundo
+     * @param bytesAsignadosPorFila el maximo de bytes asignados por cada fila leida
+     */
+    public record Presupuestos(long bytesRetenidosPorVendedor, long filasPorSegundo, long bytesAsignadosPorFila) {
+
+        public static final Presupuestos POR_DEFECTO = new Presupuestos(160, 400_000, 320);
+
+        /**
+         * Returna presupuestos iguales a 'base', excepto por los valores definidos en las propiedades
+         *
+         * @param propiedades las propiedades 'bytesRetenidosPorVendedor', 'filasPorSegundo' y 'bytesAsignadosPorFila'
+         * @param base los presupuestos con los valores no definidos
+         * @return los nuevos presupuestos
+         * @throws NumberFormatException si algun valor no es un numero entero
+         */
+        public static Presupuestos desdePropiedades(Properties propiedades, Presupuestos base) {
+            return new Presupuestos(
+                    valor(propiedades, "bytesRetenidosPorVendedor", base.bytesRetenidosPorVendedor),
+                    valor(propiedades, "filasPorSegundo", base.filasPorSegundo),
+                    valor(propiedades, "bytesAsignadosPorFila", base.bytesAsignadosPorFila));
+        }
+
+        private static long valor(Properties propiedades, String clave, long porDefecto) {
+            String valor = propiedades.getProperty(clave);
+            return valor == null ? porDefecto : Long.parseLong(valor.trim());
+        }
+    }
+
+    /**
+     * Las metricas de una carga del archivo
+     */
+    private record Medicion(long vendedores, double bytesRetenidosPorVendedor, double filasPorSegundo,
+                            double bytesAsignadosPorFila) {
+    }
+
+    private static final MemoryMXBean MEMORIA = ManagementFactory.getMemoryMXBean();
+    private static final ThreadMXBean HILOS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long filas = args.length > 0 ? Long.parseLong(args[0]) : FILAS_POR_DEFECTO;
+        Presupuestos presupuestos = args.length > 1 ? leerPresupuestos(Paths.get(args[1])) : Presupuestos.POR_DEFECTO;
+
+        Path directorio = Files.createTempDirectory("regresion-rendimiento");
+        Path archivo = directorio.resolve("vendedores.csv");
+        boolean dentroDelPresupuesto;
+        try {
+            GeneradorVendedores.Resumen resumen = new GeneradorVendedores(SEMILLA,
+                    Runtime.getRuntime().availableProcessors(), GeneradorVendedores.Proporciones.POR_DEFECTO)
+                    .generar(archivo, filas);
+            System.out.printf("Archivo de %d filas, %.1f MB%n", resumen.filas(), resumen.bytes() / 1e6);
+
+            medir(archivo, filas);
+            Medicion[] mediciones = new Medicion[MEDICIONES];
+            for (int i = 0; i < MEDICIONES; i++) {
+                mediciones[i] = medir(archivo, filas);
+            }
+
+            dentroDelPresupuesto = reportar("Bytes retenidos por vendedor",
+                    mediana(mediciones, Medicion::bytesRetenidosPorVendedor), presupuestos.bytesRetenidosPorVendedor(), true)
+                    & reportar("Filas por segundo",
+                    mediana(mediciones, Medicion::filasPorSegundo), presupuestos.filasPorSegundo(), false)
+                    & reportar("Bytes asignados por fila",
+                    mediana(mediciones, Medicion::bytesAsignadosPorFila), presupuestos.bytesAsignadosPorFila(), true);
+        } finally {
+            Files.deleteIfExists(archivo);
+            Files.deleteIfExists(directorio);
+        }
+        if (!dentroDelPresupuesto) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Carga el archivo con un repositorio nuevo y mide la carga
+     */
+    private static Medicion medir(Path archivo, long filas) {
+        VendedorRepositorioCSV repositorio = new VendedorRepositorioCSV(new SimpleVendedorMapper(), () -> archivo,
+                new LectorVendedoresBytes(new LectorArchivo()::leerBloques), linea -> { });
+        long heapAntes = heapDespuesDeGC();
+        long hilo = Thread.currentThread().threadId();
+        long asignadosAntes = HILOS.getThreadAllocatedBytes(hilo);
+        long inicio = System.nanoTime();
+        Set<Vendedor> vendedores = repositorio.encontrarTodos();
+        long nanos = System.nanoTime() - inicio;
+        long asignados = HILOS.getThreadAllocatedBytes(hilo) - asignadosAntes;
+        long retenidos = heapDespuesDeGC() - heapAntes;
+        Reference.reachabilityFence(repositorio);
+
+        Medicion medicion = new Medicion(vendedores.size(),
+                (double) retenidos / vendedores.size(),
+                filas / (nanos / 1e9),
+                (double) asignados / filas);
+        System.out.printf("%d vendedores: %.0f bytes retenidos/vendedor, %.0f filas/s, %.0f bytes asignados/fila%n",
+                medicion.vendedores(), medicion.bytesRetenidosPorVendedor(), medicion.filasPorSegundo(),
+                medicion.bytesAsignadosPorFila());
+        return medicion;
+    }
+
+    /**
+     * Returna el heap utilizado despues de varios GC completos, para que solo cuenten los objetos vivos
+     */
+    private static long heapDespuesDeGC() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORIA.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double mediana(Medicion[] mediciones, ToDoubleFunction<Medicion> metrica) {
+        double[] valores = Arrays.stream(mediciones).mapToDouble(metrica).sorted().toArray();
+        return valores[valores.length / 2];
+    }
+
+    /**
+     * Muestra la metrica junto a su presupuesto
+     *
+     * @param maximo si el presupuesto es un maximo; de lo contrario es un minimo
+     * @return si la metrica esta dentro del presupuesto
+     */
+    private static boolean reportar(String metrica, double valor, long presupuesto, boolean maximo) {
+        boolean dentro = maximo ? valor <= presupuesto : valor >= presupuesto;
+        System.out.printf("%-30s %14.0f %s %-12d %s%n",
+                metrica, valor, maximo ? "<=" : ">=", presupuesto, dentro ? "OK" : "EXCEDIDO");
+        return dentro;
+    }
+
+    private static Presupuestos leerPresupuestos(Path archivo) {
+        Properties propiedades = new Properties();
+        try (Reader lector = Files.newBufferedReader(archivo, UTF_8)) {
+            propiedades.load(lector);
+        } catch (IOException exception) {
+            throw new NoSePudoLeerArchivoException(archivo.toString(), exception);
+        }
+        return Presupuestos.desdePropiedades(propiedades, Presupuestos.POR_DEFECTO);
+    }
+}
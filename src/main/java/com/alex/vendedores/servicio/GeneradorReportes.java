@@ -0,0 +1,29 @@
+package com.alex.vendedores.servicio;
+
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.ReporteGeneral;
+
+/**
+ * Genera los reportes de la aplicacion.
+ *
+ * <p>Separa la generacion de los reportes de su presentacion, para que una implementacion pueda
+ * obtenerlos de otra fuente que no sean los vendedores, por ejemplo de un cache.
+ *
+ * @author Alex Angulo
+ */
+public interface GeneradorReportes {
+
+    /**
+     * Returna el reporte general con todos los vendedores
+     *
+     * @return el reporte general
+     */
+    ReporteGeneral reporteGeneral();
+
+    /**
+     * Returna el reporte del promedio de edades de los vendedores por zona geografica
+     *
+     * @return el reporte del promedio de edades por zona
+     */
+    ReporteEdadPromedioPorZona reporteEdadPromedioPorZona();
+}
@@ -0,0 +1,34 @@
+package com.alex.vendedores.servicio;
+
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.ReporteGeneral;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Una implementacion simple de GeneradorReportes, que genera cada reporte
+ * con todos los vendedores del servicio
+ *
+ * @author Alex Angulo
+ */
+public final class SimpleGeneradorReportes implements GeneradorReportes {
+
+    /**
+     * El servicio del cual obtenemos los vendedores de los reportes
+     */
+    private final VendedorServicio vendedorServicio;
+
+    public SimpleGeneradorReportes(VendedorServicio vendedorServicio) {
+        this.vendedorServicio = requireNonNull(vendedorServicio);
+    }
+
+    @Override
+    public ReporteGeneral reporteGeneral() {
+        return new ReporteGeneral(vendedorServicio.encontrarTodos());
+    }
+
+    @Override
+    public ReporteEdadPromedioPorZona reporteEdadPromedioPorZona() {
+        return new ReporteEdadPromedioPorZona(vendedorServicio.encontrarTodos());
+    }
+}
@@ -1,9 +1,13 @@
 package com.alex.vendedores.servicio;
 
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
 import com.alex.vendedores.dominio.Vendedor;
 import com.alex.vendedores.dominio.VendedorRepositorio;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static java.util.Objects.requireNonNull;
@@ -34,6 +38,63 @@ public final class SimpleVendedorServicio implements VendedorServicio {
         return vendedorRepositorio.encontrarTodos();
     }
 
+    /**
+     * Returna los objetos Vendedor que residen en el estado recibido
+     *
+     * @param estado el estado de residencia buscado
+     * @return los objetos Vendedor del estado
+     */
+    @Override
+    public Set<Vendedor> encontrarPorEstado(String estado) {
+        return vendedorRepositorio.encontrarPorEstado(estado);
+    }
+
+    /**
+     * Returna los objetos Vendedor que cumplen la consulta,
+     * delegando los filtros al proveedor de persistencia
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los objetos Vendedor que cumplen la consulta
+     */
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        return vendedorRepositorio.consultar(consulta);
+    }
+
+    /**
+     * Returna el numero de objetos Vendedor que cumplen los filtros de la consulta
+     *
+     * @param consulta los filtros a evaluar; su desplazamiento y limite se ignoran
+     * @return el numero de objetos Vendedor que cumplen los filtros
+     */
+    @Override
+    public long contar(ConsultaVendedores consulta) {
+        return vendedorRepositorio.contar(consulta);
+    }
+
+    /**
+     * Returna los objetos Vendedor cuyo nombre coincide con la busqueda: por prefijo, por subcadena
+     * o de forma aproximada, tolerando errores de escritura
+     *
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los objetos Vendedor que coinciden, los mas parecidos primero
+     */
+    @Override
+    public List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        return vendedorRepositorio.buscarPorNombre(busqueda);
+    }
+
+    /**
+     * Returna el objeto Vendedor con el id recibido
+     *
+     * @param id el id buscado
+     * @return el Vendedor con el id, o un Optional vacio si no existe
+     */
+    @Override
+    public Optional<Vendedor> encontrarPorId(int id) {
+        return vendedorRepositorio.encontrarPorId(id);
+    }
+
     /**
      * Guarda un objeto vendedor
      *
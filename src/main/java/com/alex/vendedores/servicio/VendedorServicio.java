@@ -1,8 +1,12 @@
 package com.alex.vendedores.servicio;
 
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
 import com.alex.vendedores.dominio.Vendedor;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -23,6 +27,47 @@ public interface VendedorServicio {
      */
     Set<Vendedor> encontrarTodos();
 
+    /**
+     * Returna todos los objetos Vendedor que residen en el estado recibido
+     *
+     * @param estado el estado de residencia buscado
+     * @return los objetos Vendedor del estado
+     */
+    Set<Vendedor> encontrarPorEstado(String estado);
+
+    /**
+     * Returna los objetos Vendedor que cumplen la consulta
+     *
+     * @param consulta los filtros, el desplazamiento y el limite
+     * @return los objetos Vendedor que cumplen la consulta
+     */
+    List<Vendedor> consultar(ConsultaVendedores consulta);
+
+    /**
+     * Returna el numero de objetos Vendedor que cumplen los filtros de la consulta
+     *
+     * @param consulta los filtros a evaluar; su desplazamiento y limite se ignoran
+     * @return el numero de objetos Vendedor que cumplen los filtros
+     */
+    long contar(ConsultaVendedores consulta);
+
+    /**
+     * Returna los objetos Vendedor cuyo nombre coincide con la busqueda: por prefijo, por subcadena
+     * o de forma aproximada, tolerando errores de escritura
+     *
+     * @param busqueda el texto, el tipo de busqueda, el desplazamiento y el limite
+     * @return los objetos Vendedor que coinciden, los mas parecidos primero
+     */
+    List<Vendedor> buscarPorNombre(BusquedaNombre busqueda);
+
+    /**
+     * Returna el objeto Vendedor con el id recibido
+     *
+     * @param id el id buscado
+     * @return el Vendedor con el id, o un Optional vacio si no existe
+     */
+    Optional<Vendedor> encontrarPorId(int id);
+
     /**
      * Guarda un objeto Vendedor.
      *
@@ -0,0 +1,102 @@
+package com.alex.vendedores.servicio;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.dominio.VendedorRepositorio;
+import com.alex.vendedores.instantanea.ProyeccionVendedores;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementacion de VendedorServicio que separa las escrituras de las lecturas
+ * ('Command Query Responsibility Segregation').
+ *
+ * <p>Los vendedores guardados van al modelo de escritura, normalmente un VendedorRepositorioDurable
+ * que los agrega a su bitacora y los envia a la proyeccion. Todas las consultas se responden con el
+ * modelo de lectura, una ProyeccionVendedores que se actualiza en segundo plano, por lo que un vendedor
+ * guardado es visible poco despues de que 'guardar' returna, no de inmediato. 'retraso' indica que tanto,
+ * y ConfiguracionApp lo publica en los indicadores de Metricas.
+ *
+ * @author Alex Angulo
+ */
+public final class VendedorServicioCQRS implements VendedorServicio {
+
+    /**
+     * El modelo de escritura, que persiste los vendedores guardados
+     */
+    private final VendedorRepositorio escritura;
+
+    /**
+     * El modelo de lectura, que responde las consultas
+     */
+    private final ProyeccionVendedores lectura;
+
+    /**
+     * @param escritura el modelo de escritura; debe enviar los vendedores guardados a la proyeccion
+     * @param lectura el modelo de lectura
+     */
+    public VendedorServicioCQRS(VendedorRepositorio escritura, ProyeccionVendedores lectura) {
+        this.escritura = requireNonNull(escritura);
+        this.lectura = requireNonNull(lectura);
+    }
+
+    /**
+     * Returna todos los objetos Vendedor del modelo de lectura
+     *
+     * @return todos los objetos Vendedor proyectados
+     */
+    @Override
+    public Set<Vendedor> encontrarTodos() {
+        return lectura.encontrarTodos();
+    }
+
+    @Override
+    public Set<Vendedor> encontrarPorEstado(String estado) {
+        return lectura.encontrarPorEstado(estado);
+    }
+
+    @Override
+    public List<Vendedor> consultar(ConsultaVendedores consulta) {
+        return lectura.consultar(consulta);
+    }
+
+    @Override
+    public long contar(ConsultaVendedores consulta) {
+        return lectura.contar(consulta);
+    }
+
+    @Override
+    public List<Vendedor> buscarPorNombre(BusquedaNombre busqueda) {
+        return lectura.buscarPorNombre(busqueda);
+    }
+
+    @Override
+    public Optional<Vendedor> encontrarPorId(int id) {
+        return lectura.encontrarPorId(id);
+    }
+
+    /**
+     * Guarda un objeto Vendedor en el modelo de escritura. Returna cuando el modelo de escritura lo persiste,
+     * sin esperar a que el modelo de lectura lo incluya
+     *
+     * @param vendedor el vendedor a guardar.
+     */
+    @Override
+    public void guardar(Vendedor vendedor) {
+        escritura.guardar(vendedor);
+    }
+
+    /**
+     * Returna que tan atrasado esta el modelo de lectura respecto a los vendedores guardados
+     *
+     * @return el numero de vendedores guardados que aun no son visibles, y desde cuando espera el mas antiguo
+     */
+    public ProyeccionVendedores.Retraso retraso() {
+        return lectura.retraso();
+    }
+}
@@ -0,0 +1,339 @@
+package com.alex.vendedores.servidor;
+
+import com.alex.vendedores.dominio.BusquedaNombre;
+import com.alex.vendedores.dominio.ConsultaVendedores;
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.Vendedor;
+import com.alex.vendedores.metricas.Metricas;
+import com.alex.vendedores.servicio.VendedorServicio;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Servidor HTTP residente que responde reportes y consultas de vendedores.
+ *
+ * <p>Los vendedores se cargan una sola vez al iniciar el servidor, por lo que cada peticion
+ * trabaja sobre la cache del repositorio y con codigo ya compilado por el JIT, en lugar de
+ * pagar el arranque de la JVM y la lectura del archivo en cada ejecucion.
+ *
+ * <p>Las peticiones se atienden en un pool acotado de hilos con una cola acotada. Si la cola
+ * se llena, la peticion se atiende en el hilo que acepta las conexiones, lo que frena la
+ * aceptacion de nuevas conexiones en lugar de acumular trabajo sin limite.
+ *
+ * <p>Rutas, todas con el metodo GET y respuestas JSON:
+ * <ul>
+ *     <li>/reportes/general: todos los vendedores</li>
+ *     <li>/reportes/edad-promedio-por-zona: la edad promedio por estado</li>
+ *     <li>/vendedores/{id}: el vendedor con el id</li>
+ *     <li>/vendedores?estado=&amp;prefijo=&amp;edadMinima=&amp;edadMaxima=&amp;anio=&amp;desplazamiento=&amp;limite=:
+ *     los vendedores que cumplen la ConsultaVendedores formada por los parametros presentes</li>
+ *     <li>/vendedores/conteo?...: el numero de vendedores que cumplen los filtros de la consulta</li>
+ *     <li>/vendedores/nombre?texto=&amp;tipo=&amp;desplazamiento=&amp;limite=: la BusquedaNombre del texto,
+ *     con tipo 'prefijo', 'subcadena' o 'aproximada' (por defecto 'prefijo') y limite por defecto de 20</li>
+ *     <li>/metricas: las Metricas de la aplicacion</li>
+ * </ul>
+ *
+ * @author Alex Angulo
+ */
+public final class ServidorVendedores {
+
+    /**
+     * El numero maximo de peticiones en espera por cada hilo del pool
+     */
+    private static final int PETICIONES_EN_ESPERA_POR_HILO = 64;
+
+    /**
+     * El limite de una busqueda por nombre que no lo indica
+     */
+    private static final int LIMITE_BUSQUEDA_NOMBRE = 20;
+
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    private final VendedorServicio vendedorServicio;
+    private final VendedorJsonFormatter formatter;
+    private final HttpServer servidor;
+    private final ExecutorService hilos;
+
+    /**
+     * Crea el servidor sin iniciarlo
+     *
+     * @param vendedorServicio el servicio que provee los vendedores
+     * @param formatter el formatter que da formato JSON a las respuestas
+     * @param direccion la direccion y puerto donde se escuchan las peticiones
+     * @param numeroHilos el numero de hilos que atienden las peticiones
+     * @throws IOException si no se pudo abrir el puerto
+     */
+    public ServidorVendedores(VendedorServicio vendedorServicio,
+                              VendedorJsonFormatter formatter,
+                              InetSocketAddress direccion,
+                              int numeroHilos) throws IOException {
+        this.vendedorServicio = vendedorServicio;
+        this.formatter = formatter;
+        this.hilos = crearPool(numeroHilos);
+        this.servidor = HttpServer.create(direccion, 0);
+        this.servidor.setExecutor(hilos);
+        this.servidor.createContext("/reportes/general", soloGet(this::reporteGeneral));
+        this.servidor.createContext("/reportes/edad-promedio-por-zona", soloGet(this::reporteEdadPromedioPorZona));
+        this.servidor.createContext("/vendedores", soloGet(this::vendedores));
+        this.servidor.createContext("/metricas", soloGet(peticion -> responder(peticion, 200, Metricas.aJson())));
+    }
+
+    /**
+     * Carga los vendedores y comienza a atender peticiones
+     */
+    public void iniciar() {
+        vendedorServicio.encontrarTodos();
+        servidor.start();
+    }
+
+    /**
+     * Deja de aceptar peticiones y espera hasta el tiempo indicado a que terminen las que estan en curso
+     *
+     * @param segundosDeEspera el tiempo maximo de espera, en segundos
+     */
+    public void detener(int segundosDeEspera) {
+        servidor.stop(segundosDeEspera);
+        hilos.shutdown();
+    }
+
+    /**
+     * Returna la direccion donde el servidor escucha las peticiones
+     *
+     * @return la direccion del servidor, con el puerto real si se solicito el puerto 0
+     */
+    public InetSocketAddress direccion() {
+        return servidor.getAddress();
+    }
+
+    private void reporteGeneral(HttpExchange peticion) {
+        responder(peticion, 200, formatter.darFormato(vendedorServicio.encontrarTodos()));
+    }
+
+    private void reporteEdadPromedioPorZona(HttpExchange peticion) {
+        ReporteEdadPromedioPorZona reporte = new ReporteEdadPromedioPorZona(vendedorServicio.encontrarTodos());
+        responder(peticion, 200, formatter.darFormato(reporte));
+    }
+
+    /**
+     * Atiende /vendedores/{id} y las consultas /vendedores?...
+     */
+    private void vendedores(HttpExchange peticion) {
+        String ruta = peticion.getRequestURI().getPath();
+        String id = ruta.startsWith("/vendedores/") ? ruta.substring("/vendedores/".length()) : "";
+        if (id.equals("nombre")) {
+            vendedoresPorNombre(peticion);
+            return;
+        }
+        if (!id.isEmpty() && !id.equals("conteo")) {
+            vendedorPorId(peticion, id);
+            return;
+        }
+        ConsultaVendedores consulta;
+        try {
+            consulta = consulta(peticion);
+        } catch (IllegalArgumentException exception) {
+            responder(peticion, 400, formatter.darFormatoError(exception.getMessage()));
+            return;
+        }
+        if (id.equals("conteo")) {
+            responder(peticion, 200, "{\"conteo\":" + vendedorServicio.contar(consulta) + "}");
+        } else {
+            responder(peticion, 200, formatter.darFormato(vendedorServicio.consultar(consulta)));
+        }
+    }
+
+    /**
+     * Construye la consulta a partir de los parametros del query string
+     *
+     * @throws IllegalArgumentException si algun parametro numerico no es valido
+     */
+    private ConsultaVendedores consulta(HttpExchange peticion) {
+        ConsultaVendedores.Builder consulta = ConsultaVendedores.builder();
+        String estado = parametro(peticion, "estado");
+        if (estado != null) {
+            consulta.estado(estado);
+        }
+        String prefijo = parametro(peticion, "prefijo");
+        if (prefijo != null) {
+            consulta.prefijoNombre(prefijo);
+        }
+        Integer edadMinima = parametroEntero(peticion, "edadMinima");
+        if (edadMinima != null) {
+            consulta.edadMinima(edadMinima);
+        }
+        Integer edadMaxima = parametroEntero(peticion, "edadMaxima");
+        if (edadMaxima != null) {
+            consulta.edadMaxima(edadMaxima);
+        }
+        Integer anio = parametroEntero(peticion, "anio");
+        if (anio != null) {
+            consulta.anioNacimiento(anio);
+        }
+        Integer desplazamiento = parametroEntero(peticion, "desplazamiento");
+        if (desplazamiento != null) {
+            consulta.desplazamiento(desplazamiento);
+        }
+        Integer limite = parametroEntero(peticion, "limite");
+        if (limite != null) {
+            consulta.limite(limite);
+        }
+        return consulta.build();
+    }
+
+    /**
+     * Atiende /vendedores/nombre?...
+     */
+    private void vendedoresPorNombre(HttpExchange peticion) {
+        BusquedaNombre busqueda;
+        try {
+            busqueda = busquedaNombre(peticion);
+        } catch (IllegalArgumentException exception) {
+            responder(peticion, 400, formatter.darFormatoError(exception.getMessage()));
+            return;
+        }
+        responder(peticion, 200, formatter.darFormato(vendedorServicio.buscarPorNombre(busqueda)));
+    }
+
+    /**
+     * Construye la busqueda por nombre a partir de los parametros del query string
+     *
+     * @throws IllegalArgumentException si falta el texto o algun parametro no es valido
+     */
+    private BusquedaNombre busquedaNombre(HttpExchange peticion) {
+        String texto = parametro(peticion, "texto");
+        if (texto == null || texto.isBlank()) {
+            throw new IllegalArgumentException("Falta el parametro 'texto'");
+        }
+        String tipo = parametro(peticion, "tipo");
+        BusquedaNombre.Tipo tipoBusqueda;
+        try {
+            tipoBusqueda = tipo == null
+                    ? BusquedaNombre.Tipo.PREFIJO
+                    : BusquedaNombre.Tipo.valueOf(tipo.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Parametro 'tipo' invalido: " + tipo);
+        }
+        Integer desplazamiento = parametroEntero(peticion, "desplazamiento");
+        Integer limite = parametroEntero(peticion, "limite");
+        return new BusquedaNombre(texto, tipoBusqueda,
+                desplazamiento != null ? desplazamiento : 0,
+                limite != null ? limite : LIMITE_BUSQUEDA_NOMBRE);
+    }
+
+    private void vendedorPorId(HttpExchange peticion, String id) {
+        if (!id.matches("\\d{1,10}")) {
+            responder(peticion, 400, formatter.darFormatoError("Id invalido: " + id));
+            return;
+        }
+        Optional<Vendedor> vendedor = vendedorServicio.encontrarPorId(Integer.parseInt(id));
+        if (vendedor.isPresent()) {
+            responder(peticion, 200, formatter.darFormato(vendedor.get()));
+        } else {
+            responder(peticion, 404, formatter.darFormatoError("No existe el vendedor " + id));
+        }
+    }
+
+    /**
+     * Returna el valor decodificado de un parametro del query string, o null si no esta presente
+     */
+    private String parametro(HttpExchange peticion, String nombre) {
+        String query = peticion.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String par : query.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0 && par.substring(0, igual).equals(nombre)) {
+                return URLDecoder.decode(par.substring(igual + 1), UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returna el valor entero de un parametro del query string, o null si no esta presente
+     *
+     * @throws IllegalArgumentException si el valor no es un entero
+     */
+    private Integer parametroEntero(HttpExchange peticion, String nombre) {
+        String valor = parametro(peticion, nombre);
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("Parametro '" + nombre + "' invalido: " + valor);
+        }
+    }
+
+    /**
+     * Envuelve un handler para que solo acepte el metodo GET y para que cualquier error
+     * se responda con un 500 en lugar de cerrar la conexion sin respuesta
+     */
+    private HttpHandler soloGet(HttpHandler handler) {
+        return peticion -> {
+            try {
+                if (!"GET".equals(peticion.getRequestMethod())) {
+                    responder(peticion, 405, formatter.darFormatoError("Metodo no permitido"));
+                    return;
+                }
+                handler.handle(peticion);
+            } catch (RuntimeException exception) {
+                if (peticion.getResponseCode() == -1) {
+                    responder(peticion, 500, formatter.darFormatoError(String.valueOf(exception.getMessage())));
+                }
+            } finally {
+                peticion.close();
+            }
+        };
+    }
+
+    /**
+     * Envia la respuesta JSON con el codigo de estado HTTP indicado
+     */
+    private static void responder(HttpExchange peticion, int codigo, String json) {
+        byte[] cuerpo = json.getBytes(UTF_8);
+        try {
+            peticion.getResponseHeaders().set("Content-Type", TIPO_JSON);
+            peticion.sendResponseHeaders(codigo, cuerpo.length);
+            try (OutputStream salida = peticion.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Crea el pool acotado de hilos que atiende las peticiones
+     */
+    private static ExecutorService crearPool(int numeroHilos) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarea -> {
+            Thread hilo = new Thread(tarea, "servidor-vendedores-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        return new ThreadPoolExecutor(numeroHilos, numeroHilos, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(numeroHilos * PETICIONES_EN_ESPERA_POR_HILO),
+                fabrica, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
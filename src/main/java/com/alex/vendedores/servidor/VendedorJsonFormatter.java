@@ -0,0 +1,110 @@
+package com.alex.vendedores.servidor;
+
+import com.alex.vendedores.dominio.ReporteEdadPromedioPorZona;
+import com.alex.vendedores.dominio.Vendedor;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Clase para dar formato JSON a los objetos Vendedor y a los reportes
+ *
+ * @author Alex Angulo
+ */
+public class VendedorJsonFormatter {
+
+    /**
+     * Da formato JSON a un objeto Vendedor
+     *
+     * @param vendedor el vendedor
+     * @return un objeto JSON con el id, nombre, fecha de nacimiento (ISO-8601), estado y edad
+     */
+    public String darFormato(Vendedor vendedor) {
+        StringBuilder json = new StringBuilder(96);
+        agregar(json, vendedor);
+        return json.toString();
+    }
+
+    /**
+     * Da formato JSON a una coleccion de objetos Vendedor
+     *
+     * @param vendedores los vendedores
+     * @return un arreglo JSON con un objeto por cada vendedor, en el orden de la coleccion
+     */
+    public String darFormato(Collection<Vendedor> vendedores) {
+        StringBuilder json = new StringBuilder(vendedores.size() * 96 + 2).append('[');
+        String separador = "";
+        for (Vendedor vendedor : vendedores) {
+            json.append(separador);
+            agregar(json, vendedor);
+            separador = ",";
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Da formato JSON al reporte de edad promedio por zona
+     *
+     * @param reporte el reporte
+     * @return un objeto JSON cuyas llaves son los estados y sus valores la edad promedio
+     */
+    public String darFormato(ReporteEdadPromedioPorZona reporte) {
+        StringBuilder json = new StringBuilder().append('{');
+        String separador = "";
+        for (Map.Entry<String, Double> zona : reporte.datos()) {
+            json.append(separador);
+            cadena(json, zona.getKey());
+            json.append(':').append(String.format(Locale.ROOT, "%.2f", zona.getValue()));
+            separador = ",";
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Da formato JSON a un mensaje de error
+     *
+     * @param mensaje el mensaje de error
+     * @return un objeto JSON con el mensaje en la llave 'error'
+     */
+    public String darFormatoError(String mensaje) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        cadena(json, mensaje);
+        return json.append('}').toString();
+    }
+
+    /**
+     * Agrega el objeto JSON de un vendedor, sin crear cadenas intermedias
+     *
+     * @param json el StringBuilder donde se agrega el objeto
+     * @param vendedor el vendedor
+     */
+    public void agregar(StringBuilder json, Vendedor vendedor) {
+        json.append("{\"id\":").append(vendedor.getId()).append(",\"nombre\":");
+        cadena(json, vendedor.getNombre());
+        json.append(",\"fechaDeNacimiento\":\"").append(vendedor.getFechaDeNacimiento()).append("\",\"estado\":");
+        cadena(json, vendedor.getEstado());
+        json.append(",\"edad\":").append(vendedor.getEdad()).append('}');
+    }
+
+    /**
+     * Agrega una cadena JSON, escapando las comillas, las diagonales invertidas y los caracteres de control
+     *
+     * @param json el StringBuilder donde se agrega la cadena
+     * @param valor la cadena
+     */
+    public void cadena(StringBuilder json, String valor) {
+        json.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char caracter = valor.charAt(i);
+            if (caracter == '"' || caracter == '\\') {
+                json.append('\\').append(caracter);
+            } else if (caracter < 0x20) {
+                json.append(String.format("\\u%04x", (int) caracter));
+            } else {
+                json.append(caracter);
+            }
+        }
+        json.append('"');
+    }
+}